@@ -0,0 +1,129 @@
+package com.scitequest.martin.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.scitequest.martin.Const;
+import com.scitequest.martin.Control;
+import com.scitequest.martin.export.Data;
+import com.scitequest.martin.export.DataStatistics;
+import com.scitequest.martin.export.Datapoint;
+import com.scitequest.martin.export.JsonParseException;
+import com.scitequest.martin.export.Measurepoint;
+import com.scitequest.martin.export.Parameters;
+
+import ij.ImagePlus;
+import net.imagej.ImageJ;
+import net.imagej.patcher.LegacyInjector;
+
+/**
+ * Benchmarks processing and serializing the measured data of the test images.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DataBenchmark {
+
+    static {
+        LegacyInjector.preinit();
+    }
+
+    @Param
+    public SlideImage image;
+
+    private List<Measurepoint> measurepoints;
+    private Parameters parameters;
+    private Data data;
+    private String dataTsv;
+    private String dataJson;
+    private String parametersJson;
+    private final WritableByteChannel discard =
+            Channels.newChannel(OutputStream.nullOutputStream());
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, JsonParseException {
+        ImageJ ij = new ImageJ();
+        try {
+            ImagePlus iPlus = image.open();
+            Control control = image.createControl(ij, iPlus);
+            control.measureFieldFit();
+            parameters = control.getMeasurementParameters();
+            data = Control.doMeasure(iPlus.duplicate(), parameters);
+        } finally {
+            ij.dispose();
+        }
+        measurepoints = data.getValues().stream()
+                .map(Datapoint::getMeasurePoint)
+                .collect(Collectors.toList());
+        dataTsv = data.asTsv();
+        dataJson = Const.mapper.writeValueAsString(data);
+        parametersJson = Const.mapper.writeValueAsString(parameters);
+    }
+
+    @Benchmark
+    public Data fromMeasurepoints() {
+        return Data.fromMeasurepoints(measurepoints);
+    }
+
+    @Benchmark
+    public DataStatistics analyze() {
+        return DataStatistics.analyze(data);
+    }
+
+    @Benchmark
+    public String dataAsTsv() {
+        return data.asTsv();
+    }
+
+    @Benchmark
+    public void dataWriteTsv() throws IOException {
+        data.writeTsv(discard);
+    }
+
+    @Benchmark
+    public Data dataFromTsv() {
+        return Data.fromTsv(dataTsv);
+    }
+
+    @Benchmark
+    public String dataToJson() throws JsonProcessingException {
+        return Const.mapper.writeValueAsString(data);
+    }
+
+    @Benchmark
+    public Data dataFromJson() throws JsonProcessingException {
+        return Const.mapper.readValue(dataJson, Data.class);
+    }
+
+    @Benchmark
+    public String parametersToJson() throws JsonProcessingException {
+        return Const.mapper.writeValueAsString(parameters);
+    }
+
+    @Benchmark
+    public Parameters parametersFromJson() throws JsonProcessingException {
+        return Const.mapper.readValue(parametersJson, Parameters.class);
+    }
+}
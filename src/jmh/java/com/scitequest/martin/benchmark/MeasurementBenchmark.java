@@ -0,0 +1,92 @@
+package com.scitequest.martin.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.scitequest.martin.Control;
+import com.scitequest.martin.export.Data;
+import com.scitequest.martin.export.JsonParseException;
+import com.scitequest.martin.export.Parameters;
+import com.scitequest.martin.settings.MeasurementSettings.FitAlgorithm;
+import com.scitequest.martin.settings.Settings;
+
+import ij.ImagePlus;
+import net.imagej.ImageJ;
+import net.imagej.patcher.LegacyInjector;
+
+/**
+ * Benchmarks fitting the measure fields and measuring the spots of the test
+ * images.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MeasurementBenchmark {
+
+    static {
+        LegacyInjector.preinit();
+    }
+
+    @Param
+    public SlideImage image;
+
+    @Param
+    public FitAlgorithm fitAlgorithm;
+
+    private ImageJ ij;
+    private ImagePlus iPlus;
+    private Control control;
+    private Parameters parameters;
+    /** The image measured by the next invocation, since measuring modifies it. */
+    private ImagePlus measuredImage;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, JsonParseException {
+        ij = new ImageJ();
+        iPlus = image.open();
+        Settings settings = Settings.defaultSettings();
+        settings.getMeasurementSettings().setFitAlgorithm(fitAlgorithm);
+        control = image.createControl(ij, iPlus, settings);
+        control.measureFieldFit();
+        parameters = control.getMeasurementParameters();
+    }
+
+    @Setup(Level.Invocation)
+    public void prepareInvocation() {
+        measuredImage = iPlus.duplicate();
+        image.place(control);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ij.dispose();
+    }
+
+    @Benchmark
+    public Data doMeasure() {
+        return Control.doMeasure(measuredImage, parameters);
+    }
+
+    @Benchmark
+    public Control measureFieldFit() {
+        control.measureFieldFit();
+        return control;
+    }
+}
@@ -0,0 +1,92 @@
+package com.scitequest.martin.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import com.scitequest.martin.Control;
+import com.scitequest.martin.export.JsonParseException;
+import com.scitequest.martin.settings.Settings;
+
+import ij.IJ;
+import ij.ImagePlus;
+import net.imagej.ImageJ;
+
+/**
+ * The test images with their masks and slide placements as used by the
+ * integration tests.
+ */
+public enum SlideImage {
+    KCNA2_FM_B6("src/test/resources/img/BS6 - 60sec - B - 1.tif",
+            "src/test/resources/kcna2_fm_b6_mask.json", 21, 43, 0.842),
+    KCNA2_FP_31S("src/test/resources/img/KCNA2 - fp - 31s - 30sec - B - 4.tif",
+            "src/test/resources/kcna2_fp_31s_mask.json", 80, 24, 0.129),
+    SYNI_SM67("src/test/resources/img/SYNI - SM67 - 60sec - A - 2.tif",
+            "src/test/resources/syni_sm67_mask.json", 32, 54, 0.78);
+
+    private final String imagePath;
+    private final String maskPath;
+    private final int x;
+    private final int y;
+    private final double rotation;
+
+    SlideImage(String imagePath, String maskPath, int x, int y, double rotation) {
+        this.imagePath = imagePath;
+        this.maskPath = maskPath;
+        this.x = x;
+        this.y = y;
+        this.rotation = rotation;
+    }
+
+    /**
+     * Open the image.
+     *
+     * @return the image
+     */
+    public ImagePlus open() {
+        return IJ.openImage(imagePath);
+    }
+
+    /**
+     * Create a headless control with the mask of the image active.
+     *
+     * @param ij    the ImageJ handle
+     * @param iPlus the opened image
+     * @return the control
+     * @throws IOException        if the mask could not be read
+     * @throws JsonParseException if the mask is invalid
+     */
+    public Control createControl(ImageJ ij, ImagePlus iPlus)
+            throws IOException, JsonParseException {
+        return createControl(ij, iPlus, Settings.defaultSettings());
+    }
+
+    /**
+     * Create a headless control with the given settings and the mask of the
+     * image active.
+     *
+     * @param ij       the ImageJ handle
+     * @param iPlus    the opened image
+     * @param settings the settings to use
+     * @return the control
+     * @throws IOException        if the mask could not be read
+     * @throws JsonParseException if the mask is invalid
+     */
+    public Control createControl(ImageJ ij, ImagePlus iPlus, Settings settings)
+            throws IOException, JsonParseException {
+        Control control = Control.headless(ij, iPlus, settings);
+        control.setActiveMask(Paths.get(maskPath));
+        place(control);
+        return control;
+    }
+
+    /**
+     * Move the slide to its initial placement before fitting.
+     *
+     * @param control the control of the image
+     */
+    public void place(Control control) {
+        control.repositionSlide();
+        control.moveSlide(x, y);
+        control.rotateSlide(rotation);
+    }
+}
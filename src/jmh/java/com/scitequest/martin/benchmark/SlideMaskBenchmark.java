@@ -0,0 +1,113 @@
+package com.scitequest.martin.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.scitequest.martin.Control;
+import com.scitequest.martin.SyntheticSlide;
+import com.scitequest.martin.export.JsonParseException;
+import com.scitequest.martin.export.Parameters;
+import com.scitequest.martin.settings.MaskExt;
+import com.scitequest.martin.settings.Settings;
+
+import ij.ImagePlus;
+import ij.process.ByteProcessor;
+import net.imagej.ImageJ;
+import net.imagej.patcher.LegacyInjector;
+
+/**
+ * Benchmarks placing and clicking on large slide masks, independent of any
+ * image.
+ *
+ * Run with {@code -prof gc} to compare the memory allocated per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SlideMaskBenchmark {
+
+    static {
+        LegacyInjector.preinit();
+    }
+
+    /** The number of spots relative to the SYNI test mask. */
+    @Param({ "1", "100", "1000" })
+    public int scale;
+
+    private ImageJ ij;
+    private Control control;
+    private int step;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, JsonParseException {
+        ij = new ImageJ();
+        MaskExt mask = Settings.defaultSettings().getMaskSettings()
+                .importMask(Paths.get("src/test/resources/syni_sm67_mask.json"));
+        if (scale == 100) {
+            mask = SyntheticSlide.tiledMask(mask, 20, 10);
+        } else if (scale == 1000) {
+            mask = SyntheticSlide.tiledMask(mask, 50, 40);
+        }
+        ImagePlus iPlus = new ImagePlus("empty", new ByteProcessor(1, 1));
+        control = Control.headless(ij, iPlus, SyntheticSlide.settingsWithMask(mask));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ij.dispose();
+    }
+
+    @Benchmark
+    public Control moveSlide() {
+        step++;
+        control.moveSlide(step % 2, step % 3);
+        return control;
+    }
+
+    @Benchmark
+    public Control rotateSlide() {
+        step++;
+        control.rotateSlide(step % 2 * 0.5);
+        return control;
+    }
+
+    @Benchmark
+    public Parameters moveSlideAndGetParameters() {
+        step++;
+        control.moveSlide(step % 2, step % 3);
+        return control.getMeasurementParameters();
+    }
+
+    @Benchmark
+    public Control clickAndRelease() {
+        step++;
+        control.updateClickedMeasureCircles(step % 500, step % 300);
+        control.updateClickedRectPolygons(step % 500, step % 300);
+        control.releaseMouseGrip();
+        return control;
+    }
+
+    @Benchmark
+    public Control repositionSlide() {
+        control.repositionSlide();
+        return control;
+    }
+}
@@ -0,0 +1,112 @@
+package com.scitequest.martin.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.scitequest.martin.Control;
+import com.scitequest.martin.SyntheticSlide;
+import com.scitequest.martin.export.Data;
+import com.scitequest.martin.export.JsonParseException;
+import com.scitequest.martin.export.Parameters;
+import com.scitequest.martin.settings.MaskExt;
+import com.scitequest.martin.settings.Settings;
+
+import ij.ImagePlus;
+import net.imagej.ImageJ;
+import net.imagej.patcher.LegacyInjector;
+
+/**
+ * Benchmarks fitting and measuring synthetic slides with multiples of the spots
+ * of the test images.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SyntheticSlideBenchmark {
+
+    static {
+        LegacyInjector.preinit();
+    }
+
+    private static final int X = 20;
+    private static final int Y = 30;
+    private static final double ROTATION = 0.3;
+
+    /** The number of spots relative to the SYNI test image. */
+    @Param({ "1", "10", "100" })
+    public int scale;
+
+    @Param({ "8", "16", "32" })
+    public int bitDepth;
+
+    private ImageJ ij;
+    private ImagePlus iPlus;
+    private Control control;
+    private Parameters parameters;
+    private ImagePlus measuredImage;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, JsonParseException {
+        ij = new ImageJ();
+        MaskExt mask = Settings.defaultSettings().getMaskSettings()
+                .importMask(Paths.get("src/test/resources/syni_sm67_mask.json"));
+        if (scale == 10) {
+            mask = SyntheticSlide.tiledMask(mask, 5, 4);
+        } else if (scale == 100) {
+            mask = SyntheticSlide.tiledMask(mask, 20, 10);
+        }
+        SyntheticSlide synthetic = SyntheticSlide.generate(mask, X, Y, ROTATION,
+                SyntheticSlide.Options.defaults().withBitDepth(bitDepth));
+        iPlus = synthetic.getImage();
+        control = Control.headless(ij, iPlus, synthetic.getSettings());
+        place();
+        control.measureFieldFit();
+        parameters = control.getMeasurementParameters();
+    }
+
+    private void place() {
+        control.repositionSlide();
+        control.moveSlide(X, Y);
+        control.rotateSlide(ROTATION);
+    }
+
+    @Setup(Level.Invocation)
+    public void prepareInvocation() {
+        measuredImage = iPlus.duplicate();
+        place();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ij.dispose();
+    }
+
+    @Benchmark
+    public Data doMeasure() {
+        return Control.doMeasure(measuredImage, parameters);
+    }
+
+    @Benchmark
+    public Control measureFieldFit() {
+        control.measureFieldFit();
+        return control;
+    }
+}
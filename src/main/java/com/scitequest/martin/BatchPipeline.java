@@ -0,0 +1,187 @@
+package com.scitequest.martin;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs jobs through a sequence of stages, each with its own worker threads.
+ *
+ * While one job is in a stage, other jobs can be in the other stages, so e.g.
+ * reading an image from disk overlaps with measuring another one. The number of
+ * jobs inside the pipeline is limited, submitting a job blocks until a job has
+ * left the pipeline. This bounds the memory used by the (potentially large)
+ * intermediate results.
+ *
+ * If a stage fails, the job is not passed on to the following stages.
+ *
+ * @param <T> the type of the jobs
+ */
+public final class BatchPipeline<T> implements AutoCloseable {
+
+    /** The logger for this class. */
+    private static final Logger log = Logger.getLogger("com.scitequest.martin.BatchPipeline");
+
+    /**
+     * A single processing step of a job.
+     *
+     * @param <T> the type of the jobs
+     */
+    @FunctionalInterface
+    public interface Stage<T> {
+        /**
+         * Process the job.
+         *
+         * @param job the job
+         * @throws Exception if the job could not be processed
+         */
+        void process(T job) throws Exception;
+    }
+
+    /** The stages in processing order. */
+    private final List<Stage<T>> stages = new ArrayList<>();
+    /** The workers of each stage. */
+    private final List<ExecutorService> executors = new ArrayList<>();
+    /** The permits of the jobs allowed inside the pipeline. */
+    private final Semaphore inFlight;
+    /** The maximum number of jobs inside the pipeline. */
+    private final int maxInFlight;
+
+    private BatchPipeline(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+    }
+
+    /**
+     * Create a new pipeline without any stages.
+     *
+     * @param <T>         the type of the jobs
+     * @param maxInFlight the maximum number of jobs inside the pipeline
+     * @return the pipeline
+     * @throws IllegalArgumentException if the maximum number of jobs is not
+     *                                  positive
+     */
+    public static <T> BatchPipeline<T> of(int maxInFlight) throws IllegalArgumentException {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("Number of jobs in flight must be positive");
+        }
+        return new BatchPipeline<>(maxInFlight);
+    }
+
+    /**
+     * Append a stage to the pipeline.
+     *
+     * Stages must be added before the first job is submitted.
+     *
+     * @param name    the name of the stage used for the worker threads
+     * @param threads the number of worker threads of the stage
+     * @param stage   the stage
+     * @return this pipeline
+     * @throws IllegalArgumentException if the number of threads is not positive
+     */
+    public BatchPipeline<T> addStage(String name, int threads, Stage<T> stage)
+            throws IllegalArgumentException {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Number of threads must be positive");
+        }
+        // There are never more tasks than jobs in flight, so the queue never overflows
+        ExecutorService executor = new ThreadPoolExecutor(threads, threads,
+                0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(maxInFlight),
+                namedThreadFactory("martin-" + name));
+        stages.add(stage);
+        executors.add(executor);
+        return this;
+    }
+
+    /**
+     * Submit a job to the pipeline.
+     *
+     * Blocks while the maximum number of jobs is inside the pipeline.
+     *
+     * @param job the job
+     * @return a future completed with true if all stages succeeded
+     * @throws InterruptedException if interrupted while waiting for a free slot
+     */
+    public CompletableFuture<Boolean> submit(T job) throws InterruptedException {
+        inFlight.acquire();
+        CompletableFuture<Void> future = CompletableFuture.completedFuture(null);
+        for (int i = 0; i < stages.size(); i++) {
+            Stage<T> stage = stages.get(i);
+            future = future.thenRunAsync(() -> {
+                try {
+                    stage.process(job);
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            }, executors.get(i));
+        }
+        return future.handle((v, e) -> {
+            inFlight.release();
+            if (e != null) {
+                Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+                log.log(Level.SEVERE, String.format("Processing '%s' failed", job), cause);
+                return false;
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Run all jobs through the pipeline and wait for them to finish.
+     *
+     * The jobs are taken from the iterable only once there is room in the
+     * pipeline, so they can be created lazily.
+     *
+     * @param jobs the jobs
+     * @return the number of failed jobs
+     * @throws InterruptedException if interrupted while waiting for the jobs
+     */
+    public int run(Iterable<T> jobs) throws InterruptedException {
+        List<CompletableFuture<Boolean>> results = new ArrayList<>();
+        for (T job : jobs) {
+            results.add(submit(job));
+        }
+        int failed = 0;
+        for (CompletableFuture<Boolean> result : results) {
+            if (!result.join()) {
+                failed++;
+            }
+        }
+        return failed;
+    }
+
+    /**
+     * Stop the workers after all submitted jobs have been processed.
+     */
+    @Override
+    public void close() {
+        try {
+            // All permits are available once every job has left the pipeline
+            inFlight.acquire(maxInFlight);
+            inFlight.release(maxInFlight);
+            executors.forEach(ExecutorService::shutdown);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executors.forEach(ExecutorService::shutdownNow);
+        }
+    }
+
+    private static ThreadFactory namedThreadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -7,9 +7,11 @@ import static java.time.temporal.ChronoField.SECOND_OF_MINUTE;
 import java.awt.Color;
 import java.awt.FileDialog;
 import java.awt.Frame;
-import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -21,28 +23,36 @@ import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeFormatterBuilder;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.logging.FileHandler;
 import java.util.logging.Handler;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.logging.SimpleFormatter;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import javax.imageio.ImageIO;
 import javax.imageio.ImageReader;
 import javax.imageio.metadata.IIOMetadata;
 import javax.imageio.stream.ImageInputStream;
-import javax.json.Json;
-import javax.json.JsonObject;
-import javax.json.JsonWriter;
-import javax.json.JsonWriterFactory;
-import javax.json.stream.JsonGenerator;
 import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
 
 import org.scijava.log.LogService;
 import org.scijava.plugin.Parameter;
@@ -51,8 +61,9 @@ import org.scijava.ui.UIService;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.formdev.flatlaf.FlatLaf;
-import com.scitequest.martin.export.Circle;
+import com.scitequest.martin.export.BinaryData;
 import com.scitequest.martin.export.Data;
 import com.scitequest.martin.export.DataStatistics;
 import com.scitequest.martin.export.Geometry;
@@ -61,9 +72,12 @@ import com.scitequest.martin.export.Measurepoint;
 import com.scitequest.martin.export.Metadata;
 import com.scitequest.martin.export.Parameters;
 import com.scitequest.martin.export.Polygon;
+import com.scitequest.martin.export.ResultsStore;
+import com.scitequest.martin.export.TsvExportable;
 import com.scitequest.martin.settings.ExportSettings;
 import com.scitequest.martin.settings.MaskExt;
 import com.scitequest.martin.settings.MaskSettings;
+import com.scitequest.martin.settings.MeasurementSettings.FitAlgorithm;
 import com.scitequest.martin.settings.ProjectExt;
 import com.scitequest.martin.settings.ProjectSettings;
 import com.scitequest.martin.settings.Settings;
@@ -75,13 +89,13 @@ import com.scitequest.martin.view.GuiUtils;
 import com.scitequest.martin.view.IntegrityCheckResult;
 import com.scitequest.martin.view.IntegrityCheckResult.IntegrityCheckContext;
 import com.scitequest.martin.view.IntegrityCheckResult.IntegrityCheckError;
+import com.scitequest.martin.view.OverlayPen;
 import com.scitequest.martin.view.ProcessorPen;
 import com.scitequest.martin.view.SettingsGui;
 import com.scitequest.martin.view.View;
 
 import ij.IJ;
 import ij.ImagePlus;
-import ij.gui.OvalRoi;
 import ij.gui.PolygonRoi;
 import ij.gui.Roi;
 import ij.gui.StackWindow;
@@ -110,6 +124,29 @@ public final class Control implements Controlable {
     /** The logger for this class. */
     private static final Logger log = Logger.getLogger("com.scitequest.martin.Control");
 
+    /** The file marking a measurement folder whose export failed or was cancelled. */
+    public static final String INCOMPLETE_MARKER = "export_incomplete.txt";
+
+    /** The maximum number of files written concurrently by all exports. */
+    private static final int EXPORT_THREADS = 8;
+
+    /**
+     * The executor writing the files of exports. The threads mostly wait for the
+     * file system, so there may be more of them than processors.
+     */
+    private static final ExecutorService EXPORT_EXECUTOR = Executors.newFixedThreadPool(
+            EXPORT_THREADS, new ThreadFactory() {
+                private final AtomicInteger counter = new AtomicInteger();
+
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable,
+                            "martin-export-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+
     /** Stores how the plugin is currently run. */
     private final RunType runType;
 
@@ -154,6 +191,40 @@ public final class Control implements Controlable {
      */
     private boolean isFilterEnabled = false;
 
+    /**
+     * The unfiltered copy of the current image shown in the view, created when
+     * first needed.
+     */
+    private Optional<ImagePlus> displayImage = Optional.empty();
+
+    /**
+     * The adaptively filtered copy of the current image shown in the view. It is
+     * computed in the background the first time the filter is enabled and kept
+     * until another image is opened.
+     */
+    private Optional<CompletableFuture<ImagePlus>> filteredDisplayImage = Optional.empty();
+
+    /**
+     * The monitor of the task currently running in the background, if any. The
+     * mask is locked against changes while a task is running.
+     *
+     * Only accessed on the event dispatch thread.
+     */
+    private Optional<TaskMonitor> runningTask = Optional.empty();
+
+    /**
+     * The thread long running tasks of the user are run on, created when first
+     * needed.
+     */
+    private ExecutorService taskExecutor;
+
+    /**
+     * The thread the adaptive filter is computed on, created when first needed.
+     * Separate from the task thread so the filter neither waits for nor delays a
+     * task.
+     */
+    private ExecutorService filterExecutor;
+
     /**
      * Create the control instance.
      *
@@ -249,6 +320,27 @@ public final class Control implements Controlable {
         return new Control(RunType.HEADLESS, ij, Optional.of(iPlus), settings);
     }
 
+    /**
+     * Create the control running in headless mode with already loaded settings.
+     *
+     * In headless mode no GUI is created. The settings are not saved and can
+     * therefore be adjusted freely beforehand, e.g. to activate a specific mask.
+     *
+     * @param ij       the ImageJ handle
+     * @param iPlus    the image to process
+     * @param settings the settings to use
+     * @return the new control
+     * @throws IOException       if the log file could not be created
+     * @throws SecurityException if the logging file handler could not be created
+     *                           because the caller has not
+     *                           LoggingPermission("control")
+     */
+    public static Control headless(ImageJ ij, ImagePlus iPlus, Settings settings)
+            throws SecurityException, IOException {
+        setupLogging(ij.log());
+        return new Control(RunType.HEADLESS, ij, Optional.of(iPlus), settings);
+    }
+
     /**
      * Create the control running in standalone mode.
      *
@@ -281,7 +373,8 @@ public final class Control implements Controlable {
         }, () -> ij.dispose());
     }
 
-    private static void setupLogging(LogService logService) throws SecurityException, IOException {
+    private static synchronized void setupLogging(LogService logService)
+            throws SecurityException, IOException {
         // Only setup our logging if it hasn't been already
         boolean isLoggingAlreadyConfigured = MARTIN_LOGGER.getHandlers().length != 0;
         if (!isLoggingAlreadyConfigured) {
@@ -372,6 +465,9 @@ public final class Control implements Controlable {
      */
     @Override
     public void moveSlide(int x, int y) {
+        if (isMaskLocked()) {
+            return;
+        }
         int deltaX = x - slide.getAbsoluteX();
         int deltaY = y - slide.getAbsoluteY();
         log.config("Manually moved slide in direction: x = " + deltaX + " y = " + deltaY);
@@ -382,6 +478,9 @@ public final class Control implements Controlable {
     /** Digital rotation by {@code rotationSpinner}. */
     @Override
     public void rotateSlide(double angle) {
+        if (isMaskLocked()) {
+            return;
+        }
         slide.rotateSlide(angle - slide.getAbsoluteRotation(), 0, 0, 0, 0, false);
         update(); // gCanvas.repaint();
     }
@@ -389,6 +488,9 @@ public final class Control implements Controlable {
     /** Analog rotation of slide mask via click-and-drag. */
     @Override
     public void rotateSlideViaMouse(int x, int y, int lastX, int lastY) {
+        if (isMaskLocked()) {
+            return;
+        }
         slide.rotateSlide(0, x, y, lastX, lastY, false);
         update();
     }
@@ -408,6 +510,16 @@ public final class Control implements Controlable {
         return slide.getAbsoluteY();
     }
 
+    @Override
+    public long getSlideDrawRevision() {
+        return slide.getDrawRevision();
+    }
+
+    @Override
+    public Point getSlideTranslation() {
+        return slide.getTranslation();
+    }
+
     /**
      * Checks if a click was made on any of the measure fields. By releasing the
      * mouse this effect is reverted via the method releaseMouseGrip.
@@ -440,6 +552,9 @@ public final class Control implements Controlable {
     @Override
     public boolean moveGrabbedElement(int x, int y, int lastX, int lastY,
             int distanceX, int distanceY, boolean reposition) {
+        if (isMaskLocked()) {
+            return false;
+        }
         boolean hasMoved = slide.moveGrabbedElement(x, y, lastX, lastY,
                 distanceX, distanceY, reposition);
         update();
@@ -460,20 +575,63 @@ public final class Control implements Controlable {
      * Initiates the fitting algorithm. This effectively positions all measureFields
      * to the highest signal in their immediate neighbourhood i.E. within their
      * respective spotField cell.
+     *
+     * The search runs in the background, the measureFields are moved once all of
+     * them have been fitted.
      */
     @Override
     public void measureFieldFit() {
+        if (isMaskLocked()) {
+            return;
+        }
         log.config("Initiated fitting algorithm");
         // Guard against empty image
-        ensureImageOpen();
+        ImagePlus original = ensureImageOpen();
+        boolean invertLut = settings.getMeasurementSettings().isInvertLut();
+        FitCells cells = collectFitCells();
+        FitAlgorithm fitAlgorithm = settings.getMeasurementSettings().getFitAlgorithm();
+
+        runTask(Const.bundle.getString("control.task.autofit.text"), monitor -> {
+            // Build the lookup table once, every candidate position is evaluated on it
+            IntegralImage integralImage = fitIntegralImage(original, invertLut);
+            return searchFitPositions(cells, integralImage, fitAlgorithm, monitor);
+        }, maxPositions -> {
+            // Relocates the measureFields to the highest value positions
+            for (int i = 0; i < cells.fittedElements.size(); i++) {
+                cells.fittedElements.get(i).moveToCenter(maxPositions.get(i));
+            }
+            update();
+        });
+    }
 
-        // Copies the image and makes sure its LUT is the same as the original image.
-        ImagePlus iPlus = this.imagePlus.get().duplicate();
-        if (settings.getMeasurementSettings().isInvertLut()) {
-            setBlackValueHigh(iPlus);
-        }
-        ImageProcessor iProc = iPlus.getProcessor();
+    /**
+     * Searches the best position of every measure field with the given algorithm
+     * and returns the mean the autofit maximizes at each position found. The
+     * measure fields are not moved.
+     *
+     * Only used for tests comparing the fit algorithms.
+     *
+     * @param fitAlgorithm the algorithm to search with
+     * @return the score of every measure field in the order of the measurement
+     */
+    double[] measureFieldFitScores(FitAlgorithm fitAlgorithm) {
+        FitCells cells = collectFitCells();
+        IntegralImage integralImage = fitIntegralImage(ensureImageOpen(),
+                settings.getMeasurementSettings().isInvertLut());
+        List<Point> positions = searchFitPositions(cells, integralImage, fitAlgorithm,
+                TaskMonitor.none());
+        return positions.stream()
+                .mapToDouble(p -> integralImage.mean(cells.scanKernel,
+                        (int) (p.x - cells.hWidth), (int) (p.y - cells.hHeight)))
+                .toArray();
+    }
 
+    /**
+     * Collects the cells of all spotfields the measure fields are fitted in.
+     *
+     * @return the cells
+     */
+    private FitCells collectFitCells() {
         // Effectively defines the bounds the measureFields are allowed to be moved in
         // this algorithm.
         ArrayList<PolyGrid> spotFields = slide.getSpotFields();
@@ -512,8 +670,12 @@ public final class Control implements Controlable {
         int lastIdx = settings.getMaskSettings().getLastMeasurePointIndex();
         int nCols = spotFields.get(0).getColumns();
 
-        // For all spotfields for each row and col search the highest value position of
-        // the corresponding measureField.
+        IntegralImage.Kernel scanKernel = SearchArea.createScanKernel(measureGridElement, radius);
+
+        // Collect the cells of all spotfields first. Each cell is fitted independently
+        // and only reads the integral image, so they can be searched concurrently.
+        List<PolyShape> fittedElements = new ArrayList<>();
+        List<PolyShape> searchPerimeters = new ArrayList<>();
         for (int field = 0; field < measureFields.size(); field++) {
             for (int row = 0; row < spotFields.get(field).getRows(); row++) {
                 for (int col = 0; col < nCols; col++) {
@@ -521,23 +683,70 @@ public final class Control implements Controlable {
                         row = spotFields.get(field).getRows();
                         break;
                     }
+                    PolyShape measureElement = measureFields.get(field).getGridElement(row, col);
                     // Boundaries the fitting takes place.
-                    PolyShape searchPerimeter = spotFields.get(field).getGridElement(row, col)
-                            .shrinkByShape(measureFields.get(field).getGridElement(row, col));
-
-                    SearchArea searchArea = SearchArea.of(this, iPlus, searchPerimeter, measureGridElement, radius,
-                            hWidth, hHeight, widthRatio, heightRatio);
-
-                    // Calculates the center of the highest value position
-                    Point maxPos = searchArea.searchForAbsoluteMax();
-                    // Relocates the measureField to the highest value position
-                    measureFields.get(field).getGridElement(row, col).moveToCenter(maxPos);
+                    searchPerimeters.add(spotFields.get(field).getGridElement(row, col)
+                            .shrinkByShape(measureElement));
+                    fittedElements.add(measureElement);
                 }
             }
-            measureFields.get(field).calculateGridOrbits(slide.getrCenter());
         }
-        iProc.resetRoi();
-        update();
+        return new FitCells(measureGridElement, radius, hWidth, hHeight, widthRatio,
+                heightRatio, scanKernel, fittedElements, searchPerimeters);
+    }
+
+    /**
+     * Builds the summed-area table of the image the autofit searches.
+     *
+     * @param original  the image, which is not modified
+     * @param invertLut whether to invert the lookup table
+     * @return the summed-area table
+     */
+    private static IntegralImage fitIntegralImage(ImagePlus original, boolean invertLut) {
+        // Copies the image and makes sure its LUT is the same as the original image.
+        ImagePlus iPlus = original.duplicate();
+        if (invertLut) {
+            setBlackValueHigh(iPlus);
+        }
+        return IntegralImage.of(iPlus);
+    }
+
+    /**
+     * Searches the center of the highest value position of each cell.
+     *
+     * @param cells         the cells to search
+     * @param integralImage the summed-area table of the image
+     * @param fitAlgorithm  the algorithm to search with
+     * @param monitor       receives the progress, checked for cancellation
+     * @return the center of the best position of each cell
+     */
+    private List<Point> searchFitPositions(FitCells cells, IntegralImage integralImage,
+            FitAlgorithm fitAlgorithm, TaskMonitor monitor) {
+        monitor.begin(cells.searchPerimeters.size());
+
+        // Searches the cells on the fork-join pool. The ordered collection keeps
+        // the result independent of the number of threads.
+        return IntStream.range(0, cells.searchPerimeters.size())
+                .parallel()
+                .mapToObj(i -> {
+                    monitor.checkCancelled();
+                    PolyShape searchPerimeter = cells.searchPerimeters.get(i);
+                    Point max;
+                    if (fitAlgorithm == FitAlgorithm.RESPONSE_MAP) {
+                        max = ResponseMap.of(integralImage, cells.scanKernel,
+                                searchPerimeter, cells.hWidth, cells.hHeight)
+                                .searchForAbsoluteMax();
+                    } else {
+                        max = SearchArea.of(this, integralImage, cells.scanKernel,
+                                searchPerimeter, cells.measureGridElement, cells.radius,
+                                cells.hWidth, cells.hHeight, cells.widthRatio,
+                                cells.heightRatio)
+                                .searchForAbsoluteMax();
+                    }
+                    monitor.worked(1);
+                    return max;
+                })
+                .collect(Collectors.toList());
     }
 
     /**
@@ -668,77 +877,42 @@ public final class Control implements Controlable {
     }
 
     /**
-     * Writes a JSON object to the file specified by path.
+     * Streams an object as JSON into the file specified by path.
      *
-     * @param path              the path of the file to create
-     * @param obj               the JSON object
-     * @param jsonWriterFactory the factory to create JSON writers
-     * @return true, if there was an error
+     * @param path   the path of the file to create
+     * @param writer the writer serializing the object
+     * @param obj    the object
+     * @throws IOException if the file could not be written
      */
-    @Deprecated
-    private boolean writeJsonFileDeprecated(Path path, JsonObject obj,
-            JsonWriterFactory jsonWriterFactory) {
+    private static void writeJsonFile(Path path, ObjectWriter writer, Object obj)
+            throws IOException {
         log.config(String.format("Writing JSON file '%s'", path));
-        try (BufferedWriter writer = Files.newBufferedWriter(path,
-                StandardCharsets.UTF_8, StandardOpenOption.CREATE_NEW);
-                JsonWriter jsonWriter = jsonWriterFactory.createWriter(writer)) {
-            jsonWriter.write(obj);
-            return false;
-        } catch (IOException e) {
-            String msg = String.format(Const.bundle.getString("control.exportJSONFileError.text"), path);
-            log.log(Level.SEVERE, msg, e);
-            this.view.ifPresent(
-                    v -> v.showErrorDialog(msg, Const.bundle.getString("control.exportJSONFileError.title")));
-            return true;
+        try (OutputStream out = Files.newOutputStream(path, StandardOpenOption.CREATE_NEW)) {
+            writer.writeValue(out, obj);
         }
     }
 
-    /**
-     * Writes a JSON object to the file specified by path.
-     *
-     * @param path the path of the file to create
-     * @param obj  the JSON object
-     */
-    private boolean writeJsonFile(Path path, Object obj) {
-        log.config(String.format("Writing JSON file '%s'", path));
-        try {
-            Files.writeString(path, Const.mapper.writeValueAsString(obj), StandardCharsets.UTF_8);
-            return false;
-        } catch (IOException e) {
-            String msg = String.format("Could not export JSON file '%s'", path);
-            log.log(Level.SEVERE, msg, e);
-            this.view.ifPresent(v -> v.showErrorDialog(msg, "Unable to export file"));
-            return true;
+    private static void writeBinaryFile(Path path, Data data, DataStatistics dataStatistics)
+            throws IOException {
+        log.config(String.format("Writing binary data file '%s'", path));
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            BinaryData.write(channel, data, dataStatistics);
         }
     }
 
-    private boolean writeTsvFile(Path path, String content) {
+    private static void writeTsvFile(Path path, TsvExportable content) throws IOException {
         log.config(String.format("Writing TSV file '%s'", path));
-        try {
-            Files.writeString(path, content, StandardCharsets.UTF_8, StandardOpenOption.CREATE_NEW);
-            return false;
-        } catch (IOException e) {
-            String msg = String.format(Const.bundle.getString("control.exportTSVFileError.text"), path);
-            log.log(Level.SEVERE, msg, e);
-            this.view
-                    .ifPresent(v -> v.showErrorDialog(msg, Const.bundle.getString("control.exportTSVFileError.title")));
-            return true;
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            content.writeTsv(channel);
         }
     }
 
-    private boolean writeImageFile(Path path, ImagePlus iPlus) {
+    private void writeImageFile(Path path, ImagePlus iPlus) throws IOException {
         log.config(String.format("Writing image file '%s'", path));
-        try {
-            Dataset dataset = ij.convert().convert(iPlus, Dataset.class);
-            ij.scifio().datasetIO().save(dataset, path.toString());
-            return false;
-        } catch (IOException e) {
-            String msg = String.format(Const.bundle.getString("control.exportImageFileError.text"), path);
-            log.log(Level.SEVERE, msg, e);
-            this.view.ifPresent(
-                    v -> v.showErrorDialog(msg, Const.bundle.getString("control.exportImageFileError.title")));
-            return true;
-        }
+        Dataset dataset = ij.convert().convert(iPlus, Dataset.class);
+        ij.scifio().datasetIO().save(dataset, path.toString());
     }
 
     /**
@@ -756,68 +930,235 @@ public final class Control implements Controlable {
     public boolean exportIntoFolder(Path exportDir,
             Metadata metadata, Parameters parameters,
             Data data, DataStatistics dataStatistics) {
-        ExportSettings exportSettings = settings.getExportSettings();
-        // Write the actual data files
-        var jsonConfig = Map.of(JsonGenerator.PRETTY_PRINTING, true);
-        JsonWriterFactory jsonWriterFactory = Json.createWriterFactory(jsonConfig);
+        return exportIntoFolder(exportDir, metadata, parameters, data, dataStatistics,
+                TaskMonitor.none());
+    }
 
-        // Write the metadata
-        Path metadataPath = exportDir.resolve("metadata.json");
-        if (writeJsonFileDeprecated(metadataPath, metadata.asJson(), jsonWriterFactory)) {
-            return false;
+    /**
+     * Exports all enabled files of a measurements into a given directory,
+     * reporting each written file to the monitor.
+     *
+     * The files are written concurrently. If any of them could not be written,
+     * the first failure is reported to the user, files not started yet are
+     * skipped and the directory is marked as incomplete with the file
+     * {@value #INCOMPLETE_MARKER}. The same happens if the export is cancelled.
+     *
+     * @param exportDir      Directory in which the export will be conducted.
+     * @param metadata       Metadata of the measurement.
+     * @param parameters     Positional metadata of the measurement.
+     * @param data           Raw measure data for each position of the measurement.
+     * @param dataStatistics Aggregated measure data across all spotfields of a
+     *                       measurement.
+     * @param monitor        Receives the progress, checked for cancellation
+     *                       before each file.
+     * @return true if the export has been successful.
+     * @throws CancellationException if the export has been cancelled, the files
+     *                               written so far are kept.
+     */
+    public boolean exportIntoFolder(Path exportDir,
+            Metadata metadata, Parameters parameters,
+            Data data, DataStatistics dataStatistics, TaskMonitor monitor)
+            throws CancellationException {
+        ExportSettings exportSettings = settings.getExportSettings();
+        // The metadata is meant to be read by humans, the data files are compact
+        ObjectWriter prettyJson = Const.mapper.writerWithDefaultPrettyPrinter();
+        ObjectWriter json = Const.mapper.writer();
+
+        // Collect all files to write, each failing with its own message
+        String jsonError = "control.exportJSONFileError";
+        String tsvError = "control.exportTSVFileError";
+        String imageError = "control.exportImageFileError";
+        String binaryError = "control.exportBinaryFileError";
+        List<ExportFile> files = new ArrayList<>();
+        files.add(new ExportFile("metadata.json", jsonError,
+                path -> writeJsonFile(path, prettyJson, metadata)));
+        files.add(new ExportFile("parameters.json", jsonError,
+                path -> writeJsonFile(path, json, parameters)));
+        if (exportSettings.isExportJSON()) {
+            files.add(new ExportFile("data.json", jsonError,
+                    path -> writeJsonFile(path, json, data)));
         }
-        Path parametersPath = exportDir.resolve("parameters.json");
-        if (writeJsonFile(parametersPath, parameters)) {
-            return false;
+        if (exportSettings.isExportTSV()) {
+            files.add(new ExportFile("data.tsv", tsvError,
+                    path -> writeTsvFile(path, data)));
         }
-
-        // Write the data
         if (exportSettings.isExportJSON()) {
-            Path jsonDataPath = exportDir.resolve("data.json");
-            if (writeJsonFile(jsonDataPath, data)) {
-                return false;
-            }
+            files.add(new ExportFile("data_statistics.json", jsonError,
+                    path -> writeJsonFile(path, json, dataStatistics)));
         }
         if (exportSettings.isExportTSV()) {
-            Path tsvDataPath = exportDir.resolve("data.tsv");
-            if (writeTsvFile(tsvDataPath, data.asTsv())) {
-                return false;
-            }
+            files.add(new ExportFile("data_statistics.tsv", tsvError,
+                    path -> writeTsvFile(path, dataStatistics)));
+        }
+        if (exportSettings.isExportBinary()) {
+            files.add(new ExportFile("data.bin", binaryError,
+                    path -> writeBinaryFile(path, data, dataStatistics)));
+        }
+        if (exportSettings.isSaveAnnotatedImage()) {
+            files.add(new ExportFile("annotated_image.tiff", imageError,
+                    path -> writeImageFile(path, generateGridImage())));
+        }
+        if (exportSettings.isSaveWholeImage()) {
+            Path imagePath = getOriginalImagePath();
+            files.add(new ExportFile(exportedImageName(imagePath), imageError,
+                    path -> Files.copy(imagePath, path)));
         }
 
-        // Write the statistics
-        if (exportSettings.isExportJSON()) {
-            Path jsonDataStatisticsPath = exportDir.resolve("data_statistics.json");
-            if (writeJsonFile(jsonDataStatisticsPath, dataStatistics)) {
-                return false;
+        // Issue all writes at once, network shares mostly wait for round-trips
+        monitor.begin(files.size());
+        List<ExportFile> written = Collections.synchronizedList(new ArrayList<>());
+        List<ExportFile> failed = Collections.synchronizedList(new ArrayList<>());
+        CompletableFuture<?>[] writes = files.stream()
+                .map(file -> CompletableFuture.runAsync(() -> {
+                    if (!failed.isEmpty()) {
+                        return;
+                    }
+                    monitor.checkCancelled();
+                    Path path = exportDir.resolve(file.name);
+                    try {
+                        file.writer.write(path);
+                        written.add(file);
+                        monitor.worked(1);
+                    } catch (IOException | RuntimeException e) {
+                        String msg = String.format(
+                                Const.bundle.getString(file.errorKey + ".text"), path);
+                        log.log(Level.SEVERE, msg, e);
+                        failed.add(file);
+                    }
+                }, EXPORT_EXECUTOR))
+                .toArray(CompletableFuture<?>[]::new);
+        try {
+            // Completes only once all writes have completed, even if some failed
+            CompletableFuture.allOf(writes).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof CancellationException) {
+                markIncomplete(exportDir, files, written);
+                throw (CancellationException) e.getCause();
             }
+            throw e;
         }
-        if (exportSettings.isExportTSV()) {
-            Path tsvDataStatisticsPath = exportDir.resolve("data_statistics.tsv");
-            if (writeTsvFile(tsvDataStatisticsPath, dataStatistics.asTsv())) {
-                return false;
-            }
+        if (failed.isEmpty()) {
+            return true;
         }
 
-        if (exportSettings.isSaveAnnotatedImage()) {
-            if (writeImageFile(exportDir.resolve("annotated_image.tiff"), generateGridImage())) {
-                return false;
-            }
+        ExportFile first = failed.get(0);
+        String msg = String.format(Const.bundle.getString(first.errorKey + ".text"),
+                exportDir.resolve(first.name));
+        String title = Const.bundle.getString(first.errorKey + ".title");
+        view.ifPresent(v -> SwingUtilities.invokeLater(() -> v.showErrorDialog(msg, title)));
+        markIncomplete(exportDir, files, written);
+        return false;
+    }
+
+    private Path getOriginalImagePath() {
+        return Paths.get(ensureImageOpen().getOriginalFileInfo().getFilePath());
+    }
+
+    /**
+     * Get the name the original image is exported as, keeping its extension.
+     *
+     * @param imagePath the path of the original image
+     * @return the file name, e.g. {@code image.tif}
+     */
+    private static String exportedImageName(Path imagePath) {
+        return exportedImageName(Optional.ofNullable(imagePath.getFileName())
+                .map(f -> f.toString())
+                .orElse(""));
+    }
+
+    /**
+     * Get the name an image is exported as, keeping only the extension of the
+     * given name. The name may be read from a file, so anything but a plain
+     * extension is dropped and the result never leaves its directory.
+     *
+     * @param fileName the file name of the image
+     * @return the file name, e.g. {@code image.tif}
+     */
+    private static String exportedImageName(String fileName) {
+        String extension = fileName.substring(Math.max(0, fileName.lastIndexOf('.')));
+        if (!extension.matches("\\.[A-Za-z0-9]+")) {
+            extension = "";
         }
-        if (exportSettings.isSaveWholeImage()) {
-            Path imagePath = Paths.get(imagePlus.get().getOriginalFileInfo().getFilePath());
-            Optional<String> extension = Optional.ofNullable(imagePath.getFileName())
-                    .map(f -> f.toString())
-                    .filter(f -> f.contains("."))
-                    .map(f -> f.substring(f.lastIndexOf(".")));
-            Path storedImageFileName = exportDir.resolve("image" + extension.orElse(""));
-            try {
-                Files.copy(imagePath, storedImageFileName);
-            } catch (IOException e) {
-                return false;
+        return "image" + extension;
+    }
+
+    /**
+     * Appends a measurement as a single record to a results store.
+     *
+     * The original image is stored within the record if the whole image should
+     * be saved, which is required to check the integrity of the record later on.
+     * Failures are reported to the user.
+     *
+     * @param storeDir       Directory of the results store.
+     * @param metadata       Metadata of the measurement.
+     * @param parameters     Positional metadata of the measurement.
+     * @param data           Raw measure data for each position of the measurement.
+     * @param dataStatistics Aggregated measure data across all spotfields of a
+     *                       measurement.
+     * @param monitor        Receives the progress, checked for cancellation
+     *                       before the record is written.
+     * @return the number of the record if it has been appended
+     * @throws CancellationException if the export has been cancelled
+     */
+    private Optional<Integer> appendToResultsStore(Path storeDir,
+            Metadata metadata, Parameters parameters,
+            Data data, DataStatistics dataStatistics, TaskMonitor monitor)
+            throws CancellationException {
+        monitor.begin(1);
+        try {
+            byte[] metadataJson = Const.mapper.writeValueAsBytes(metadata);
+            byte[] parametersJson = Const.mapper.writeValueAsBytes(parameters);
+            ResultsStore.Record record;
+            if (settings.getExportSettings().isSaveWholeImage()) {
+                // The image is copied from its file while appending
+                Path imagePath = getOriginalImagePath();
+                record = ResultsStore.Record.of(metadataJson, parametersJson,
+                        data, dataStatistics, exportedImageName(imagePath), imagePath);
+            } else {
+                record = ResultsStore.Record.of(metadataJson, parametersJson,
+                        data, dataStatistics);
+            }
+
+            monitor.checkCancelled();
+            try (ResultsStore store = ResultsStore.open(storeDir)) {
+                int index = store.append(record);
+                log.config(String.format("Appended record %d to '%s'", index, storeDir));
+                monitor.worked(1);
+                return Optional.of(index);
             }
+        } catch (IOException | IllegalArgumentException e) {
+            String msg = String.format(
+                    Const.bundle.getString("control.storeResultsError.text"), storeDir);
+            String title = Const.bundle.getString("control.storeResultsError.title");
+            log.log(Level.SEVERE, msg, e);
+            view.ifPresent(v -> SwingUtilities.invokeLater(() -> v.showErrorDialog(msg, title)));
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Marks a measurement folder as incomplete after a failed or cancelled export.
+     *
+     * The marker file lists the names of all files missing in the folder, one per
+     * line.
+     *
+     * @param exportDir the measurement folder
+     * @param files     all files that should have been written
+     * @param written   the files that have been written
+     */
+    private static void markIncomplete(Path exportDir, List<ExportFile> files,
+            List<ExportFile> written) {
+        Path marker = exportDir.resolve(INCOMPLETE_MARKER);
+        log.warning(String.format("Marking '%s' as incomplete", exportDir));
+        String content = files.stream()
+                .filter(file -> !written.contains(file))
+                .map(file -> file.name + "\n")
+                .collect(Collectors.joining());
+        try {
+            Files.writeString(marker, content, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            log.log(Level.SEVERE, String.format("Could not write '%s'", marker), e);
         }
-        return true;
     }
 
     /**
@@ -832,8 +1173,9 @@ public final class Control implements Controlable {
      */
     public void export(Metadata metadata, Parameters parameters,
             Data data, DataStatistics dataStatistics) {
-        log.info(String.format("Initiating export of measurements with metadata %s",
-                metadata.asJson()));
+        log.info(String.format("Initiating export of sample '%s' of project '%s'",
+                metadata.getPatient().getId(),
+                metadata.getProject().map(proj -> proj.getName()).orElse("none")));
 
         // Query export directory from user if it set in the settings
         Optional<Path> baseExportDirectory = settings.getExportSettings().getExportDirectory()
@@ -845,7 +1187,56 @@ public final class Control implements Controlable {
             return;
         }
 
+        if (settings.getExportSettings().isStoreResults()) {
+            Path storeDir = resultsStoreDirectory(baseExportDirectory.get(), metadata);
+            runTask(Const.bundle.getString("control.task.export.text"),
+                    monitor -> appendToResultsStore(storeDir, metadata, parameters,
+                            data, dataStatistics, monitor),
+                    record -> {
+                        if (record.isPresent()) {
+                            log.info("Export completed successfully");
+                        } else {
+                            log.warning("Export failed");
+                        }
+                    });
+            return;
+        }
+
         // Create directory for the output files
+        Path exportDir = exportDirectory(baseExportDirectory.get(), metadata);
+        log.config(String.format("Using export directory '%s'", exportDir));
+        try {
+            Files.createDirectories(exportDir);
+        } catch (IOException e) {
+            String msg = String.format(Const.bundle.getString("control.measureExportError.text"), exportDir);
+            log.log(Level.SEVERE, msg, e);
+            this.view.ifPresent(v -> v.showErrorDialog(msg, null));
+            return;
+        }
+
+        runTask(Const.bundle.getString("control.task.export.text"),
+                monitor -> exportIntoFolder(exportDir, metadata, parameters,
+                        data, dataStatistics, monitor),
+                success -> {
+                    if (success) {
+                        log.info("Export completed successfully");
+                    } else {
+                        log.warning("Export failed");
+                    }
+                });
+    }
+
+    /**
+     * Get the directory a measurement is exported into.
+     *
+     * The directory is structured as
+     * {@code <base>/<project>/<date>/<time>-<sample id>}.
+     *
+     * @param baseExportDirectory the base export directory
+     * @param metadata            the metadata of the measurement
+     * @return the export directory of the measurement
+     */
+    public static Path exportDirectory(Path baseExportDirectory, Metadata metadata) {
         DateTimeFormatter localTimeFormatter = new DateTimeFormatterBuilder()
                 .appendValue(HOUR_OF_DAY, 2)
                 .appendLiteral('-')
@@ -857,25 +1248,93 @@ public final class Control implements Controlable {
                 .map(proj -> proj.getNameAsKebapCase())
                 .orElse("none");
         String sampleId = metadata.getPatient().getIdAsKebapCase();
-        Path exportDir = baseExportDirectory.get()
+        return baseExportDirectory
                 .resolve(projectName)
                 .resolve(metadata.getDatetime().format(DateTimeFormatter.ISO_LOCAL_DATE))
                 .resolve(metadata.getDatetime().format(localTimeFormatter) + "-" + sampleId);
+    }
+
+    /**
+     * Get the directory of the results store of the project of a measurement.
+     *
+     * The directory is {@code <base>/<project>/results}.
+     *
+     * @param baseExportDirectory the base export directory
+     * @param metadata            the metadata of the measurement
+     * @return the directory of the results store
+     */
+    public static Path resultsStoreDirectory(Path baseExportDirectory, Metadata metadata) {
+        String projectName = metadata.getProject()
+                .map(proj -> proj.getNameAsKebapCase())
+                .orElse("none");
+        return baseExportDirectory.resolve(projectName).resolve("results");
+    }
+
+    /**
+     * Measures the current image without user interaction and exports the results.
+     *
+     * The image itself is not modified. The export directory is created below the
+     * base export directory as described in {@link #exportDirectory}.
+     *
+     * @param baseExportDirectory the base export directory
+     * @param metadata            the metadata of the measurement
+     * @return the export directory if the export has been successful
+     */
+    public Optional<Path> measureAndExport(Path baseExportDirectory, Metadata metadata) {
+        ImagePlus iPlus = ensureImageOpen().duplicate();
+        Parameters parameters = getMeasurementParameters();
+        Data data = doMeasure(iPlus, parameters);
+        DataStatistics dataStatistics = DataStatistics.analyze(data);
+
+        return exportMeasurement(baseExportDirectory, metadata, parameters, data, dataStatistics);
+    }
+
+    /**
+     * Get the parameters measuring the current slide position would use.
+     *
+     * @return the measurement parameters
+     */
+    public Parameters getMeasurementParameters() {
+        return Parameters.fromSettingsAndSlide(settings, slide);
+    }
+
+    /**
+     * Exports a measurement without user interaction.
+     *
+     * The export directory is created below the base export directory as
+     * described in {@link #exportDirectory}. If the results store is enabled,
+     * the measurement is appended to the store described in
+     * {@link #resultsStoreDirectory} instead.
+     *
+     * @param baseExportDirectory the base export directory
+     * @param metadata            the metadata of the measurement
+     * @param parameters          the parameters of the measurement
+     * @param data                the measured data
+     * @param dataStatistics      the statistics of the measured data
+     * @return the export directory or the directory of the results store if the
+     *         export has been successful
+     */
+    public Optional<Path> exportMeasurement(Path baseExportDirectory, Metadata metadata,
+            Parameters parameters, Data data, DataStatistics dataStatistics) {
+        if (settings.getExportSettings().isStoreResults()) {
+            Path storeDir = resultsStoreDirectory(baseExportDirectory, metadata);
+            return appendToResultsStore(storeDir, metadata, parameters, data, dataStatistics,
+                    TaskMonitor.none()).map(record -> storeDir);
+        }
+        Path exportDir = exportDirectory(baseExportDirectory, metadata);
         log.config(String.format("Using export directory '%s'", exportDir));
         try {
             Files.createDirectories(exportDir);
         } catch (IOException e) {
             String msg = String.format(Const.bundle.getString("control.measureExportError.text"), exportDir);
             log.log(Level.SEVERE, msg, e);
-            this.view.ifPresent(v -> v.showErrorDialog(msg, null));
-            return;
+            return Optional.empty();
         }
-
-        if (exportIntoFolder(exportDir, metadata, parameters, data, dataStatistics)) {
-            log.info("Export completed successfully");
-        } else {
-            log.warning("Export failed");
+        if (!exportIntoFolder(exportDir, metadata, parameters, data, dataStatistics)) {
+            log.warning(String.format("Export into '%s' failed", exportDir));
+            return Optional.empty();
         }
+        return Optional.of(exportDir);
     }
 
     /**
@@ -887,31 +1346,32 @@ public final class Control implements Controlable {
      *
      * @param iPlus      image to be measured
      * @param parameters measurement parameters
+     * @param engine     the engine measuring grayscale images
+     * @param monitor    receives the progress, checked for cancellation
      * @return measurement data of image.
      */
-    private static Data measureValues(ImagePlus iPlus, Parameters parameters) {
+    private static Data measureValues(ImagePlus iPlus, Parameters parameters,
+            MeasurementEngine engine, TaskMonitor monitor) {
+        // Measure on an immutable copy of the pixels if possible, ImageJ handles the rest
+        if (PixelSnapshot.isSupported(iPlus)) {
+            return engine.measure(PixelSnapshot.of(iPlus), parameters, monitor);
+        }
+
         List<Geometry> spots = parameters.getSpots();
         int maxSpotsPerSpotfield = spots.size() / parameters.getNumberOfSpotfields();
 
+        monitor.begin(parameters.getNumberOfSpotfields() * parameters.getSpotsPerSpotfield());
         List<Measurepoint> values = new ArrayList<>();
         for (int spot = 0; spot < parameters.getNumberOfSpotfields(); spot++) {
             for (int i = 0; i < parameters.getSpotsPerSpotfield(); i++) {
+                monitor.checkCancelled();
                 int row = i / parameters.getColumnsPerSpotfield();
                 int col = i % parameters.getColumnsPerSpotfield();
                 int absIdx = spot * maxSpotsPerSpotfield + i;
 
                 ImageStatistics imageStats = getSpotStats(iPlus, spots.get(absIdx));
-                if (Double.isNaN(imageStats.mean)) {
-                    log.warning(String.format("Measurepoint with indices (%d, %d, %d)"
-                            + " has invalid min/mean/max values (%f, %f, %f)."
-                            + " Ignoring and setting values to 0.0",
-                            spot, row, col, imageStats.min, imageStats.mean, imageStats.max));
-                    imageStats.min = 0.0;
-                    imageStats.mean = 0.0;
-                    imageStats.max = 0.0;
-                }
-                values.add(Measurepoint.of(spot, row, col,
-                        imageStats.min, imageStats.max, imageStats.mean, imageStats.stdDev));
+                values.add(MeasurementEngine.toMeasurepoint(spot, row, col, imageStats));
+                monitor.worked(1);
             }
         }
 
@@ -928,20 +1388,7 @@ public final class Control implements Controlable {
      * @return Positional metadata of a given measureField.
      */
     private static ImageStatistics getSpotStats(ImagePlus iPlus, Geometry spot) {
-        if (spot instanceof Circle) {
-            Circle circleSpot = (Circle) spot;
-            iPlus.setRoi(new OvalRoi(circleSpot.position.x - circleSpot.diameter / 2.,
-                    circleSpot.position.y - circleSpot.diameter / 2.,
-                    circleSpot.diameter, circleSpot.diameter));
-        } else {
-            Polygon polySpot = (Polygon) spot;
-            FloatPolygon roiPolygon = new FloatPolygon();
-            for (int i = 0; i < polySpot.coordinates.size(); i++) {
-                Point p = polySpot.coordinates.get(i);
-                roiPolygon.addPoint(p.x, p.y);
-            }
-            iPlus.setRoi(new PolygonRoi(roiPolygon, Roi.POLYGON));
-        }
+        iPlus.setRoi(SpotMask.toRoi(spot));
 
         ImageStatistics imageStatistics = iPlus.getStatistics(Analyzer.getMeasurements());
         iPlus.killRoi();
@@ -961,6 +1408,41 @@ public final class Control implements Controlable {
      * @return the measured data
      */
     public static Data doMeasure(ImagePlus iPlus, Parameters parameters) {
+        return doMeasure(iPlus, parameters, MeasurementEngine.ofCommonPool());
+    }
+
+    /**
+     * Actual implementation of the measurement using the given engine.
+     *
+     * The image is preprocessed in place, the spots are then measured on a
+     * snapshot of it. Several images can therefore be measured concurrently as long
+     * as each thread uses its own image.
+     *
+     * @param iPlus      the image to measure
+     * @param parameters the parameters that specify what and how the measurement
+     *                   should be done
+     * @param engine     the engine measuring the spots
+     * @return the measured data
+     */
+    public static Data doMeasure(ImagePlus iPlus, Parameters parameters,
+            MeasurementEngine engine) {
+        return doMeasure(iPlus, parameters, engine, TaskMonitor.none());
+    }
+
+    /**
+     * Actual implementation of the measurement using the given engine, reporting
+     * the measured spots to the monitor.
+     *
+     * @param iPlus      the image to measure
+     * @param parameters the parameters that specify what and how the measurement
+     *                   should be done
+     * @param engine     the engine measuring the spots
+     * @param monitor    receives the progress, checked for cancellation
+     * @return the measured data
+     * @throws CancellationException if the measurement has been cancelled
+     */
+    public static Data doMeasure(ImagePlus iPlus, Parameters parameters,
+            MeasurementEngine engine, TaskMonitor monitor) throws CancellationException {
         log.config("Initiating measurement with parameters");
         if (parameters.isInvertLut()) {
             setBlackValueHigh(iPlus);
@@ -968,7 +1450,7 @@ public final class Control implements Controlable {
         if (parameters.isSubtractBackground()) {
             subtractBackground(iPlus, parameters.getBackgroundRectangles());
         }
-        return measureValues(iPlus, parameters);
+        return measureValues(iPlus, parameters, engine, monitor);
     }
 
     /**
@@ -1000,9 +1482,15 @@ public final class Control implements Controlable {
 
     /**
      * Initiates measuring process.
+     *
+     * The image is measured in the background, the user is asked for the metadata
+     * afterwards.
      */
     @Override
     public void measure() {
+        if (isMaskLocked()) {
+            return;
+        }
         ImagePlus iPlus = ensureImageOpen().duplicate();
         if (iPlus.getStackSize() > 1) {
             log.log(Level.SEVERE, "Attempted to measure with image stack");
@@ -1018,14 +1506,18 @@ public final class Control implements Controlable {
 
         // Run the measurement
         Parameters parameters = Parameters.fromSettingsAndSlide(settings, slide);
-        Data data = doMeasure(iPlus, parameters);
-        DataStatistics dataStatistics = DataStatistics.analyze(data);
-
-        // Get the metadata from the user and export if requested
-        log.config("Asking for metadata input");
-        this.view.get().openExportGui(datetime, assayDate, parameters, data, dataStatistics);
-
-        IJ.showStatus("Opened ExportGui");
+        runTask(Const.bundle.getString("control.task.measure.text"), monitor -> {
+            Data data = doMeasure(iPlus, parameters, MeasurementEngine.ofCommonPool(), monitor);
+            monitor.begin(0);
+            return new Measurement(data, DataStatistics.analyze(data));
+        }, measurement -> {
+            // Get the metadata from the user and export if requested
+            log.config("Asking for metadata input");
+            this.view.get().openExportGui(datetime, assayDate, parameters,
+                    measurement.data, measurement.dataStatistics);
+
+            IJ.showStatus("Opened ExportGui");
+        });
     }
 
     /**
@@ -1120,6 +1612,74 @@ public final class Control implements Controlable {
         }
     }
 
+    /**
+     * Checks if a single record of a results store can be reproduced by its
+     * original image and positional data.
+     *
+     * The record must contain the original image. The result holds a single
+     * entry named {@code record-<number>} within the store directory.
+     *
+     * @param storeDir the directory of the results store
+     * @param record   the number of the record, starting at zero
+     * @return the result of the integrity check
+     */
+    public IntegrityCheckResult checkIntegrity(Path storeDir, int record) {
+        Path recordPath = storeDir.resolve(String.format("record-%d", record));
+        IntegrityCheckContext ctx = new IntegrityCheckContext(storeDir, recordPath);
+        if (!isRegularReadableFile(storeDir.resolve(ResultsStore.INDEX_FILE))) {
+            return IntegrityCheckResult.ofError(
+                    IntegrityCheckError.INVALID_MEASUREMENT_DIRECTORY, ctx);
+        }
+
+        ResultsStore.Record stored;
+        try (ResultsStore store = ResultsStore.openReadOnly(storeDir)) {
+            stored = store.read(record);
+        } catch (IndexOutOfBoundsException e) {
+            return IntegrityCheckResult.ofError(
+                    IntegrityCheckError.INVALID_MEASUREMENT_DIRECTORY, ctx);
+        } catch (IOException | IllegalArgumentException e) {
+            log.log(Level.WARNING, String.format("Could not read '%s'", recordPath), e);
+            return IntegrityCheckResult.ofError(IntegrityCheckError.IO_EXCEPTION, ctx);
+        }
+        if (stored.getImageName().isEmpty()) {
+            return IntegrityCheckResult.ofError(IntegrityCheckError.MISSING_IMAGE, ctx);
+        }
+
+        try {
+            // ImageJ only opens images from files. The stored name is not trusted, so
+            // only its extension is used within a new directory.
+            Path tempDir = Files.createTempDirectory("martin-integrity-check");
+            Path imagePath = tempDir.resolve(exportedImageName(stored.getImageName().get()));
+            ImagePlus iPlus;
+            try {
+                stored.copyImage(imagePath);
+                iPlus = IJ.openImage(imagePath.toString());
+            } finally {
+                // The directory was created above, so the image can only be our copy
+                Files.deleteIfExists(imagePath);
+                Files.deleteIfExists(tempDir);
+            }
+            if (iPlus == null || !isSupportedImagePlus(iPlus)) {
+                return IntegrityCheckResult.ofError(IntegrityCheckError.IMAGE_OPEN_FAILED, ctx);
+            }
+
+            Parameters parameters = Const.mapper.readValue(
+                    stored.getParameters(), Parameters.class);
+            Data data = doMeasure(iPlus, parameters);
+            DataStatistics dataStatistics = DataStatistics.analyze(data);
+            BinaryData storedBinary = stored.getBinaryData();
+            double eps = Const.INTEGRITY_CHECK_EPSILON;
+            HashMap<Path, Boolean> results = new HashMap<>();
+            results.put(recordPath,
+                    data.equalsEpsilon(storedBinary.toData(), eps)
+                            && dataStatistics.equalsEpsilon(storedBinary.toDataStatistics(), eps));
+            return IntegrityCheckResult.ofCompleted(results, ctx);
+        } catch (IOException | IllegalArgumentException e) {
+            log.log(Level.WARNING, String.format("Could not check '%s'", recordPath), e);
+            return IntegrityCheckResult.ofError(IntegrityCheckError.IO_EXCEPTION, ctx);
+        }
+    }
+
     /**
      * This compares a the measurement files (data and data_statistics) of a given
      * measurement with a reproduced measurement, using the positional data and a
@@ -1147,6 +1707,7 @@ public final class Control implements Controlable {
         Path storedJsonDataStatisticsPath = folder.resolve("data_statistics.json");
         Path storedTsvDataPath = folder.resolve("data.tsv");
         Path storedTsvDataStatisticsPath = folder.resolve("data_statistics.tsv");
+        Path storedBinaryPath = folder.resolve("data.bin");
 
         if (isRegularReadableFile(storedJsonDataPath)) {
             Data storedJsonData = Const.mapper.readValue(
@@ -1161,17 +1722,26 @@ public final class Control implements Controlable {
             results.put(storedJsonDataStatisticsPath,
                     dataStatistics.equalsEpsilon(storedJsonDataStatistics, eps));
         }
+        // The files belong to the archive of the user, so they are read onto the heap
+        // instead of mapped, which would keep them from being moved on Windows.
         if (isRegularReadableFile(storedTsvDataPath)) {
             Data storedTsvData = Data.fromTsv(
-                    Files.readString(storedTsvDataPath));
+                    Files.readString(storedTsvDataPath, StandardCharsets.UTF_8));
             results.put(storedTsvDataPath, data.equalsEpsilon(storedTsvData, eps));
         }
         if (isRegularReadableFile(storedTsvDataStatisticsPath)) {
             DataStatistics storedTsvDataStatistics = DataStatistics.fromTsv(
-                    Files.readString(storedTsvDataStatisticsPath));
+                    Files.readString(storedTsvDataStatisticsPath, StandardCharsets.UTF_8));
             results.put(storedTsvDataStatisticsPath,
                     dataStatistics.equalsEpsilon(storedTsvDataStatistics, eps));
         }
+        if (isRegularReadableFile(storedBinaryPath)) {
+            BinaryData storedBinary = BinaryData.of(
+                    ByteBuffer.wrap(Files.readAllBytes(storedBinaryPath)));
+            results.put(storedBinaryPath,
+                    data.equalsEpsilon(storedBinary.toData(), eps)
+                            && dataStatistics.equalsEpsilon(storedBinary.toDataStatistics(), eps));
+        }
 
         return results;
     }
@@ -1226,13 +1796,15 @@ public final class Control implements Controlable {
      */
     public ImagePlus generateGridImage() {
         log.config("Initiate generating gridded image.");
-        ImageProcessor iProc = ensureImageOpen().getProcessor().duplicate().convertToRGB();
+        ImageProcessor original = ensureImageOpen().getProcessor();
 
         DrawOptions drawOptions = new DrawOptions(true,
                 settings.getDisplaySettings().isShowSpotfieldGrids(),
                 true, true, false,
                 settings.getDisplaySettings().isShowMeasureCircles());
-        slide.drawElements(new ProcessorPen(iProc), drawOptions);
+        // Draw onto an 8-bit overlay, so only the slide has to be converted to RGB
+        OverlayPen pen = new OverlayPen(original.getWidth(), original.getHeight());
+        slide.drawElements(pen, drawOptions);
 
         FloatPolygon roiPolygon = new FloatPolygon();
         double[][] slideCoordinates = slide.getSlideCoordinates();
@@ -1241,8 +1813,8 @@ public final class Control implements Controlable {
             int y = (int) Math.round(slideCoordinates[1][i]);
             roiPolygon.addPoint(x, y);
         }
-        iProc.setRoi(new PolygonRoi(roiPolygon, Roi.POLYGON));
-        iProc = iProc.crop();
+        ImageProcessor iProc = pen.paintCropped(original,
+                new PolygonRoi(roiPolygon, Roi.POLYGON));
 
         return new ImagePlus("cropped", iProc);
     }
@@ -1294,6 +1866,9 @@ public final class Control implements Controlable {
 
     @Override
     public void repositionSlide() {
+        if (isMaskLocked()) {
+            return;
+        }
         slide.repositionSlide();
     }
 
@@ -1302,12 +1877,121 @@ public final class Control implements Controlable {
         view.ifPresent(v -> v.notifiySlideChanged());
     }
 
+    /**
+     * Runs a long running task of the user without blocking the GUI.
+     *
+     * With a view, the work is done on a background thread while the view shows
+     * the progress and the mask is locked against changes. The result is handed
+     * to the callback on the event dispatch thread. Without a view the work is
+     * simply done on the calling thread.
+     *
+     * @param <T>       the type of the result
+     * @param title     the name of the task shown to the user
+     * @param work      the work, reporting its progress to the given monitor
+     * @param onSuccess receives the result unless the task failed or has been
+     *                  cancelled
+     */
+    private <T> void runTask(String title, Function<TaskMonitor, T> work,
+            Consumer<T> onSuccess) {
+        if (view.isEmpty()) {
+            onSuccess.accept(work.apply(TaskMonitor.none()));
+            return;
+        }
+        if (runningTask.isPresent()) {
+            log.warning(String.format("Ignoring task '%s' while another task is running", title));
+            return;
+        }
+        View v = view.get();
+        TaskMonitor monitor = TaskMonitor.of(v::showTaskProgress);
+        runningTask = Optional.of(monitor);
+        v.taskStarted(title);
+        log.config(String.format("Started task '%s'", title));
+
+        getTaskExecutor().execute(() -> {
+            Runnable outcome = () -> {
+            };
+            try {
+                T result = work.apply(monitor);
+                outcome = () -> onSuccess.accept(result);
+            } catch (CancellationException e) {
+                log.info(String.format("Task '%s' has been cancelled", title));
+            } catch (RuntimeException | Error e) {
+                // Errors such as running out of memory are reported like any other
+                // failure instead of being rethrown, as the global handler would
+                // exit the application before the user learns which task failed
+                String msg = String.format(
+                        Const.bundle.getString("control.taskFailed.text"), title, e);
+                log.log(Level.SEVERE, msg, e);
+                outcome = () -> v.showErrorDialog(msg,
+                        Const.bundle.getString("control.taskFailed.title"));
+            } finally {
+                // Always unlock the mask, even if the task died of an error
+                Runnable then = outcome;
+                SwingUtilities.invokeLater(() -> {
+                    runningTask = Optional.empty();
+                    v.taskFinished();
+                    then.run();
+                });
+            }
+        });
+    }
+
+    private ExecutorService getTaskExecutor() {
+        if (taskExecutor == null) {
+            taskExecutor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "martin-task");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return taskExecutor;
+    }
+
+    private ExecutorService getFilterExecutor() {
+        if (filterExecutor == null) {
+            filterExecutor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "martin-filter");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return filterExecutor;
+    }
+
+    /**
+     * Checks whether the mask must not be changed, because a task is using it.
+     *
+     * @return true if a task is running
+     */
+    private boolean isMaskLocked() {
+        if (runningTask.isPresent()) {
+            log.fine("Ignoring change of the mask while a task is running");
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void cancelTask() {
+        runningTask.ifPresent(monitor -> {
+            log.info("User requested to cancel the running task");
+            monitor.cancel();
+        });
+    }
+
     /**
      * Closes this application.
      */
     @Override
     public void exit() {
         log.info(String.format("Shutting down MARTin in %s mode", runType));
+        cancelTask();
+        if (taskExecutor != null) {
+            taskExecutor.shutdown();
+        }
+        if (filterExecutor != null) {
+            filterExecutor.shutdown();
+        }
         switch (runType) {
             case STANDALONE:
                 ij.dispose();
@@ -1328,42 +2012,117 @@ public final class Control implements Controlable {
     /**
      * Sets wether adaptive filtering should currently be enabled.
      *
+     * The filtered image is computed in the background the first time the filter
+     * is enabled for an image and shown once it is ready. Afterwards enabling and
+     * disabling the filter only swaps the displayed image.
+     *
      * @param enabled if true, filtering is shown in the canvas
      */
     public void setFilterEnabled(boolean enabled) {
-        ImagePlus iPlus = ensureImageOpen().duplicate();
-        if (enabled) {
-            log.config("Adaptive filter was enabled.");
-            // If we are an 24-bit RGB image, convert to grayscale before calculating the
-            // filter.
-            if (iPlus.isRGB()) {
-                // This uses (R+B+G) / 3
-                // Scaling is disabled, this does not rescale from min-max to 0-255
-                iPlus.setProcessor(iPlus.getProcessor().convertToByte(false));
-            }
-            // No idea what the equivalent in the ImageJ2 API is and if it even
-            // works with an legacy plugin such as this one ... therefore, I use
-            // the V1 API.
-            IJ.run(iPlus, "Normalize Local Contrast",
-                    "block_radius_x=5 block_radius_y=5 standard_deviations=1 center stretch");
-            // Reset that we made any changes to prevent triggering a dialog
-            // whether we want to save any changes of to the image.
-            iPlus.changes = false;
-        } else {
+        ImagePlus original = ensureImageOpen();
+        this.isFilterEnabled = enabled;
+        if (!enabled) {
             log.config("Adaptive filter was disabled.");
+            ImagePlus unfiltered = displayImage.orElseGet(original::duplicate);
+            displayImage = Optional.of(unfiltered);
+            showDisplayImage(unfiltered);
+            return;
         }
+
+        log.config("Adaptive filter was enabled.");
+        if (filteredDisplayImage.isEmpty()) {
+            // Without a view nobody waits for the result, so simply compute it
+            Executor executor = view.isPresent() ? getFilterExecutor() : Runnable::run;
+            CompletableFuture<ImagePlus> filtered = CompletableFuture.supplyAsync(
+                    () -> adaptiveFilter(original), executor);
+            filteredDisplayImage = Optional.of(filtered);
+            if (filtered.isDone()) {
+                filterCompleted(filtered);
+            } else {
+                log.config("Computing the adaptive filter in the background.");
+                // Registered once per computation, enabling the filter again while it
+                // is computed only waits for this callback
+                filtered.whenComplete((iPlus, e) -> SwingUtilities.invokeLater(
+                        () -> filterCompleted(filtered)));
+            }
+            return;
+        }
+        CompletableFuture<ImagePlus> filtered = filteredDisplayImage.get();
+        if (filtered.isDone() && !filtered.isCompletedExceptionally()) {
+            showDisplayImage(filtered.join());
+        }
+    }
+
+    /**
+     * Shows the computed adaptive filter if it is still enabled or reports its
+     * failure.
+     *
+     * @param filtered the completed computation of the filter
+     */
+    private void filterCompleted(CompletableFuture<ImagePlus> filtered) {
+        // Another image may have been opened in the meantime
+        if (filteredDisplayImage.orElse(null) != filtered) {
+            return;
+        }
+        ImagePlus iPlus;
+        try {
+            iPlus = filtered.join();
+        } catch (CompletionException e) {
+            filteredDisplayImage = Optional.empty();
+            isFilterEnabled = false;
+            String msg = String.format(Const.bundle.getString("control.taskFailed.text"),
+                    Const.bundle.getString("control.task.filter.text"), e.getCause());
+            log.log(Level.SEVERE, msg, e);
+            view.ifPresent(v -> v.showErrorDialog(msg,
+                    Const.bundle.getString("control.taskFailed.title")));
+            return;
+        }
+        if (isFilterEnabled) {
+            showDisplayImage(iPlus);
+        }
+    }
+
+    /**
+     * Creates an adaptively filtered copy of an image for display.
+     *
+     * @param original the image, which is not modified
+     * @return the filtered copy
+     */
+    private static ImagePlus adaptiveFilter(ImagePlus original) {
+        ImagePlus iPlus = original.duplicate();
+        // If we are an 24-bit RGB image, convert to grayscale before calculating the
+        // filter.
+        if (iPlus.isRGB()) {
+            // This uses (R+B+G) / 3
+            // Scaling is disabled, this does not rescale from min-max to 0-255
+            iPlus.setProcessor(iPlus.getProcessor().convertToByte(false));
+        }
+        // No idea what the equivalent in the ImageJ2 API is and if it even
+        // works with an legacy plugin such as this one ... therefore, I use
+        // the V1 API.
+        IJ.run(iPlus, "Normalize Local Contrast",
+                "block_radius_x=5 block_radius_y=5 standard_deviations=1 center stretch");
+        // Reset that we made any changes to prevent triggering a dialog
+        // whether we want to save any changes of to the image.
+        iPlus.changes = false;
+        return iPlus;
+    }
+
+    private void showDisplayImage(ImagePlus iPlus) {
         view.ifPresent(v -> v.setDisplayImage(iPlus, false));
         update();
     }
 
     @Override
     public void toggleFilter() {
-        isFilterEnabled = !isFilterEnabled;
-        setFilterEnabled(isFilterEnabled);
+        setFilterEnabled(!isFilterEnabled);
     }
 
     @Override
     public void openImage() {
+        if (isMaskLocked()) {
+            return;
+        }
         // Reset the filter to not enabled
         this.isFilterEnabled = false;
 
@@ -1399,8 +2158,11 @@ public final class Control implements Controlable {
         }
 
         // Replacing the current image with the new one
-        view.ifPresent(v -> v.setDisplayImage(iPlus.duplicate(), true));
+        ImagePlus unfiltered = iPlus.duplicate();
+        view.ifPresent(v -> v.setDisplayImage(unfiltered, true));
         this.imagePlus = Optional.of(iPlus);
+        this.displayImage = Optional.of(unfiltered);
+        this.filteredDisplayImage = Optional.empty();
         this.slide = new SlideMask(settings);
 
         update();
@@ -1414,6 +2176,8 @@ public final class Control implements Controlable {
     public void imageClosed() {
         log.info("Image window has been closed");
         this.imagePlus = Optional.empty();
+        this.displayImage = Optional.empty();
+        this.filteredDisplayImage = Optional.empty();
     }
 
     @Override
@@ -1459,6 +2223,10 @@ public final class Control implements Controlable {
 
     @Override
     public void setActiveMaskSettings(MaskExt activeMaskSettings) {
+        if (isMaskLocked()) {
+            log.warning("Ignoring new mask settings while a task is running");
+            return;
+        }
         slide.setMaskParameters(activeMaskSettings);
     }
 
@@ -1473,4 +2241,76 @@ public final class Control implements Controlable {
         MaskExt mask = importMask(maskJsonPath);
         slide.setMaskParameters(mask);
     }
+
+    /**
+     * The cells of the slide searched by the autofit, sharing the shape of their
+     * measure fields.
+     */
+    private static final class FitCells {
+        private final PolyShape measureGridElement;
+        private final double radius;
+        /** The offsets from the center to the top left corner of a measure field. */
+        private final double hWidth;
+        private final double hHeight;
+        private final double widthRatio;
+        private final double heightRatio;
+        private final IntegralImage.Kernel scanKernel;
+        /** The measure field of each cell. */
+        private final List<PolyShape> fittedElements;
+        /** The boundaries each measure field is fitted in. */
+        private final List<PolyShape> searchPerimeters;
+
+        private FitCells(PolyShape measureGridElement, double radius,
+                double hWidth, double hHeight, double widthRatio, double heightRatio,
+                IntegralImage.Kernel scanKernel,
+                List<PolyShape> fittedElements, List<PolyShape> searchPerimeters) {
+            this.measureGridElement = measureGridElement;
+            this.radius = radius;
+            this.hWidth = hWidth;
+            this.hHeight = hHeight;
+            this.widthRatio = widthRatio;
+            this.heightRatio = heightRatio;
+            this.scanKernel = scanKernel;
+            this.fittedElements = fittedElements;
+            this.searchPerimeters = searchPerimeters;
+        }
+    }
+
+    /**
+     * Writes a single file of an export.
+     */
+    @FunctionalInterface
+    private interface ExportWriter {
+        void write(Path path) throws IOException;
+    }
+
+    /**
+     * A file of an export together with the messages shown if it fails.
+     */
+    private static final class ExportFile {
+        /** The name of the file within the measurement folder. */
+        private final String name;
+        /** The prefix of the message keys of the error text and title. */
+        private final String errorKey;
+        private final ExportWriter writer;
+
+        private ExportFile(String name, String errorKey, ExportWriter writer) {
+            this.name = name;
+            this.errorKey = errorKey;
+            this.writer = writer;
+        }
+    }
+
+    /**
+     * The result of a measurement in the background.
+     */
+    private static final class Measurement {
+        private final Data data;
+        private final DataStatistics dataStatistics;
+
+        private Measurement(Data data, DataStatistics dataStatistics) {
+            this.data = data;
+            this.dataStatistics = dataStatistics;
+        }
+    }
 }
@@ -0,0 +1,268 @@
+package com.scitequest.martin;
+
+/**
+ * The corners of one or more polyShapes stored in contiguous primitive arrays.
+ *
+ * A polyGrid stores the corners of all its cells in a single instance, each
+ * polyShape only refers to its range of corners. This avoids an object per
+ * corner and keeps the coordinates of neighbouring cells next to each other in
+ * memory.
+ *
+ * The corners are stored in slide-local coordinates. The world coordinates of
+ * all corners are calculated at once when they are first needed after the slide
+ * transform changed.
+ *
+ * Changes have to be made by a single thread while no other thread reads the
+ * store, e.g. the event dispatch thread while no background task uses the mask.
+ * Otherwise any number of threads may read the store concurrently, including
+ * the world coordinates and bounds which are cached on first use.
+ */
+final class CornerStore {
+
+    /** The slide-local x-coordinates of all corners. */
+    private final double[] localX;
+    /** The slide-local y-coordinates of all corners. */
+    private final double[] localY;
+    /**
+     * The placement of the slide the corners belong to. Null if not part of a
+     * slide, local and world coordinates are the same then.
+     */
+    private final SlideTransform transform;
+    /**
+     * The world coordinates as of the last time they were needed. Replaced as a
+     * whole when the slide transform changed, so concurrent readers calculating
+     * them only race to publish the same values. Changes of single corners are
+     * written through, which requires that nobody reads at the same time.
+     */
+    private volatile World world;
+    /**
+     * Incremented on every change of a slide-local corner, allowing indices
+     * built from the corners to detect that they are outdated.
+     */
+    private long modifications = 0;
+    /**
+     * The slide-local bounds of all corners, null if not calculated yet. Replaced
+     * as a whole, as the bounds are calculated on a read path.
+     */
+    private volatile Bounds localBounds;
+
+    /**
+     * Creates a store with all corners at the origin.
+     *
+     * @param size      the number of corners.
+     * @param transform the placement of the slide, null if not part of a slide.
+     */
+    CornerStore(int size, SlideTransform transform) {
+        this.localX = new double[size];
+        this.localY = new double[size];
+        this.transform = transform;
+        this.world = transform == null ? new World(localX, localY, 0) : null;
+    }
+
+    /**
+     * Creates a store containing the given corners.
+     *
+     * @param corners   the slide-local corners.
+     * @param transform the placement of the slide, null if not part of a slide.
+     * @return the store.
+     */
+    static CornerStore of(Point[] corners, SlideTransform transform) {
+        CornerStore store = new CornerStore(corners.length, transform);
+        for (int i = 0; i < corners.length; i++) {
+            store.localX[i] = corners[i].x;
+            store.localY[i] = corners[i].y;
+        }
+        return store;
+    }
+
+    /**
+     * Returns the number of corners.
+     *
+     * @return the number of corners.
+     */
+    int size() {
+        return localX.length;
+    }
+
+    /**
+     * Returns the slide-local x-coordinate of a corner.
+     *
+     * @param index the index of the corner.
+     * @return the slide-local x-coordinate.
+     */
+    double getLocalX(int index) {
+        return localX[index];
+    }
+
+    /**
+     * Returns the slide-local y-coordinate of a corner.
+     *
+     * @param index the index of the corner.
+     * @return the slide-local y-coordinate.
+     */
+    double getLocalY(int index) {
+        return localY[index];
+    }
+
+    /**
+     * Returns the number of changes of the slide-local corners so far.
+     *
+     * @return the number of changes.
+     */
+    long getModifications() {
+        return modifications;
+    }
+
+    /**
+     * Returns the bounding box of all corners in world coordinates. The slide-local
+     * bounds are only calculated again if a corner changed, so this takes constant
+     * time while the slide is moved or rotated.
+     *
+     * @return the minimum x, minimum y, maximum x and maximum y value.
+     */
+    double[] getWorldBounds() {
+        Bounds current = localBounds;
+        if (current == null || current.modifications != modifications) {
+            double[] bounds = {
+                    Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY,
+                    Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY };
+            for (int i = 0; i < localX.length; i++) {
+                bounds[0] = Math.min(bounds[0], localX[i]);
+                bounds[1] = Math.min(bounds[1], localY[i]);
+                bounds[2] = Math.max(bounds[2], localX[i]);
+                bounds[3] = Math.max(bounds[3], localY[i]);
+            }
+            current = new Bounds(bounds, modifications);
+            localBounds = current;
+        }
+        if (transform == null) {
+            return current.bounds.clone();
+        }
+        // The bounds of the transformed corners of the slide-local bounding box
+        double[] ret = {
+                Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY,
+                Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY };
+        for (int corner = 0; corner < 4; corner++) {
+            double x = current.bounds[corner % 2 == 0 ? 0 : 2];
+            double y = current.bounds[corner < 2 ? 1 : 3];
+            double worldX = transform.applyX(x, y);
+            double worldY = transform.applyY(x, y);
+            ret[0] = Math.min(ret[0], worldX);
+            ret[1] = Math.min(ret[1], worldY);
+            ret[2] = Math.max(ret[2], worldX);
+            ret[3] = Math.max(ret[3], worldY);
+        }
+        return ret;
+    }
+
+    /**
+     * Set a corner in slide-local coordinates.
+     *
+     * @param index the index of the corner.
+     * @param x     the slide-local x-coordinate.
+     * @param y     the slide-local y-coordinate.
+     */
+    void setLocal(int index, double x, double y) {
+        localX[index] = x;
+        localY[index] = y;
+        modifications++;
+        if (transform == null) {
+            // The world coordinates are the local arrays themselves
+            return;
+        }
+        World current = world;
+        if (current != null && current.version == transform.getVersion()) {
+            // Keep the cache of all other corners valid
+            current.x[index] = transform.applyX(x, y);
+            current.y[index] = transform.applyY(x, y);
+        }
+    }
+
+    /**
+     * Set a corner in world coordinates.
+     *
+     * @param index the index of the corner.
+     * @param p     the corner in world coordinates.
+     */
+    void setWorld(int index, Point p) {
+        Point local = transform == null ? p : transform.applyInverse(p);
+        setLocal(index, local.x, local.y);
+    }
+
+    /**
+     * Move a range of corners linearly in world coordinates.
+     *
+     * @param from   the index of the first corner.
+     * @param to     the index after the last corner.
+     * @param deltaX change of position on the x-axis.
+     * @param deltaY change of position on the y-axis.
+     */
+    void moveWorld(int from, int to, double deltaX, double deltaY) {
+        Point delta = transform == null
+                ? Point.of(deltaX, deltaY)
+                : transform.applyInverseLinear(deltaX, deltaY);
+        for (int i = from; i < to; i++) {
+            setLocal(i, localX[i] + delta.x, localY[i] + delta.y);
+        }
+    }
+
+    /**
+     * Returns the world coordinates of all corners, calculating them only if the
+     * slide transform changed since the last call.
+     *
+     * @return the world coordinates, must not be modified.
+     */
+    World world() {
+        World current = world;
+        if (transform == null) {
+            return current;
+        }
+        long version = transform.getVersion();
+        if (current == null || current.version != version) {
+            double[] x = new double[localX.length];
+            double[] y = new double[localY.length];
+            for (int i = 0; i < x.length; i++) {
+                x[i] = transform.applyX(localX[i], localY[i]);
+                y[i] = transform.applyY(localX[i], localY[i]);
+            }
+            current = new World(x, y, version);
+            world = current;
+        }
+        return current;
+    }
+
+    /**
+     * The slide-local bounds of all corners together with the number of changes
+     * they were calculated at.
+     */
+    private static final class Bounds {
+        /** The minimum x, minimum y, maximum x and maximum y value. */
+        private final double[] bounds;
+        /** The number of changes of the corners. */
+        private final long modifications;
+
+        private Bounds(double[] bounds, long modifications) {
+            this.bounds = bounds;
+            this.modifications = modifications;
+        }
+    }
+
+    /**
+     * The world coordinates of all corners together with the version of the slide
+     * transform they were calculated with.
+     */
+    static final class World {
+        /** The x-coordinates of all corners. */
+        final double[] x;
+        /** The y-coordinates of all corners. */
+        final double[] y;
+        /** The version of the slide transform. */
+        private final long version;
+
+        private World(double[] x, double[] y, long version) {
+            this.x = x;
+            this.y = y;
+            this.version = version;
+        }
+    }
+}
@@ -90,4 +90,42 @@ public final class DrawOptions {
     public boolean isDrawMeasureCircles() {
         return drawMeasureCircles;
     }
+
+    @Override
+    public int hashCode() {
+        final int prime = 31;
+        int result = 1;
+        result = prime * result + (drawSlide ? 1231 : 1237);
+        result = prime * result + (drawSpotFields ? 1231 : 1237);
+        result = prime * result + (drawSpotFieldAnnotation ? 1231 : 1237);
+        result = prime * result + (drawDivideLine ? 1231 : 1237);
+        result = prime * result + (drawDelRects ? 1231 : 1237);
+        result = prime * result + (drawMeasureCircles ? 1231 : 1237);
+        return result;
+    }
+
+    @SuppressWarnings("checkstyle:NeedBraces")
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj == null)
+            return false;
+        if (getClass() != obj.getClass())
+            return false;
+        DrawOptions other = (DrawOptions) obj;
+        if (drawSlide != other.drawSlide)
+            return false;
+        if (drawSpotFields != other.drawSpotFields)
+            return false;
+        if (drawSpotFieldAnnotation != other.drawSpotFieldAnnotation)
+            return false;
+        if (drawDivideLine != other.drawDivideLine)
+            return false;
+        if (drawDelRects != other.drawDelRects)
+            return false;
+        if (drawMeasureCircles != other.drawMeasureCircles)
+            return false;
+        return true;
+    }
 }
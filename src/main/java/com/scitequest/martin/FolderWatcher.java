@@ -0,0 +1,264 @@
+package com.scitequest.martin;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Watches a directory for new files and reports them once they are completely
+ * written.
+ *
+ * A file is considered complete if its size and modification time did not
+ * change for the settle time and it can be opened for reading. Files already in
+ * the directory when watching starts are reported as well. Every file is only
+ * reported once while it exists, a file created again after being deleted is
+ * reported again.
+ */
+public final class FolderWatcher implements AutoCloseable {
+
+    /** The logger for this class. */
+    private static final Logger log = Logger.getLogger("com.scitequest.martin.FolderWatcher");
+
+    /**
+     * A listener for completely written files.
+     */
+    @FunctionalInterface
+    public interface Listener {
+        /**
+         * Called once for every completely written file.
+         *
+         * @param file the file
+         * @throws InterruptedException if interrupted while handling the file
+         */
+        void fileReady(Path file) throws InterruptedException;
+    }
+
+    /** The directory to watch. */
+    private final Path directory;
+    /** The files to report. */
+    private final Predicate<Path> filter;
+    /** The time a file must remain unchanged before it is reported. */
+    private final Duration settleTime;
+    /** The underlying watch service. */
+    private final WatchService watchService;
+
+    /** Files that have been seen but are possibly still being written. */
+    private final Map<Path, FileState> pending = new LinkedHashMap<>();
+    /** Files that have already been reported and still exist. */
+    private final Set<Path> reported = new HashSet<>();
+
+    private FolderWatcher(Path directory, Predicate<Path> filter, Duration settleTime,
+            WatchService watchService) {
+        this.directory = directory;
+        this.filter = filter;
+        this.settleTime = settleTime;
+        this.watchService = watchService;
+    }
+
+    /**
+     * Start watching a directory.
+     *
+     * @param directory  the directory to watch
+     * @param filter     the files to report
+     * @param settleTime the time a file must remain unchanged before it is
+     *                   reported
+     * @return the folder watcher
+     * @throws IOException              if the directory cannot be watched
+     * @throws IllegalArgumentException if the settle time is negative
+     */
+    public static FolderWatcher of(Path directory, Predicate<Path> filter, Duration settleTime)
+            throws IOException, IllegalArgumentException {
+        if (settleTime.isNegative()) {
+            throw new IllegalArgumentException("Settle time cannot be negative");
+        }
+        WatchService watchService = directory.getFileSystem().newWatchService();
+        try {
+            directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+        } catch (IOException e) {
+            watchService.close();
+            throw e;
+        }
+        return new FolderWatcher(directory, filter, settleTime, watchService);
+    }
+
+    /**
+     * Create a watcher taking the events of the directory from a watch service
+     * the directory may not be registered with. The watch service is closed with
+     * the watcher.
+     *
+     * Only used for tests.
+     *
+     * @param directory    the directory to watch
+     * @param filter       the files to report
+     * @param settleTime   the time a file must remain unchanged before it is
+     *                     reported
+     * @param watchService the source of the events
+     * @return the folder watcher
+     */
+    static FolderWatcher of(Path directory, Predicate<Path> filter, Duration settleTime,
+            WatchService watchService) {
+        return new FolderWatcher(directory, filter, settleTime, watchService);
+    }
+
+    /**
+     * Report completely written files until the watcher is closed.
+     *
+     * The listener is called on the current thread.
+     *
+     * @param listener the listener called for every completely written file
+     * @throws IOException          if the directory cannot be listed or is no
+     *                              longer accessible
+     * @throws InterruptedException if the thread has been interrupted
+     */
+    public void watch(Listener listener) throws IOException, InterruptedException {
+        scanDirectory();
+        // Poll often enough to notice settled files without an event
+        long pollMillis = Math.max(50, settleTime.toMillis() / 4);
+        try {
+            while (true) {
+                WatchKey key = watchService.poll(pollMillis, TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    handleEvents(key);
+                }
+                reportSettled(listener);
+            }
+        } catch (ClosedWatchServiceException e) {
+            log.config(String.format("Stopped watching '%s'", directory));
+        }
+    }
+
+    private void handleEvents(WatchKey key) throws IOException {
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW) {
+                log.warning(String.format("Missed events of '%s', rescanning", directory));
+                scanDirectory();
+                continue;
+            }
+            Path file = directory.resolve((Path) event.context());
+            if (event.kind() == ENTRY_DELETE) {
+                // Forget the file, so the set only grows with the directory
+                reported.remove(file);
+                pending.remove(file);
+            } else if (!reported.contains(file) && filter.test(file)) {
+                // Any event restarts the settle time
+                pending.put(file, FileState.UNKNOWN);
+            }
+        }
+        if (!key.reset()) {
+            throw new IOException(String.format("Directory '%s' is no longer accessible",
+                    directory));
+        }
+    }
+
+    private void scanDirectory() throws IOException {
+        Set<Path> present;
+        try (Stream<Path> files = Files.list(directory)) {
+            present = files.collect(Collectors.toSet());
+        }
+        // Deletions may have been missed as well
+        reported.retainAll(present);
+        present.stream()
+                .filter(file -> !reported.contains(file) && filter.test(file))
+                .forEach(file -> pending.putIfAbsent(file, FileState.UNKNOWN));
+    }
+
+    private void reportSettled(Listener listener) throws InterruptedException {
+        long now = System.nanoTime();
+        Iterator<Map.Entry<Path, FileState>> it = pending.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Path, FileState> entry = it.next();
+            Path file = entry.getKey();
+            FileState state;
+            try {
+                state = FileState.of(file, now);
+            } catch (NoSuchFileException e) {
+                it.remove();
+                continue;
+            } catch (IOException e) {
+                // Keep waiting, the file might be locked by the writer
+                entry.setValue(FileState.UNKNOWN);
+                continue;
+            }
+            if (!state.isSameFile(entry.getValue())) {
+                entry.setValue(state);
+                continue;
+            }
+            boolean settled = now - entry.getValue().observedNanos >= settleTime.toNanos();
+            if (settled && isReadable(file)) {
+                it.remove();
+                reported.add(file);
+                log.info(String.format("New file '%s' is ready", file));
+                listener.fileReady(file);
+            }
+        }
+    }
+
+    private static boolean isReadable(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Stop watching, causing {@link #watch} to return.
+     *
+     * @throws IOException if the watch service could not be closed
+     */
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+
+    /**
+     * The size and modification time of a file when it has last changed.
+     */
+    private static final class FileState {
+        /** The state of a file that has not been observed yet. */
+        private static final FileState UNKNOWN = new FileState(-1, null, 0);
+
+        private final long size;
+        private final FileTime lastModified;
+        private final long observedNanos;
+
+        private FileState(long size, FileTime lastModified, long observedNanos) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.observedNanos = observedNanos;
+        }
+
+        private static FileState of(Path file, long now) throws IOException {
+            return new FileState(Files.size(file), Files.getLastModifiedTime(file), now);
+        }
+
+        private boolean isSameFile(FileState other) {
+            return size == other.size && Objects.equals(lastModified, other.lastModified);
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package com.scitequest.martin;
+
+import java.awt.Rectangle;
+import java.util.Arrays;
+
+import ij.ImagePlus;
+import ij.gui.Roi;
+import ij.process.ImageProcessor;
+
+/**
+ * A summed-area table of an image used to quickly calculate area means.
+ *
+ * Each entry holds the sum of all calibrated pixel values above and left of it,
+ * which allows calculating the sum of any axis aligned rectangle with four
+ * lookups. Arbitrary shapes are described by a {@link Kernel} of row spans and
+ * are evaluated with one lookup pair per row.
+ *
+ * The table is built once for an image and is read-only afterwards.
+ */
+public final class IntegralImage {
+
+    /** The width of the image. */
+    private final int width;
+    /** The height of the image. */
+    private final int height;
+    /** The summed-area table with a size of (width + 1) * (height + 1). */
+    private final double[] sums;
+    /**
+     * The summed-area table of valid (finite) pixels or null if all pixels are
+     * valid.
+     */
+    private final int[] counts;
+
+    private IntegralImage(int width, int height, double[] sums, int[] counts) {
+        this.width = width;
+        this.height = height;
+        this.sums = sums;
+        this.counts = counts;
+    }
+
+    /**
+     * Build the summed-area table for the current processor of an image.
+     *
+     * The pixel values are calibrated the same way ImageJ does when measuring.
+     * Non-finite values are ignored like in the ImageJ statistics.
+     *
+     * @param iPlus the image
+     * @return the summed-area table
+     */
+    public static IntegralImage of(ImagePlus iPlus) {
+        ImageProcessor iProc = iPlus.getProcessor();
+        int width = iProc.getWidth();
+        int height = iProc.getHeight();
+        int stride = width + 1;
+
+        double[] sums = new double[stride * (height + 1)];
+        // Only images with non-finite pixels need the counts, which most never have
+        int[] counts = null;
+        for (int y = 0; y < height; y++) {
+            double rowSum = 0.0;
+            int rowCount = 0;
+            int offset = (y + 1) * stride;
+            for (int x = 0; x < width; x++) {
+                double v = iProc.getPixelValue(x, y);
+                if (Double.isFinite(v)) {
+                    rowSum += v;
+                    rowCount++;
+                } else if (counts == null) {
+                    counts = allFiniteCounts(stride, height, x, y);
+                }
+                sums[offset + x + 1] = sums[offset - stride + x + 1] + rowSum;
+                if (counts != null) {
+                    counts[offset + x + 1] = counts[offset - stride + x + 1] + rowCount;
+                }
+            }
+        }
+
+        return new IntegralImage(width, height, sums, counts);
+    }
+
+    /**
+     * Create the summed-area table of valid pixels filled for all pixels before
+     * the first non-finite one, which are all valid.
+     *
+     * @param stride the width of the table
+     * @param height the height of the image
+     * @param x      the x coordinate of the first non-finite pixel
+     * @param y      the y coordinate of the first non-finite pixel
+     * @return the partially filled table
+     */
+    private static int[] allFiniteCounts(int stride, int height, int x, int y) {
+        int[] counts = new int[stride * (height + 1)];
+        for (int row = 1; row <= y; row++) {
+            for (int col = 1; col < stride; col++) {
+                counts[row * stride + col] = row * col;
+            }
+        }
+        for (int col = 1; col <= x; col++) {
+            counts[(y + 1) * stride + col] = y * col + col;
+        }
+        return counts;
+    }
+
+    /**
+     * Get the width of the image.
+     *
+     * @return the width
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Get the height of the image.
+     *
+     * @return the height
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Calculate the sum of a rectangle, the coordinates must be within the image.
+     *
+     * @param x0 left edge (inclusive)
+     * @param y0 top edge (inclusive)
+     * @param x1 right edge (exclusive)
+     * @param y1 bottom edge (exclusive)
+     * @return the sum of all pixel values
+     */
+    private double sum(int x0, int y0, int x1, int y1) {
+        int stride = width + 1;
+        return sums[y1 * stride + x1] - sums[y0 * stride + x1]
+                - sums[y1 * stride + x0] + sums[y0 * stride + x0];
+    }
+
+    /**
+     * Calculate the number of valid pixels of a rectangle, the coordinates must be
+     * within the image.
+     *
+     * @param x0 left edge (inclusive)
+     * @param y0 top edge (inclusive)
+     * @param x1 right edge (exclusive)
+     * @param y1 bottom edge (exclusive)
+     * @return the number of valid pixels
+     */
+    private int count(int x0, int y0, int x1, int y1) {
+        if (counts == null) {
+            return (x1 - x0) * (y1 - y0);
+        }
+        int stride = width + 1;
+        return counts[y1 * stride + x1] - counts[y0 * stride + x1]
+                - counts[y1 * stride + x0] + counts[y0 * stride + x0];
+    }
+
+    /**
+     * Calculate the mean of a kernel placed at the given position.
+     *
+     * Parts of the kernel outside of the image are ignored. If no pixel is covered
+     * NaN is returned.
+     *
+     * @param kernel the shape to measure
+     * @param x      the x coordinate of the top left corner of the kernel
+     * @param y      the y coordinate of the top left corner of the kernel
+     * @return the mean value
+     */
+    public double mean(Kernel kernel, int x, int y) {
+        if (kernel.isRectangle()) {
+            int x0 = clamp(x, width);
+            int x1 = clamp(x + kernel.width, width);
+            int y0 = clamp(y, height);
+            int y1 = clamp(y + kernel.height, height);
+            return sum(x0, y0, x1, y1) / count(x0, y0, x1, y1);
+        }
+
+        double sum = 0.0;
+        long n = 0;
+        int rowStart = Math.max(0, -y);
+        int rowEnd = Math.min(kernel.height, height - y);
+        for (int row = rowStart; row < rowEnd; row++) {
+            int imgY = y + row;
+            for (int span = kernel.rowOffsets[row]; span < kernel.rowOffsets[row + 1]; span++) {
+                int x0 = clamp(x + kernel.spanStartX[span], width);
+                int x1 = clamp(x + kernel.spanEndX[span], width);
+                if (x0 < x1) {
+                    sum += sum(x0, imgY, x1, imgY + 1);
+                    n += count(x0, imgY, x1, imgY + 1);
+                }
+            }
+        }
+        return sum / n;
+    }
+
+    private static int clamp(int value, int max) {
+        return Math.max(0, Math.min(value, max));
+    }
+
+    /**
+     * The shape of an area ROI described as horizontal spans per row relative to
+     * its bounding box.
+     */
+    public static final class Kernel {
+        /** The width of the bounding box. */
+        private final int width;
+        /** The height of the bounding box. */
+        private final int height;
+        /** Index of the first span of each row, with one trailing entry. */
+        private final int[] rowOffsets;
+        /** The first x coordinate (inclusive) of each span. */
+        private final int[] spanStartX;
+        /** The last x coordinate (exclusive) of each span. */
+        private final int[] spanEndX;
+        /** Whether the kernel covers its whole bounding box. */
+        private final boolean rectangle;
+
+        private Kernel(int width, int height,
+                int[] rowOffsets, int[] spanStartX, int[] spanEndX, boolean rectangle) {
+            this.width = width;
+            this.height = height;
+            this.rowOffsets = rowOffsets;
+            this.spanStartX = spanStartX;
+            this.spanEndX = spanEndX;
+            this.rectangle = rectangle;
+        }
+
+        /**
+         * Create the kernel from the mask of an area ROI.
+         *
+         * The position of the ROI is irrelevant, only its shape is used.
+         *
+         * @param roi the area ROI
+         * @return the kernel
+         */
+        public static Kernel of(Roi roi) {
+            Rectangle bounds = roi.getBounds();
+            ImageProcessor maskProc = roi.getMask();
+            int width = maskProc == null ? bounds.width : maskProc.getWidth();
+            int height = maskProc == null ? bounds.height : maskProc.getHeight();
+            byte[] mask = maskProc == null ? null : (byte[]) maskProc.getPixels();
+
+            int[] rowOffsets = new int[height + 1];
+            int[] starts = new int[width * height / 2 + 1];
+            int[] ends = new int[starts.length];
+            int nSpans = 0;
+            boolean rectangle = true;
+            for (int y = 0; y < height; y++) {
+                rowOffsets[y] = nSpans;
+                int x = 0;
+                while (x < width) {
+                    if (mask != null && mask[y * width + x] == 0) {
+                        rectangle = false;
+                        x++;
+                        continue;
+                    }
+                    int start = x;
+                    while (x < width && (mask == null || mask[y * width + x] != 0)) {
+                        x++;
+                    }
+                    if (nSpans == starts.length) {
+                        starts = Arrays.copyOf(starts, nSpans * 2);
+                        ends = Arrays.copyOf(ends, nSpans * 2);
+                    }
+                    starts[nSpans] = start;
+                    ends[nSpans] = x;
+                    nSpans++;
+                }
+            }
+            rowOffsets[height] = nSpans;
+
+            return new Kernel(width, height, rowOffsets,
+                    Arrays.copyOf(starts, nSpans),
+                    Arrays.copyOf(ends, nSpans), rectangle);
+        }
+
+        /**
+         * Check if the kernel covers its whole bounding box and can therefore be
+         * evaluated in constant time.
+         *
+         * @return true if the kernel is a rectangle
+         */
+        public boolean isRectangle() {
+            return rectangle;
+        }
+    }
+}
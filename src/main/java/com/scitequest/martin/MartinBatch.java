@@ -0,0 +1,533 @@
+package com.scitequest.martin;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.scitequest.martin.export.Data;
+import com.scitequest.martin.export.DataStatistics;
+import com.scitequest.martin.export.Image;
+import com.scitequest.martin.export.JsonParseException;
+import com.scitequest.martin.export.Metadata;
+import com.scitequest.martin.export.Parameters;
+import com.scitequest.martin.export.Patient;
+import com.scitequest.martin.export.Project;
+import com.scitequest.martin.settings.MaskSettings;
+import com.scitequest.martin.settings.ProjectExt;
+import com.scitequest.martin.settings.Settings;
+import com.scitequest.martin.settings.exception.DuplicateElementException;
+
+import ij.IJ;
+import ij.ImagePlus;
+import net.imagej.ImageJ;
+
+/**
+ * Class containing the entrypoint for measuring whole directories of images
+ * without user interaction.
+ *
+ * Every TIFF image of the image directory is fitted, measured and exported into
+ * the export directory using the same mask and initial slide placement. The
+ * images pass through a {@link BatchPipeline} with separate stages for reading,
+ * fitting, measuring and exporting, so disk access overlaps with computation.
+ *
+ * In watch mode the process keeps running and measures every image written to
+ * the image directory as soon as it is complete, reusing the same ImageJ
+ * context for all images.
+ */
+public final class MartinBatch {
+
+    private static final Logger log = Logger.getLogger("com.scitequest.martin.MartinBatch");
+
+    private static final String USAGE = String.join(System.lineSeparator(),
+            "Usage: MartinBatch <image-dir> <mask.json> <export-dir> [options]",
+            "",
+            "Options:",
+            "  --position X Y     move the slide to the given position before fitting",
+            "  --rotation DEG     rotate the slide to the given angle before fitting",
+            "  --threads N        number of images fitted and measured concurrently",
+            "  --in-flight N      maximum number of images held in memory",
+            "  --settings PATH    settings to use instead of the default settings",
+            "  --imager NAME      imager stored in the metadata of the export",
+            "  --project PATH     project the images belong to",
+            "  --watch            keep measuring new images until terminated",
+            "  --settle-ms N      time a new image must remain unchanged before it is"
+                    + " measured");
+
+    /** The directory containing the images to measure. */
+    private final Path imageDirectory;
+    /** The mask JSON file as exported by MARTin. */
+    private final Path maskPath;
+    /** The base export directory. */
+    private final Path exportDirectory;
+    /** The position the slide is moved to or null to keep the initial one. */
+    private final int[] position;
+    /** The rotation of the slide or null to keep the initial one. */
+    private final Double rotation;
+    /** The number of workers of the fit and measure stages. */
+    private final int threads;
+    /** The maximum number of images inside the pipeline. */
+    private final int maxInFlight;
+    /** The settings file or null to use the default settings. */
+    private final Path settingsPath;
+    /** The imager stored in the image metadata. */
+    private final String imager;
+    /** The project JSON file or null if the images belong to no project. */
+    private final Path projectPath;
+    /** The time a new image must remain unchanged or null to not watch. */
+    private final Duration settleTime;
+
+    /** The project loaded from the project file. */
+    private Optional<ProjectExt> project = Optional.empty();
+    /** The settings with the mask activated, every image gets a copy. */
+    private Settings settings;
+
+    private MartinBatch(Path imageDirectory, Path maskPath, Path exportDirectory,
+            int[] position, Double rotation, int threads, int maxInFlight,
+            Path settingsPath, String imager, Path projectPath, Duration settleTime) {
+        this.imageDirectory = imageDirectory;
+        this.maskPath = maskPath;
+        this.exportDirectory = exportDirectory;
+        this.position = position;
+        this.rotation = rotation;
+        this.threads = threads;
+        this.maxInFlight = maxInFlight;
+        this.settingsPath = settingsPath;
+        this.imager = imager;
+        this.projectPath = projectPath;
+        this.settleTime = settleTime;
+    }
+
+    /**
+     * Parse the command line arguments.
+     *
+     * @param args the command line arguments
+     * @return the batch job
+     * @throws IllegalArgumentException if the arguments are invalid
+     */
+    static MartinBatch fromArgs(String[] args) throws IllegalArgumentException {
+        List<String> positional = new ArrayList<>();
+        int[] position = null;
+        Double rotation = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        Integer maxInFlight = null;
+        Path settingsPath = null;
+        String imager = "unknown";
+        Path projectPath = null;
+        boolean watch = false;
+        Duration settleTime = Duration.ofSeconds(2);
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--position":
+                        position = new int[] {
+                                Integer.parseInt(args[++i]), Integer.parseInt(args[++i]) };
+                        break;
+                    case "--rotation":
+                        rotation = Double.parseDouble(args[++i]);
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(args[++i]);
+                        break;
+                    case "--in-flight":
+                        maxInFlight = Integer.parseInt(args[++i]);
+                        break;
+                    case "--settings":
+                        settingsPath = Paths.get(args[++i]);
+                        break;
+                    case "--imager":
+                        imager = args[++i];
+                        break;
+                    case "--project":
+                        projectPath = Paths.get(args[++i]);
+                        break;
+                    case "--watch":
+                        watch = true;
+                        break;
+                    case "--settle-ms":
+                        settleTime = Duration.ofMillis(Long.parseLong(args[++i]));
+                        break;
+                    default:
+                        if (args[i].startsWith("--")) {
+                            throw new IllegalArgumentException("Unknown option " + args[i]);
+                        }
+                        positional.add(args[i]);
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Missing value of option", e);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number " + e.getMessage(), e);
+        }
+
+        if (positional.size() != 3) {
+            throw new IllegalArgumentException("Expected exactly three positional arguments");
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("Number of threads must be positive");
+        }
+        if (maxInFlight == null) {
+            // Enough images so every stage has one to work on
+            maxInFlight = threads * 2 + 2;
+        }
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("Number of images in flight must be positive");
+        }
+        if (imager.isBlank()) {
+            throw new IllegalArgumentException("Imager cannot be empty");
+        }
+        if (settleTime.isNegative()) {
+            throw new IllegalArgumentException("Settle time cannot be negative");
+        }
+        return new MartinBatch(Paths.get(positional.get(0)), Paths.get(positional.get(1)),
+                Paths.get(positional.get(2)), position, rotation, threads, maxInFlight,
+                settingsPath, imager, projectPath, watch ? settleTime : null);
+    }
+
+    /**
+     * Entrypoint for the batch measurement.
+     *
+     * Exits with status 0 if all images were exported, 1 if any image failed and
+     * 2 if the arguments are invalid. In watch mode the process runs until it is
+     * terminated.
+     *
+     * @param args the command line arguments, see {@link #USAGE}
+     */
+    public static void main(String[] args) {
+        MartinBatch batch;
+        try {
+            batch = fromArgs(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+
+        Thread.setDefaultUncaughtExceptionHandler(GlobalExceptionHandler.withLogger(log));
+
+        ImageJ ij = new ImageJ();
+        int failed;
+        try {
+            if (batch.settleTime != null) {
+                batch.watch(ij);
+                failed = 0;
+            } else {
+                failed = batch.run(ij);
+            }
+        } catch (IOException | JsonParseException e) {
+            log.log(Level.SEVERE, "Could not start measuring the images", e);
+            failed = 1;
+        } catch (InterruptedException e) {
+            log.severe("Interrupted while watching for new images");
+            failed = 1;
+        } finally {
+            ij.dispose();
+        }
+        System.exit(failed == 0 ? 0 : 1);
+    }
+
+    /**
+     * Measure and export all images of the image directory.
+     *
+     * @param ij the ImageJ handle
+     * @return the number of images that could not be measured or exported
+     * @throws IOException        if the image directory could not be listed or
+     *                            the project could not be read
+     * @throws JsonParseException if the project is invalid
+     */
+    public int run(ImageJ ij) throws IOException, JsonParseException {
+        loadProject();
+        loadSettings();
+        List<Path> images = listImages(imageDirectory);
+        log.info(String.format("Measuring %d images of '%s' using %d threads"
+                + " and at most %d images in flight",
+                images.size(), imageDirectory, threads, maxInFlight));
+
+        // Create the jobs lazily, so only the images in flight are held in memory
+        Iterable<ImageJob> jobs = () -> images.stream().map(ImageJob::new).iterator();
+        int failed;
+        try (BatchPipeline<ImageJob> pipeline = createPipeline(ij)) {
+            failed = pipeline.run(jobs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.severe("Interrupted while measuring the images");
+            return images.size();
+        }
+        log.info(String.format("Measured %d of %d images successfully",
+                images.size() - failed, images.size()));
+        return failed;
+    }
+
+    /**
+     * Measure and export every image of the image directory once it is
+     * completely written.
+     *
+     * Images already in the directory are measured as well. Runs until the JVM
+     * is shut down, then waits for the images already read to be exported.
+     *
+     * @param ij the ImageJ handle
+     * @throws IOException          if the image directory cannot be watched or
+     *                              the project could not be read
+     * @throws JsonParseException   if the project is invalid
+     * @throws InterruptedException if interrupted while watching
+     */
+    public void watch(ImageJ ij) throws IOException, JsonParseException, InterruptedException {
+        loadProject();
+        loadSettings();
+        log.info(String.format("Watching '%s' for new images using %d threads"
+                + " and at most %d images in flight",
+                imageDirectory, threads, maxInFlight));
+
+        CountDownLatch drained = new CountDownLatch(1);
+        try (BatchPipeline<ImageJob> pipeline = createPipeline(ij);
+                FolderWatcher watcher = FolderWatcher.of(imageDirectory,
+                        MartinBatch::isTiff, settleTime)) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                log.info("Shutting down, finishing images in flight");
+                try {
+                    watcher.close();
+                    drained.await();
+                } catch (IOException e) {
+                    log.log(Level.WARNING, "Could not stop watching", e);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            watcher.watch(file -> pipeline.submit(new ImageJob(file)));
+        } finally {
+            // Closing the pipeline above waited for all submitted images
+            drained.countDown();
+        }
+    }
+
+    /**
+     * Create the pipeline processing a single image.
+     *
+     * Reading and writing files is mostly limited by the disk, so these stages
+     * only use a single thread each.
+     *
+     * @param ij the ImageJ handle
+     * @return the pipeline
+     */
+    BatchPipeline<ImageJob> createPipeline(ImageJ ij) {
+        return BatchPipeline.<ImageJob>of(maxInFlight)
+                .addStage("decode", 1, this::decode)
+                .addStage("fit", threads, job -> fit(ij, job))
+                .addStage("measure", threads, this::measure)
+                .addStage("export", 1, this::export);
+    }
+
+    /**
+     * List the TIFF images of a directory in alphabetical order.
+     *
+     * @param directory the directory
+     * @return the paths of the images
+     * @throws IOException if the directory could not be listed
+     */
+    static List<Path> listImages(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(Files::isRegularFile)
+                    .filter(MartinBatch::isTiff)
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Check if the file name has a TIFF extension.
+     *
+     * @param path the file
+     * @return true if the file is a TIFF image
+     */
+    static boolean isTiff(Path path) {
+        String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(".tif") || name.endsWith(".tiff");
+    }
+
+    /**
+     * Read the image and its metadata.
+     *
+     * @param job the job of the image
+     * @throws IOException if the image could not be read
+     */
+    private void decode(ImageJob job) throws IOException {
+        log.info(String.format("Reading '%s'", job.imagePath));
+        ImagePlus iPlus = IJ.openImage(job.imagePath.toString());
+        if (iPlus == null) {
+            throw new IOException(String.format("Could not open image '%s'", job.imagePath));
+        }
+        job.image = iPlus;
+        job.metadata = createMetadata(job.imagePath);
+    }
+
+    /**
+     * Place the slide on the image and fit the measure fields.
+     *
+     * Every image gets its own copy of the settings, so the workers do not
+     * interfere.
+     *
+     * @param ij  the ImageJ handle
+     * @param job the job of the image
+     */
+    private void fit(ImageJ ij, ImageJob job) {
+        Control control;
+        // The ImageJ context is shared by all workers
+        synchronized (ij) {
+            control = Control.headless(ij, job.image, settings.copy());
+        }
+        control.repositionSlide();
+        if (position != null) {
+            control.moveSlide(position[0], position[1]);
+        }
+        if (rotation != null) {
+            control.rotateSlide(rotation);
+        }
+        control.measureFieldFit();
+        job.control = control;
+    }
+
+    /**
+     * Measure the fitted slide.
+     *
+     * @param job the job of the image
+     */
+    private void measure(ImageJob job) {
+        job.parameters = job.control.getMeasurementParameters();
+        job.data = Control.doMeasure(job.image.duplicate(), job.parameters);
+        job.dataStatistics = DataStatistics.analyze(job.data);
+    }
+
+    /**
+     * Export the measurement.
+     *
+     * @param job the job of the image
+     * @throws IOException if the measurement could not be exported
+     */
+    private void export(ImageJob job) throws IOException {
+        Path exportDir = job.control.exportMeasurement(exportDirectory, job.metadata,
+                job.parameters, job.data, job.dataStatistics)
+                .orElseThrow(() -> new IOException(String.format(
+                        "Could not export the measurement of '%s'", job.imagePath)));
+        log.info(String.format("Exported '%s' into '%s'", job.imagePath, exportDir));
+        job.release();
+    }
+
+    /**
+     * Load the project the images belong to, if any.
+     *
+     * @throws IOException        if the project could not be read
+     * @throws JsonParseException if the project is invalid
+     */
+    private void loadProject() throws IOException, JsonParseException {
+        if (projectPath != null) {
+            project = Optional.of(Settings.defaultSettings().getProjectSettings()
+                    .importProject(projectPath));
+        }
+    }
+
+    /**
+     * Load the settings and activate the mask.
+     *
+     * Both files are only read once per batch. The settings are never saved, so
+     * the user settings are not modified.
+     *
+     * @throws IOException        if the settings or mask could not be read
+     * @throws JsonParseException if the settings or mask are invalid
+     */
+    private void loadSettings() throws IOException, JsonParseException {
+        settings = settingsPath == null
+                ? Settings.defaultSettings()
+                : Settings.load(settingsPath);
+        MaskSettings maskSettings = settings.getMaskSettings();
+        try {
+            maskSettings.importMask(maskPath);
+        } catch (DuplicateElementException e) {
+            throw new JsonParseException(String.format(
+                    "A mask with the same name as '%s' already exists in the settings",
+                    maskPath), e);
+        }
+        maskSettings.setLastUsedMaskIndex(maskSettings.getNumberOfMasks() - 1);
+        maskSettings.setLastUsedMaskLastMeasurePointIndexToMax();
+    }
+
+    /**
+     * Create the metadata of an image.
+     *
+     * The file name without extension is used as sample ID and name. The image is
+     * considered created when it has been taken, or else when the file has been
+     * last modified.
+     *
+     * @param imagePath the image
+     * @return the metadata
+     * @throws IOException if the modification time of the file could not be read
+     */
+    private Metadata createMetadata(Path imagePath) throws IOException {
+        String fileName = imagePath.getFileName().toString();
+        String sampleId = fileName.substring(0, fileName.lastIndexOf('.'));
+        if (sampleId.isBlank()) {
+            sampleId = fileName;
+        }
+
+        File imageFile = imagePath.toFile();
+        ZonedDateTime created = Control.getDateTimeOriginalFromFile(imageFile)
+                .map(dt -> dt.atZone(ZoneId.systemDefault()))
+                .orElse(Files.getLastModifiedTime(imagePath).toInstant()
+                        .atZone(ZoneId.systemDefault()));
+
+        return Metadata.of(ZonedDateTime.now(), project.map(Project::fromProjectSettings),
+                Patient.of(sampleId, sampleId, Set.of()),
+                Image.of(created, imager, 1, Duration.ZERO),
+                project.map(ProjectExt::getIncubations).orElse(List.of()));
+    }
+
+    /**
+     * The intermediate results of a single image passed between the stages.
+     */
+    static final class ImageJob {
+        private final Path imagePath;
+        private ImagePlus image;
+        private Metadata metadata;
+        private Control control;
+        private Parameters parameters;
+        private Data data;
+        private DataStatistics dataStatistics;
+
+        private ImageJob(Path imagePath) {
+            this.imagePath = imagePath;
+        }
+
+        /**
+         * Drop the intermediate results once they have been exported.
+         */
+        private void release() {
+            image = null;
+            metadata = null;
+            control = null;
+            parameters = null;
+            data = null;
+            dataStatistics = null;
+        }
+
+        @Override
+        public String toString() {
+            return imagePath.toString();
+        }
+    }
+}
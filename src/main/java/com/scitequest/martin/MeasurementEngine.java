@@ -0,0 +1,211 @@
+package com.scitequest.martin;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+import com.scitequest.martin.export.Data;
+import com.scitequest.martin.export.Geometry;
+import com.scitequest.martin.export.Measurepoint;
+import com.scitequest.martin.export.Parameters;
+
+import ij.process.ImageStatistics;
+
+/**
+ * Measures all spots of an image concurrently.
+ *
+ * The spots are split into contiguous partitions which are measured on the
+ * configured executor. Each partition reads the shared {@link PixelSnapshot}
+ * with its own {@link SpotMeasurer}. The measurepoints are merged in spot order,
+ * so the result does not depend on the executor or the number of partitions.
+ */
+public final class MeasurementEngine {
+
+    /** The logger for this class. */
+    private static final Logger log = Logger.getLogger("com.scitequest.martin.MeasurementEngine");
+
+    /** The minimum number of spots measured by a single task. */
+    private static final int MIN_SPOTS_PER_TASK = 64;
+
+    /** The executor the measurement tasks are run on. */
+    private final Executor executor;
+    /** The maximum number of tasks a measurement is split into. */
+    private final int parallelism;
+
+    private MeasurementEngine(Executor executor, int parallelism) {
+        this.executor = executor;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Create a new measurement engine.
+     *
+     * @param executor    the executor to run the measurement tasks on
+     * @param parallelism the maximum number of tasks a measurement is split into
+     * @return the measurement engine
+     * @throws IllegalArgumentException if the parallelism is not positive
+     */
+    public static MeasurementEngine of(Executor executor, int parallelism)
+            throws IllegalArgumentException {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        return new MeasurementEngine(executor, parallelism);
+    }
+
+    /**
+     * Create a measurement engine running on the common fork-join pool.
+     *
+     * @return the measurement engine
+     */
+    public static MeasurementEngine ofCommonPool() {
+        return of(ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    /**
+     * Create a measurement engine that measures on the calling thread.
+     *
+     * @return the measurement engine
+     */
+    public static MeasurementEngine sequential() {
+        return of(Runnable::run, 1);
+    }
+
+    /**
+     * Measure all spots specified by the parameters.
+     *
+     * @param snapshot   the (already preprocessed) pixels to measure
+     * @param parameters the parameters specifying the spots
+     * @return the measured data
+     */
+    public Data measure(PixelSnapshot snapshot, Parameters parameters) {
+        return measure(snapshot, parameters, TaskMonitor.none());
+    }
+
+    /**
+     * Measure all spots specified by the parameters, reporting each measured spot
+     * to the monitor.
+     *
+     * @param snapshot   the (already preprocessed) pixels to measure
+     * @param parameters the parameters specifying the spots
+     * @param monitor    receives the progress, checked for cancellation before
+     *                   each spot
+     * @return the measured data
+     * @throws CancellationException if the measurement has been cancelled
+     */
+    public Data measure(PixelSnapshot snapshot, Parameters parameters, TaskMonitor monitor)
+            throws CancellationException {
+        List<SpotIndex> spotIndices = collectSpotIndices(parameters);
+        monitor.begin(spotIndices.size());
+
+        int nTasks = Math.max(1, Math.min(parallelism,
+                spotIndices.size() / MIN_SPOTS_PER_TASK));
+        int chunkSize = (spotIndices.size() + nTasks - 1) / nTasks;
+
+        List<CompletableFuture<List<Measurepoint>>> tasks = new ArrayList<>();
+        for (int start = 0; start < spotIndices.size(); start += chunkSize) {
+            List<SpotIndex> chunk = spotIndices.subList(start,
+                    Math.min(start + chunkSize, spotIndices.size()));
+            tasks.add(CompletableFuture.supplyAsync(
+                    () -> measureChunk(snapshot, parameters.getSpots(), chunk, monitor),
+                    executor));
+        }
+
+        List<Measurepoint> values;
+        try {
+            values = tasks.stream()
+                    .map(CompletableFuture::join)
+                    .flatMap(List::stream)
+                    .collect(Collectors.toList());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+        return Data.fromMeasurepoints(values);
+    }
+
+    /**
+     * Enumerate the spots that are measured in spot, row and column order.
+     *
+     * @param parameters the measurement parameters
+     * @return the indices of the spots
+     */
+    private static List<SpotIndex> collectSpotIndices(Parameters parameters) {
+        int maxSpotsPerSpotfield = parameters.getSpots().size()
+                / parameters.getNumberOfSpotfields();
+
+        List<SpotIndex> spotIndices = new ArrayList<>();
+        for (int spot = 0; spot < parameters.getNumberOfSpotfields(); spot++) {
+            for (int i = 0; i < parameters.getSpotsPerSpotfield(); i++) {
+                int row = i / parameters.getColumnsPerSpotfield();
+                int col = i % parameters.getColumnsPerSpotfield();
+                int absIdx = spot * maxSpotsPerSpotfield + i;
+                spotIndices.add(new SpotIndex(spot, row, col, absIdx));
+            }
+        }
+        return spotIndices;
+    }
+
+    private static List<Measurepoint> measureChunk(PixelSnapshot snapshot,
+            List<Geometry> spots, List<SpotIndex> chunk, TaskMonitor monitor) {
+        SpotMeasurer measurer = SpotMeasurer.of(snapshot);
+        List<Measurepoint> values = new ArrayList<>(chunk.size());
+        for (SpotIndex idx : chunk) {
+            monitor.checkCancelled();
+            SpotMask mask = SpotMask.of(spots.get(idx.absIdx),
+                    snapshot.getWidth(), snapshot.getHeight());
+            ImageStatistics imageStats = measurer.measure(mask);
+            values.add(toMeasurepoint(idx.spot, idx.row, idx.col, imageStats));
+            monitor.worked(1);
+        }
+        return values;
+    }
+
+    /**
+     * Create the measurepoint of a spot, replacing invalid values by zero.
+     *
+     * @param spot       the spotfield index
+     * @param row        the row within the spotfield
+     * @param col        the column within the spotfield
+     * @param imageStats the measured statistics
+     * @return the measurepoint
+     */
+    static Measurepoint toMeasurepoint(int spot, int row, int col, ImageStatistics imageStats) {
+        if (Double.isNaN(imageStats.mean)) {
+            log.warning(String.format("Measurepoint with indices (%d, %d, %d)"
+                    + " has invalid min/mean/max values (%f, %f, %f)."
+                    + " Ignoring and setting values to 0.0",
+                    spot, row, col, imageStats.min, imageStats.mean, imageStats.max));
+            imageStats.min = 0.0;
+            imageStats.mean = 0.0;
+            imageStats.max = 0.0;
+        }
+        return Measurepoint.of(spot, row, col,
+                imageStats.min, imageStats.max, imageStats.mean, imageStats.stdDev);
+    }
+
+    /**
+     * The position of a spot within the mask and the list of spot geometries.
+     */
+    private static final class SpotIndex {
+        private final int spot;
+        private final int row;
+        private final int col;
+        private final int absIdx;
+
+        private SpotIndex(int spot, int row, int col, int absIdx) {
+            this.spot = spot;
+            this.row = row;
+            this.col = col;
+            this.absIdx = absIdx;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.scitequest.martin;
+
+import ij.ImagePlus;
+import ij.process.ByteProcessor;
+import ij.process.FloatProcessor;
+import ij.process.ImageProcessor;
+import ij.process.ShortProcessor;
+
+/**
+ * An immutable copy of the pixels of a grayscale image.
+ *
+ * Unlike an {@link ImagePlus} a snapshot has no ROI or other mutable state, so
+ * it can be read by any number of threads concurrently.
+ */
+public final class PixelSnapshot {
+
+    /** The width of the image. */
+    private final int width;
+    /** The height of the image. */
+    private final int height;
+    /** The copied pixel array, either {@code byte[]}, {@code short[]} or {@code float[]}. */
+    private final Object pixels;
+    /** The calibration table of integer images, null if uncalibrated. */
+    private final float[] cTable;
+
+    private PixelSnapshot(int width, int height, Object pixels, float[] cTable) {
+        this.width = width;
+        this.height = height;
+        this.pixels = pixels;
+        this.cTable = cTable;
+    }
+
+    /**
+     * Check if the image type can be captured in a snapshot.
+     *
+     * RGB images are not supported as ImageJ measures their weighted brightness.
+     *
+     * @param iPlus the image
+     * @return true if supported
+     */
+    public static boolean isSupported(ImagePlus iPlus) {
+        ImageProcessor iProc = iPlus.getProcessor();
+        return iProc instanceof ByteProcessor
+                || iProc instanceof ShortProcessor
+                || iProc instanceof FloatProcessor;
+    }
+
+    /**
+     * Copy the pixels and calibration of the current processor of an image.
+     *
+     * @param iPlus the image
+     * @return the snapshot
+     * @throws IllegalArgumentException if the image type is not supported
+     */
+    public static PixelSnapshot of(ImagePlus iPlus) throws IllegalArgumentException {
+        if (!isSupported(iPlus)) {
+            throw new IllegalArgumentException("Unsupported image type for a pixel snapshot");
+        }
+        ImageProcessor iProc = iPlus.getProcessor();
+        Object pixels;
+        if (iProc instanceof ByteProcessor) {
+            pixels = ((byte[]) iProc.getPixels()).clone();
+        } else if (iProc instanceof ShortProcessor) {
+            pixels = ((short[]) iProc.getPixels()).clone();
+        } else {
+            pixels = ((float[]) iProc.getPixels()).clone();
+        }
+        float[] cTable = null;
+        if (!(iProc instanceof FloatProcessor)) {
+            float[] calibration = iPlus.getCalibration().getCTable();
+            cTable = calibration == null ? null : calibration.clone();
+        }
+        return new PixelSnapshot(iProc.getWidth(), iProc.getHeight(), pixels, cTable);
+    }
+
+    /**
+     * Get the width of the image.
+     *
+     * @return the width
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Get the height of the image.
+     *
+     * @return the height
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Get the raw pixel array.
+     *
+     * The array must not be modified.
+     *
+     * @return either a {@code byte[]}, {@code short[]} or {@code float[]}
+     */
+    Object getPixels() {
+        return pixels;
+    }
+
+    /**
+     * Get the calibration table.
+     *
+     * The array must not be modified.
+     *
+     * @return the calibration table or null if the image is uncalibrated
+     */
+    float[] getCTable() {
+        return cTable;
+    }
+}
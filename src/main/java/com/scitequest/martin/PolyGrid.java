@@ -6,6 +6,9 @@ import com.scitequest.martin.settings.MaskSettings.MeasureShape;
  * Objects of this class contain a grid of PolyShapes. The dimensions (rows and
  * cols) of said grid are fully customizable, a one by one grid would also be
  * possible.
+ *
+ * The corners of all PolyShapes are stored row by row in one contiguous
+ * storage, the PolyShapes only refer to their part of it.
  */
 public final class PolyGrid {
 
@@ -13,6 +16,10 @@ public final class PolyGrid {
      * A grid of polyShapes defined by its number of rows and columns.
      */
     private PolyShape[][] grid;
+    /**
+     * The corners of all polyShapes of the grid.
+     */
+    private final CornerStore store;
     /**
      * Number of columns of the grid.
      */
@@ -22,7 +29,7 @@ public final class PolyGrid {
      */
     private int rows;
     /**
-     * The absolute position of the upper left corner of the grid.
+     * The slide-local position of the upper left corner of the grid.
      */
     private Point pos;
     /**
@@ -66,11 +73,29 @@ public final class PolyGrid {
      */
     public static final double NO_INSET = 0;
 
+    /**
+     * Creates a grid of polyShapes belonging to a slide. All positions are
+     * slide-local.
+     *
+     * @param cols        number of columns of the grid.
+     * @param rows        number of rows of the grid.
+     * @param shape       the shape of the polygons within the grid.
+     * @param level       which Z-index the polygons are on.
+     * @param startPos    the upper left corner of the grid.
+     * @param width       the total width of the grid.
+     * @param height      the total height of the grid.
+     * @param xInset      inset in x direction for all polyShapes.
+     * @param yInset      inset in y direction for all polyShapes.
+     * @param shapeWidth  width of the shape within each cell.
+     * @param shapeHeight height of the shape within each cell.
+     * @param transform   the placement of the slide shared by all polyShapes.
+     */
     PolyGrid(int cols, int rows,
             MeasureShape shape, int level, Point startPos,
             double width, double height,
             double xInset, double yInset,
-            double shapeWidth, double shapeHeight) {
+            double shapeWidth, double shapeHeight,
+            SlideTransform transform) {
         this.columns = cols;
         this.rows = rows;
         this.shape = shape;
@@ -82,10 +107,13 @@ public final class PolyGrid {
         this.shapeHeight = shapeHeight;
         this.pos = startPos;
         this.grid = new PolyShape[rows][cols];
+        int nPoints = cornersOf(shape);
+        this.store = new CornerStore(rows * cols * nPoints, transform);
 
         double xPos;
         double yPos = pos.y;
         Point[] points = {};
+        int offset = 0;
 
         double gridSpaceX = width / cols;
         double gridSpaceY = height / rows;
@@ -118,7 +146,11 @@ public final class PolyGrid {
                 } else if (shape == MeasureShape.POINT) {
                     points = new Point[] { Point.of(xPos + xInset, yPos + yInset) };
                 }
-                grid[row][col] = new PolyShape(points, level, shape);
+                for (int i = 0; i < points.length; i++) {
+                    store.setLocal(offset + i, points[i].x, points[i].y);
+                }
+                grid[row][col] = new PolyShape(store, offset, nPoints, level, shape);
+                offset += nPoints;
                 xPos += gridSpaceX;
             }
             yPos += gridSpaceY;
@@ -126,59 +158,41 @@ public final class PolyGrid {
     }
 
     /**
-     * This method allows us to move all elements of the Grid linearly. If all
-     * elements of a slide are moved the same invoking calculateOrbits is
-     * unnecessary.
-     *
-     * @param deltaX change of Position on the X-Axis.
-     * @param deltaY change of Position on the Y-Axis.
-     */
-    public void moveGrid(double deltaX, double deltaY) {
-        for (int row = 0; row < grid.length; row++) {
-            for (int col = 0; col < grid[row].length; col++) {
-                grid[row][col].movePoly(deltaX, deltaY);
-            }
-        }
-    }
-
-    /**
-     * This method invokes Coordinate.calculateOrbit() for all coordinates contained
-     * within a grid.
+     * Returns the number of corners of each cell of a grid with the given shape.
      *
-     * @param rCenter the rotational center of the slide.
+     * @param shape the shape of the polygons within the grid.
+     * @return the number of corners.
      */
-    public void calculateGridOrbits(Point rCenter) {
-        for (int row = 0; row < grid.length; row++) {
-            for (int col = 0; col < grid[row].length; col++) {
-                grid[row][col].calculateOrbits(rCenter);
-            }
+    private static int cornersOf(MeasureShape shape) {
+        switch (shape) {
+            case RECTANGLE:
+            case CIRCLE:
+            case DIAMOND:
+                return RECTANGULAR;
+            case POINT:
+                return POINT;
+            default:
+                return 0;
         }
     }
 
     /**
-     * This method invokes Coordinate.setAngle() for all coordinates in all
-     * PolyShapes of the Grid.
+     * This method allows us to move all elements of the Grid linearly. Moving the
+     * whole slide is done by the slide transform instead.
      *
-     * @param angle   the change in angle.
-     * @param rCenter the rotational center of the slide.
+     * @param deltaX change of Position on the X-Axis.
+     * @param deltaY change of Position on the Y-Axis.
      */
-    public void rotateGridElements(double angle, Point rCenter) {
+    public void moveGrid(double deltaX, double deltaY) {
         for (int row = 0; row < grid.length; row++) {
             for (int col = 0; col < grid[row].length; col++) {
-                grid[row][col].setAngles(angle, rCenter);
+                grid[row][col].movePoly(deltaX, deltaY);
             }
         }
     }
 
     public double[][][] getGridCoordinates() {
-        int nCorners = 0;
-        if (shape == MeasureShape.RECTANGLE) {
-            nCorners = 4;
-        }
-        if (shape == MeasureShape.CIRCLE) {
-            nCorners = 1;
-        }
-        double[][][] ret = new double[rows * columns][nCorners][nCorners];
+        double[][][] ret = new double[rows * columns][][];
 
         for (int row = 0; row < rows; row++) {
             for (int col = 0; col < columns; col++) {
@@ -223,6 +237,25 @@ public final class PolyGrid {
 
     }
 
+    /**
+     * Returns the storage of the corners of all cells.
+     *
+     * @return the corner storage.
+     */
+    CornerStore getStore() {
+        return store;
+    }
+
+    /**
+     * Returns a bounding box of all cells in image coordinates. It may be larger
+     * than the cells if the slide is rotated.
+     *
+     * @return the minimum x, minimum y, maximum x and maximum y value.
+     */
+    public double[] getBounds() {
+        return store.getWorldBounds();
+    }
+
     public PolyShape getGridElement(int row, int col) {
         return grid[row][col];
     }
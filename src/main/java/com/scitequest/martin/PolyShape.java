@@ -8,11 +8,23 @@ import com.scitequest.martin.settings.MaskSettings.MeasureShape;
  */
 public final class PolyShape {
     /**
-     * Each coordinate corresponds to one of the four corners of our shape. The
-     * number of coordinates is variable, rectangles and lines are for example both
-     * possible. The coordinates should be sorted clockwise.
+     * The storage containing the corners of this polyShape. Each corner
+     * corresponds to one of the four corners of our shape. The number of corners
+     * is variable, rectangles and lines are for example both possible. The corners
+     * should be sorted clockwise.
+     *
+     * The storage may be shared with other polyShapes, e.g. all cells of a
+     * polyGrid.
+     */
+    private final CornerStore store;
+    /**
+     * Index of the first corner of this polyShape within the storage.
      */
-    private Coordinates[] corners;
+    private final int offset;
+    /**
+     * Number of corners of this polyShape.
+     */
+    private final int nPoints;
     /**
      * PolyShapes are not always supposed to be visible/interactable.
      */
@@ -37,22 +49,43 @@ public final class PolyShape {
      * @param shape    the shape this poly shape describes
      */
     PolyShape(Point[] pCorners, int level, MeasureShape shape) {
-        corners = new Coordinates[pCorners.length];
-        for (int i = 0; i < corners.length; i++) {
-            corners[i] = new Coordinates(pCorners[i]);
-        }
+        this(pCorners, level, shape, null);
+    }
+
+    /**
+     * This generates a polyShape object that is part of a slide.
+     *
+     * @param pCorners  the slide-local x and y values of each corner of our
+     *                  polygon.
+     * @param level     which Z-index this polyshape is on {@see level}
+     * @param shape     the shape this poly shape describes
+     * @param transform the placement of the slide, null if not part of a slide
+     */
+    PolyShape(Point[] pCorners, int level, MeasureShape shape, SlideTransform transform) {
+        this(CornerStore.of(pCorners, transform), 0, pCorners.length, level, shape);
+    }
+
+    /**
+     * This generates a polyShape object whose corners are part of a storage
+     * shared with other polyShapes.
+     *
+     * @param store   the storage containing the corners.
+     * @param offset  index of the first corner within the storage.
+     * @param nPoints number of corners.
+     * @param level   which Z-index this polyshape is on {@see level}
+     * @param shape   the shape this poly shape describes
+     */
+    PolyShape(CornerStore store, int offset, int nPoints, int level, MeasureShape shape) {
+        this.store = store;
+        this.offset = offset;
+        this.nPoints = nPoints;
         this.shape = shape;
         this.enabled = true;
         this.level = level;
     }
 
     public PolyShape getCopy() {
-        Point[] copyCorners = new Point[corners.length];
-        Point cornerPoint;
-        for (int i = 0; i < copyCorners.length; i++) {
-            cornerPoint = corners[i].getPoint();
-            copyCorners[i] = Point.of(cornerPoint.x, cornerPoint.y);
-        }
+        Point[] copyCorners = getCornersAsPoints();
         // Not sure if needed, do enums behave like objects?
         MeasureShape copyShape = MeasureShape.valueOf(shape.name());
         return new PolyShape(copyCorners, level, copyShape);
@@ -62,9 +95,11 @@ public final class PolyShape {
         if (!(this.getNPoints() == other.getNPoints())) {
             return null;
         }
-        Point[] avgPoints = new Point[corners.length];
-        for (int i = 0; i < corners.length; i++) {
-            avgPoints[i] = corners[i].getPoint().midpoint(other.getCornersAsPoints()[i]);
+        Point[] corners = getCornersAsPoints();
+        Point[] otherCorners = other.getCornersAsPoints();
+        Point[] avgPoints = new Point[nPoints];
+        for (int i = 0; i < nPoints; i++) {
+            avgPoints[i] = corners[i].midpoint(otherCorners[i]);
         }
         // Not sure if needed, do enums behave like objects?
         MeasureShape copyShape = MeasureShape.valueOf(shape.name());
@@ -78,8 +113,8 @@ public final class PolyShape {
      * @param y array containing y values.
      */
     public void setCoordinates(double[] x, double[] y) {
-        for (int i = 0; i < corners.length; i++) {
-            corners[i].setPoint(x[i], y[i]);
+        for (int i = 0; i < nPoints; i++) {
+            store.setWorld(offset + i, Point.of(x[i], y[i]));
         }
         /*
          * We could check if the length of the arrays and numbers of corners are the
@@ -93,8 +128,8 @@ public final class PolyShape {
      * @param p an array containing all points of the Polygon.
      */
     public void setCoordinates(Point[] p) {
-        for (int i = 0; i < corners.length; i++) {
-            corners[i].setPoint(p[i]);
+        for (int i = 0; i < nPoints; i++) {
+            store.setWorld(offset + i, p[i]);
         }
     }
 
@@ -162,16 +197,17 @@ public final class PolyShape {
      */
     public PolyShape isClickInsidePoly(double cX, double cY) {
         if (enabled) {
+            CornerStore.World world = store.world();
             // Special cases
-            for (int i = 0; i < corners.length; i++) {
-                if (corners[i].getY() == cY) {
+            for (int i = 0; i < nPoints; i++) {
+                if (world.y[offset + i] == cY) {
                     // Click exactly on corner
-                    if (corners[i].getX() == cX) {
+                    if (world.x[offset + i] == cX) {
                         return this;
                     }
                     // Click exactly on line
-                    if (corners[(i + 1) % 4].getY() == cY) {
-                        if (corners[i].getX() <= cX ^ corners[(i + 1) % 4].getX() <= cX) {
+                    if (world.y[offset + (i + 1) % 4] == cY) {
+                        if (world.x[offset + i] <= cX ^ world.x[offset + (i + 1) % 4] <= cX) {
                             return this;
                         }
                     }
@@ -181,34 +217,35 @@ public final class PolyShape {
             int iCount = 0;
             double a;
 
-            for (int i = 0; i < corners.length; i++) {
+            for (int i = 0; i < nPoints; i++) {
                 // A XOR B on y-axis -> one above and one below the click.
-                if (corners[i].getY() < cY ^ corners[(i + 1) % 4].getY() < cY) {
+                if (world.y[offset + i] < cY ^ world.y[offset + (i + 1) % 4] < cY) {
                     // Are both A and B in front of our click?
-                    if (corners[i].getX() >= cX && corners[(i + 1) % 4].getX() >= cX) {
+                    if (world.x[offset + i] >= cX && world.x[offset + (i + 1) % 4] >= cX) {
                         // Our click is to the left of a line.
                         iCount++;
                     } else {
                         // Is A in front of the click?
-                        if (corners[i].getX() >= cX) {
-                            a = (corners[i].getY() - corners[(i + 1) % 4].getY())
-                                    / (corners[i].getX() - corners[(i + 1) % 4].getX());
+                        if (world.x[offset + i] >= cX) {
+                            a = (world.y[offset + i] - world.y[offset + (i + 1) % 4])
+                                    / (world.x[offset + i] - world.x[offset + (i + 1) % 4]);
 
                             a = Math.abs(a);
 
-                            if (a != 0 && (cX - corners[(i + 1) % 4].getX()) * a < Math
-                                    .abs(cY - corners[(i + 1) % 4].getY())) {
+                            if (a != 0 && (cX - world.x[offset + (i + 1) % 4]) * a < Math
+                                    .abs(cY - world.y[offset + (i + 1) % 4])) {
                                 iCount++;
                             }
                         } else {
                             // Is B in front of the click?
-                            if (corners[(i + 1) % 4].getX() >= cX) {
-                                a = (corners[(i + 1) % 4].getY() - corners[i].getY())
-                                        / (corners[(i + 1) % 4].getX() - corners[i].getX());
+                            if (world.x[offset + (i + 1) % 4] >= cX) {
+                                a = (world.y[offset + (i + 1) % 4] - world.y[offset + i])
+                                        / (world.x[offset + (i + 1) % 4] - world.x[offset + i]);
 
                                 a = Math.abs(a);
 
-                                if (a != 0 && (cX - corners[i].getX()) * a < Math.abs(cY - corners[i].getY())) {
+                                if (a != 0 && (cX - world.x[offset + i]) * a
+                                        < Math.abs(cY - world.y[offset + i])) {
                                     iCount++;
                                 }
                             }
@@ -248,40 +285,14 @@ public final class PolyShape {
     }
 
     /**
-     * This method invokes Coordinate.calculateOrbit() for all coordinates.
-     *
-     * @param rCenter the rotational center of the slide.
-     */
-    public void calculateOrbits(Point rCenter) {
-        for (int i = 0; i < corners.length; i++) {
-            corners[i].calculateOrbit(rCenter);
-        }
-    }
-
-    /**
-     * This method allows us to move a polygon linearly. If all elements of a slide
-     * are moved the same invoking calculateOrbits is unnecessary.
+     * This method allows us to move a polygon linearly. Moving the whole slide is
+     * done by the slide transform instead.
      *
      * @param deltaX change of Position on the X-Axis.
      * @param deltaY change of Position on the Y-Axis.
      */
     public void movePoly(double deltaX, double deltaY) {
-        for (int i = 0; i < corners.length; i++) {
-            corners[i].setPoint(corners[i].getX() + deltaX, corners[i].getY() + deltaY);
-        }
-    }
-
-    /**
-     * This method invokes Coordinate.setAngle() for all coordinates and adds the
-     * change to the saved angle value.
-     *
-     * @param angle   the change in angle.
-     * @param rCenter the rotational center of the slide.
-     */
-    public void setAngles(double angle, Point rCenter) {
-        for (int i = 0; i < corners.length; i++) {
-            corners[i].setAngle(angle + corners[i].getAngle(), rCenter);
-        }
+        store.moveWorld(offset, offset + nPoints, deltaX, deltaY);
     }
 
     /**
@@ -292,12 +303,13 @@ public final class PolyShape {
      *         x-values, 1 contains the y-values.
      */
     public double[][] getPolyCoordinates() {
+        CornerStore.World world = store.world();
         int dim = 2; // dim as in the number of dimensions our coordinate system has.
-        double[][] ret = new double[dim][corners.length];
+        double[][] ret = new double[dim][nPoints];
 
         for (int i = 0; i < ret[0].length; i++) {
-            ret[0][i] = corners[i].getX();
-            ret[1][i] = corners[i].getY();
+            ret[0][i] = world.x[offset + i];
+            ret[1][i] = world.y[offset + i];
         }
         return ret;
     }
@@ -310,15 +322,16 @@ public final class PolyShape {
      * @return the center Point.
      */
     public Point getShapeCenter() {
+        CornerStore.World world = store.world();
         double x = 0;
         double y = 0;
 
-        for (Coordinates corner : corners) {
-            x = x + corner.getX();
-            y = y + corner.getY();
+        for (int i = 0; i < nPoints; i++) {
+            x = x + world.x[offset + i];
+            y = y + world.y[offset + i];
         }
-        x /= corners.length;
-        y /= corners.length;
+        x /= nPoints;
+        y /= nPoints;
         return Point.of(x, y);
     }
 
@@ -329,12 +342,13 @@ public final class PolyShape {
      * @return double array containing distances.
      */
     public double[] calculateVectorLengths() {
-        double distances[] = new double[corners.length];
+        CornerStore.World world = store.world();
+        double distances[] = new double[nPoints];
         double deltaX;
         double deltaY;
         for (int i = 0; i < distances.length; i++) {
-            deltaX = corners[i].getX() + corners[(i + 1) % 4].getX();
-            deltaY = corners[i].getY() + corners[(i + 1) % 4].getY();
+            deltaX = world.x[offset + i] + world.x[offset + (i + 1) % 4];
+            deltaY = world.y[offset + i] + world.y[offset + (i + 1) % 4];
             distances[i] = Math.sqrt((deltaX * deltaX + deltaY * deltaY));
         }
         return distances;
@@ -375,11 +389,12 @@ public final class PolyShape {
             deltaDist = boundRectDeltas;
         }
 
+        CornerStore.World world = store.world();
         Point[] shrunkenShapePoints = new Point[sShape.getNPoints()];
         for (int i = 0; i < shrunkenShapePoints.length; i++) {
 
-            cX = this.corners[i].getX() + deltaDist[i].x;
-            cY = this.corners[i].getY() + deltaDist[i].y;
+            cX = world.x[offset + i] + deltaDist[i].x;
+            cY = world.y[offset + i] + deltaDist[i].y;
             shrunkenShapePoints[i] = Point.of(cX, cY);
         }
 
@@ -422,22 +437,53 @@ public final class PolyShape {
     }
 
     public int getNPoints() {
-        return corners.length;
+        return nPoints;
+    }
+
+    /**
+     * Returns the storage containing the corners of this polyShape.
+     *
+     * @return the storage.
+     */
+    CornerStore getStore() {
+        return store;
+    }
+
+    /**
+     * Returns the axis aligned bounding box of this polyShape in slide-local
+     * coordinates.
+     *
+     * @return the minimum x, minimum y, maximum x and maximum y value.
+     */
+    double[] getLocalBounds() {
+        double[] bounds = {
+                Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY,
+                Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY };
+        for (int i = offset; i < offset + nPoints; i++) {
+            bounds[0] = Math.min(bounds[0], store.getLocalX(i));
+            bounds[1] = Math.min(bounds[1], store.getLocalY(i));
+            bounds[2] = Math.max(bounds[2], store.getLocalX(i));
+            bounds[3] = Math.max(bounds[3], store.getLocalY(i));
+        }
+        return bounds;
     }
 
     public Point[] getCornersAsPoints() {
-        Point[] pointCorners = new Point[corners.length];
-        for (int c = 0; c < corners.length; c++) {
-            pointCorners[c] = corners[c].getPoint();
+        CornerStore.World world = store.world();
+        Point[] pointCorners = new Point[nPoints];
+        for (int c = 0; c < nPoints; c++) {
+            pointCorners[c] = Point.of(world.x[offset + c], world.y[offset + c]);
         }
         return pointCorners;
     }
 
     @Override
     public String toString() {
-        return "PolyShape [corners=" + corners[0].getX() + ", " + corners[0].getY()
+        CornerStore.World world = store.world();
+        return "PolyShape [corners=" + world.x[offset] + ", " + world.y[offset]
                 + ", enabled=" + enabled
                 + ", level=" + level
                 + ", shape=" + shape + "]";
     }
+
 }
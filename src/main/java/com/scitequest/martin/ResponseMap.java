@@ -0,0 +1,133 @@
+package com.scitequest.martin;
+
+/**
+ * Exhaustive alternative to the {@link SearchArea} fitting algorithm.
+ *
+ * Instead of hill-climbing from a set of seeds, the mean of the measure field is
+ * evaluated for every pixel position within the search perimeter and the
+ * position with the highest mean is taken. Since the integral image answers each
+ * mean in (nearly) constant time this is both faster and guaranteed to find the
+ * global maximum.
+ */
+public final class ResponseMap {
+    /** Sub-pixel offsets tried to find a point of a cell inside the perimeter. */
+    private static final double[] CELL_OFFSETS = { 0.5, 1e-6, 1.0 - 1e-6 };
+
+    private final IntegralImage integralImage;
+    private final IntegralImage.Kernel scanKernel;
+    private final PolyShape searchPerimeter;
+    private final double hWidth;
+    private final double hHeight;
+
+    private ResponseMap(IntegralImage integralImage, IntegralImage.Kernel scanKernel,
+            PolyShape searchPerimeter, double hWidth, double hHeight) {
+        this.integralImage = integralImage;
+        this.scanKernel = scanKernel;
+        this.searchPerimeter = searchPerimeter;
+        this.hWidth = hWidth;
+        this.hHeight = hHeight;
+    }
+
+    /**
+     * Create a new response map for a single spotfield cell.
+     *
+     * @param integralImage   the integral image of the (LUT-inverted) image
+     * @param scanKernel      the shape of the measure field
+     * @param searchPerimeter the area the center of the measure field may be
+     *                        placed in
+     * @param hWidth          half the width of the measure field
+     * @param hHeight         half the height of the measure field
+     * @return the response map
+     */
+    public static ResponseMap of(IntegralImage integralImage, IntegralImage.Kernel scanKernel,
+            PolyShape searchPerimeter, double hWidth, double hHeight) {
+        return new ResponseMap(integralImage, scanKernel, searchPerimeter, hWidth, hHeight);
+    }
+
+    /**
+     * Searches the center position of the measure field with the highest mean.
+     *
+     * Measure field positions are truncated to whole pixels, so every pixel
+     * position whose area intersects the search perimeter is evaluated once. The
+     * corners of the perimeter are evaluated as well, since they are valid
+     * positions too.
+     *
+     * @return the center of the highest value position
+     */
+    public Point searchForAbsoluteMax() {
+        Point[] corners = searchPerimeter.getCornersAsPoints();
+        double minX = Double.MAX_VALUE;
+        double minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE;
+        double maxY = -Double.MAX_VALUE;
+        for (Point corner : corners) {
+            minX = Math.min(minX, corner.x);
+            minY = Math.min(minY, corner.y);
+            maxX = Math.max(maxX, corner.x);
+            maxY = Math.max(maxY, corner.y);
+        }
+
+        Point maxPos = searchPerimeter.getShapeCenter();
+        double maxValue = Double.NEGATIVE_INFINITY;
+        for (Point corner : corners) {
+            double value = meanAt(corner.x, corner.y);
+            if (value > maxValue) {
+                maxValue = value;
+                maxPos = corner;
+            }
+        }
+
+        int xStart = (int) Math.floor(minX - hWidth);
+        int xEnd = (int) Math.floor(maxX - hWidth);
+        int yStart = (int) Math.floor(minY - hHeight);
+        int yEnd = (int) Math.floor(maxY - hHeight);
+        for (int y = yStart; y <= yEnd; y++) {
+            for (int x = xStart; x <= xEnd; x++) {
+                Point inside = findPointInside(x, y);
+                if (inside == null) {
+                    continue;
+                }
+                double value = integralImage.mean(scanKernel, x, y);
+                if (value > maxValue) {
+                    maxValue = value;
+                    maxPos = inside;
+                }
+            }
+        }
+
+        return maxPos;
+    }
+
+    /**
+     * Measures the mean of the measure field centered at the given position.
+     *
+     * @param x the x coordinate of the center
+     * @param y the y coordinate of the center
+     * @return the mean
+     */
+    private double meanAt(double x, double y) {
+        return integralImage.mean(scanKernel, (int) (x - hWidth), (int) (y - hHeight));
+    }
+
+    /**
+     * Finds a center point inside the search perimeter that places the measure
+     * field at the given pixel position.
+     *
+     * @param x the x coordinate of the top left corner of the measure field
+     * @param y the y coordinate of the top left corner of the measure field
+     * @return the center point or null if the position is outside the perimeter
+     */
+    private Point findPointInside(int x, int y) {
+        for (double yOffset : CELL_OFFSETS) {
+            for (double xOffset : CELL_OFFSETS) {
+                double cX = x + xOffset + hWidth;
+                double cY = y + yOffset + hHeight;
+                if ((int) (cX - hWidth) == x && (int) (cY - hHeight) == y
+                        && searchPerimeter.isClickInsidePoly(cX, cY) != null) {
+                    return Point.of(cX, cY);
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -5,16 +5,15 @@ import java.util.List;
 
 import com.scitequest.martin.settings.MaskSettings.MeasureShape;
 
-import ij.ImagePlus;
 import ij.gui.OvalRoi;
 import ij.gui.PolygonRoi;
 import ij.gui.Roi;
-import ij.plugin.filter.Analyzer;
 import ij.process.FloatPolygon;
 
 public final class SearchArea {
     private final Control control;
-    private final ImagePlus iPlus;
+    private final IntegralImage integralImage;
+    private final IntegralImage.Kernel scanKernel;
     private final PolyShape searchPerimeter;
     private final PolyShape measureField;
     private final double radius;
@@ -23,18 +22,19 @@ public final class SearchArea {
     private final double widthRatio;
     private final double heightRatio;
 
-    private final Roi scanField;
     private final ArrayList<SearchField> searchFields = new ArrayList<SearchField>();
     private int rows;
     private int cols;
 
-    private SearchArea(Control control, ImagePlus iPlus,
+    private SearchArea(Control control,
+            IntegralImage integralImage, IntegralImage.Kernel scanKernel,
             PolyShape searchPerimeter, PolyShape measureField,
             double radius,
             double hWidth, double hHeight,
             double widthRatio, double heightRatio) {
         this.control = control;
-        this.iPlus = iPlus;
+        this.integralImage = integralImage;
+        this.scanKernel = scanKernel;
         this.searchPerimeter = searchPerimeter;
         this.measureField = measureField;
         this.radius = radius;
@@ -43,28 +43,15 @@ public final class SearchArea {
         this.widthRatio = widthRatio;
         this.heightRatio = heightRatio;
 
-        /*
-         * We generate the polygon once in a random spot, since it is moveable in its
-         * entirety. After this we just shift its position for measurements.
-         */
-        if (measureField.getShape() == MeasureShape.CIRCLE) {
-            this.scanField = new OvalRoi(0, 0, radius * 2, radius * 2);
-        } else {
-            FloatPolygon roiPoly = new FloatPolygon();
-            double[][] measureElementCoords = measureField.getPolyCoordinates();
-            for (int i = 0; i < measureElementCoords[0].length; i++) {
-                roiPoly.addPoint(measureElementCoords[0][i], measureElementCoords[1][i]);
-            }
-            this.scanField = new PolygonRoi(roiPoly, Roi.POLYGON);
-        }
         // tightPopulation();
         loosePopulation();
     }
 
-    public static SearchArea of(Control control, ImagePlus iPlus, PolyShape searchPerimeter,
-            PolyShape measureGridElement,
+    public static SearchArea of(Control control,
+            IntegralImage integralImage, IntegralImage.Kernel scanKernel,
+            PolyShape searchPerimeter, PolyShape measureGridElement,
             double radius, double hWidth, double hHeight, double widthRatio, double heightRatio) {
-        return new SearchArea(control, iPlus,
+        return new SearchArea(control, integralImage, scanKernel,
                 searchPerimeter, measureGridElement,
                 radius, hWidth, hHeight,
                 widthRatio, heightRatio);
@@ -75,13 +62,35 @@ public final class SearchArea {
         if (respectBounds && searchPerimeter.isClickInsidePoly(x, y) == null) {
             return -1;
         }
-        scanField.setLocation(x - hWidth, y - hHeight);
-
-        iPlus.setRoi(scanField);
-        double mean = iPlus.getStatistics(Analyzer.getMeasurements()).mean;
-        iPlus.killRoi();
+        // Truncate the location like ImageJ does when moving a ROI
+        return integralImage.mean(scanKernel, (int) (x - hWidth), (int) (y - hHeight));
+    }
 
-        return mean;
+    /**
+     * Creates the kernel of the scan field used to measure the mean of possible
+     * measure field positions.
+     *
+     * The shape is generated once in a random spot, since it is moveable in its
+     * entirety. After this it is just shifted for measurements.
+     *
+     * @param measureField the measure field whose shape is used
+     * @param radius       the radius of the measure field, only relevant if the
+     *                     shape is a circle
+     * @return the scan field kernel
+     */
+    public static IntegralImage.Kernel createScanKernel(PolyShape measureField, double radius) {
+        Roi scanField;
+        if (measureField.getShape() == MeasureShape.CIRCLE) {
+            scanField = new OvalRoi(0, 0, radius * 2, radius * 2);
+        } else {
+            FloatPolygon roiPoly = new FloatPolygon();
+            double[][] measureElementCoords = measureField.getPolyCoordinates();
+            for (int i = 0; i < measureElementCoords[0].length; i++) {
+                roiPoly.addPoint(measureElementCoords[0][i], measureElementCoords[1][i]);
+            }
+            scanField = new PolygonRoi(roiPoly, Roi.POLYGON);
+        }
+        return IntegralImage.Kernel.of(scanField);
     }
 
     private void loosePopulation() {
@@ -0,0 +1,221 @@
+package com.scitequest.martin;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.scitequest.martin.settings.MaskSettings.MeasureShape;
+
+/**
+ * A spatial index of the elements of a slide, used to find the elements below a
+ * mouse click without testing every single one of them.
+ *
+ * The index is a uniform grid of buckets in slide-local coordinates. Every
+ * element is registered in all buckets its bounding box overlaps. A click is
+ * transformed into slide-local coordinates with the inverse slide transform,
+ * so the index stays valid while the slide is moved or rotated. Only moving
+ * individual elements makes it outdated.
+ */
+final class ShapeIndex {
+
+    /**
+     * Tolerance added to all bounding boxes, so clicks exactly on the border of an
+     * element are not lost to rounding errors of the inverse transform.
+     */
+    private static final double TOLERANCE = 1e-6;
+    /** Upper bound of the number of buckets per element. */
+    private static final int BUCKETS_PER_ELEMENT = 4;
+
+    /** The placement of the slide the elements belong to. */
+    private final SlideTransform transform;
+    /** All indexed elements in the order they have been added. */
+    private final List<PolyShape> shapes;
+    /** The radius used for the hit test of each element. */
+    private final double[] radii;
+    /** The number of changes of each corner storage when the index was built. */
+    private final Map<CornerStore, Long> modifications = new IdentityHashMap<>();
+
+    /** The slide-local x-coordinate of the left border of the bucket grid. */
+    private double originX;
+    /** The slide-local y-coordinate of the top border of the bucket grid. */
+    private double originY;
+    /** The width and height of a bucket. */
+    private double bucketSize;
+    /** The number of bucket columns. */
+    private int nCols;
+    /** The number of bucket rows. */
+    private int nRows;
+    /**
+     * The start of the elements of each bucket within {@link #bucketShapes}. The
+     * elements of bucket i are stored from bucketStart[i] to bucketStart[i + 1].
+     */
+    private int[] bucketStart;
+    /** The indices of the elements of all buckets, bucket by bucket. */
+    private int[] bucketShapes;
+
+    private ShapeIndex(SlideTransform transform, List<PolyShape> shapes, double[] radii) {
+        this.transform = transform;
+        this.shapes = shapes;
+        this.radii = radii;
+    }
+
+    /**
+     * Builds an index of the given elements.
+     *
+     * @param transform the placement of the slide the elements belong to.
+     * @param shapes    the elements to index.
+     * @param radii     the radius used for the hit test of each element, only
+     *                  relevant for circles.
+     * @return the index.
+     */
+    static ShapeIndex of(SlideTransform transform, List<PolyShape> shapes, double[] radii) {
+        ShapeIndex index = new ShapeIndex(transform, shapes, radii);
+        index.build();
+        return index;
+    }
+
+    private void build() {
+        int n = shapes.size();
+        double[][] bounds = new double[n][];
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        double sumExtent = 0;
+        for (int i = 0; i < n; i++) {
+            PolyShape shape = shapes.get(i);
+            modifications.put(shape.getStore(), shape.getStore().getModifications());
+            bounds[i] = hitBounds(shape, radii[i]);
+            minX = Math.min(minX, bounds[i][0]);
+            minY = Math.min(minY, bounds[i][1]);
+            maxX = Math.max(maxX, bounds[i][2]);
+            maxY = Math.max(maxY, bounds[i][3]);
+            sumExtent += Math.max(bounds[i][2] - bounds[i][0], bounds[i][3] - bounds[i][1]);
+        }
+        if (n == 0) {
+            nCols = 0;
+            nRows = 0;
+            bucketStart = new int[] { 0 };
+            bucketShapes = new int[0];
+            return;
+        }
+
+        // Buckets about the size of an element, but not too many of them
+        originX = minX;
+        originY = minY;
+        bucketSize = Math.max(sumExtent / n, TOLERANCE);
+        double width = maxX - minX;
+        double height = maxY - minY;
+        double maxBuckets = (double) BUCKETS_PER_ELEMENT * n + 16;
+        double nBuckets = (Math.floor(width / bucketSize) + 1)
+                * (Math.floor(height / bucketSize) + 1);
+        if (nBuckets > maxBuckets) {
+            bucketSize *= Math.sqrt(nBuckets / maxBuckets) + TOLERANCE;
+        }
+        nCols = (int) Math.floor(width / bucketSize) + 1;
+        nRows = (int) Math.floor(height / bucketSize) + 1;
+
+        // Count the elements per bucket first, so all fit into a single array
+        bucketStart = new int[nCols * nRows + 1];
+        for (double[] b : bounds) {
+            for (int row = rowOf(b[1]); row <= rowOf(b[3]); row++) {
+                for (int col = colOf(b[0]); col <= colOf(b[2]); col++) {
+                    bucketStart[row * nCols + col + 1]++;
+                }
+            }
+        }
+        for (int i = 1; i < bucketStart.length; i++) {
+            bucketStart[i] += bucketStart[i - 1];
+        }
+        bucketShapes = new int[bucketStart[bucketStart.length - 1]];
+        int[] fill = bucketStart.clone();
+        for (int i = 0; i < n; i++) {
+            double[] b = bounds[i];
+            for (int row = rowOf(b[1]); row <= rowOf(b[3]); row++) {
+                for (int col = colOf(b[0]); col <= colOf(b[2]); col++) {
+                    bucketShapes[fill[row * nCols + col]++] = i;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the slide-local area in which a click may hit the element.
+     *
+     * Circles are hit within a square around their center that is aligned to the
+     * image, which extends beyond the circle itself once the slide is rotated.
+     *
+     * @param shape  the element.
+     * @param radius the radius used for the hit test.
+     * @return the minimum x, minimum y, maximum x and maximum y value.
+     */
+    private static double[] hitBounds(PolyShape shape, double radius) {
+        double[] bounds = shape.getLocalBounds();
+        if (shape.getShape() == MeasureShape.CIRCLE) {
+            double centerX = (bounds[0] + bounds[2]) / 2;
+            double centerY = (bounds[1] + bounds[3]) / 2;
+            double reach = radius * Math.sqrt(2);
+            bounds[0] = Math.min(bounds[0], centerX - reach);
+            bounds[1] = Math.min(bounds[1], centerY - reach);
+            bounds[2] = Math.max(bounds[2], centerX + reach);
+            bounds[3] = Math.max(bounds[3], centerY + reach);
+        }
+        bounds[0] -= TOLERANCE;
+        bounds[1] -= TOLERANCE;
+        bounds[2] += TOLERANCE;
+        bounds[3] += TOLERANCE;
+        return bounds;
+    }
+
+    private int colOf(double x) {
+        return Math.min(nCols - 1, Math.max(0, (int) Math.floor((x - originX) / bucketSize)));
+    }
+
+    private int rowOf(double y) {
+        return Math.min(nRows - 1, Math.max(0, (int) Math.floor((y - originY) / bucketSize)));
+    }
+
+    /**
+     * Checks if any of the indexed elements has been moved since the index was
+     * built. Moving or rotating the whole slide does not outdate the index.
+     *
+     * @return true if the index has to be rebuilt.
+     */
+    boolean isOutdated() {
+        for (Map.Entry<CornerStore, Long> entry : modifications.entrySet()) {
+            if (entry.getKey().getModifications() != entry.getValue()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns all enabled elements hit by a click.
+     *
+     * @param x the x-position of the click in image coordinates.
+     * @param y the y-position of the click in image coordinates.
+     * @return the elements hit in the order they have been added to the index.
+     */
+    List<PolyShape> shapesAt(double x, double y) {
+        List<PolyShape> ret = new ArrayList<>();
+        if (nCols == 0) {
+            return ret;
+        }
+        Point local = transform.applyInverse(Point.of(x, y));
+        double col = Math.floor((local.x - originX) / bucketSize);
+        double row = Math.floor((local.y - originY) / bucketSize);
+        if (col < 0 || col >= nCols || row < 0 || row >= nRows) {
+            return ret;
+        }
+        int bucket = (int) row * nCols + (int) col;
+        for (int i = bucketStart[bucket]; i < bucketStart[bucket + 1]; i++) {
+            PolyShape shape = shapes.get(bucketShapes[i]);
+            if (shape.isEnabled() && shape.isWithinBounds(x, y, radii[bucketShapes[i]]) != null) {
+                ret.add(shape);
+            }
+        }
+        return ret;
+    }
+}
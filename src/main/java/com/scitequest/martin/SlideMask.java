@@ -1,8 +1,10 @@
 package com.scitequest.martin;
 
 import java.awt.Color;
+import java.awt.geom.Rectangle2D;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.scitequest.martin.settings.MaskExt;
 import com.scitequest.martin.settings.MaskSettings.MeasureShape;
@@ -11,6 +13,9 @@ import com.scitequest.martin.view.AlphabeticNumberEditor;
 import com.scitequest.martin.view.Drawable;
 
 public final class SlideMask {
+    /** Source of draw revisions, unique across all slide masks. */
+    private static final AtomicLong DRAW_REVISIONS = new AtomicLong();
+
     private Settings settings;
 
     /**
@@ -44,6 +49,12 @@ public final class SlideMask {
 
     /** The x and y location of the rotational center. */
     private Point rCenter;
+    /**
+     * The placement of the slide on the image. All elements store slide-local
+     * coordinates and share this transform, so moving or rotating the slide does
+     * not touch any of them.
+     */
+    private final SlideTransform transform = new SlideTransform();
     /** Coordinates of the slide itself. */
     private PolyShape slide;
     /** vertical lines dennoting the columns of the superGrid. */
@@ -78,6 +89,21 @@ public final class SlideMask {
 
     private ArrayList<PolyShape> grabbedShapes;
 
+    /**
+     * Index of all measureFields for hit-testing, null if it has to be built
+     * first.
+     */
+    private ShapeIndex measureFieldIndex;
+    /**
+     * Index of all noise rectangles for hit-testing, null if it has to be built
+     * first.
+     */
+    private ShapeIndex noiseRectIndex;
+    /** The current draw revision, see {@link #getDrawRevision()}. */
+    private long drawRevision;
+    /** The number of changes of all elements when the draw revision was set. */
+    private long drawnModifications;
+
     /**
      * Number of corners in a rectangle.
      */
@@ -120,6 +146,24 @@ public final class SlideMask {
      */
     public static final double MINIMUM_NOISE_RECT_HEIGHT = 5;
 
+    /**
+     * Tolerance in image pixels added to the visible area when culling elements,
+     * so outlines on its border are not lost to the line width or rounding.
+     */
+    private static final double CULLING_TOLERANCE = 2;
+    /** Extent of a spotfield label around its position in image pixels. */
+    private static final double LABEL_EXTENT = 30;
+    /**
+     * Magnification below which spotfield annotations are not drawn, as the labels
+     * would be too small to read.
+     */
+    private static final double MIN_LABEL_MAGNIFICATION = 0.4;
+    /**
+     * Size in pixels on the drawing surface below which the cells of a reduced
+     * view are drawn as their centroids only.
+     */
+    private static final double MIN_CELL_SIZE = 4;
+
     private MaskExt maskParameters;
 
     /**
@@ -163,6 +207,9 @@ public final class SlideMask {
         int spotFieldNColumns = maskParameters.getSpotFieldNColumns();
         int spotFieldNRows = maskParameters.getSpotFieldNRows();
         int spotfieldLastMeasurepointIndex = settings.getMaskSettings().getLastMeasurePointIndex();
+        transform.reset();
+        measureFieldIndex = null;
+        noiseRectIndex = null;
         /*
          * Setup of the slide outline.
          */
@@ -175,7 +222,7 @@ public final class SlideMask {
         slidePoints[2] = Point.of(slideWidth + ZERO_POSITION_X, slideHeight + ZERO_POSITION_Y);
         // Lower left
         slidePoints[3] = Point.of(ZERO_POSITION_X, slideHeight + ZERO_POSITION_Y);
-        this.slide = new PolyShape(slidePoints, 1, MeasureShape.RECTANGLE);
+        this.slide = new PolyShape(slidePoints, 1, MeasureShape.RECTANGLE, transform);
 
         // Setup of vertical divide lines if there are any.
         this.verticalDivideLines = new ArrayList<PolyShape>();
@@ -190,7 +237,8 @@ public final class SlideMask {
             // Bottom point
             verticalDivideLinePoints[1] = Point.of(xPos, slideHeight + ZERO_POSITION_Y);
 
-            verticalDivideLines.add(new PolyShape(verticalDivideLinePoints, 2, MeasureShape.LINE));
+            verticalDivideLines.add(new PolyShape(verticalDivideLinePoints, 2, MeasureShape.LINE,
+                    transform));
             spacingInset += verticalSpacing.get(i);
         }
         // Setup of horizontal divide lines if there are any.
@@ -206,7 +254,8 @@ public final class SlideMask {
             // Right point
             horizontalDivideLinePoints[1] = Point.of(ZERO_POSITION_X + slideWidth, yPos);
 
-            horizontalDivideLines.add(new PolyShape(horizontalDivideLinePoints, 2, MeasureShape.LINE));
+            horizontalDivideLines.add(new PolyShape(horizontalDivideLinePoints, 2,
+                    MeasureShape.LINE, transform));
             spacingInset += horizontalSpacing.get(i);
         }
         // Setup of spotFields.
@@ -222,7 +271,7 @@ public final class SlideMask {
                         MeasureShape.RECTANGLE, 2, Point.of(xPos, yPos),
                         spotFieldWidth, spotFieldHeight,
                         PolyGrid.NO_INSET, PolyGrid.NO_INSET,
-                        spotRectWidth, spotRectHeight);
+                        spotRectWidth, spotRectHeight, transform);
 
                 grid.setEnabledZone(spotfieldLastMeasurepointIndex);
 
@@ -248,7 +297,7 @@ public final class SlideMask {
             measureGrid = new PolyGrid(spotFieldNColumns, spotFieldNRows,
                     shape, 3, spotFields.get(sField).getPos(),
                     spotFields.get(sField).getWidth(), spotFields.get(sField).getHeight(),
-                    shapeInsetX, shapeInsetY, measureFieldWidth, measureFieldHeight);
+                    shapeInsetX, shapeInsetY, measureFieldWidth, measureFieldHeight, transform);
 
             measureGrid.setEnabledZone(spotfieldLastMeasurepointIndex);
             measureFields.add(measureGrid);
@@ -263,7 +312,7 @@ public final class SlideMask {
             PolyGrid colGrid = new PolyGrid(spotFieldNColumns, 1,
                     MeasureShape.POINT, 2, colGridPoint,
                     spotFields.get(sField).getWidth(), spotRectHeight,
-                    spotRectWidth / 2, spotRectHeight / 2, 0, 0);
+                    spotRectWidth / 2, spotRectHeight / 2, 0, 0, transform);
 
             colLabelGrids.add(colGrid);
 
@@ -273,7 +322,7 @@ public final class SlideMask {
             PolyGrid rowGrid = new PolyGrid(1, spotFieldNRows,
                     MeasureShape.POINT, 2, rowGridPoint,
                     spotRectWidth, spotFields.get(sField).getHeight(),
-                    spotRectWidth / 2, spotRectHeight / 2, 0, 0);
+                    spotRectWidth / 2, spotRectHeight / 2, 0, 0, transform);
 
             rowLabelGrids.add(rowGrid);
         }
@@ -304,7 +353,7 @@ public final class SlideMask {
                 PolyGrid upperGrid = new PolyGrid(DEL_RECT_COLS, DEL_RECT_ROWS,
                         MeasureShape.RECTANGLE, 4, topPoint,
                         spotFieldWidth, topRectHeight,
-                        NO_INSET, NO_INSET, noiseRectWidth, topRectHeight);
+                        NO_INSET, NO_INSET, noiseRectWidth, topRectHeight, transform);
                 topNoiseRects.add(upperGrid);
             }
 
@@ -314,7 +363,7 @@ public final class SlideMask {
                 PolyGrid lowerGrid = new PolyGrid(DEL_RECT_COLS, DEL_RECT_ROWS,
                         MeasureShape.RECTANGLE, 4, bottomPoint,
                         spotFieldWidth, topRectHeight,
-                        NO_INSET, NO_INSET, noiseRectWidth, bottomRectHeight);
+                        NO_INSET, NO_INSET, noiseRectWidth, bottomRectHeight, transform);
                 bottomNoiseRects.add(lowerGrid);
             }
         }
@@ -333,51 +382,14 @@ public final class SlideMask {
                     PolyGrid inBetweenGrid = new PolyGrid(DEL_RECT_COLS, DEL_RECT_ROWS,
                             MeasureShape.RECTANGLE, 4, rectPoint,
                             spotFieldWidth, rectHeight,
-                            NO_INSET, NO_INSET, noiseRectWidth, rectHeight);
+                            NO_INSET, NO_INSET, noiseRectWidth, rectHeight, transform);
                     inBetweenNoiseRects.add(inBetweenGrid);
                 }
             }
         }
 
-        calculateSlideMaskOrbits();
-
-    }
-
-    /**
-     * This method leads to the orbit calculation of all coordinates of an instance
-     * of SlideMask.
-     */
-    private void calculateSlideMaskOrbits() {
-
-        slide.calculateOrbits(rCenter);
-
-        for (PolyShape vDivideLine : verticalDivideLines) {
-            vDivideLine.calculateOrbits(rCenter);
-        }
-        for (PolyShape hDivideLine : horizontalDivideLines) {
-            hDivideLine.calculateOrbits(rCenter);
-        }
-        for (PolyGrid sField : spotFields) {
-            sField.calculateGridOrbits(rCenter);
-        }
-        for (PolyGrid mField : measureFields) {
-            mField.calculateGridOrbits(rCenter);
-        }
-        for (PolyGrid cLabels : colLabelGrids) {
-            cLabels.calculateGridOrbits(rCenter);
-        }
-        for (PolyGrid rLabels : rowLabelGrids) {
-            rLabels.calculateGridOrbits(rCenter);
-        }
-        for (PolyGrid tNoiseRects : topNoiseRects) {
-            tNoiseRects.calculateGridOrbits(rCenter);
-        }
-        for (PolyGrid ibNoiseRects : inBetweenNoiseRects) {
-            ibNoiseRects.calculateGridOrbits(rCenter);
-        }
-        for (PolyGrid bNoiseRects : bottomNoiseRects) {
-            bNoiseRects.calculateGridOrbits(rCenter);
-        }
+        drawRevision = DRAW_REVISIONS.incrementAndGet();
+        drawnModifications = countModifications();
     }
 
     /**
@@ -400,8 +412,6 @@ public final class SlideMask {
         int slideWidth = maskParameters.getSlideWidth();
         int slideHeight = maskParameters.getSlideHeight();
         rCenter = Point.of(slideWidth / 2 + absoluteX, slideHeight / 2 + absoluteY);
-        calculateSlideMaskOrbits();
-
     }
 
     /**
@@ -421,26 +431,7 @@ public final class SlideMask {
         PolyShape checkedPoly;
 
         if (settings.getMeasurementSettings().isSubtractBackground()) {
-            for (int i = 0; i < DEL_RECT_COLS; i++) {
-                for (PolyGrid tRects : topNoiseRects) {
-                    checkedPoly = tRects.getGridElement(0, i).isClickInsidePoly(x, y);
-                    if (checkedPoly != null) {
-                        grabbedShapes.add(checkedPoly);
-                    }
-                }
-                for (PolyGrid ibRects : inBetweenNoiseRects) {
-                    checkedPoly = ibRects.getGridElement(0, i).isClickInsidePoly(x, y);
-                    if (checkedPoly != null) {
-                        grabbedShapes.add(checkedPoly);
-                    }
-                }
-                for (PolyGrid bRects : bottomNoiseRects) {
-                    checkedPoly = bRects.getGridElement(0, i).isClickInsidePoly(x, y);
-                    if (checkedPoly != null) {
-                        grabbedShapes.add(checkedPoly);
-                    }
-                }
-            }
+            grabbedShapes.addAll(getNoiseRectIndex().shapesAt(x, y));
         }
         if (grabbedShapes.isEmpty()) {
             checkedPoly = slide.isClickInsidePoly(x, y);
@@ -464,22 +455,59 @@ public final class SlideMask {
      * @return true if a measureCircle was clicked, info is used in logfile.
      */
     public boolean isOnMeasureField(int x, int y) {
-        boolean ret = false;
-
-        for (PolyGrid mFieldGrid : measureFields) {
-            PolyShape[][] mGrid = mFieldGrid.getGrid();
-            for (int row = 0; row < mGrid.length; row++) {
-                for (int col = 0; col < mGrid[0].length; col++) {
-                    if (mGrid[row][col].isEnabled()) {
-                        if (mGrid[row][col].isWithinBounds(x, y, mFieldGrid.getShapeWidth() / 2) != null) {
-                            grabbedShapes.add(mGrid[row][col]);
-                            ret = true;
-                        }
+        List<PolyShape> clicked = getMeasureFieldIndex().shapesAt(x, y);
+        grabbedShapes.addAll(clicked);
+        return !clicked.isEmpty();
+    }
+
+    /**
+     * Returns the index of all measureFields, building it if necessary.
+     *
+     * @return the up to date index.
+     */
+    private ShapeIndex getMeasureFieldIndex() {
+        if (measureFieldIndex == null || measureFieldIndex.isOutdated()) {
+            int nShapes = measureFields.stream()
+                    .mapToInt(grid -> grid.getRows() * grid.getColumns())
+                    .sum();
+            List<PolyShape> shapes = new ArrayList<>(nShapes);
+            double[] radii = new double[nShapes];
+            for (PolyGrid mFieldGrid : measureFields) {
+                for (int row = 0; row < mFieldGrid.getRows(); row++) {
+                    for (int col = 0; col < mFieldGrid.getColumns(); col++) {
+                        radii[shapes.size()] = mFieldGrid.getShapeWidth() / 2;
+                        shapes.add(mFieldGrid.getGridElement(row, col));
                     }
                 }
             }
+            measureFieldIndex = ShapeIndex.of(transform, shapes, radii);
         }
-        return ret;
+        return measureFieldIndex;
+    }
+
+    /**
+     * Returns the index of all noise rectangles, building it if necessary.
+     *
+     * @return the up to date index.
+     */
+    private ShapeIndex getNoiseRectIndex() {
+        if (noiseRectIndex == null || noiseRectIndex.isOutdated()) {
+            List<PolyShape> shapes = new ArrayList<>();
+            for (int i = 0; i < DEL_RECT_COLS; i++) {
+                for (PolyGrid tRects : topNoiseRects) {
+                    shapes.add(tRects.getGridElement(0, i));
+                }
+                for (PolyGrid ibRects : inBetweenNoiseRects) {
+                    shapes.add(ibRects.getGridElement(0, i));
+                }
+                for (PolyGrid bRects : bottomNoiseRects) {
+                    shapes.add(bRects.getGridElement(0, i));
+                }
+            }
+            // Only polygons, the radius is not used
+            noiseRectIndex = ShapeIndex.of(transform, shapes, new double[shapes.size()]);
+        }
+        return noiseRectIndex;
     }
 
     /**
@@ -535,9 +563,8 @@ public final class SlideMask {
     }
 
     /**
-     * Moves all elements of the slide-mask linearily. Note that this does not
-     * require a recalculation of the orbits, since the rotational center is moved
-     * the same.
+     * Moves all elements of the slide-mask linearily. Only the slide transform and
+     * the rotational center are changed, the elements themselves are untouched.
      *
      * @param deltaX     how many pixels to move the slide in x direction
      * @param deltaY     how many pixels to move the slide in y direction
@@ -553,34 +580,7 @@ public final class SlideMask {
 
         rCenter = Point.of(rCenter.x + deltaX, rCenter.y + deltaY);
 
-        slide.movePoly(deltaX, deltaY);
-        for (PolyShape vDivideLine : verticalDivideLines) {
-            vDivideLine.movePoly(deltaX, deltaY);
-        }
-        for (PolyShape hDivideLine : horizontalDivideLines) {
-            hDivideLine.movePoly(deltaX, deltaY);
-        }
-        for (PolyGrid sField : spotFields) {
-            sField.moveGrid(deltaX, deltaY);
-        }
-        for (PolyGrid mField : measureFields) {
-            mField.moveGrid(deltaX, deltaY);
-        }
-        for (PolyGrid cLabels : colLabelGrids) {
-            cLabels.moveGrid(deltaX, deltaY);
-        }
-        for (PolyGrid rLabels : rowLabelGrids) {
-            rLabels.moveGrid(deltaX, deltaY);
-        }
-        for (PolyGrid tNoiseRects : topNoiseRects) {
-            tNoiseRects.moveGrid(deltaX, deltaY);
-        }
-        for (PolyGrid ibNoiseRects : inBetweenNoiseRects) {
-            ibNoiseRects.moveGrid(deltaX, deltaY);
-        }
-        for (PolyGrid bNoiseRects : bottomNoiseRects) {
-            bNoiseRects.moveGrid(deltaX, deltaY);
-        }
+        transform.translate(deltaX, deltaY);
     }
 
     /**
@@ -594,7 +594,6 @@ public final class SlideMask {
      */
     public void moveElement(PolyShape element, double deltaX, double deltaY) {
         element.movePoly(deltaX, deltaY);
-        element.calculateOrbits(rCenter);
     }
 
     /**
@@ -660,34 +659,60 @@ public final class SlideMask {
         }
         double dRotation = direction * lever;
 
-        slide.setAngles(dRotation, rCenter);
-        for (PolyShape vDivideLine : verticalDivideLines) {
-            vDivideLine.setAngles(dRotation, rCenter);
-        }
-        for (PolyShape hDivideLine : horizontalDivideLines) {
-            hDivideLine.setAngles(dRotation, rCenter);
-        }
-        for (PolyGrid sField : spotFields) {
-            sField.rotateGridElements(dRotation, rCenter);
-        }
-        for (PolyGrid mField : measureFields) {
-            mField.rotateGridElements(dRotation, rCenter);
-        }
-        for (PolyGrid cLabels : colLabelGrids) {
-            cLabels.rotateGridElements(dRotation, rCenter);
-        }
-        for (PolyGrid rLabels : rowLabelGrids) {
-            rLabels.rotateGridElements(dRotation, rCenter);
-        }
-        for (PolyGrid tNoiseRects : topNoiseRects) {
-            tNoiseRects.rotateGridElements(dRotation, rCenter);
-        }
-        for (PolyGrid ibNoiseRects : inBetweenNoiseRects) {
-            ibNoiseRects.rotateGridElements(dRotation, rCenter);
+        transform.rotate(dRotation, rCenter);
+        drawRevision = DRAW_REVISIONS.incrementAndGet();
+    }
+
+    /**
+     * Returns a number identifying the drawn appearance of the slide mask apart
+     * from its position. It changes whenever the slide is set up or rotated or any
+     * element is moved, but not when the whole slide is moved. Drawings can
+     * therefore be reused for the same revision by moving them along with
+     * {@link #getTranslation()}.
+     *
+     * @return the draw revision, unique across all slide masks.
+     */
+    public long getDrawRevision() {
+        long modifications = countModifications();
+        if (modifications != drawnModifications) {
+            drawnModifications = modifications;
+            drawRevision = DRAW_REVISIONS.incrementAndGet();
         }
-        for (PolyGrid bNoiseRects : bottomNoiseRects) {
-            bNoiseRects.rotateGridElements(dRotation, rCenter);
+        return drawRevision;
+    }
+
+    /**
+     * Returns the number of changes of the coordinates of all elements so far.
+     *
+     * @return the number of changes.
+     */
+    private long countModifications() {
+        long modifications = slide.getStore().getModifications();
+        for (PolyShape line : verticalDivideLines) {
+            modifications += line.getStore().getModifications();
+        }
+        for (PolyShape line : horizontalDivideLines) {
+            modifications += line.getStore().getModifications();
+        }
+        List<List<PolyGrid>> gridLists = List.of(spotFields, measureFields,
+                colLabelGrids, rowLabelGrids, topNoiseRects, inBetweenNoiseRects,
+                bottomNoiseRects);
+        for (List<PolyGrid> grids : gridLists) {
+            for (PolyGrid grid : grids) {
+                modifications += grid.getStore().getModifications();
+            }
         }
+        return modifications;
+    }
+
+    /**
+     * Returns the translation of the slide, i.e. the image position the slide-local
+     * origin is moved to by moving the slide.
+     *
+     * @return the translation in image coordinates.
+     */
+    public Point getTranslation() {
+        return transform.getTranslation();
     }
 
     public MaskExt getMaskParameters() {
@@ -858,6 +883,9 @@ public final class SlideMask {
     private void drawSlide(Drawable stilus, int[] polygonX, int[] polygonY) {
         stilus.setColor(settings.getDisplaySettings().getSlideColor());
         double[][] slideCoordinates = getSlideCoordinates();
+        if (!isVisible(stilus.getVisibleArea(), slideCoordinates)) {
+            return;
+        }
         for (int i = 0; i < polygonX.length; i++) {
             polygonX[i] = (int) Math.round(slideCoordinates[0][i]);
             polygonY[i] = (int) Math.round(slideCoordinates[1][i]);
@@ -866,7 +894,9 @@ public final class SlideMask {
     }
 
     /**
-     * Draws the individual spotFields
+     * Draws the individual spotFields. Only cells within the visible area are
+     * drawn. If the cells are too small to be recognized in a reduced view, only
+     * their centroids are drawn.
      *
      * @param stilus   Interface that allows drawing operations to be used on an
      *                 imagePlus.
@@ -876,10 +906,23 @@ public final class SlideMask {
      *                 be drawn.
      */
     private void drawSpotFields(Drawable stilus, int[] polygonX, int[] polygonY, int lastPos) {
-        ArrayList<double[][][]> spotField = getSpotFieldCoordinates();
+        Rectangle2D visible = stilus.getVisibleArea();
         stilus.setColor(settings.getDisplaySettings().getSpotfieldColor());
-        for (double[][][] sField : spotField) {
+        for (PolyGrid spotField : spotFields) {
+            if (!isVisible(visible, spotField.getBounds(), CULLING_TOLERANCE)) {
+                continue;
+            }
+            boolean centroidsOnly = isReduced(stilus,
+                    Math.min(spotField.getShapeWidth(), spotField.getShapeHeight()));
+            double[][][] sField = spotField.getGridCoordinates();
             for (int j = 0; j <= lastPos; j++) {
+                if (!isVisible(visible, sField[j])) {
+                    continue;
+                }
+                if (centroidsOnly) {
+                    drawCentroid(stilus, sField[j]);
+                    continue;
+                }
                 for (int i = 0; i < polygonX.length; i++) {
                     polygonX[i] = (int) Math.round(sField[j][0][i]);
                     polygonY[i] = (int) Math.round(sField[j][1][i]);
@@ -899,6 +942,10 @@ public final class SlideMask {
      *                annotations shall be visible.
      */
     private void drawSpotFieldAnnotation(Drawable stilus, int lastPos) {
+        if (stilus.getMagnification() < MIN_LABEL_MAGNIFICATION) {
+            return;
+        }
+        Rectangle2D visible = stilus.getVisibleArea();
         ArrayList<Point[]> colLabelPos = getColLabelPositions();
         ArrayList<Point[]> rowLabelPos = getRowLabelPositions();
 
@@ -911,6 +958,9 @@ public final class SlideMask {
 
         for (Point[] cLabelPos : colLabelPos) {
             for (int col = 0; col < cLabelPos.length; col++) {
+                if (!isVisible(visible, cLabelPos[col].x, cLabelPos[col].y + yInset)) {
+                    continue;
+                }
                 stilus.drawString("" + (col + 1), (int) cLabelPos[col].x,
                         (int) cLabelPos[col].y + (int) yInset);
             }
@@ -918,6 +968,9 @@ public final class SlideMask {
         for (Point[] rLabelPos : rowLabelPos) {
             for (int row = 0; row < rLabelPos.length; row++) {
                 if (row <= lastPos / maskParameters.getSpotFieldNColumns()) {
+                    if (!isVisible(visible, rLabelPos[row].x, rLabelPos[row].y + yInset)) {
+                        continue;
+                    }
                     stilus.drawString(AlphabeticNumberEditor.toAlphabeticNumber(row),
                             (int) rLabelPos[row].x,
                             (int) rLabelPos[row].y + (int) yInset);
@@ -943,6 +996,9 @@ public final class SlideMask {
         ArrayList<double[][]> verticalDivideLineCoords = getVerticalDivideLineCoordinates();
 
         for (double[][] vDivCoords : verticalDivideLineCoords) {
+            if (!isVisible(stilus.getVisibleArea(), vDivCoords)) {
+                continue;
+            }
             for (int i = 0; i < polyLineX.length; i++) {
                 polyLineX[i] = (int) Math.round(vDivCoords[0][i]);
                 polyLineY[i] = (int) Math.round(vDivCoords[1][i]);
@@ -953,6 +1009,9 @@ public final class SlideMask {
         ArrayList<double[][]> horizontalDivideLineCoords = getHorizontalDivideLineCoordinates();
 
         for (double[][] hDivCoords : horizontalDivideLineCoords) {
+            if (!isVisible(stilus.getVisibleArea(), hDivCoords)) {
+                continue;
+            }
             for (int i = 0; i < polyLineX.length; i++) {
                 polyLineX[i] = (int) Math.round(hDivCoords[0][i]);
                 polyLineY[i] = (int) Math.round(hDivCoords[1][i]);
@@ -973,9 +1032,10 @@ public final class SlideMask {
     private void drawDelRects(Drawable stilus, int[] polygonX, int[] polygonY) {
         stilus.setColor(settings.getDisplaySettings().getDeletionRectangleColor());
         ArrayList<double[][]> delRects = getBackgroundRectCoordinates();
+        Rectangle2D visible = stilus.getVisibleArea();
 
         for (double[][] delRect : delRects) {
-            if (delRect != null) {
+            if (delRect != null && isVisible(visible, delRect)) {
                 for (int i = 0; i < polygonX.length; i++) {
                     polygonX[i] = (int) Math.round(delRect[0][i]);
                     polygonY[i] = (int) Math.round(delRect[1][i]);
@@ -986,7 +1046,9 @@ public final class SlideMask {
     }
 
     /**
-     * Draws all measureFields.
+     * Draws all measureFields. Only fields within the visible area are drawn. If the
+     * fields are too small to be recognized in a reduced view, only their centroids
+     * are drawn.
      *
      * @param stilus  Interface that allows drawing operations to be used on an
      *                imagePlus.
@@ -994,8 +1056,14 @@ public final class SlideMask {
      *                be drawn.
      */
     private void drawMeasureFields(Drawable stilus, int lastPos) {
+        Rectangle2D visible = stilus.getVisibleArea();
         stilus.setColor(settings.getDisplaySettings().getMeasureCircleColor());
         for (PolyGrid measureField : measureFields) {
+            if (!isVisible(visible, measureField.getBounds(), CULLING_TOLERANCE)) {
+                continue;
+            }
+            boolean centroidsOnly = isReduced(stilus,
+                    Math.min(measureField.getShapeWidth(), measureField.getShapeHeight()));
             int runIdx = 0;
             PolyShape[][] shapeGrid = measureField.getGrid();
             for (int row = 0; row < shapeGrid.length; row++) {
@@ -1004,8 +1072,14 @@ public final class SlideMask {
                         row = shapeGrid.length;
                         break;
                     }
+                    runIdx++;
                     double[][] coordinates = cell.getPolyCoordinates();
-                    if (measureField.getShape() == MeasureShape.CIRCLE) {
+                    if (!isVisible(visible, coordinates)) {
+                        continue;
+                    }
+                    if (centroidsOnly) {
+                        drawCentroid(stilus, coordinates);
+                    } else if (measureField.getShape() == MeasureShape.CIRCLE) {
                         int x = (int) (cell.getShapeCenter().x - measureField.getShapeWidth() / 2);
                         int y = (int) (cell.getShapeCenter().y - measureField.getShapeHeight() / 2);
                         stilus.drawOval(x, y,
@@ -1024,14 +1098,93 @@ public final class SlideMask {
                         }
                         stilus.drawPolygon(xCoords, yCoords);
                     }
-                    runIdx++;
                 }
             }
         }
     }
 
+    /**
+     * Draws the centroid of a polygon as a single point.
+     *
+     * @param stilus      Interface that allows drawing operations to be used on an
+     *                    imagePlus.
+     * @param coordinates the x and y values of the polygon.
+     */
+    private static void drawCentroid(Drawable stilus, double[][] coordinates) {
+        double x = 0;
+        double y = 0;
+        for (int i = 0; i < coordinates[0].length; i++) {
+            x += coordinates[0][i];
+            y += coordinates[1][i];
+        }
+        stilus.drawPoint((int) Math.round(x / coordinates[0].length),
+                (int) Math.round(y / coordinates[1].length));
+    }
+
+    /**
+     * Checks if elements of the given size are too small to be recognized on the
+     * drawing surface. Drawings in image resolution or larger are never reduced,
+     * so exported images always contain all outlines.
+     *
+     * @param stilus the drawing surface.
+     * @param size   the size of the elements in image pixels.
+     * @return true if only the centroids of the elements should be drawn.
+     */
+    private static boolean isReduced(Drawable stilus, double size) {
+        double magnification = stilus.getMagnification();
+        return magnification < 1 && size * magnification < MIN_CELL_SIZE;
+    }
+
+    /**
+     * Checks if a polygon overlaps the visible area.
+     *
+     * @param visible     the visible area in image coordinates.
+     * @param coordinates the x and y values of the polygon.
+     * @return true if the polygon has to be drawn.
+     */
+    private static boolean isVisible(Rectangle2D visible, double[][] coordinates) {
+        double[] bounds = {
+                Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY,
+                Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY };
+        for (int i = 0; i < coordinates[0].length; i++) {
+            bounds[0] = Math.min(bounds[0], coordinates[0][i]);
+            bounds[1] = Math.min(bounds[1], coordinates[1][i]);
+            bounds[2] = Math.max(bounds[2], coordinates[0][i]);
+            bounds[3] = Math.max(bounds[3], coordinates[1][i]);
+        }
+        return isVisible(visible, bounds, CULLING_TOLERANCE);
+    }
+
+    /**
+     * Checks if a label drawn at the given position may overlap the visible area.
+     *
+     * @param visible the visible area in image coordinates.
+     * @param x       the x-position of the label.
+     * @param y       the y-position of the label.
+     * @return true if the label has to be drawn.
+     */
+    private static boolean isVisible(Rectangle2D visible, double x, double y) {
+        return isVisible(visible, new double[] { x, y, x, y }, LABEL_EXTENT);
+    }
+
+    /**
+     * Checks if a bounding box overlaps the visible area.
+     *
+     * @param visible   the visible area in image coordinates.
+     * @param bounds    the minimum x, minimum y, maximum x and maximum y value.
+     * @param tolerance the distance to the visible area still considered visible.
+     * @return true if the bounding box overlaps the visible area.
+     */
+    private static boolean isVisible(Rectangle2D visible, double[] bounds, double tolerance) {
+        return bounds[2] >= visible.getMinX() - tolerance
+                && bounds[0] <= visible.getMaxX() + tolerance
+                && bounds[3] >= visible.getMinY() - tolerance
+                && bounds[1] <= visible.getMaxY() + tolerance;
+    }
+
     /**
      * A slide mask is drawn onto an imageProcessor or an instance of Graphics.
+     * Elements outside of the visible area of the stilus are skipped.
      *
      * @param stilus the pen and surface to use for drawing
      * @param dO     the options what and how things should be drawn
@@ -0,0 +1,167 @@
+package com.scitequest.martin;
+
+/**
+ * The placement of a slide mask on the image as a single affine transform.
+ *
+ * All elements of a slide mask store their coordinates relative to the slide in
+ * zero position (slide-local) and share one instance of this class. Moving or
+ * rotating the slide only changes the transform, which takes constant time
+ * independent of the number of elements. The resulting image (world)
+ * coordinates are calculated by the elements when they are needed.
+ *
+ * A point is transformed by {@code world = A * local + t}. The rotation follows
+ * the convention of the slide mask: a positive angle turns a vector pointing
+ * straight down towards the right.
+ */
+final class SlideTransform {
+
+    /** Linear part, first row and first column. */
+    private double m00 = 1;
+    /** Linear part, first row and second column. */
+    private double m01 = 0;
+    /** Linear part, second row and first column. */
+    private double m10 = 0;
+    /** Linear part, second row and second column. */
+    private double m11 = 1;
+    /** Translation in x direction. */
+    private double tx = 0;
+    /** Translation in y direction. */
+    private double ty = 0;
+    /**
+     * Incremented on every change, allowing elements to detect that their cached
+     * world coordinates are outdated.
+     */
+    private long version = 0;
+
+    /**
+     * Reset the transform to the identity, i.e. the slide in zero position.
+     */
+    void reset() {
+        m00 = 1;
+        m01 = 0;
+        m10 = 0;
+        m11 = 1;
+        tx = 0;
+        ty = 0;
+        version++;
+    }
+
+    /**
+     * Move the slide linearly.
+     *
+     * @param deltaX change of position on the x-axis
+     * @param deltaY change of position on the y-axis
+     */
+    void translate(double deltaX, double deltaY) {
+        tx += deltaX;
+        ty += deltaY;
+        version++;
+    }
+
+    /**
+     * Rotate the slide around a center.
+     *
+     * @param degrees the change in angle in degrees
+     * @param center  the rotational center in world coordinates
+     */
+    void rotate(double degrees, Point center) {
+        double rad = Math.toRadians(degrees);
+        double cos = Math.cos(rad);
+        double sin = Math.sin(rad);
+
+        // A' = R * A
+        double n00 = cos * m00 + sin * m10;
+        double n01 = cos * m01 + sin * m11;
+        double n10 = -sin * m00 + cos * m10;
+        double n11 = -sin * m01 + cos * m11;
+        // t' = R * (t - c) + c
+        double dx = tx - center.x;
+        double dy = ty - center.y;
+        tx = cos * dx + sin * dy + center.x;
+        ty = -sin * dx + cos * dy + center.y;
+
+        m00 = n00;
+        m01 = n01;
+        m10 = n10;
+        m11 = n11;
+        version++;
+    }
+
+    /**
+     * Returns the version of the transform, which changes every time the transform
+     * is changed.
+     *
+     * @return the version
+     */
+    long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the translation part of the transform, i.e. the world position of
+     * the slide-local origin.
+     *
+     * @return the translation
+     */
+    Point getTranslation() {
+        return Point.of(tx, ty);
+    }
+
+    /**
+     * Transform a slide-local point into world coordinates.
+     *
+     * @param local the point in slide-local coordinates
+     * @return the point in world coordinates
+     */
+    Point apply(Point local) {
+        return Point.of(m00 * local.x + m01 * local.y + tx,
+                m10 * local.x + m11 * local.y + ty);
+    }
+
+    /**
+     * Returns the world x-coordinate of a slide-local point.
+     *
+     * @param x the slide-local x-coordinate
+     * @param y the slide-local y-coordinate
+     * @return the world x-coordinate
+     */
+    double applyX(double x, double y) {
+        return m00 * x + m01 * y + tx;
+    }
+
+    /**
+     * Returns the world y-coordinate of a slide-local point.
+     *
+     * @param x the slide-local x-coordinate
+     * @param y the slide-local y-coordinate
+     * @return the world y-coordinate
+     */
+    double applyY(double x, double y) {
+        return m10 * x + m11 * y + ty;
+    }
+
+    /**
+     * Transform a world point into slide-local coordinates.
+     *
+     * @param world the point in world coordinates
+     * @return the point in slide-local coordinates
+     */
+    Point applyInverse(Point world) {
+        return applyInverseLinear(world.x - tx, world.y - ty);
+    }
+
+    /**
+     * Transform a movement in world coordinates into a movement in slide-local
+     * coordinates. In contrast to {@link #applyInverse(Point)} the translation is
+     * not taken into account.
+     *
+     * @param deltaX change of position on the x-axis in world coordinates
+     * @param deltaY change of position on the y-axis in world coordinates
+     * @return the change of position in slide-local coordinates
+     */
+    Point applyInverseLinear(double deltaX, double deltaY) {
+        double det = m00 * m11 - m01 * m10;
+        return Point.of((m11 * deltaX - m01 * deltaY) / det,
+                (-m10 * deltaX + m00 * deltaY) / det);
+    }
+}
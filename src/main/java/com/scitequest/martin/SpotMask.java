@@ -0,0 +1,200 @@
+package com.scitequest.martin;
+
+import java.awt.Rectangle;
+
+import com.scitequest.martin.export.Circle;
+import com.scitequest.martin.export.Geometry;
+import com.scitequest.martin.export.Polygon;
+
+import ij.gui.OvalRoi;
+import ij.gui.PolygonRoi;
+import ij.gui.Roi;
+import ij.process.FloatPolygon;
+import ij.process.ImageProcessor;
+
+/**
+ * A measurement area rasterized into horizontal runs of pixels.
+ *
+ * The runs are generated once from the ImageJ ROI of a spot and clipped to the
+ * image bounds. This makes the mask identical to the one ImageJ uses when the
+ * ROI is set on the image. Runs are stored row by row from left to right, so
+ * iterating over them visits the pixels in the same order as ImageJ does.
+ */
+public final class SpotMask {
+
+    /** The y coordinate of each run. */
+    private final int[] runY;
+    /** The first x coordinate (inclusive) of each run. */
+    private final int[] runStartX;
+    /** The last x coordinate (exclusive) of each run. */
+    private final int[] runEndX;
+    /** The total number of pixels covered by all runs. */
+    private final int pixelCount;
+
+    private SpotMask(int[] runY, int[] runStartX, int[] runEndX, int pixelCount) {
+        this.runY = runY;
+        this.runStartX = runStartX;
+        this.runEndX = runEndX;
+        this.pixelCount = pixelCount;
+    }
+
+    /**
+     * Rasterize a measurement geometry for an image of the given size.
+     *
+     * @param spot   the circle or polygon to rasterize
+     * @param width  the width of the image
+     * @param height the height of the image
+     * @return the rasterized mask
+     */
+    public static SpotMask of(Geometry spot, int width, int height) {
+        return fromRoi(toRoi(spot), width, height);
+    }
+
+    /**
+     * Create the ImageJ ROI that corresponds to a measurement geometry.
+     *
+     * @param spot the circle or polygon
+     * @return the ROI describing the same area
+     */
+    static Roi toRoi(Geometry spot) {
+        if (spot instanceof Circle) {
+            Circle circleSpot = (Circle) spot;
+            return new OvalRoi(circleSpot.position.x - circleSpot.diameter / 2.,
+                    circleSpot.position.y - circleSpot.diameter / 2.,
+                    circleSpot.diameter, circleSpot.diameter);
+        }
+        Polygon polySpot = (Polygon) spot;
+        FloatPolygon roiPolygon = new FloatPolygon();
+        for (int i = 0; i < polySpot.coordinates.size(); i++) {
+            Point p = polySpot.coordinates.get(i);
+            roiPolygon.addPoint(p.x, p.y);
+        }
+        return new PolygonRoi(roiPolygon, Roi.POLYGON);
+    }
+
+    /**
+     * Rasterize an area ROI for an image of the given size.
+     *
+     * @param roi    the area ROI
+     * @param width  the width of the image
+     * @param height the height of the image
+     * @return the rasterized mask
+     */
+    static SpotMask fromRoi(Roi roi, int width, int height) {
+        Rectangle bounds = roi.getBounds();
+        // ImageJ discards empty area ROIs and measures the whole image instead.
+        // Mirror this to stay consistent with previous measurements.
+        if (bounds.width == 0 && bounds.height == 0) {
+            bounds = new Rectangle(0, 0, width, height);
+            roi = null;
+        }
+        ImageProcessor maskProc = roi == null ? null : roi.getMask();
+        byte[] mask = maskProc == null ? null : (byte[]) maskProc.getPixels();
+        int maskWidth = maskProc == null ? bounds.width : maskProc.getWidth();
+        int maskHeight = maskProc == null ? bounds.height : maskProc.getHeight();
+
+        // Clip the bounds to the image
+        int xStart = Math.max(bounds.x, 0);
+        int xEnd = Math.min(bounds.x + Math.min(bounds.width, maskWidth), width);
+        int yStart = Math.max(bounds.y, 0);
+        int yEnd = Math.min(bounds.y + Math.min(bounds.height, maskHeight), height);
+
+        // Count the runs first to allocate exactly sized arrays
+        int nRuns = 0;
+        for (int y = yStart; y < yEnd; y++) {
+            int offset = (y - bounds.y) * maskWidth - bounds.x;
+            boolean inRun = false;
+            for (int x = xStart; x < xEnd; x++) {
+                boolean set = mask == null || mask[offset + x] != 0;
+                if (set && !inRun) {
+                    nRuns++;
+                }
+                inRun = set;
+            }
+        }
+
+        int[] runY = new int[nRuns];
+        int[] runStartX = new int[nRuns];
+        int[] runEndX = new int[nRuns];
+        int pixelCount = 0;
+        int run = 0;
+        for (int y = yStart; y < yEnd; y++) {
+            int offset = (y - bounds.y) * maskWidth - bounds.x;
+            int x = xStart;
+            while (x < xEnd) {
+                if (mask != null && mask[offset + x] == 0) {
+                    x++;
+                    continue;
+                }
+                int start = x;
+                while (x < xEnd && (mask == null || mask[offset + x] != 0)) {
+                    x++;
+                }
+                runY[run] = y;
+                runStartX[run] = start;
+                runEndX[run] = x;
+                pixelCount += x - start;
+                run++;
+            }
+        }
+
+        return new SpotMask(runY, runStartX, runEndX, pixelCount);
+    }
+
+    /**
+     * Get the number of runs.
+     *
+     * @return the number of runs
+     */
+    public int getRunCount() {
+        return runY.length;
+    }
+
+    /**
+     * Get the y coordinate of a run.
+     *
+     * @param run the index of the run
+     * @return the y coordinate
+     */
+    public int getRunY(int run) {
+        return runY[run];
+    }
+
+    /**
+     * Get the first x coordinate of a run.
+     *
+     * @param run the index of the run
+     * @return the x coordinate (inclusive)
+     */
+    public int getRunStartX(int run) {
+        return runStartX[run];
+    }
+
+    /**
+     * Get the end x coordinate of a run.
+     *
+     * @param run the index of the run
+     * @return the x coordinate (exclusive)
+     */
+    public int getRunEndX(int run) {
+        return runEndX[run];
+    }
+
+    /**
+     * Get the number of pixels covered by this mask.
+     *
+     * @return the pixel count
+     */
+    public int getPixelCount() {
+        return pixelCount;
+    }
+
+    /**
+     * Check if the mask does not cover any pixel of the image.
+     *
+     * @return true if no pixel is covered
+     */
+    public boolean isEmpty() {
+        return pixelCount == 0;
+    }
+}
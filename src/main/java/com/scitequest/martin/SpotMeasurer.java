@@ -0,0 +1,208 @@
+package com.scitequest.martin;
+
+import ij.process.ImageStatistics;
+
+/**
+ * Measures the statistics of spots directly on the pixel array of an image.
+ *
+ * This replaces setting a ROI on the image and letting ImageJ compute the full
+ * statistics for every spot. The calculations mirror the ones of ImageJ's
+ * {@code ByteStatistics}, {@code ShortStatistics} and {@code FloatStatistics}
+ * including the order of summation, which makes the results bit-identical.
+ *
+ * Instances hold a scratch histogram and must not be shared between threads,
+ * create one measurer per thread from a shared {@link PixelSnapshot} instead.
+ */
+public final class SpotMeasurer {
+
+    /** Number of possible values of an 8-bit pixel. */
+    private static final int BYTE_RANGE = 256;
+    /** Number of possible values of a 16-bit pixel. */
+    private static final int SHORT_RANGE = 65536;
+
+    /** The width of the image. */
+    private final int width;
+    /** The height of the image. */
+    private final int height;
+    /** The raw pixel array, either {@code byte[]}, {@code short[]} or {@code float[]}. */
+    private final Object pixels;
+    /** The calibration table of integer images, null if uncalibrated. */
+    private final float[] cTable;
+    /** Reusable histogram for integer images, null for floating point images. */
+    private final int[] histogram;
+
+    private SpotMeasurer(int width, int height, Object pixels, float[] cTable, int[] histogram) {
+        this.width = width;
+        this.height = height;
+        this.pixels = pixels;
+        this.cTable = cTable;
+        this.histogram = histogram;
+    }
+
+    /**
+     * Create a measurer reading the pixels of a snapshot.
+     *
+     * A snapshot can be shared by several measurers, one per thread.
+     *
+     * @param snapshot the pixels to measure
+     * @return the measurer
+     */
+    public static SpotMeasurer of(PixelSnapshot snapshot) {
+        Object pixels = snapshot.getPixels();
+        int[] histogram = null;
+        if (pixels instanceof byte[]) {
+            histogram = new int[BYTE_RANGE];
+        } else if (pixels instanceof short[]) {
+            histogram = new int[SHORT_RANGE];
+        }
+        return new SpotMeasurer(snapshot.getWidth(), snapshot.getHeight(),
+                pixels, snapshot.getCTable(), histogram);
+    }
+
+    /**
+     * Get the width of the measured image.
+     *
+     * @return the width
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Get the height of the measured image.
+     *
+     * @return the height
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Measure the pixels covered by a mask.
+     *
+     * If the mask is empty, the mean is NaN just like the ImageJ statistics.
+     *
+     * @param mask the mask rasterized for an image of the same size
+     * @return the statistics containing pixel count, min, max, mean and standard
+     *         deviation
+     */
+    public ImageStatistics measure(SpotMask mask) {
+        if (pixels instanceof byte[]) {
+            return measureByte((byte[]) pixels, mask);
+        } else if (pixels instanceof short[]) {
+            return measureShort((short[]) pixels, mask);
+        }
+        return measureFloat((float[]) pixels, mask);
+    }
+
+    private ImageStatistics measureByte(byte[] px, SpotMask mask) {
+        for (int run = 0; run < mask.getRunCount(); run++) {
+            int offset = mask.getRunY(run) * width;
+            for (int x = mask.getRunStartX(run); x < mask.getRunEndX(run); x++) {
+                histogram[px[offset + x] & 0xff]++;
+            }
+        }
+        return statisticsFromHistogram(0, BYTE_RANGE - 1);
+    }
+
+    private ImageStatistics measureShort(short[] px, SpotMask mask) {
+        int rawMin = SHORT_RANGE;
+        int rawMax = -1;
+        for (int run = 0; run < mask.getRunCount(); run++) {
+            int offset = mask.getRunY(run) * width;
+            for (int x = mask.getRunStartX(run); x < mask.getRunEndX(run); x++) {
+                int v = px[offset + x] & 0xffff;
+                histogram[v]++;
+                rawMin = Math.min(rawMin, v);
+                rawMax = Math.max(rawMax, v);
+            }
+        }
+        return statisticsFromHistogram(rawMin, rawMax);
+    }
+
+    /**
+     * Calculate the statistics from the histogram and clear it afterwards.
+     *
+     * Empty bins do not change the sums, so only the occupied range is visited
+     * in ascending order like ImageJ does.
+     *
+     * @param from the first bin to visit
+     * @param to   the last bin to visit (inclusive)
+     * @return the statistics
+     */
+    private ImageStatistics statisticsFromHistogram(int from, int to) {
+        long count = 0;
+        double sum = 0.0;
+        double sum2 = 0.0;
+        double min = Double.MAX_VALUE;
+        double max = -Double.MAX_VALUE;
+        for (int i = from; i <= to; i++) {
+            int binCount = histogram[i];
+            if (binCount == 0) {
+                continue;
+            }
+            histogram[i] = 0;
+            double value = cTable == null ? i : cTable[i];
+            count += binCount;
+            sum += value * binCount;
+            sum2 += (value * value) * binCount;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        return toStatistics(count, sum, sum2, min, max);
+    }
+
+    private ImageStatistics measureFloat(float[] px, SpotMask mask) {
+        long count = 0;
+        double sum = 0.0;
+        double sum2 = 0.0;
+        double min = Double.MAX_VALUE;
+        double max = -Double.MAX_VALUE;
+        for (int run = 0; run < mask.getRunCount(); run++) {
+            int offset = mask.getRunY(run) * width;
+            for (int x = mask.getRunStartX(run); x < mask.getRunEndX(run); x++) {
+                double v = px[offset + x];
+                // Skips NaN and infinite values as the ImageJ thresholds do
+                if (v >= -Float.MAX_VALUE && v <= Float.MAX_VALUE) {
+                    count++;
+                    sum += v;
+                    sum2 += v * v;
+                    min = Math.min(min, v);
+                    max = Math.max(max, v);
+                }
+            }
+        }
+        return toStatistics(count, sum, sum2, min, max);
+    }
+
+    private static ImageStatistics toStatistics(long count,
+            double sum, double sum2, double min, double max) {
+        ImageStatistics stats = new ImageStatistics();
+        stats.longPixelCount = count;
+        stats.pixelCount = (int) count;
+        stats.min = min;
+        stats.max = max;
+        stats.mean = sum / count;
+        stats.stdDev = calculateStdDev(count, sum, sum2);
+        return stats;
+    }
+
+    /**
+     * Calculate the sample standard deviation the same way ImageJ does.
+     *
+     * @param n    the number of values
+     * @param sum  the sum of the values
+     * @param sum2 the sum of the squared values
+     * @return the standard deviation
+     */
+    private static double calculateStdDev(double n, double sum, double sum2) {
+        if (n <= 0.0) {
+            return 0.0;
+        }
+        double stdDev = (n * sum2 - sum * sum) / n;
+        if (stdDev > 0.0) {
+            return Math.sqrt(stdDev / (n - 1.0));
+        }
+        return 0.0;
+    }
+}
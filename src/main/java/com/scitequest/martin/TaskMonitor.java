@@ -0,0 +1,115 @@
+package com.scitequest.martin;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ * Tracks the progress of a long running task and allows to cancel it.
+ *
+ * The task reports its total amount of work once and then every finished unit
+ * of work, possibly from several threads at once. The listener is only called
+ * when the progress changes by at least a whole percent, so it may be called
+ * from any of these threads and must hand the value over to the GUI itself.
+ */
+public final class TaskMonitor {
+
+    /** The progress reported while the total amount of work is unknown. */
+    public static final int UNKNOWN_PROGRESS = -1;
+
+    /** Receives the progress in percent. */
+    private final IntConsumer listener;
+    /** Whether the task should stop as soon as possible. */
+    private final AtomicBoolean cancelled = new AtomicBoolean(false);
+    /** The number of finished units of work. */
+    private final AtomicInteger done = new AtomicInteger(0);
+    /** The total number of units of work, zero if unknown. */
+    private volatile int total = 0;
+
+    private TaskMonitor(IntConsumer listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Create a monitor reporting the progress to the given listener.
+     *
+     * @param listener receives the progress in percent or
+     *                 {@link #UNKNOWN_PROGRESS}
+     * @return the monitor
+     */
+    public static TaskMonitor of(IntConsumer listener) {
+        return new TaskMonitor(listener);
+    }
+
+    /**
+     * Create a monitor that reports to nobody and is only cancelled explicitly.
+     *
+     * @return the monitor
+     */
+    public static TaskMonitor none() {
+        return new TaskMonitor(percent -> {
+        });
+    }
+
+    /**
+     * Start a new step of the task, resetting the progress.
+     *
+     * @param totalWork the number of units of work of this step, zero or less if
+     *                  unknown
+     */
+    public void begin(int totalWork) {
+        total = Math.max(0, totalWork);
+        done.set(0);
+        listener.accept(totalWork > 0 ? 0 : UNKNOWN_PROGRESS);
+    }
+
+    /**
+     * Report finished units of work.
+     *
+     * @param work the number of units finished
+     */
+    public void worked(int work) {
+        int n = total;
+        if (n == 0) {
+            return;
+        }
+        int after = done.addAndGet(work);
+        int before = after - work;
+        int percent = percent(after, n);
+        if (percent != percent(before, n)) {
+            listener.accept(percent);
+        }
+    }
+
+    private static int percent(int work, int total) {
+        return (int) Math.min(100, 100L * work / total);
+    }
+
+    /**
+     * Request the task to stop as soon as possible.
+     */
+    public void cancel() {
+        cancelled.set(true);
+    }
+
+    /**
+     * Check if the task has been cancelled.
+     *
+     * @return true if the task should stop
+     */
+    public boolean isCancelled() {
+        return cancelled.get();
+    }
+
+    /**
+     * Stop the calling task if it has been cancelled.
+     *
+     * @throws CancellationException if the task has been cancelled
+     */
+    public void checkCancelled() throws CancellationException {
+        if (cancelled.get()) {
+            throw new CancellationException("Task has been cancelled");
+        }
+    }
+}
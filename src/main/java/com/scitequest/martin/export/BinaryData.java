@@ -0,0 +1,408 @@
+package com.scitequest.martin.export;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * The data and data statistics of a measurement in a compact columnar binary
+ * format.
+ *
+ * The format is described in the specification. Every value is stored at a
+ * fixed position, so the values can be read straight from a memory mapped file
+ * without creating any objects. The whole {@link Data} and
+ * {@link DataStatistics} are only created on request.
+ */
+public final class BinaryData {
+
+    /** The bytes every file starts with. */
+    private static final byte[] MAGIC = { 'M', 'R', 'T', 'B' };
+    /** The version of the format written. */
+    public static final int VERSION = 1;
+    /** The size of the header in bytes. */
+    private static final int HEADER_SIZE = 16;
+    /** Every column starts at a multiple of this number of bytes. */
+    private static final int ALIGNMENT = 8;
+
+    /**
+     * The columns of the data, in the order they are stored.
+     *
+     * Every column knows how to get its value from a datapoint, so writing and
+     * reading follow the same layout.
+     */
+    public enum Column {
+        SPOT((Datapoint dp) -> dp.getMeasurePoint().getSpot()),
+        ROW((Datapoint dp) -> dp.getMeasurePoint().getRow()),
+        COL((Datapoint dp) -> dp.getMeasurePoint().getCol()),
+        MIN((Datapoint dp) -> dp.getMeasurePoint().getMin()),
+        MAX((Datapoint dp) -> dp.getMeasurePoint().getMax()),
+        MEAN((Datapoint dp) -> dp.getMeasurePoint().getMean()),
+        STD_DEVIATION((Datapoint dp) -> dp.getMeasurePoint().getStdDev()),
+        MEAN_MINUS_MIN(Datapoint::getMeanMinusMin),
+        NORMALIZED_MEAN(Datapoint::getNormalizedMean);
+
+        /** The value of an integer column or null if the column holds doubles. */
+        private final ToIntFunction<Datapoint> intValue;
+        /** The value of a double column or null if the column holds integers. */
+        private final ToDoubleFunction<Datapoint> doubleValue;
+
+        // Accessors returning an int resolve to this constructor, as int <: double
+        Column(ToIntFunction<Datapoint> intValue) {
+            this.intValue = intValue;
+            this.doubleValue = null;
+        }
+
+        Column(ToDoubleFunction<Datapoint> doubleValue) {
+            this.intValue = null;
+            this.doubleValue = doubleValue;
+        }
+
+        /**
+         * Check if the column holds 32-bit integers instead of 64-bit doubles.
+         *
+         * @return true if the column holds integers
+         */
+        public boolean isInteger() {
+            return intValue != null;
+        }
+    }
+
+    /**
+     * The columns of the data statistics, in the order they are stored.
+     *
+     * Every column knows how to get its value from the statistics, so writing
+     * and reading follow the same layout.
+     */
+    public enum StatisticsColumn {
+        ROW(DatapointStatistics::getRow),
+        COL(DatapointStatistics::getColumn),
+        ADJUSTED_AVERAGE(DatapointStatistics::getRawAvg),
+        ADJUSTED_AVERAGE_STD_DEVIATION(DatapointStatistics::getStdDevRawAvg),
+        RELATIVE_ADJUSTED_AVERAGE_STD_DEVIATION(DatapointStatistics::getRelStdDevRawAvg),
+        NORMALIZED_AVERAGE(DatapointStatistics::getRawAvgNormalized),
+        NORMALIZED_AVERAGE_STD_DEVIATION(DatapointStatistics::getStdDevNormAvg),
+        RELATIVE_NORMALIZED_AVERAGE_STD_DEVIATION(DatapointStatistics::getRelStdDevNormAvg);
+
+        /** The value of an integer column or null if the column holds doubles. */
+        private final ToIntFunction<DatapointStatistics> intValue;
+        /** The value of a double column or null if the column holds integers. */
+        private final ToDoubleFunction<DatapointStatistics> doubleValue;
+
+        StatisticsColumn(ToIntFunction<DatapointStatistics> intValue) {
+            this.intValue = intValue;
+            this.doubleValue = null;
+        }
+
+        StatisticsColumn(ToDoubleFunction<DatapointStatistics> doubleValue) {
+            this.intValue = null;
+            this.doubleValue = doubleValue;
+        }
+
+        /**
+         * Check if the column holds 32-bit integers instead of 64-bit doubles.
+         *
+         * @return true if the column holds integers
+         */
+        public boolean isInteger() {
+            return intValue != null;
+        }
+    }
+
+    /** The buffer holding the file, positioned at its start. */
+    private final ByteBuffer buffer;
+    /** The number of datapoints. */
+    private final int datapointCount;
+    /** The number of datapoint statistics. */
+    private final int statisticsCount;
+    /** The offset of each data column in the buffer. */
+    private final int[] columnOffsets;
+    /** The offset of each statistics column in the buffer. */
+    private final int[] statisticsColumnOffsets;
+
+    private BinaryData(ByteBuffer buffer, int datapointCount, int statisticsCount) {
+        this.buffer = buffer;
+        this.datapointCount = datapointCount;
+        this.statisticsCount = statisticsCount;
+        this.columnOffsets = new int[Column.values().length];
+        this.statisticsColumnOffsets = new int[StatisticsColumn.values().length];
+
+        long offset = HEADER_SIZE;
+        for (Column column : Column.values()) {
+            columnOffsets[column.ordinal()] = (int) offset;
+            offset += columnSize(column.isInteger(), datapointCount);
+        }
+        for (StatisticsColumn column : StatisticsColumn.values()) {
+            statisticsColumnOffsets[column.ordinal()] = (int) offset;
+            offset += columnSize(column.isInteger(), statisticsCount);
+        }
+    }
+
+    /**
+     * Read the binary data from a buffer.
+     *
+     * The buffer is not copied, so it must not be modified afterwards.
+     *
+     * @param buffer the buffer whose remaining bytes hold the file
+     * @return the binary data
+     * @throws IllegalArgumentException if the buffer does not hold valid data
+     */
+    public static BinaryData of(ByteBuffer buffer) throws IllegalArgumentException {
+        ByteBuffer slice = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+        if (slice.remaining() < HEADER_SIZE) {
+            throw new IllegalArgumentException("Binary data is too short");
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (slice.get(i) != MAGIC[i]) {
+                throw new IllegalArgumentException("Not a binary data file");
+            }
+        }
+        int version = slice.getInt(4);
+        if (version != VERSION) {
+            throw new IllegalArgumentException(
+                    String.format("Unsupported binary data version %d", version));
+        }
+        int datapointCount = slice.getInt(8);
+        int statisticsCount = slice.getInt(12);
+        if (datapointCount < 0 || statisticsCount < 0
+                || fileSize(datapointCount, statisticsCount) != slice.remaining()) {
+            throw new IllegalArgumentException("Binary data has an invalid size");
+        }
+        return new BinaryData(slice, datapointCount, statisticsCount);
+    }
+
+    /**
+     * Read the binary data from a file by mapping it into memory.
+     *
+     * On Windows a mapped file cannot be deleted or moved until the buffer has
+     * been garbage collected, use {@link #of(ByteBuffer)} with the read bytes for
+     * files that may be moved afterwards.
+     *
+     * @param path the path of the file
+     * @return the binary data
+     * @throws IOException              if the file could not be read
+     * @throws IllegalArgumentException if the file does not hold valid data
+     */
+    public static BinaryData read(Path path) throws IOException, IllegalArgumentException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return of(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Write data and data statistics in the binary format.
+     *
+     * @param channel        the channel to write into, which is not closed
+     * @param data           the data
+     * @param dataStatistics the statistics of the data
+     * @throws IOException              if the channel could not be written
+     * @throws IllegalArgumentException if the data is too large for the format
+     */
+    public static void write(WritableByteChannel channel, Data data,
+            DataStatistics dataStatistics) throws IOException, IllegalArgumentException {
+        List<Datapoint> datapoints = data.getValues();
+        List<DatapointStatistics> statistics = dataStatistics.getSpotStatistics();
+        long size = fileSize(datapoints.size(), statistics.size());
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Data is too large for the binary format");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(MAGIC).putInt(VERSION).putInt(datapoints.size()).putInt(statistics.size());
+
+        for (Column column : Column.values()) {
+            writeColumn(buffer, datapoints, column.intValue, column.doubleValue);
+        }
+        for (StatisticsColumn column : StatisticsColumn.values()) {
+            writeColumn(buffer, statistics, column.intValue, column.doubleValue);
+        }
+
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Write the values of a single column, padded to the alignment.
+     *
+     * @param <T>         the type of the rows
+     * @param buffer      the buffer to write into
+     * @param rows        the rows to write the values of
+     * @param intValue    the value of an integer column or null
+     * @param doubleValue the value of a double column if the column does not hold
+     *                    integers
+     */
+    private static <T> void writeColumn(ByteBuffer buffer, List<T> rows,
+            ToIntFunction<T> intValue, ToDoubleFunction<T> doubleValue) {
+        if (intValue != null) {
+            for (T row : rows) {
+                buffer.putInt(intValue.applyAsInt(row));
+            }
+        } else {
+            for (T row : rows) {
+                buffer.putDouble(doubleValue.applyAsDouble(row));
+            }
+        }
+        pad(buffer);
+    }
+
+    private static void pad(ByteBuffer buffer) {
+        while (buffer.position() % ALIGNMENT != 0) {
+            buffer.put((byte) 0);
+        }
+    }
+
+    private static long columnSize(boolean integer, int count) {
+        long size = (long) count * (integer ? Integer.BYTES : Double.BYTES);
+        return (size + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    private static long fileSize(int datapointCount, int statisticsCount) {
+        long size = HEADER_SIZE;
+        for (Column column : Column.values()) {
+            size += columnSize(column.isInteger(), datapointCount);
+        }
+        for (StatisticsColumn column : StatisticsColumn.values()) {
+            size += columnSize(column.isInteger(), statisticsCount);
+        }
+        return size;
+    }
+
+    /**
+     * Get the number of datapoints.
+     *
+     * @return the number of datapoints
+     */
+    public int getDatapointCount() {
+        return datapointCount;
+    }
+
+    /**
+     * Get the number of datapoint statistics.
+     *
+     * @return the number of datapoint statistics
+     */
+    public int getStatisticsCount() {
+        return statisticsCount;
+    }
+
+    /**
+     * Get an integer value of a datapoint.
+     *
+     * @param column the integer column
+     * @param index  the index of the datapoint
+     * @return the value
+     * @throws IllegalArgumentException  if the column does not hold integers
+     * @throws IndexOutOfBoundsException if there is no such datapoint
+     */
+    public int getInt(Column column, int index)
+            throws IllegalArgumentException, IndexOutOfBoundsException {
+        if (!column.isInteger()) {
+            throw new IllegalArgumentException("Column does not hold integers");
+        }
+        Objects.checkIndex(index, datapointCount);
+        return buffer.getInt(columnOffsets[column.ordinal()] + index * Integer.BYTES);
+    }
+
+    /**
+     * Get a double value of a datapoint.
+     *
+     * @param column the double column
+     * @param index  the index of the datapoint
+     * @return the value
+     * @throws IllegalArgumentException  if the column does not hold doubles
+     * @throws IndexOutOfBoundsException if there is no such datapoint
+     */
+    public double getDouble(Column column, int index)
+            throws IllegalArgumentException, IndexOutOfBoundsException {
+        if (column.isInteger()) {
+            throw new IllegalArgumentException("Column does not hold doubles");
+        }
+        Objects.checkIndex(index, datapointCount);
+        return buffer.getDouble(columnOffsets[column.ordinal()] + index * Double.BYTES);
+    }
+
+    /**
+     * Get an integer value of a datapoint statistics.
+     *
+     * @param column the integer column
+     * @param index  the index of the datapoint statistics
+     * @return the value
+     * @throws IllegalArgumentException  if the column does not hold integers
+     * @throws IndexOutOfBoundsException if there are no such statistics
+     */
+    public int getInt(StatisticsColumn column, int index)
+            throws IllegalArgumentException, IndexOutOfBoundsException {
+        if (!column.isInteger()) {
+            throw new IllegalArgumentException("Column does not hold integers");
+        }
+        Objects.checkIndex(index, statisticsCount);
+        return buffer.getInt(statisticsColumnOffsets[column.ordinal()] + index * Integer.BYTES);
+    }
+
+    /**
+     * Get a double value of a datapoint statistics.
+     *
+     * @param column the double column
+     * @param index  the index of the datapoint statistics
+     * @return the value
+     * @throws IllegalArgumentException  if the column does not hold doubles
+     * @throws IndexOutOfBoundsException if there are no such statistics
+     */
+    public double getDouble(StatisticsColumn column, int index)
+            throws IllegalArgumentException, IndexOutOfBoundsException {
+        if (column.isInteger()) {
+            throw new IllegalArgumentException("Column does not hold doubles");
+        }
+        Objects.checkIndex(index, statisticsCount);
+        return buffer.getDouble(statisticsColumnOffsets[column.ordinal()] + index * Double.BYTES);
+    }
+
+    /**
+     * Create the data from the stored datapoints.
+     *
+     * @return the data
+     * @throws IllegalArgumentException if the stored datapoints are not valid
+     */
+    public Data toData() throws IllegalArgumentException {
+        List<Datapoint> values = new ArrayList<>(datapointCount);
+        for (int i = 0; i < datapointCount; i++) {
+            Measurepoint mp = Measurepoint.of(
+                    getInt(Column.SPOT, i), getInt(Column.ROW, i), getInt(Column.COL, i),
+                    getDouble(Column.MIN, i), getDouble(Column.MAX, i),
+                    getDouble(Column.MEAN, i), getDouble(Column.STD_DEVIATION, i));
+            values.add(Datapoint.of(mp,
+                    getDouble(Column.MEAN_MINUS_MIN, i), getDouble(Column.NORMALIZED_MEAN, i)));
+        }
+        return Data.of(values);
+    }
+
+    /**
+     * Create the data statistics from the stored values.
+     *
+     * @return the data statistics
+     * @throws IllegalArgumentException if the stored statistics are not valid
+     */
+    public DataStatistics toDataStatistics() throws IllegalArgumentException {
+        List<DatapointStatistics> values = new ArrayList<>(statisticsCount);
+        for (int i = 0; i < statisticsCount; i++) {
+            values.add(DatapointStatistics.of(
+                    getInt(StatisticsColumn.ROW, i), getInt(StatisticsColumn.COL, i),
+                    getDouble(StatisticsColumn.ADJUSTED_AVERAGE, i),
+                    getDouble(StatisticsColumn.ADJUSTED_AVERAGE_STD_DEVIATION, i),
+                    getDouble(StatisticsColumn.RELATIVE_ADJUSTED_AVERAGE_STD_DEVIATION, i),
+                    getDouble(StatisticsColumn.NORMALIZED_AVERAGE, i),
+                    getDouble(StatisticsColumn.NORMALIZED_AVERAGE_STD_DEVIATION, i),
+                    getDouble(StatisticsColumn.RELATIVE_NORMALIZED_AVERAGE_STD_DEVIATION, i)));
+        }
+        return DataStatistics.of(values);
+    }
+}
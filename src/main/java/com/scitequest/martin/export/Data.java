@@ -1,5 +1,13 @@
 package com.scitequest.martin.export;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
@@ -26,7 +34,7 @@ import com.scitequest.martin.utils.StatefulDistinct;
  * spotfield.</li>
  * </ul>
  */
-public final class Data {
+public final class Data implements TsvExportable {
 
     private static final String TSV_HEADER = "spot\trow\tcol\tmin\tmax\tmean\tstd_deviation"
             + "\tmean_minus_min\tnormalized_mean";
@@ -62,11 +70,17 @@ public final class Data {
      */
     @JsonCreator
     public static Data of(@JsonProperty("values") List<Datapoint> values) {
-        var distinctor = StatefulDistinct.fromComparator(DATAPOINT_COMPARATOR);
-        List<Datapoint> datapoints = values.stream()
-                .sorted(DATAPOINT_COMPARATOR)
-                .filter(dp -> !distinctor.isDuplicate(dp))
-                .collect(Collectors.toList());
+        List<Datapoint> datapoints;
+        if (isStrictlyAscending(values)) {
+            // Stored data is already sorted, which also rules out duplicates
+            datapoints = new ArrayList<>(values);
+        } else {
+            var distinctor = StatefulDistinct.fromComparator(DATAPOINT_COMPARATOR);
+            datapoints = values.stream()
+                    .sorted(DATAPOINT_COMPARATOR)
+                    .filter(dp -> !distinctor.isDuplicate(dp))
+                    .collect(Collectors.toList());
+        }
 
         if (datapoints.size() != values.size()) {
             throw new IllegalArgumentException("Provided measurepoints contained duplicates");
@@ -77,6 +91,15 @@ public final class Data {
         return new Data(datapoints, transposed);
     }
 
+    private static boolean isStrictlyAscending(List<Datapoint> values) {
+        for (int i = 1; i < values.size(); i++) {
+            if (DATAPOINT_COMPARATOR.compare(values.get(i - 1), values.get(i)) >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private static Map<List<Integer>, List<Datapoint>> calculateTransposedDatapoints(
             List<Datapoint> datapoints) {
         var transposedSpotfield = datapoints.stream()
@@ -172,26 +195,37 @@ public final class Data {
      * @return the data as TSV representation
      */
     public String asTsv() {
-        StringBuilder sb = new StringBuilder();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            writeTsv(Channels.newChannel(out));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void writeTsv(WritableByteChannel channel) throws IOException {
+        TsvWriter writer = new TsvWriter(channel);
 
         // Header
-        sb.append(TSV_HEADER).append("\n");
+        writer.text(TSV_HEADER).newline();
 
         // Values
         for (Datapoint dp : values) {
             Measurepoint mp = dp.getMeasurePoint();
-            sb.append(mp.getSpot()).append("\t");
-            sb.append(mp.getRow()).append("\t");
-            sb.append(mp.getCol()).append("\t");
-            sb.append(mp.getMin()).append("\t");
-            sb.append(mp.getMax()).append("\t");
-            sb.append(mp.getMean()).append("\t");
-            sb.append(mp.getStdDev()).append("\t");
-            sb.append(dp.getMeanMinusMin()).append("\t");
-            sb.append(dp.getNormalizedMean()).append("\n");
+            writer.value(mp.getSpot()).tab();
+            writer.value(mp.getRow()).tab();
+            writer.value(mp.getCol()).tab();
+            writer.value(mp.getMin()).tab();
+            writer.value(mp.getMax()).tab();
+            writer.value(mp.getMean()).tab();
+            writer.value(mp.getStdDev()).tab();
+            writer.value(dp.getMeanMinusMin()).tab();
+            writer.value(dp.getNormalizedMean()).newline();
         }
 
-        return sb.toString();
+        writer.flush();
     }
 
     /**
@@ -202,32 +236,52 @@ public final class Data {
      * @throws IllegalArgumentException if the TSV is malformed
      */
     public static Data fromTsv(String s) throws IllegalArgumentException {
-        // Create an iterator over each line
-        var iter = s.lines().iterator();
+        return fromTsv(new TsvReader(ByteBuffer.wrap(s.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    /**
+     * Read data from a given TSV file.
+     *
+     * Large files are mapped into memory instead of read at once. On Windows a
+     * mapped file cannot be deleted or moved until the buffer has been garbage
+     * collected, use {@link #fromTsv(String)} for files that may be moved
+     * afterwards.
+     *
+     * @param path the path of the file
+     * @return the data
+     * @throws IOException              if the file could not be read
+     * @throws IllegalArgumentException if the TSV is malformed
+     */
+    public static Data readTsv(Path path) throws IOException, IllegalArgumentException {
+        return fromTsv(TsvReader.of(path));
+    }
+
+    private static Data fromTsv(TsvReader reader) throws IllegalArgumentException {
         // Check for the presence of a correct TSV header
-        if (!iter.hasNext() || !iter.next().equals(TSV_HEADER)) {
-            throw new IllegalArgumentException("Missing TSV header");
-        }
+        reader.header(TSV_HEADER);
 
         // Parse each line into a datapoint
         List<Datapoint> values = new ArrayList<>();
-        while (iter.hasNext()) {
-            // Split line into each value as a string
-            String[] splits = iter.next().split("\t");
-            if (splits.length != 9) {
-                throw new IllegalArgumentException("Improper TSV entry");
-            }
-
+        while (reader.hasNextLine()) {
             // Parse each value
-            int spot = Integer.parseInt(splits[0]);
-            int row = Integer.parseInt(splits[1]);
-            int col = Integer.parseInt(splits[2]);
-            double min = Double.parseDouble(splits[3]);
-            double max = Double.parseDouble(splits[4]);
-            double mean = Double.parseDouble(splits[5]);
-            double stdDev = Double.parseDouble(splits[6]);
-            double meanMinusMin = Double.parseDouble(splits[7]);
-            double normalizedMean = Double.parseDouble(splits[8]);
+            int spot = reader.nextInt();
+            reader.tab();
+            int row = reader.nextInt();
+            reader.tab();
+            int col = reader.nextInt();
+            reader.tab();
+            double min = reader.nextDouble();
+            reader.tab();
+            double max = reader.nextDouble();
+            reader.tab();
+            double mean = reader.nextDouble();
+            reader.tab();
+            double stdDev = reader.nextDouble();
+            reader.tab();
+            double meanMinusMin = reader.nextDouble();
+            reader.tab();
+            double normalizedMean = reader.nextDouble();
+            reader.endLine();
 
             // Create datapoint
             Datapoint dp = Datapoint.of(
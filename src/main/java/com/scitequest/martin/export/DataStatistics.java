@@ -1,5 +1,13 @@
 package com.scitequest.martin.export;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -9,7 +17,7 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.scitequest.martin.utils.DoubleStatistics;
 
-public final class DataStatistics {
+public final class DataStatistics implements TsvExportable {
 
     private static final String TSV_HEADER = "row\tcol"
             + "\tadjusted_average\tadjusted_average_std_deviation"
@@ -29,6 +37,16 @@ public final class DataStatistics {
         this.spotStatistics = spotStatistics;
     }
 
+    /**
+     * Create data statistics from already calculated values.
+     *
+     * @param spotStatistics the statistics of each datapoint
+     * @return the data statistics
+     */
+    static DataStatistics of(List<DatapointStatistics> spotStatistics) {
+        return new DataStatistics(List.copyOf(spotStatistics));
+    }
+
     /**
      * Does analysis on a given Dataset and returns a new instance of
      * DataStatistics.
@@ -106,24 +124,35 @@ public final class DataStatistics {
      * @return the data as TSV representation
      */
     public String asTsv() {
-        StringBuilder sb = new StringBuilder();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            writeTsv(Channels.newChannel(out));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void writeTsv(WritableByteChannel channel) throws IOException {
+        TsvWriter writer = new TsvWriter(channel);
 
         // Header
-        sb.append(TSV_HEADER).append("\n");
+        writer.text(TSV_HEADER).newline();
 
         // Values
         for (DatapointStatistics dpStats : spotStatistics) {
-            sb.append(dpStats.getRow()).append("\t");
-            sb.append(dpStats.getColumn()).append("\t");
-            sb.append(dpStats.getRawAvg()).append("\t");
-            sb.append(dpStats.getStdDevRawAvg()).append("\t");
-            sb.append(dpStats.getRelStdDevRawAvg()).append("\t");
-            sb.append(dpStats.getRawAvgNormalized()).append("\t");
-            sb.append(dpStats.getStdDevNormAvg()).append("\t");
-            sb.append(dpStats.getRelStdDevNormAvg()).append("\n");
+            writer.value(dpStats.getRow()).tab();
+            writer.value(dpStats.getColumn()).tab();
+            writer.value(dpStats.getRawAvg()).tab();
+            writer.value(dpStats.getStdDevRawAvg()).tab();
+            writer.value(dpStats.getRelStdDevRawAvg()).tab();
+            writer.value(dpStats.getRawAvgNormalized()).tab();
+            writer.value(dpStats.getStdDevNormAvg()).tab();
+            writer.value(dpStats.getRelStdDevNormAvg()).newline();
         }
 
-        return sb.toString();
+        writer.flush();
     }
 
     /**
@@ -134,31 +163,50 @@ public final class DataStatistics {
      * @throws IllegalArgumentException if the TSV is malformed
      */
     public static DataStatistics fromTsv(String s) throws IllegalArgumentException {
-        // Create an iterator over each line
-        var iter = s.lines().iterator();
+        return fromTsv(new TsvReader(ByteBuffer.wrap(s.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    /**
+     * Read data statistics from a given TSV file.
+     *
+     * Large files are mapped into memory instead of read at once. On Windows a
+     * mapped file cannot be deleted or moved until the buffer has been garbage
+     * collected, use {@link #fromTsv(String)} for files that may be moved
+     * afterwards.
+     *
+     * @param path the path of the file
+     * @return the data statistics
+     * @throws IOException              if the file could not be read
+     * @throws IllegalArgumentException if the TSV is malformed
+     */
+    public static DataStatistics readTsv(Path path) throws IOException, IllegalArgumentException {
+        return fromTsv(TsvReader.of(path));
+    }
+
+    private static DataStatistics fromTsv(TsvReader reader) throws IllegalArgumentException {
         // Check for the presence of a correct TSV header
-        if (!iter.hasNext() || !iter.next().equals(TSV_HEADER)) {
-            throw new IllegalArgumentException("Missing TSV header");
-        }
+        reader.header(TSV_HEADER);
 
         // Parse each line into a datapoint
         List<DatapointStatistics> values = new ArrayList<>();
-        while (iter.hasNext()) {
-            // Split line into each value as a string
-            String[] splits = iter.next().split("\t");
-            if (splits.length != 8) {
-                throw new IllegalArgumentException("Improper TSV entry");
-            }
-
+        while (reader.hasNextLine()) {
             // Parse each value
-            int row = Integer.parseInt(splits[0]);
-            int col = Integer.parseInt(splits[1]);
-            double rawAvg = Double.parseDouble(splits[2]);
-            double stdDevRawAvg = Double.parseDouble(splits[3]);
-            double relStdDevRawAvg = Double.parseDouble(splits[4]);
-            double rawAvgNormalized = Double.parseDouble(splits[5]);
-            double stdDevNormAvg = Double.parseDouble(splits[6]);
-            double relStdDevNormAvg = Double.parseDouble(splits[7]);
+            int row = reader.nextInt();
+            reader.tab();
+            int col = reader.nextInt();
+            reader.tab();
+            double rawAvg = reader.nextDouble();
+            reader.tab();
+            double stdDevRawAvg = reader.nextDouble();
+            reader.tab();
+            double relStdDevRawAvg = reader.nextDouble();
+            reader.tab();
+            double rawAvgNormalized = reader.nextDouble();
+            reader.tab();
+            double stdDevNormAvg = reader.nextDouble();
+            reader.tab();
+            double relStdDevNormAvg = reader.nextDouble();
+            reader.endLine();
 
             // Create datapoint
             DatapointStatistics ds = DatapointStatistics.of(row, col,
@@ -3,10 +3,7 @@ package com.scitequest.martin.export;
 import java.time.Duration;
 import java.time.ZonedDateTime;
 
-import javax.json.Json;
-import javax.json.JsonStructure;
-
-public final class Image implements JsonExportable {
+public final class Image {
 
     /** When the image was taken. */
     private final ZonedDateTime created;
@@ -92,16 +89,6 @@ public final class Image implements JsonExportable {
         return exposureTime;
     }
 
-    @Override
-    public JsonStructure asJson() {
-        return Json.createObjectBuilder()
-                .add("created", this.created.toOffsetDateTime().toString())
-                .add("imager", this.imager)
-                .add("pixel_binning", this.pixelBinning)
-                .add("exposure_time", this.exposureTime.toString())
-                .build();
-    }
-
     @Override
     public int hashCode() {
         final int prime = 31;
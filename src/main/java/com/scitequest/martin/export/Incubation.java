@@ -1,14 +1,20 @@
 package com.scitequest.martin.export;
 
+import java.io.IOException;
 import java.time.Duration;
 
-import javax.json.Json;
 import javax.json.JsonObject;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
 /**
  * Represents the metadata of the incubation procedure and holds information
  * about the process.
  */
+@JsonSerialize(using = Incubation.IncubationSerializer.class)
 public final class Incubation implements JsonExportable {
 
     /** The solution that was used for incubation. */
@@ -96,13 +102,7 @@ public final class Incubation implements JsonExportable {
 
     @Override
     public JsonObject asJson() {
-        JsonObject json = Json.createObjectBuilder()
-                .add("solution", this.solution)
-                .add("stock_concentration", this.stockConcentration.asJson())
-                .add("final_concentration", this.finalConcentration.asJson())
-                .add("incubation_time", this.incubationTime.toString())
-                .build();
-        return json;
+        return JacksonJson.asJsonObject(this);
     }
 
     public static Incubation fromJson(JsonObject obj) {
@@ -167,4 +167,23 @@ public final class Incubation implements JsonExportable {
             return false;
         return true;
     }
+
+    /**
+     * Writes an incubation, both for the settings and the exported metadata.
+     */
+    public static final class IncubationSerializer extends JsonSerializer<Incubation> {
+
+        @Override
+        public void serialize(Incubation incubation, JsonGenerator gen,
+                SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            gen.writeStringField("solution", incubation.solution);
+            provider.defaultSerializeField("stock_concentration",
+                    incubation.stockConcentration, gen);
+            provider.defaultSerializeField("final_concentration",
+                    incubation.finalConcentration, gen);
+            gen.writeStringField("incubation_time", incubation.incubationTime.toString());
+            gen.writeEndObject();
+        }
+    }
 }
@@ -0,0 +1,36 @@
+package com.scitequest.martin.export;
+
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.scitequest.martin.Const;
+
+/**
+ * Converts values written by their Jackson serializer into a JSON-P object, so
+ * the settings and the exports share a single definition of the layout.
+ */
+final class JacksonJson {
+
+    private JacksonJson() {
+    }
+
+    /**
+     * Serialize a value with Jackson and read it back as a JSON object.
+     *
+     * @param value the value, which must be serialized as an object
+     * @return the JSON object
+     */
+    static JsonObject asJsonObject(Object value) {
+        try (JsonReader reader = Json.createReader(
+                new StringReader(Const.mapper.writeValueAsString(value)))) {
+            return reader.readObject();
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -5,14 +5,15 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
-import javax.json.Json;
-import javax.json.JsonArrayBuilder;
-import javax.json.JsonObject;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 
 /**
  * This class holds all information about the metadata of a slide measurement.
+ *
+ * It is serialized to JSON by the {@link MetadataSerializer}.
  */
-public final class Metadata implements JsonExportable {
+@JsonSerialize(using = MetadataSerializer.class)
+public final class Metadata {
 
     /** The current version of the file format specification. */
     public static final String CURRENT_VERSION = "0.7.0";
@@ -111,22 +112,6 @@ public final class Metadata implements JsonExportable {
         return Collections.unmodifiableList(incubations);
     }
 
-    @Override
-    public JsonObject asJson() {
-        JsonArrayBuilder incubationsJson = Json.createArrayBuilder();
-        incubations.stream().forEach(incub -> incubationsJson.add(incub.asJson()));
-
-        var json = Json.createObjectBuilder()
-                .add("version", Metadata.CURRENT_VERSION)
-                .add("datetime", this.datetime.toOffsetDateTime().toString())
-                .add("patient", this.patient.asJson())
-                .add("image", this.image.asJson())
-                .add("incubations", incubationsJson);
-        this.project.ifPresent(proj -> json.add("project", proj.asJson()));
-
-        return json.build();
-    }
-
     @Override
     public int hashCode() {
         final int prime = 31;
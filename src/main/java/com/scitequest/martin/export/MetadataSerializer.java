@@ -0,0 +1,74 @@
+package com.scitequest.martin.export;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Optional;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * Streams the metadata of a measurement as JSON directly into the generator.
+ *
+ * The layout is described by the JSON schema of the {@code metadata.json} file
+ * in the specification. Dates and durations are written in their ISO 8601
+ * representation.
+ */
+final class MetadataSerializer extends StdSerializer<Metadata> {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Create a new serializer, called by Jackson.
+     */
+    public MetadataSerializer() {
+        super(Metadata.class);
+    }
+
+    @Override
+    public void serialize(Metadata metadata, JsonGenerator gen, SerializerProvider provider)
+            throws IOException {
+        gen.writeStartObject();
+        gen.writeStringField("version", Metadata.CURRENT_VERSION);
+        gen.writeStringField("datetime", metadata.getDatetime().toOffsetDateTime().toString());
+        writePatient(gen, metadata.getPatient());
+        writeImage(gen, metadata.getImage());
+        gen.writeArrayFieldStart("incubations");
+        for (Incubation incubation : metadata.getIncubations()) {
+            provider.defaultSerializeValue(incubation, gen);
+        }
+        gen.writeEndArray();
+        Optional<Project> project = metadata.getProject();
+        if (project.isPresent()) {
+            gen.writeObjectFieldStart("project");
+            gen.writeStringField("name", project.get().getName());
+            gen.writeStringField("description", project.get().getDescription());
+            gen.writeEndObject();
+        }
+        gen.writeEndObject();
+    }
+
+    private static void writePatient(JsonGenerator gen, Patient patient) throws IOException {
+        gen.writeObjectFieldStart("patient");
+        gen.writeStringField("id", patient.getId());
+        gen.writeStringField("name", patient.getName());
+        gen.writeArrayFieldStart("tags");
+        String[] tags = patient.getTags().toArray(new String[0]);
+        Arrays.sort(tags);
+        for (String tag : tags) {
+            gen.writeString(tag);
+        }
+        gen.writeEndArray();
+        gen.writeEndObject();
+    }
+
+    private static void writeImage(JsonGenerator gen, Image image) throws IOException {
+        gen.writeObjectFieldStart("image");
+        gen.writeStringField("created", image.getCreated().toOffsetDateTime().toString());
+        gen.writeStringField("imager", image.getImager());
+        gen.writeNumberField("pixel_binning", image.getPixelBinning());
+        gen.writeStringField("exposure_time", image.getExposureTime().toString());
+        gen.writeEndObject();
+    }
+}
@@ -3,16 +3,12 @@ package com.scitequest.martin.export;
 import java.util.Collections;
 import java.util.Set;
 
-import javax.json.Json;
-import javax.json.JsonArrayBuilder;
-import javax.json.JsonObject;
-
 import com.scitequest.martin.utils.StringUtils;
 
 /**
  * Represents a Patient metadata within a measurement.
  */
-public final class Patient implements JsonExportable {
+public final class Patient {
     /** The identifier of the patient as may be given from a hospital. */
     private final String id;
     /** The full name of the patient. */
@@ -133,19 +129,6 @@ public final class Patient implements JsonExportable {
         return StringUtils.toKebapCase(id);
     }
 
-    @Override
-    public JsonObject asJson() {
-        JsonArrayBuilder jsonTags = Json.createArrayBuilder();
-        this.tags.stream().sorted().forEach(tag -> jsonTags.add(tag));
-
-        JsonObject json = Json.createObjectBuilder()
-                .add("id", this.id)
-                .add("name", this.name)
-                .add("tags", jsonTags)
-                .build();
-        return json;
-    }
-
     @Override
     public int hashCode() {
         final int prime = 31;
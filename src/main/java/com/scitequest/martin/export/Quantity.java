@@ -1,10 +1,16 @@
 package com.scitequest.martin.export;
 
+import java.io.IOException;
 import java.util.Locale;
 
-import javax.json.Json;
 import javax.json.JsonObject;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+@JsonSerialize(using = Quantity.QuantitySerializer.class)
 public final class Quantity implements JsonExportable {
 
     /** Maximum percentage value. */
@@ -116,11 +122,7 @@ public final class Quantity implements JsonExportable {
 
     @Override
     public JsonObject asJson() {
-        JsonObject obj = Json.createObjectBuilder()
-                .add("value", value)
-                .add("unit", unit.toSnakeCase())
-                .build();
-        return obj;
+        return JacksonJson.asJsonObject(this);
     }
 
     @Override
@@ -155,4 +157,19 @@ public final class Quantity implements JsonExportable {
             return false;
         return true;
     }
+
+    /**
+     * Writes a quantity, both for the settings and the exported metadata.
+     */
+    public static final class QuantitySerializer extends JsonSerializer<Quantity> {
+
+        @Override
+        public void serialize(Quantity quantity, JsonGenerator gen, SerializerProvider provider)
+                throws IOException {
+            gen.writeStartObject();
+            gen.writeNumberField("value", quantity.value);
+            gen.writeStringField("unit", quantity.unit.toSnakeCase());
+            gen.writeEndObject();
+        }
+    }
 }
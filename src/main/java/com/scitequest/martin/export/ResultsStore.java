@@ -0,0 +1,717 @@
+package com.scitequest.martin.export;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only store holding the results of many measurements of a project.
+ *
+ * The records are appended to segment files of a limited size and located by
+ * an index of fixed size entries, so a project needs only a handful of files
+ * and can be read sequentially. The format is described in the specification.
+ *
+ * A record is only acknowledged once both the record and its index entry have
+ * been forced to the storage device. Anything after the last indexed record,
+ * e.g. left behind by a crash, is discarded when the store is opened for
+ * writing. Only a single writer may open a directory at a time, while any
+ * number of readers may read the records acknowledged when they were opened.
+ */
+public final class ResultsStore implements Closeable {
+
+    private static final Logger log = Logger.getLogger(
+            "com.scitequest.martin.export.ResultsStore");
+
+    /** The name of the index file within the store directory. */
+    public static final String INDEX_FILE = "index";
+    /**
+     * The name of the file locked by the writer within the store directory. The
+     * index is not locked itself, as locks are mandatory on some platforms and
+     * would keep readers from reading it.
+     */
+    public static final String LOCK_FILE = "lock";
+    /** The bytes the index file starts with. */
+    private static final byte[] MAGIC = { 'M', 'R', 'T', 'S' };
+    /** The version of the format written. */
+    public static final int VERSION = 1;
+    /** The size of the index header in bytes. */
+    private static final int HEADER_SIZE = 8;
+    /** The size of an index entry in bytes. */
+    private static final int ENTRY_SIZE = 24;
+    /** The size of the record length and checksum surrounding the body. */
+    private static final int RECORD_OVERHEAD = Long.BYTES + Integer.BYTES;
+    /** The number of sections of a record. */
+    private static final int SECTIONS = 5;
+    /** The size of the buffer used to checksum the image. */
+    private static final int CHUNK_SIZE = 64 * 1024;
+    /** The default maximum size of a segment in bytes. */
+    public static final long DEFAULT_SEGMENT_SIZE = 256L * 1024 * 1024;
+
+    /**
+     * The results of a single measurement.
+     *
+     * The image is never held in memory but copied between files.
+     */
+    public static final class Record {
+        private final byte[] metadata;
+        private final byte[] parameters;
+        private final ByteBuffer binaryData;
+        private final Optional<String> imageName;
+        /** The file holding the image, either the original or a segment. */
+        private final Optional<Path> imageFile;
+        private final long imageOffset;
+        private final long imageSize;
+
+        private Record(byte[] metadata, byte[] parameters, ByteBuffer binaryData,
+                Optional<String> imageName, Optional<Path> imageFile,
+                long imageOffset, long imageSize) {
+            this.metadata = metadata;
+            this.parameters = parameters;
+            this.binaryData = binaryData;
+            this.imageName = imageName;
+            this.imageFile = imageFile;
+            this.imageOffset = imageOffset;
+            this.imageSize = imageSize;
+        }
+
+        /**
+         * Create a new record without an image.
+         *
+         * @param metadata       the metadata serialized as JSON
+         * @param parameters     the parameters serialized as JSON
+         * @param data           the measured data
+         * @param dataStatistics the statistics of the measured data
+         * @return the record
+         */
+        public static Record of(byte[] metadata, byte[] parameters,
+                Data data, DataStatistics dataStatistics) {
+            return new Record(metadata.clone(), parameters.clone(),
+                    binaryData(data, dataStatistics), Optional.empty(), Optional.empty(), 0, 0);
+        }
+
+        /**
+         * Create a new record including the original image.
+         *
+         * The image is only read when the record is appended and must not change
+         * until then.
+         *
+         * @param metadata       the metadata serialized as JSON
+         * @param parameters     the parameters serialized as JSON
+         * @param data           the measured data
+         * @param dataStatistics the statistics of the measured data
+         * @param imageName      the file name the image is stored as
+         * @param image          the path of the image file
+         * @return the record
+         * @throws IOException              if the size of the image could not be
+         *                                  read
+         * @throws IllegalArgumentException if the image name is empty
+         */
+        public static Record of(byte[] metadata, byte[] parameters,
+                Data data, DataStatistics dataStatistics, String imageName, Path image)
+                throws IOException, IllegalArgumentException {
+            if (imageName.isEmpty()) {
+                throw new IllegalArgumentException("A stored image requires a name");
+            }
+            return new Record(metadata.clone(), parameters.clone(),
+                    binaryData(data, dataStatistics), Optional.of(imageName), Optional.of(image),
+                    0, Files.size(image));
+        }
+
+        private static ByteBuffer binaryData(Data data, DataStatistics dataStatistics) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try {
+                BinaryData.write(Channels.newChannel(out), data, dataStatistics);
+            } catch (IOException e) {
+                // Writing into memory does not fail
+                throw new IllegalStateException(e);
+            }
+            return ByteBuffer.wrap(out.toByteArray());
+        }
+
+        /**
+         * Get the metadata serialized as JSON.
+         *
+         * @return the UTF-8 encoded JSON
+         */
+        public byte[] getMetadata() {
+            return metadata.clone();
+        }
+
+        /**
+         * Get the parameters serialized as JSON.
+         *
+         * @return the UTF-8 encoded JSON
+         */
+        public byte[] getParameters() {
+            return parameters.clone();
+        }
+
+        /**
+         * Get the data and data statistics.
+         *
+         * @return the binary data
+         * @throws IllegalArgumentException if the stored data is not valid
+         */
+        public BinaryData getBinaryData() throws IllegalArgumentException {
+            return BinaryData.of(binaryData.duplicate());
+        }
+
+        /**
+         * Get the file name of the stored image, e.g. {@code image.tif}.
+         *
+         * @return the file name if an image is stored
+         */
+        public Optional<String> getImageName() {
+            return imageName;
+        }
+
+        /**
+         * Get the size of the stored image file.
+         *
+         * @return the size in bytes, zero if no image is stored
+         */
+        public long getImageSize() {
+            return imageSize;
+        }
+
+        /**
+         * Copy the stored image into a new file.
+         *
+         * @param target the path of the file to create
+         * @throws IOException           if the image could not be copied
+         * @throws IllegalStateException if no image is stored
+         */
+        public void copyImage(Path target) throws IOException, IllegalStateException {
+            Path source = imageFile.orElseThrow(
+                    () -> new IllegalStateException("Record does not contain an image"));
+            try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+                    FileChannel out = FileChannel.open(target,
+                            StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                transfer(in, imageOffset, out, 0, imageSize);
+            }
+        }
+
+        private long bodySize() {
+            return SECTIONS * Long.BYTES + metadata.length + parameters.length
+                    + binaryData.remaining() + imageNameBytes().length + imageSize;
+        }
+
+        private byte[] imageNameBytes() {
+            return imageName.orElse("").getBytes(StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Write the record section by section into a segment.
+         *
+         * @param channel  the segment
+         * @param position the position to write the record at
+         * @return the length of the record
+         */
+        private long write(FileChannel channel, long position) throws IOException {
+            long bodySize = bodySize();
+            CRC32 crc = new CRC32();
+            long pos = position;
+            pos += writeFully(channel, longBuffer(bodySize), pos);
+            pos += writeSection(channel, pos, ByteBuffer.wrap(metadata), crc);
+            pos += writeSection(channel, pos, ByteBuffer.wrap(parameters), crc);
+            pos += writeSection(channel, pos, binaryData.duplicate(), crc);
+            pos += writeSection(channel, pos, ByteBuffer.wrap(imageNameBytes()), crc);
+            pos += writeChecksummed(channel, pos, longBuffer(imageSize), crc);
+            if (imageFile.isPresent()) {
+                try (FileChannel in = FileChannel.open(imageFile.get(),
+                        StandardOpenOption.READ)) {
+                    transfer(in, imageOffset, channel, pos, imageSize);
+                }
+                // Checksum what has been written, the pages are still cached
+                updateChecksum(crc, channel, pos, imageSize);
+                pos += imageSize;
+            }
+            ByteBuffer checksum = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN)
+                    .putInt((int) crc.getValue()).flip();
+            pos += writeFully(channel, checksum, pos);
+            return pos - position;
+        }
+
+        private static long writeSection(FileChannel channel, long position, ByteBuffer section,
+                CRC32 crc) throws IOException {
+            long written = writeChecksummed(channel, position, longBuffer(section.remaining()),
+                    crc);
+            return written + writeChecksummed(channel, position + written, section, crc);
+        }
+
+        private static long writeChecksummed(FileChannel channel, long position,
+                ByteBuffer buffer, CRC32 crc) throws IOException {
+            crc.update(buffer.duplicate());
+            return writeFully(channel, buffer, position);
+        }
+
+        /**
+         * Read a record from a segment, verifying its checksum.
+         *
+         * @param segment  the path of the segment
+         * @param channel  the opened segment
+         * @param position the position of the record
+         * @param length   the length of the record
+         * @return the record
+         */
+        private static Record read(Path segment, FileChannel channel, long position, long length)
+                throws IOException, IllegalArgumentException {
+            if (length < RECORD_OVERHEAD) {
+                throw new IllegalArgumentException("Record is too short");
+            }
+            long bodySize = readFully(channel, position, Long.BYTES).getLong();
+            if (bodySize != length - RECORD_OVERHEAD) {
+                throw new IllegalArgumentException("Record has an invalid size");
+            }
+            long body = position + Long.BYTES;
+            CRC32 crc = new CRC32();
+            updateChecksum(crc, channel, body, bodySize);
+            if ((int) crc.getValue() != readFully(channel, body + bodySize, Integer.BYTES)
+                    .getInt()) {
+                throw new IllegalArgumentException("Record checksum does not match");
+            }
+
+            long end = body + bodySize;
+            long pos = body;
+            long[] sectionSizes = new long[SECTIONS];
+            long[] sectionPositions = new long[SECTIONS];
+            for (int i = 0; i < SECTIONS; i++) {
+                if (end - pos < Long.BYTES) {
+                    throw new IllegalArgumentException("Record section is missing");
+                }
+                sectionSizes[i] = readFully(channel, pos, Long.BYTES).getLong();
+                sectionPositions[i] = pos + Long.BYTES;
+                if (sectionSizes[i] < 0 || sectionSizes[i] > end - sectionPositions[i]) {
+                    throw new IllegalArgumentException("Record section has an invalid size");
+                }
+                if (i < SECTIONS - 1 && sectionSizes[i] > Integer.MAX_VALUE) {
+                    throw new IllegalArgumentException("Record section is too large");
+                }
+                pos = sectionPositions[i] + sectionSizes[i];
+            }
+            if (pos != end) {
+                throw new IllegalArgumentException("Record has trailing bytes");
+            }
+
+            byte[] metadata = readSection(channel, sectionPositions[0], sectionSizes[0]).array();
+            byte[] parameters = readSection(channel, sectionPositions[1], sectionSizes[1])
+                    .array();
+            ByteBuffer binaryData = readSection(channel, sectionPositions[2], sectionSizes[2]);
+            String imageName = new String(
+                    readSection(channel, sectionPositions[3], sectionSizes[3]).array(),
+                    StandardCharsets.UTF_8);
+            Optional<String> name = Optional.of(imageName).filter(n -> !n.isEmpty());
+            return new Record(metadata, parameters, binaryData, name,
+                    name.map(n -> segment), sectionPositions[4], sectionSizes[4]);
+        }
+
+        private static ByteBuffer readSection(FileChannel channel, long position, long size)
+                throws IOException {
+            return readFully(channel, position, (int) size);
+        }
+    }
+
+    /** The directory holding the index and segments. */
+    private final Path directory;
+    private final long segmentSize;
+    private final FileChannel index;
+    /** The lock on the lock file guarding against a second writer, empty for readers. */
+    private final Optional<FileLock> lock;
+    /** The number of indexed records. */
+    private int size;
+    /** The segment records are currently appended to. */
+    private int segment;
+    /** The opened current segment, empty for readers. */
+    private Optional<FileChannel> segmentChannel = Optional.empty();
+    /** The end of the last record in the current segment. */
+    private long segmentEnd;
+
+    private ResultsStore(Path directory, long segmentSize, FileChannel index,
+            Optional<FileLock> lock) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.index = index;
+        this.lock = lock;
+    }
+
+    /**
+     * Open the store in a directory for writing with the default segment size,
+     * creating it if necessary.
+     *
+     * @param directory the directory of the store
+     * @return the opened store
+     * @throws IOException              if the store could not be opened or is
+     *                                  already opened for writing
+     * @throws IllegalArgumentException if the directory does not hold a valid
+     *                                  store
+     */
+    public static ResultsStore open(Path directory) throws IOException, IllegalArgumentException {
+        return open(directory, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Open the store in a directory for writing, creating it if necessary.
+     *
+     * A new segment is started once appending a record would make the current
+     * segment larger than the segment size. Records larger than the segment
+     * size get a segment on their own.
+     *
+     * @param directory   the directory of the store
+     * @param segmentSize the maximum size of a segment in bytes
+     * @return the opened store
+     * @throws IOException              if the store could not be opened or is
+     *                                  already opened for writing
+     * @throws IllegalArgumentException if the directory does not hold a valid
+     *                                  store
+     */
+    public static ResultsStore open(Path directory, long segmentSize)
+            throws IOException, IllegalArgumentException {
+        if (segmentSize <= 0) {
+            throw new IllegalArgumentException("Segment size must be positive");
+        }
+        Files.createDirectories(directory);
+        FileChannel lockChannel = FileChannel.open(directory.resolve(LOCK_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            FileLock lock;
+            try {
+                lock = lockChannel.tryLock();
+            } catch (OverlappingFileLockException e) {
+                // Already opened within this process
+                lock = null;
+            }
+            if (lock == null) {
+                throw new IOException(String.format("Results store '%s' is in use", directory));
+            }
+            FileChannel index = FileChannel.open(directory.resolve(INDEX_FILE),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            try {
+                ResultsStore store = new ResultsStore(directory, segmentSize, index,
+                        Optional.of(lock));
+                store.recover();
+                return store;
+            } catch (IOException | RuntimeException e) {
+                index.close();
+                throw e;
+            }
+        } catch (IOException | RuntimeException e) {
+            // Also releases the lock
+            lockChannel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Open an existing store for reading.
+     *
+     * The store is not modified and may be written concurrently. Only the
+     * records acknowledged when opening the store can be read.
+     *
+     * @param directory the directory of the store
+     * @return the opened store
+     * @throws IOException              if the store could not be opened
+     * @throws IllegalArgumentException if the directory does not hold a valid
+     *                                  store
+     */
+    public static ResultsStore openReadOnly(Path directory)
+            throws IOException, IllegalArgumentException {
+        FileChannel index = FileChannel.open(directory.resolve(INDEX_FILE),
+                StandardOpenOption.READ);
+        try {
+            ResultsStore store = new ResultsStore(directory, DEFAULT_SEGMENT_SIZE, index,
+                    Optional.empty());
+            store.checkHeader();
+            // A partially written entry belongs to a record not acknowledged yet
+            store.size = entryCount(index.size());
+            return store;
+        } catch (IOException | RuntimeException e) {
+            index.close();
+            throw e;
+        }
+    }
+
+    private void checkHeader() throws IOException, IllegalArgumentException {
+        if (index.size() < HEADER_SIZE) {
+            throw new IllegalArgumentException("Not a results store index");
+        }
+        ByteBuffer header = readFully(index, 0, HEADER_SIZE);
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (header.get(i) != MAGIC[i]) {
+                throw new IllegalArgumentException("Not a results store index");
+            }
+        }
+        int version = header.getInt(MAGIC.length);
+        if (version != VERSION) {
+            throw new IllegalArgumentException(
+                    String.format("Unsupported results store version %d", version));
+        }
+    }
+
+    private static int entryCount(long indexSize) throws IllegalArgumentException {
+        long entries = (indexSize - HEADER_SIZE) / ENTRY_SIZE;
+        if (entries > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Results store index is too large");
+        }
+        return (int) entries;
+    }
+
+    /**
+     * Read the index and discard everything after the last indexed record.
+     */
+    private void recover() throws IOException, IllegalArgumentException {
+        if (index.size() == 0) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.put(MAGIC).putInt(VERSION).flip();
+            writeFully(index, header, 0);
+            index.force(false);
+        }
+        checkHeader();
+
+        // Drop a partially written entry and entries whose record is incomplete
+        size = entryCount(index.size());
+        while (size > 0) {
+            ByteBuffer entry = readEntry(size - 1);
+            Path path = segmentPath(entry.getInt(0));
+            long end = entry.getLong(8) + entry.getLong(16);
+            if (Files.isRegularFile(path) && Files.size(path) >= end) {
+                segment = entry.getInt(0);
+                segmentEnd = end;
+                break;
+            }
+            size--;
+        }
+        if (size == 0) {
+            segment = 0;
+            segmentEnd = 0;
+        }
+        long indexEnd = HEADER_SIZE + (long) size * ENTRY_SIZE;
+        if (index.size() > indexEnd) {
+            log.warning(String.format("Discarding %d bytes of the index of '%s'",
+                    index.size() - indexEnd, directory));
+            index.truncate(indexEnd);
+        }
+
+        FileChannel channel = FileChannel.open(segmentPath(segment),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segmentChannel = Optional.of(channel);
+        if (channel.size() > segmentEnd) {
+            log.warning(String.format("Discarding unindexed records in '%s'",
+                    segmentPath(segment)));
+            channel.truncate(segmentEnd);
+        }
+        for (int next = segment + 1; Files.deleteIfExists(segmentPath(next)); next++) {
+            log.warning(String.format("Discarded unindexed segment %d of '%s'", next, directory));
+        }
+    }
+
+    private Path segmentPath(int segment) {
+        return directory.resolve(String.format("segment-%06d.log", segment));
+    }
+
+    private ByteBuffer readEntry(int record) throws IOException {
+        return readFully(index, HEADER_SIZE + (long) record * ENTRY_SIZE, ENTRY_SIZE);
+    }
+
+    private static ByteBuffer longBuffer(long value) {
+        return ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN)
+                .putLong(value).flip();
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length)
+            throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of file");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static int writeFully(FileChannel channel, ByteBuffer buffer, long position)
+            throws IOException {
+        int length = buffer.remaining();
+        long start = position - buffer.position();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, start + buffer.position());
+        }
+        return length;
+    }
+
+    private static void transfer(FileChannel in, long inPosition,
+            FileChannel out, long outPosition, long count) throws IOException {
+        in.position(inPosition);
+        long done = 0;
+        while (done < count) {
+            long transferred = out.transferFrom(in, outPosition + done, count - done);
+            if (transferred <= 0) {
+                throw new IOException("Unexpected end of file");
+            }
+            done += transferred;
+        }
+    }
+
+    private static void updateChecksum(CRC32 crc, FileChannel channel, long position, long count)
+            throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect((int) Math.min(CHUNK_SIZE, count));
+        long done = 0;
+        while (done < count) {
+            buffer.clear().limit((int) Math.min(buffer.capacity(), count - done));
+            if (channel.read(buffer, position + done) < 0) {
+                throw new IOException("Unexpected end of file");
+            }
+            done += buffer.flip().remaining();
+            crc.update(buffer);
+        }
+    }
+
+    /**
+     * Get the directory of the store.
+     *
+     * @return the directory
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Get the number of records in the store.
+     *
+     * @return the number of records
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Append a record to the store.
+     *
+     * The record is durable once this method returns.
+     *
+     * @param record the record
+     * @return the number of the record, starting at zero
+     * @throws IOException           if the record could not be written, the store
+     *                               is left as it was before
+     * @throws IllegalStateException if the store is opened read-only
+     */
+    public synchronized int append(Record record) throws IOException, IllegalStateException {
+        FileChannel channel = segmentChannel.orElseThrow(
+                () -> new IllegalStateException("Results store is opened read-only"));
+        long length = RECORD_OVERHEAD + record.bodySize();
+        if (segmentEnd > 0 && segmentEnd + length > segmentSize) {
+            FileChannel next = FileChannel.open(segmentPath(segment + 1),
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            channel.close();
+            channel = next;
+            segmentChannel = Optional.of(next);
+            segment++;
+            segmentEnd = 0;
+        }
+        try {
+            if (record.write(channel, segmentEnd) != length) {
+                throw new IOException("Record changed while being written");
+            }
+            channel.force(false);
+
+            ByteBuffer entry = ByteBuffer.allocate(ENTRY_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            entry.putInt(segment).putInt(0).putLong(segmentEnd).putLong(length).flip();
+            writeFully(index, entry, HEADER_SIZE + (long) size * ENTRY_SIZE);
+            index.force(false);
+        } catch (IOException e) {
+            // Keep the next append from starting after a torn record
+            channel.truncate(segmentEnd);
+            index.truncate(HEADER_SIZE + (long) size * ENTRY_SIZE);
+            throw e;
+        }
+        segmentEnd += length;
+        return size++;
+    }
+
+    /**
+     * Read a single record.
+     *
+     * @param record the number of the record
+     * @return the record
+     * @throws IOException               if the record could not be read
+     * @throws IllegalArgumentException  if the record is corrupted
+     * @throws IndexOutOfBoundsException if there is no such record
+     */
+    public synchronized Record read(int record)
+            throws IOException, IllegalArgumentException, IndexOutOfBoundsException {
+        Objects.checkIndex(record, size);
+        ByteBuffer entry = readEntry(record);
+        Path path = segmentPath(entry.getInt(0));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return Record.read(path, channel, entry.getLong(8), entry.getLong(16));
+        }
+    }
+
+    /**
+     * Read all records in the order they were appended.
+     *
+     * The segments are read sequentially, each opened only once.
+     *
+     * @param action the action performed on each record
+     * @throws IOException              if a record could not be read
+     * @throws IllegalArgumentException if a record is corrupted
+     */
+    public synchronized void forEach(Consumer<Record> action)
+            throws IOException, IllegalArgumentException {
+        int openSegment = -1;
+        FileChannel channel = null;
+        try {
+            for (int i = 0; i < size; i++) {
+                ByteBuffer entry = readEntry(i);
+                if (entry.getInt(0) != openSegment) {
+                    if (channel != null) {
+                        channel.close();
+                    }
+                    openSegment = entry.getInt(0);
+                    channel = FileChannel.open(segmentPath(openSegment),
+                            StandardOpenOption.READ);
+                }
+                action.accept(Record.read(segmentPath(openSegment), channel,
+                        entry.getLong(8), entry.getLong(16)));
+            }
+        } finally {
+            if (channel != null) {
+                channel.close();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            if (segmentChannel.isPresent()) {
+                segmentChannel.get().close();
+            }
+        } finally {
+            try {
+                index.close();
+            } finally {
+                if (lock.isPresent()) {
+                    // Closing the channel releases the lock
+                    lock.get().channel().close();
+                }
+            }
+        }
+    }
+}
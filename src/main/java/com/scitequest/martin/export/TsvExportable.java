@@ -0,0 +1,20 @@
+package com.scitequest.martin.export;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * This interface identifies a class which can be written as Tab Separated
+ * Values (TSV).
+ *
+ * For this the implementor must implement the {@code writeTsv()} method.
+ */
+public interface TsvExportable {
+    /**
+     * Write this classes values as TSV into a channel.
+     *
+     * @param channel the channel to write into, which is not closed
+     * @throws IOException if the channel could not be written
+     */
+    void writeTsv(WritableByteChannel channel) throws IOException;
+}
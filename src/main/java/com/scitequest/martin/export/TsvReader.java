@@ -0,0 +1,234 @@
+package com.scitequest.martin.export;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads Tab Separated Values (TSV) from a buffer without splitting it into
+ * strings.
+ *
+ * Values are parsed directly from the bytes of the buffer. Only values which
+ * are not plain decimal numbers, for example those with an exponent, are
+ * converted into a string and parsed by {@link Integer#parseInt} or
+ * {@link Double#parseDouble}, so every value is accepted and parsed exactly
+ * like before. Lines may end with LF, CR LF or CR.
+ */
+final class TsvReader {
+
+    /** Files at least this large are mapped into memory instead of read. */
+    private static final long MAP_THRESHOLD = 1 << 20;
+    /** The largest integer every smaller one of which is exactly a double. */
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    /** The maximum number of digits that fit into a long without overflow. */
+    private static final int MAX_LONG_DIGITS = 18;
+    /** The maximum number of digits of an integer that cannot overflow. */
+    private static final int MAX_INT_DIGITS = 9;
+    /** The powers of ten which are exactly representable as doubles. */
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+    private final ByteBuffer buffer;
+    /** The position of the next byte to read. */
+    private int pos;
+    private final int limit;
+
+    /**
+     * Create a reader reading the remaining bytes of a buffer.
+     *
+     * @param buffer the buffer, whose position is not changed
+     */
+    TsvReader(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.pos = buffer.position();
+        this.limit = buffer.limit();
+    }
+
+    /**
+     * Create a reader reading a file, which is mapped into memory if it is large.
+     * A mapped file stays mapped until the reader has been garbage collected.
+     *
+     * @param path the path of the file
+     * @return the reader
+     * @throws IOException if the file could not be read
+     */
+    static TsvReader of(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size >= MAP_THRESHOLD) {
+                return new TsvReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+            }
+        }
+        return new TsvReader(ByteBuffer.wrap(Files.readAllBytes(path)));
+    }
+
+    /**
+     * Read the header line and check that it is the expected one.
+     *
+     * @param header the expected header without line ending
+     * @throws IllegalArgumentException if the header is missing or different
+     */
+    void header(String header) throws IllegalArgumentException {
+        // The header itself contains tabs, so it has to be compared up to the line end
+        int end = pos;
+        while (end < limit && buffer.get(end) != '\n' && buffer.get(end) != '\r') {
+            end++;
+        }
+        boolean matches = end - pos == header.length();
+        for (int i = 0; matches && i < header.length(); i++) {
+            matches = buffer.get(pos + i) == header.charAt(i);
+        }
+        if (!matches) {
+            throw new IllegalArgumentException("Missing TSV header");
+        }
+        pos = end;
+        endLine();
+    }
+
+    /**
+     * Check if there is another line to read.
+     *
+     * @return true if the end has not been reached
+     */
+    boolean hasNextLine() {
+        return pos < limit;
+    }
+
+    /**
+     * Read an integer value.
+     *
+     * @return the integer
+     * @throws IllegalArgumentException if the value is not an integer
+     */
+    int nextInt() throws IllegalArgumentException {
+        int end = tokenEnd();
+        int i = pos;
+        boolean negative = i < end && buffer.get(i) == '-';
+        if (negative || (i < end && buffer.get(i) == '+')) {
+            i++;
+        }
+        int digits = end - i;
+        if (digits == 0 || digits > MAX_INT_DIGITS) {
+            return Integer.parseInt(token(end));
+        }
+        int value = 0;
+        for (; i < end; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return Integer.parseInt(token(end));
+            }
+            value = value * 10 + digit;
+        }
+        pos = end;
+        return negative ? -value : value;
+    }
+
+    /**
+     * Read a double value.
+     *
+     * Plain decimal numbers with a mantissa of at most 53 bits are converted with
+     * a single correctly rounded division.
+     *
+     * @return the double
+     * @throws IllegalArgumentException if the value is not a double
+     */
+    double nextDouble() throws IllegalArgumentException {
+        int end = tokenEnd();
+        int i = pos;
+        boolean negative = i < end && buffer.get(i) == '-';
+        if (negative) {
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = -1;
+        for (; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+                continue;
+            }
+            int digit = b - '0';
+            if (digit < 0 || digit > 9 || digits == MAX_LONG_DIGITS) {
+                return Double.parseDouble(token(end));
+            }
+            mantissa = mantissa * 10 + digit;
+            digits++;
+            if (fractionDigits >= 0) {
+                fractionDigits++;
+            }
+        }
+        if (digits == 0 || mantissa > MAX_EXACT_MANTISSA
+                || fractionDigits >= POWERS_OF_TEN.length) {
+            return Double.parseDouble(token(end));
+        }
+        double value = mantissa;
+        if (fractionDigits > 0) {
+            value /= POWERS_OF_TEN[fractionDigits];
+        }
+        pos = end;
+        return negative ? -value : value;
+    }
+
+    /**
+     * Skip the tab separating two values.
+     *
+     * @throws IllegalArgumentException if the line ends instead
+     */
+    void tab() throws IllegalArgumentException {
+        if (pos >= limit || buffer.get(pos) != '\t') {
+            throw new IllegalArgumentException("Improper TSV entry");
+        }
+        pos++;
+    }
+
+    /**
+     * Skip the end of a line.
+     *
+     * @throws IllegalArgumentException if the line contains further values
+     */
+    void endLine() throws IllegalArgumentException {
+        if (pos >= limit) {
+            return;
+        }
+        byte b = buffer.get(pos);
+        if (b == '\r') {
+            pos++;
+            if (pos < limit && buffer.get(pos) == '\n') {
+                pos++;
+            }
+        } else if (b == '\n') {
+            pos++;
+        } else {
+            throw new IllegalArgumentException("Improper TSV entry");
+        }
+    }
+
+    /** Find the end of the value starting at the current position. */
+    private int tokenEnd() {
+        int end = pos;
+        while (end < limit) {
+            byte b = buffer.get(end);
+            if (b == '\t' || b == '\n' || b == '\r') {
+                break;
+            }
+            end++;
+        }
+        return end;
+    }
+
+    /** Convert the value up to the given end into a string and skip it. */
+    private String token(int end) {
+        byte[] bytes = new byte[end - pos];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(pos + i);
+        }
+        pos = end;
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
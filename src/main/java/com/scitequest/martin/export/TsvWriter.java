@@ -0,0 +1,164 @@
+package com.scitequest.martin.export;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Writes Tab Separated Values (TSV) directly into a channel.
+ *
+ * The values are formatted into a reused buffer, so no strings are created per
+ * value or per line. Numbers are formatted exactly like {@link Integer#toString}
+ * and {@link Double#toString} do, the output is ASCII only.
+ */
+final class TsvWriter implements Flushable {
+
+    /** The size of the buffer collecting the output before writing it. */
+    private static final int BUFFER_SIZE = 1 << 16;
+    /** The maximum length of a formatted number. */
+    private static final int MAX_NUMBER_LENGTH = 32;
+    /** Doubles below this magnitude are formatted without an exponent. */
+    private static final double PLAIN_LIMIT = 1.0e7;
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    /** Holds the digits of integers, which are generated last to first. */
+    private final byte[] digits = new byte[20];
+    /** Receives the digits of doubles, appending a double to it allocates nothing. */
+    private final StringBuilder scratch = new StringBuilder(MAX_NUMBER_LENGTH);
+
+    /**
+     * Create a writer writing into the given channel.
+     *
+     * @param channel the channel, which is not closed by the writer
+     */
+    TsvWriter(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Write an ASCII text such as the header.
+     *
+     * @param text the text
+     * @return this writer
+     * @throws IOException if the channel could not be written
+     */
+    TsvWriter text(String text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            if (!buffer.hasRemaining()) {
+                drain();
+            }
+            buffer.put((byte) text.charAt(i));
+        }
+        return this;
+    }
+
+    /**
+     * Write an integer.
+     *
+     * @param value the integer
+     * @return this writer
+     * @throws IOException if the channel could not be written
+     */
+    TsvWriter value(int value) throws IOException {
+        ensureRemaining(MAX_NUMBER_LENGTH);
+        putLong(value);
+        return this;
+    }
+
+    /**
+     * Write a double.
+     *
+     * @param value the double
+     * @return this writer
+     * @throws IOException if the channel could not be written
+     */
+    TsvWriter value(double value) throws IOException {
+        ensureRemaining(MAX_NUMBER_LENGTH);
+        long integral = (long) value;
+        // Measured minima and maxima are mostly whole numbers, format them directly.
+        // Negative zero is left to the general case which keeps its sign.
+        if (integral == value && Math.abs(value) < PLAIN_LIMIT
+                && (integral != 0 || Double.doubleToRawLongBits(value) == 0)) {
+            putLong(integral);
+            buffer.put((byte) '.').put((byte) '0');
+            return this;
+        }
+        scratch.setLength(0);
+        scratch.append(value);
+        for (int i = 0; i < scratch.length(); i++) {
+            buffer.put((byte) scratch.charAt(i));
+        }
+        return this;
+    }
+
+    /**
+     * Write the separator between two values.
+     *
+     * @return this writer
+     * @throws IOException if the channel could not be written
+     */
+    TsvWriter tab() throws IOException {
+        return separator('\t');
+    }
+
+    /**
+     * Write the end of a line.
+     *
+     * @return this writer
+     * @throws IOException if the channel could not be written
+     */
+    TsvWriter newline() throws IOException {
+        return separator('\n');
+    }
+
+    private TsvWriter separator(char separator) throws IOException {
+        if (!buffer.hasRemaining()) {
+            drain();
+        }
+        buffer.put((byte) separator);
+        return this;
+    }
+
+    private void putLong(long value) {
+        long rest = value;
+        if (rest < 0) {
+            buffer.put((byte) '-');
+        }
+        // Generate the digits of the negative value so the minimum cannot overflow
+        if (rest > 0) {
+            rest = -rest;
+        }
+        int start = digits.length;
+        do {
+            digits[--start] = (byte) ('0' - rest % 10);
+            rest /= 10;
+        } while (rest != 0);
+        buffer.put(digits, start, digits.length - start);
+    }
+
+    private void ensureRemaining(int length) throws IOException {
+        if (buffer.remaining() < length) {
+            drain();
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Write all buffered output into the channel.
+     *
+     * @throws IOException if the channel could not be written
+     */
+    @Override
+    public void flush() throws IOException {
+        drain();
+    }
+}
@@ -20,15 +20,20 @@ public final class ExportSettings implements JsonExportable {
     private boolean exportJSON = true;
     private boolean saveAnnotatedImage = true;
     private boolean saveWholeImage = true;
+    private boolean exportBinary = false;
+    private boolean storeResults = false;
 
     private ExportSettings() {
     }
 
-    private ExportSettings(boolean exportTSV, boolean exportJSON, boolean saveAnnotatedImage, boolean saveWholeImage) {
+    private ExportSettings(boolean exportTSV, boolean exportJSON, boolean saveAnnotatedImage,
+            boolean saveWholeImage, boolean exportBinary, boolean storeResults) {
         this.exportTSV = exportTSV;
         this.exportJSON = exportJSON;
         this.saveAnnotatedImage = saveAnnotatedImage;
         this.saveWholeImage = saveWholeImage;
+        this.exportBinary = exportBinary;
+        this.storeResults = storeResults;
     }
 
     static ExportSettings defaultSettings() {
@@ -41,6 +46,8 @@ public final class ExportSettings implements JsonExportable {
         this.exportJSON = other.exportJSON;
         this.saveAnnotatedImage = other.saveAnnotatedImage;
         this.saveWholeImage = other.saveWholeImage;
+        this.exportBinary = other.exportBinary;
+        this.storeResults = other.storeResults;
     }
 
     /**
@@ -121,13 +128,44 @@ public final class ExportSettings implements JsonExportable {
         this.saveWholeImage = saveWholeImage;
     }
 
+    /**
+     * Returns if the data should additionally be exported in the compact binary
+     * format.
+     *
+     * @return true if the binary data file is exported
+     */
+    public boolean isExportBinary() {
+        return exportBinary;
+    }
+
+    public void setExportBinary(boolean exportBinary) {
+        this.exportBinary = exportBinary;
+    }
+
+    /**
+     * Returns if the results should be appended to the results store of the
+     * project instead of being exported into a folder per measurement.
+     *
+     * @return true if the results store is used
+     */
+    public boolean isStoreResults() {
+        return storeResults;
+    }
+
+    public void setStoreResults(boolean storeResults) {
+        this.storeResults = storeResults;
+    }
+
     static ExportSettings fromJson(JsonObject json) throws JsonParseException {
         try {
             ExportSettings exportSettings = new ExportSettings(
                     json.getBoolean("export_tsv"),
                     json.getBoolean("export_json"),
                     json.getBoolean("save_annotated_image"),
-                    json.getBoolean("save_whole_image"));
+                    json.getBoolean("save_whole_image"),
+                    // Settings stored before the binary export existed lack the key
+                    json.getBoolean("export_binary", false),
+                    json.getBoolean("store_results", false));
             if (json.containsKey("export_directory")) {
                 Path exportDirectory = Paths.get(json.getString("export_directory"));
                 exportSettings.setExportDirectory(Optional.of(exportDirectory));
@@ -150,6 +188,8 @@ public final class ExportSettings implements JsonExportable {
         json.add("export_json", exportJSON);
         json.add("save_annotated_image", saveAnnotatedImage);
         json.add("save_whole_image", saveWholeImage);
+        json.add("export_binary", exportBinary);
+        json.add("store_results", storeResults);
         return json.build();
     }
 
@@ -162,6 +202,8 @@ public final class ExportSettings implements JsonExportable {
         result = prime * result + (exportJSON ? 1231 : 1237);
         result = prime * result + (saveAnnotatedImage ? 1231 : 1237);
         result = prime * result + (saveWholeImage ? 1231 : 1237);
+        result = prime * result + (exportBinary ? 1231 : 1237);
+        result = prime * result + (storeResults ? 1231 : 1237);
         return result;
     }
 
@@ -188,6 +230,10 @@ public final class ExportSettings implements JsonExportable {
             return false;
         if (saveWholeImage != other.saveWholeImage)
             return false;
+        if (exportBinary != other.exportBinary)
+            return false;
+        if (storeResults != other.storeResults)
+            return false;
         return true;
     }
 
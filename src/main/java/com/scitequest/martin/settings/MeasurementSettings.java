@@ -9,15 +9,33 @@ import com.scitequest.martin.export.JsonParseException;
 
 public final class MeasurementSettings implements JsonExportable {
 
+    /**
+     * Represents the algorithm used to fit the measure fields to the spots.
+     */
+    public enum FitAlgorithm {
+        /**
+         * Hill-climbing from a set of seeds within each spotfield cell.
+         */
+        HILL_CLIMBING,
+        /**
+         * Evaluates every position within each spotfield cell and takes the
+         * maximum.
+         */
+        RESPONSE_MAP
+    }
+
     private boolean invertLut = true;
     private boolean subtractBackground = true;
+    private FitAlgorithm fitAlgorithm = FitAlgorithm.HILL_CLIMBING;
 
     private MeasurementSettings() {
     }
 
-    private MeasurementSettings(boolean invertLut, boolean subtractBackground) {
+    private MeasurementSettings(boolean invertLut, boolean subtractBackground,
+            FitAlgorithm fitAlgorithm) {
         this.invertLut = invertLut;
         this.subtractBackground = subtractBackground;
+        this.fitAlgorithm = fitAlgorithm;
     }
 
     static MeasurementSettings defaultSettings() {
@@ -27,6 +45,7 @@ public final class MeasurementSettings implements JsonExportable {
     void copyInto(MeasurementSettings other) {
         this.invertLut = other.invertLut;
         this.subtractBackground = other.subtractBackground;
+        this.fitAlgorithm = other.fitAlgorithm;
     }
 
     /**
@@ -67,11 +86,34 @@ public final class MeasurementSettings implements JsonExportable {
         this.subtractBackground = subtractBackground;
     }
 
+    /**
+     * Returns the algorithm used to fit the measure fields.
+     *
+     * @return the fit algorithm
+     */
+    public FitAlgorithm getFitAlgorithm() {
+        return fitAlgorithm;
+    }
+
+    /**
+     * Sets the algorithm used to fit the measure fields.
+     *
+     * @param fitAlgorithm the fit algorithm
+     */
+    public void setFitAlgorithm(FitAlgorithm fitAlgorithm) {
+        this.fitAlgorithm = fitAlgorithm;
+    }
+
     static MeasurementSettings fromJson(JsonObject obj) throws JsonParseException {
         try {
             boolean invertLut = obj.getBoolean("invert_lut");
             boolean subtractBackground = obj.getBoolean("subtract_background");
-            return new MeasurementSettings(invertLut, subtractBackground);
+            // Older settings files do not specify the algorithm
+            FitAlgorithm fitAlgorithm = FitAlgorithm.valueOf(obj.getString("fit_algorithm",
+                    FitAlgorithm.HILL_CLIMBING.name()));
+            return new MeasurementSettings(invertLut, subtractBackground, fitAlgorithm);
+        } catch (IllegalArgumentException e) {
+            throw new JsonParseException("Unknown fit algorithm", e);
         } catch (ClassCastException e) {
             throw new JsonParseException("Encountered an unexpected JSON type", e);
         } catch (NullPointerException e) {
@@ -84,6 +126,7 @@ public final class MeasurementSettings implements JsonExportable {
         JsonObject obj = Json.createObjectBuilder()
                 .add("invert_lut", invertLut)
                 .add("subtract_background", subtractBackground)
+                .add("fit_algorithm", fitAlgorithm.name())
                 .build();
         return obj;
     }
@@ -94,6 +137,7 @@ public final class MeasurementSettings implements JsonExportable {
         int result = 1;
         result = prime * result + (invertLut ? 1231 : 1237);
         result = prime * result + (subtractBackground ? 1231 : 1237);
+        result = prime * result + ((fitAlgorithm == null) ? 0 : fitAlgorithm.hashCode());
         return result;
     }
 
@@ -111,6 +155,8 @@ public final class MeasurementSettings implements JsonExportable {
             return false;
         if (subtractBackground != other.subtractBackground)
             return false;
+        if (fitAlgorithm != other.fitAlgorithm)
+            return false;
         return true;
     }
 }
@@ -82,6 +82,19 @@ public final class Settings implements JsonExportable {
         }
     }
 
+    /**
+     * Create an independent copy of the current settings.
+     *
+     * The copy shares the immutable masks and projects but none of the mutable
+     * state, so changing one does not affect the other. It has no default save
+     * path.
+     *
+     * @return the copy
+     */
+    public Settings copy() {
+        return new Settings(editable);
+    }
+
     public void store() {
         if (isDirty()) {
             isSaved = false;
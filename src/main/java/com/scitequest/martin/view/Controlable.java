@@ -6,6 +6,7 @@ import java.nio.file.Path;
 import org.scijava.table.GenericTable;
 
 import com.scitequest.martin.DrawOptions;
+import com.scitequest.martin.Point;
 import com.scitequest.martin.export.Data;
 import com.scitequest.martin.export.DataStatistics;
 import com.scitequest.martin.export.JsonParseException;
@@ -54,6 +55,13 @@ public interface Controlable {
     /** An actor requested to perform the circle fit algorithm. */
     void measureFieldFit();
 
+    /**
+     * An actor requested to cancel the running measurement, fit or export.
+     *
+     * Does nothing if no task is running.
+     */
+    void cancelTask();
+
     /**
      * Move slide to the specified, absolute coordinates.
      *
@@ -100,6 +108,23 @@ public interface Controlable {
      */
     int getSlideyPosition();
 
+    /**
+     * Returns a number identifying the drawn slide elements apart from the
+     * position of the slide. It stays the same as long as the whole slide is only
+     * moved.
+     *
+     * @return the draw revision of the slide
+     */
+    long getSlideDrawRevision();
+
+    /**
+     * Returns the translation of the slide in image coordinates. Drawings of the
+     * same draw revision are moved by the difference of the translations.
+     *
+     * @return the translation of the slide
+     */
+    Point getSlideTranslation();
+
     /**
      * Updates the currently clicked measure circles in the slide.
      *
@@ -1,6 +1,7 @@
 package com.scitequest.martin.view;
 
 import java.awt.Color;
+import java.awt.geom.Rectangle2D;
 
 public interface Drawable {
     void setColor(Color colour);
@@ -11,4 +12,21 @@ public interface Drawable {
 
     void drawOval(int x, int y, int width, int height);
 
+    void drawPoint(int x, int y);
+
+    /**
+     * Returns the part of the image covered by the drawing surface in image
+     * coordinates. Anything outside of it does not have to be drawn.
+     *
+     * @return the visible area
+     */
+    Rectangle2D getVisibleArea();
+
+    /**
+     * Returns the size of an image pixel on the drawing surface.
+     *
+     * @return the magnification, 1 if drawn in image resolution
+     */
+    double getMagnification();
+
 }
@@ -4,14 +4,32 @@ import java.awt.Color;
 import java.awt.Font;
 import java.awt.Graphics;
 import java.awt.Polygon;
+import java.awt.Rectangle;
+import java.awt.geom.Rectangle2D;
 
 public final class GraphicsPen implements Drawable {
     private final Graphics g;
     private final GuiDrawCanvas gCanvas;
+    /** Pixels the drawing surface extends beyond each border of the canvas. */
+    private final int margin;
 
     public GraphicsPen(Graphics g, GuiDrawCanvas gCanvas) {
+        this(g, gCanvas, 0);
+    }
+
+    /**
+     * Create a pen for a drawing surface larger than the canvas.
+     *
+     * @param g       the graphics of the drawing surface, translated so the canvas
+     *                starts at the origin
+     * @param gCanvas the canvas defining the zoom and the shown part of the image
+     * @param margin  the pixels the surface extends beyond each border of the
+     *                canvas
+     */
+    public GraphicsPen(Graphics g, GuiDrawCanvas gCanvas, int margin) {
         this.g = g;
         this.gCanvas = gCanvas;
+        this.margin = margin;
     }
 
     @Override
@@ -54,4 +72,24 @@ public final class GraphicsPen implements Drawable {
         g.drawOval(x, y, width, height);
     }
 
+    @Override
+    public void drawPoint(int x, int y) {
+        g.fillRect(gCanvas.screenX(x), gCanvas.screenY(y), 1, 1);
+    }
+
+    @Override
+    public Rectangle2D getVisibleArea() {
+        Rectangle srcRect = gCanvas.getSrcRect();
+        double magnification = gCanvas.getMagnification();
+        double imageMargin = margin / magnification;
+        return new Rectangle2D.Double(srcRect.x - imageMargin, srcRect.y - imageMargin,
+                gCanvas.getWidth() / magnification + 2 * imageMargin,
+                gCanvas.getHeight() / magnification + 2 * imageMargin);
+    }
+
+    @Override
+    public double getMagnification() {
+        return gCanvas.getMagnification();
+    }
+
 }
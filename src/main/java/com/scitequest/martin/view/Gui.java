@@ -37,12 +37,14 @@ import javax.swing.JMenu;
 import javax.swing.JMenuBar;
 import javax.swing.JMenuItem;
 import javax.swing.JPanel;
+import javax.swing.JProgressBar;
 import javax.swing.JScrollPane;
 import javax.swing.JSpinner;
 import javax.swing.JTextPane;
 import javax.swing.SpinnerNumberModel;
 import javax.swing.SwingConstants;
 import javax.swing.SwingUtilities;
+import javax.swing.Timer;
 import javax.swing.UIManager;
 import javax.swing.WindowConstants;
 import javax.swing.border.EmptyBorder;
@@ -79,6 +81,12 @@ public final class Gui extends JFrame implements View, MouseInputListener {
 
     /** The logger for this class. */
     private static final Logger log = Logger.getLogger("com.scitequest.martin.view.Gui");
+    /**
+     * Minimum time in milliseconds between two refreshes of the canvas and the
+     * spinners while the slide is dragged with the mouse, about 30 frames per
+     * second.
+     */
+    private static final int INTERACTION_FRAME_MILLIS = 33;
 
     private final Controlable control;
     private final Settings settings;
@@ -92,6 +100,8 @@ public final class Gui extends JFrame implements View, MouseInputListener {
     private final JButton autofitButton = new JButton();
     private final JButton measureButton = new JButton();
     private final JButton checkIntegrityButton = new JButton();
+    private final JProgressBar taskProgressBar = new JProgressBar(0, 100);
+    private final JButton taskCancelButton = new JButton();
     private final JSpinner angleSpinner;
     private final JSpinner xPositionSpinner;
     private final JSpinner yPositionSpinner;
@@ -100,6 +110,13 @@ public final class Gui extends JFrame implements View, MouseInputListener {
     private boolean otherGuiOpened = false;
     private int noHoverMessageIndex = 0;
     private boolean activeListener = true;
+    /** Refreshes the slide at most once per frame during mouse interaction. */
+    private final Timer interactionTimer = new Timer(INTERACTION_FRAME_MILLIS,
+            e -> refreshPendingSlideChange());
+    /** Whether a slide change has not been shown yet during mouse interaction. */
+    private boolean slideChangePending = false;
+    /** Whether a task is running in the background, the mask is locked then. */
+    private boolean taskRunning = false;
 
     private Version version;
     private GitInfo gitInfo;
@@ -168,12 +185,12 @@ public final class Gui extends JFrame implements View, MouseInputListener {
         content.setLayout(new GridBagLayout());
         ((GridBagLayout) content.getLayout()).columnWidths = new int[] { 0, 0, 0 };
         ((GridBagLayout) content.getLayout()).rowHeights = new int[] {
-                0, 0, 155, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, };
+                0, 0, 155, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, };
         ((GridBagLayout) content.getLayout()).columnWeights = new double[] { 1.0, 1.0, 1.0E-4 };
         ((GridBagLayout) content.getLayout()).rowWeights = new double[] {
                 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0,
                 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0,
-                1.0E-4 };
+                0.0, 1.0E-4 };
 
         // ---- header ----
         JLabel header = new JLabel();
@@ -342,6 +359,20 @@ public final class Gui extends JFrame implements View, MouseInputListener {
         content.add(yPositionSpinner, new GridBagConstraints(1, 14, 1, 1, 0.0, 0.0,
                 GridBagConstraints.CENTER, GridBagConstraints.BOTH,
                 new Insets(0, 0, 5, 0), 0, 0));
+
+        // ======== taskPanel ========
+        JPanel taskPanel = new JPanel();
+        taskPanel.setLayout(new BorderLayout(5, 0));
+        taskProgressBar.setStringPainted(true);
+        taskProgressBar.setString("");
+        taskPanel.add(taskProgressBar, BorderLayout.CENTER);
+        taskCancelButton.setText(Const.bundle.getString("mainGui.taskCancelButton.text"));
+        taskCancelButton.setEnabled(false);
+        taskCancelButton.addActionListener(e -> control.cancelTask());
+        taskPanel.add(taskCancelButton, BorderLayout.EAST);
+        content.add(taskPanel, new GridBagConstraints(0, 15, 2, 1, 0.0, 0.0,
+                GridBagConstraints.CENTER, GridBagConstraints.BOTH,
+                new Insets(0, 0, 0, 0), 0, 0));
         add(content);
 
         UIManager.addPropertyChangeListener(e -> {
@@ -623,9 +654,46 @@ public final class Gui extends JFrame implements View, MouseInputListener {
                 datetime, assayDatetime, parameters, data, dataStatistics);
     }
 
+    @Override
+    public void taskStarted(String title) {
+        taskRunning = true;
+        taskProgressBar.setString(title);
+        taskProgressBar.setIndeterminate(true);
+        taskCancelButton.setEnabled(true);
+        toggleAllButtons(false);
+        setCanvasInteractible(false);
+    }
+
+    @Override
+    public void showTaskProgress(int percent) {
+        SwingUtilities.invokeLater(() -> {
+            // Progress of a finished task may arrive late
+            if (!taskRunning) {
+                return;
+            }
+            taskProgressBar.setIndeterminate(percent < 0);
+            taskProgressBar.setValue(Math.max(0, percent));
+        });
+    }
+
+    @Override
+    public void taskFinished() {
+        taskRunning = false;
+        taskProgressBar.setIndeterminate(false);
+        taskProgressBar.setValue(0);
+        taskProgressBar.setString("");
+        taskCancelButton.setEnabled(false);
+        if (control.isImageLoaded()) {
+            toggleAllButtons(!otherGuiOpened);
+            setCanvasInteractible(!otherGuiOpened);
+        } else {
+            stateNoImageOpened();
+        }
+    }
+
     private void stateNoImageOpened() {
         toggleAllButtons(false);
-        openImageButton.setEnabled(true);
+        openImageButton.setEnabled(!taskRunning);
     }
 
     public void optionsGuiOpened() {
@@ -641,14 +709,16 @@ public final class Gui extends JFrame implements View, MouseInputListener {
     }
 
     public void toggleAllButtons(boolean toggle) {
-        openImageButton.setEnabled(toggle);
-        measureButton.setEnabled(toggle);
-        autofitButton.setEnabled(toggle);
-        settingsButton.setEnabled(toggle);
-        toggleFilterButton.setEnabled(toggle);
-        angleSpinner.setEnabled(toggle);
-        xPositionSpinner.setEnabled(toggle);
-        yPositionSpinner.setEnabled(toggle);
+        // Nothing may change the mask while a task is running
+        boolean enabled = toggle && !taskRunning;
+        openImageButton.setEnabled(enabled);
+        measureButton.setEnabled(enabled);
+        autofitButton.setEnabled(enabled);
+        settingsButton.setEnabled(enabled);
+        toggleFilterButton.setEnabled(enabled);
+        angleSpinner.setEnabled(enabled);
+        xPositionSpinner.setEnabled(enabled);
+        yPositionSpinner.setEnabled(enabled);
         mouseExited(null);
     }
 
@@ -736,16 +806,47 @@ public final class Gui extends JFrame implements View, MouseInputListener {
     }
 
     public void setCanvasInteractible(boolean interactible) {
-        GuiDrawCanvas.toggleCanvas(interactible);
+        GuiDrawCanvas.toggleCanvas(interactible && !taskRunning);
     }
 
     /**
      * Redraws the GUI drawing canvas.
      *
-     * Currently this means only the slide is redrawn.
+     * Currently this means only the slide is redrawn. While the user interacts
+     * with the canvas using the mouse, changes are shown at most once per frame.
+     * The first change is shown immediately and the last one at the latest one
+     * frame later.
      */
     @Override
     public void notifiySlideChanged() {
+        boolean interacting = stackWindow
+                .map(sw -> sw.getCanvas() instanceof GuiDrawCanvas
+                        && ((GuiDrawCanvas) sw.getCanvas()).isInteracting())
+                .orElse(false);
+        if (!interacting) {
+            interactionTimer.stop();
+            slideChangePending = false;
+            refreshSlide();
+        } else if (interactionTimer.isRunning()) {
+            slideChangePending = true;
+        } else {
+            refreshSlide();
+            interactionTimer.start();
+        }
+    }
+
+    /** Shows a slide change held back during mouse interaction, if any. */
+    private void refreshPendingSlideChange() {
+        if (slideChangePending) {
+            slideChangePending = false;
+            refreshSlide();
+        } else {
+            interactionTimer.stop();
+        }
+    }
+
+    /** Updates the spinners and repaints the canvas to show the current slide. */
+    private void refreshSlide() {
         activeListener = false;
         setAngleSpinner(control.getSlideRotation());
         setxPositionSpinner(control.getSlidexPosition());
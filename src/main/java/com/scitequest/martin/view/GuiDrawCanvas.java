@@ -1,16 +1,23 @@
 package com.scitequest.martin.view;
 
+import java.awt.AlphaComposite;
+import java.awt.Color;
 import java.awt.Cursor;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.GraphicsConfiguration;
 import java.awt.GraphicsEnvironment;
+import java.awt.Rectangle;
 import java.awt.RenderingHints;
 import java.awt.Transparency;
 import java.awt.event.MouseEvent;
 import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.Objects;
 
 import com.scitequest.martin.DrawOptions;
+import com.scitequest.martin.Point;
+import com.scitequest.martin.settings.DisplaySettings;
 import com.scitequest.martin.settings.Settings;
 
 import ij.IJ;
@@ -23,7 +30,14 @@ import net.imagej.patcher.LegacyInjector;
  * Both movement and rotation are possible by mouse drag. Zooming in and out is
  * also an option.
  *
- * This also uses double buffering to prevent flickering during drawing.
+ * This also uses double buffering to prevent flickering during drawing. The
+ * buffer is kept across paints. The slide elements are drawn into a separate
+ * overlay, which is only drawn again if the slide mask, the zoom or the display
+ * settings change. If the whole slide is only moved, the overlay is moved along
+ * with it.
+ *
+ * While the mouse is dragged, drawing favours speed over quality. Releasing the
+ * mouse draws everything in full quality again.
  */
 public final class GuiDrawCanvas extends ImageCanvas {
 
@@ -33,6 +47,11 @@ public final class GuiDrawCanvas extends ImageCanvas {
 
     private static final long serialVersionUID = 1L;
 
+    /** Extent of the overlay beyond each border relative to the canvas size. */
+    private static final double OVERLAY_MARGIN = 0.125;
+    /** Tolerance for an overlay offset to be considered a whole pixel. */
+    private static final double PIXEL_TOLERANCE = 1e-9;
+
     /** X coordinate when the mouse was pressed. */
     private int lastX = 0;
     /** Y coordinate when the mouse was pressed. */
@@ -42,6 +61,21 @@ public final class GuiDrawCanvas extends ImageCanvas {
     private final Controlable control;
     private final GraphicsConfiguration config;
 
+    /** The buffer the image and the overlay are composed in before showing it. */
+    private BufferedImage backBuffer;
+    /** The slide elements, larger than the canvas by the margin on each side. */
+    private BufferedImage overlay;
+    /** The extent of the overlay beyond each border of the canvas in pixels. */
+    private int overlayMargin;
+    /** Everything the overlay depends on except the slide translation. */
+    private OverlayKey overlayKey;
+    /** The slide translation the overlay was drawn with. */
+    private Point overlayTranslation;
+    /** Whether the overlay was drawn favouring speed over quality. */
+    private boolean overlayFast = false;
+    /** Whether the mouse is dragged right now. */
+    private boolean dragging = false;
+
     private static boolean canvasActive;
 
     /**
@@ -68,49 +102,158 @@ public final class GuiDrawCanvas extends ImageCanvas {
         canvasActive = toggle;
     }
 
+    /**
+     * Checks if the user currently interacts with the canvas by dragging the
+     * mouse.
+     *
+     * @return true while the mouse is dragged
+     */
+    public boolean isInteracting() {
+        return dragging;
+    }
+
     /**
      * Draws the separately calculated elements of a slide mask.
      *
      * @param g instance of Graphics
      */
     public void drawElements(Graphics g) {
-        DrawOptions drawOptions = new DrawOptions(true,
+        control.drawElements(new GraphicsPen(g, this), createDrawOptions());
+    }
+
+    private DrawOptions createDrawOptions() {
+        return new DrawOptions(true,
                 settings.getDisplaySettings().isShowSpotfieldGrids(),
                 false, true,
                 settings.getMeasurementSettings().isSubtractBackground(),
                 settings.getDisplaySettings().isShowMeasureCircles());
-        control.drawElements(new GraphicsPen(g, this), drawOptions);
     }
 
     @Override
     public void paint(Graphics g) {
-        int height = this.getImage().getHeight();
-        int width = this.getImage().getWidth();
-        BufferedImage buffy = config.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
-        Graphics2D fastGraphics = (Graphics2D) buffy.getGraphics();
-        // Improve rendering with for example antialiasing
-        fastGraphics.setRenderingHint(
-                RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-        fastGraphics.setRenderingHint(
-                RenderingHints.KEY_COLOR_RENDERING, RenderingHints.VALUE_COLOR_RENDER_QUALITY);
-        fastGraphics.setRenderingHint(
-                RenderingHints.KEY_DITHERING, RenderingHints.VALUE_DITHER_ENABLE);
-        fastGraphics.setRenderingHint(
-                RenderingHints.KEY_FRACTIONALMETRICS, RenderingHints.VALUE_FRACTIONALMETRICS_ON);
-        fastGraphics.setRenderingHint(
-                RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        int width = Math.max(1, getWidth());
+        int height = Math.max(1, getHeight());
+        if (backBuffer == null
+                || backBuffer.getWidth() != width || backBuffer.getHeight() != height) {
+            backBuffer = config.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+        }
+        Graphics2D fastGraphics = backBuffer.createGraphics();
+        clear(fastGraphics, width, height);
+        setRenderingHints(fastGraphics, dragging);
 
         // Draw the base image on the buffer
         super.paint(fastGraphics);
         // Draw our slide elements
-        drawElements(fastGraphics);
+        drawOverlay(fastGraphics, width, height);
         fastGraphics.dispose();
 
         // Draw the final buffer into the actual graphics
-        g.drawImage(buffy, 0, 0, null);
+        g.drawImage(backBuffer, 0, 0, null);
         g.dispose();
     }
 
+    /**
+     * Draws the overlay of the slide elements, drawing the overlay itself again
+     * only if required.
+     *
+     * During a mouse drag the overlay may be moved by rounded pixels and is drawn
+     * in reduced quality, which is corrected once the mouse is released.
+     *
+     * @param g      the graphics of the back buffer
+     * @param width  the width of the canvas
+     * @param height the height of the canvas
+     */
+    private void drawOverlay(Graphics2D g, int width, int height) {
+        DisplaySettings display = settings.getDisplaySettings();
+        OverlayKey key = new OverlayKey(control.getSlideDrawRevision(),
+                getMagnification(), getSrcRect(), width, height, createDrawOptions(),
+                List.of(display.getSlideColor(), display.getSpotfieldColor(),
+                        display.getHalflineColor(), display.getDeletionRectangleColor(),
+                        display.getMeasureCircleColor()));
+        Point translation = control.getSlideTranslation();
+
+        int offsetX = 0;
+        int offsetY = 0;
+        boolean reuse = key.equals(overlayKey);
+        if (reuse) {
+            double deltaX = translation.x - overlayTranslation.x;
+            double deltaY = translation.y - overlayTranslation.y;
+            double shiftX = deltaX * getMagnification();
+            double shiftY = deltaY * getMagnification();
+            offsetX = (int) Math.round(shiftX);
+            offsetY = (int) Math.round(shiftY);
+            boolean exact = isWhole(deltaX) && isWhole(deltaY)
+                    && isWhole(shiftX) && isWhole(shiftY);
+            reuse = (dragging || exact && !overlayFast)
+                    && Math.abs(offsetX) <= overlayMargin && Math.abs(offsetY) <= overlayMargin;
+        }
+        if (!reuse) {
+            renderOverlay(key, width, height);
+            overlayTranslation = translation;
+            offsetX = 0;
+            offsetY = 0;
+        }
+        g.drawImage(overlay, offsetX - overlayMargin, offsetY - overlayMargin, null);
+    }
+
+    /**
+     * Draws the slide elements into the overlay.
+     *
+     * @param key    what the overlay is drawn for
+     * @param width  the width of the canvas
+     * @param height the height of the canvas
+     */
+    private void renderOverlay(OverlayKey key, int width, int height) {
+        overlayMargin = (int) Math.ceil(Math.max(width, height) * OVERLAY_MARGIN);
+        int overlayWidth = width + 2 * overlayMargin;
+        int overlayHeight = height + 2 * overlayMargin;
+        if (overlay == null
+                || overlay.getWidth() != overlayWidth || overlay.getHeight() != overlayHeight) {
+            overlay = config.createCompatibleImage(
+                    overlayWidth, overlayHeight, Transparency.TRANSLUCENT);
+        }
+        Graphics2D overlayGraphics = overlay.createGraphics();
+        clear(overlayGraphics, overlayWidth, overlayHeight);
+        setRenderingHints(overlayGraphics, dragging);
+        overlayGraphics.translate(overlayMargin, overlayMargin);
+        control.drawElements(new GraphicsPen(overlayGraphics, this, overlayMargin),
+                key.drawOptions);
+        overlayGraphics.dispose();
+        overlayKey = key;
+        overlayFast = dragging;
+    }
+
+    private static boolean isWhole(double value) {
+        return Math.abs(value - Math.rint(value)) < PIXEL_TOLERANCE;
+    }
+
+    private static void clear(Graphics2D g, int width, int height) {
+        g.setComposite(AlphaComposite.Clear);
+        g.fillRect(0, 0, width, height);
+        g.setComposite(AlphaComposite.SrcOver);
+    }
+
+    private static void setRenderingHints(Graphics2D g, boolean fast) {
+        if (fast) {
+            g.setRenderingHint(
+                    RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF);
+            g.setRenderingHint(
+                    RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_SPEED);
+            return;
+        }
+        // Improve rendering with for example antialiasing
+        g.setRenderingHint(
+                RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setRenderingHint(
+                RenderingHints.KEY_COLOR_RENDERING, RenderingHints.VALUE_COLOR_RENDER_QUALITY);
+        g.setRenderingHint(
+                RenderingHints.KEY_DITHERING, RenderingHints.VALUE_DITHER_ENABLE);
+        g.setRenderingHint(
+                RenderingHints.KEY_FRACTIONALMETRICS, RenderingHints.VALUE_FRACTIONALMETRICS_ON);
+        g.setRenderingHint(
+                RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+    }
+
     @Override
     public void mousePressed(MouseEvent e) {
         if (!canvasActive) {
@@ -129,6 +272,7 @@ public final class GuiDrawCanvas extends ImageCanvas {
             return;
         }
 
+        dragging = true;
         control.updateClickedMeasureCircles(offscreenX, offscreenY);
         control.updateClickedRectPolygons(offscreenX, offscreenY);
     }
@@ -173,6 +317,11 @@ public final class GuiDrawCanvas extends ImageCanvas {
     public void mouseReleased(MouseEvent e) {
         super.mouseReleased(e);
         control.releaseMouseGrip();
+        if (dragging) {
+            dragging = false;
+            // Show the final state in full quality
+            control.update();
+        }
     }
 
     @Override
@@ -184,4 +333,48 @@ public final class GuiDrawCanvas extends ImageCanvas {
     public void mouseClicked(MouseEvent e) {
         super.mouseClicked(e);
     }
+
+    /** Everything the overlay of the slide elements depends on. */
+    private static final class OverlayKey {
+        private final long revision;
+        private final double magnification;
+        private final Rectangle srcRect;
+        private final int width;
+        private final int height;
+        private final DrawOptions drawOptions;
+        private final List<Color> colors;
+
+        OverlayKey(long revision, double magnification, Rectangle srcRect,
+                int width, int height, DrawOptions drawOptions, List<Color> colors) {
+            this.revision = revision;
+            this.magnification = magnification;
+            // The canvas changes its source rectangle in place
+            this.srcRect = new Rectangle(srcRect);
+            this.width = width;
+            this.height = height;
+            this.drawOptions = drawOptions;
+            this.colors = colors;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(revision, magnification, srcRect, width, height,
+                    drawOptions, colors);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof OverlayKey)) {
+                return false;
+            }
+            OverlayKey other = (OverlayKey) obj;
+            return revision == other.revision
+                    && Double.compare(magnification, other.magnification) == 0
+                    && srcRect.equals(other.srcRect)
+                    && width == other.width
+                    && height == other.height
+                    && drawOptions.equals(other.drawOptions)
+                    && colors.equals(other.colors);
+        }
+    }
 }
@@ -0,0 +1,140 @@
+package com.scitequest.martin.view;
+
+import java.awt.Color;
+import java.awt.Polygon;
+import java.awt.Rectangle;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.List;
+
+import ij.gui.Roi;
+import ij.process.ByteProcessor;
+import ij.process.ImageProcessor;
+import net.imagej.patcher.LegacyInjector;
+
+/**
+ * Draws into an 8-bit overlay of the size of an image instead of the image
+ * itself, so only the part of the image that is actually needed has to be
+ * converted to RGB.
+ *
+ * Each pixel of the overlay stores the index of the color drawn last onto it.
+ * The overlay is drawn with the same ImageJ routines and in the same coordinates
+ * as the image would be. The drawn pixels are therefore exactly those a
+ * {@link ProcessorPen} on the whole image would draw.
+ */
+public final class OverlayPen implements Drawable {
+
+    static {
+        LegacyInjector.preinit();
+    }
+
+    /** The maximum number of different colors, index 0 marks undrawn pixels. */
+    private static final int MAX_COLORS = 255;
+
+    /** The overlay storing the color index of each pixel plus one. */
+    private final ByteProcessor overlay;
+    /** The colors drawn so far in the order of their index. */
+    private final List<Color> palette = new ArrayList<>();
+
+    /**
+     * Create a pen drawing onto an empty overlay.
+     *
+     * @param width  the width of the image drawn on
+     * @param height the height of the image drawn on
+     */
+    public OverlayPen(int width, int height) {
+        this.overlay = new ByteProcessor(width, height);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalStateException if more than 255 different colors are used
+     */
+    @Override
+    public void setColor(Color colour) throws IllegalStateException {
+        int index = palette.indexOf(colour);
+        if (index < 0) {
+            if (palette.size() == MAX_COLORS) {
+                throw new IllegalStateException("Too many different colors in overlay");
+            }
+            palette.add(colour);
+            index = palette.size() - 1;
+        }
+        overlay.setValue(index + 1);
+    }
+
+    @Override
+    public void drawPolygon(int[] polygonX, int[] polygonY) {
+        overlay.drawPolygon(new Polygon(polygonX, polygonY, polygonY.length));
+    }
+
+    @Override
+    public void drawString(String text, int x, int y) {
+        overlay.setJustification(ImageProcessor.CENTER_JUSTIFY);
+        overlay.drawString(text, x, y);
+    }
+
+    @Override
+    public void drawOval(int x, int y, int width, int height) {
+        overlay.drawOval(x, y, width, height);
+    }
+
+    @Override
+    public void drawPoint(int x, int y) {
+        overlay.drawDot(x, y);
+    }
+
+    @Override
+    public Rectangle2D getVisibleArea() {
+        return new Rectangle(0, 0, overlay.getWidth(), overlay.getHeight());
+    }
+
+    @Override
+    public double getMagnification() {
+        return 1;
+    }
+
+    /**
+     * Crops an image to the bounds of a region of interest and paints the overlay
+     * onto it.
+     *
+     * The result is the same as painting onto an RGB copy of the whole image and
+     * cropping it afterwards, but only the cropped part is ever copied and
+     * converted to RGB.
+     *
+     * @param image the image the overlay has been drawn for, not modified
+     * @param roi   the region to crop to
+     * @return the cropped RGB image with the overlay painted onto it
+     */
+    public ImageProcessor paintCropped(ImageProcessor image, Roi roi) {
+        // Let ImageJ clip the bounds of the region just like cropping would
+        overlay.setRoi(roi);
+        Rectangle crop = overlay.getRoi();
+        overlay.resetRoi();
+
+        // Creates the processor like cropping does, keeping the LUT and display range
+        ImageProcessor region = image.createProcessor(crop.width, crop.height);
+        region.insert(image, -crop.x, -crop.y);
+        ImageProcessor rgb = region.convertToRGB();
+
+        byte[] pixels = (byte[]) overlay.getPixels();
+        int width = overlay.getWidth();
+        int lastIndex = -1;
+        for (int y = 0; y < crop.height; y++) {
+            int offset = (crop.y + y) * width + crop.x;
+            for (int x = 0; x < crop.width; x++) {
+                int index = pixels[offset + x] & 0xff;
+                if (index == 0) {
+                    continue;
+                }
+                if (index != lastIndex) {
+                    rgb.setColor(palette.get(index - 1));
+                    lastIndex = index;
+                }
+                rgb.drawPixel(x, y);
+            }
+        }
+        return rgb;
+    }
+}
@@ -2,6 +2,8 @@ package com.scitequest.martin.view;
 
 import java.awt.Color;
 import java.awt.Polygon;
+import java.awt.Rectangle;
+import java.awt.geom.Rectangle2D;
 
 import ij.process.ImageProcessor;
 import net.imagej.patcher.LegacyInjector;
@@ -39,4 +41,19 @@ public final class ProcessorPen implements Drawable {
     public void drawOval(int x, int y, int width, int height) {
         iProc.drawOval(x, y, width, height);
     }
+
+    @Override
+    public void drawPoint(int x, int y) {
+        iProc.drawDot(x, y);
+    }
+
+    @Override
+    public Rectangle2D getVisibleArea() {
+        return new Rectangle(0, 0, iProc.getWidth(), iProc.getHeight());
+    }
+
+    @Override
+    public double getMagnification() {
+        return 1;
+    }
 }
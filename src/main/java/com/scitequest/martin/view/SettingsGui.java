@@ -40,6 +40,7 @@ import com.scitequest.martin.settings.DisplaySettings.Theme;
 import com.scitequest.martin.settings.ExportSettings;
 import com.scitequest.martin.settings.MaskExt;
 import com.scitequest.martin.settings.MeasurementSettings;
+import com.scitequest.martin.settings.MeasurementSettings.FitAlgorithm;
 import com.scitequest.martin.settings.Settings;
 
 /**
@@ -60,6 +61,7 @@ public final class SettingsGui extends JDialog {
     // General tab
     private final JCheckBox invertLut = new JCheckBox();
     private final JCheckBox subtractBackground = new JCheckBox();
+    private final JComboBox<String> fitAlgorithm = new JComboBox<>();
     private final JButton openMaskDesignerButton = new JButton();
     private final JComboBox<String> selectedMask = new JComboBox<>();
     private final DefaultComboBoxModel<String> selectedMaskModel = new DefaultComboBoxModel<>();
@@ -80,6 +82,8 @@ public final class SettingsGui extends JDialog {
     private final JCheckBox saveAnnotatedImage = new JCheckBox();
     private final JCheckBox exportJsonData = new JCheckBox();
     private final JCheckBox exportTsvData = new JCheckBox();
+    private final JCheckBox exportBinaryData = new JCheckBox();
+    private final JCheckBox storeResults = new JCheckBox();
     private final JCheckBox storeMeasuredImage = new JCheckBox();
 
     /**
@@ -97,7 +101,7 @@ public final class SettingsGui extends JDialog {
         ExportSettings exportSettings = settings.getExportSettings();
         this.activeListener = true;
 
-        this.setBounds(50, 50, 350, 410);
+        this.setBounds(50, 50, 350, 440);
         this.setResizable(false);
 
         // Setting up a custom close operation
@@ -120,10 +124,10 @@ public final class SettingsGui extends JDialog {
         generalTab.setLayout(new GridBagLayout());
         ((GridBagLayout) generalTab.getLayout()).columnWidths = new int[] { 0, 0, 0 };
         ((GridBagLayout) generalTab.getLayout()).rowHeights = new int[] {
-                0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 };
+                0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 };
         ((GridBagLayout) generalTab.getLayout()).columnWeights = new double[] { 1.0, 0.0, 1.0E-4 };
         ((GridBagLayout) generalTab.getLayout()).rowWeights = new double[] {
-                0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 1.0E-4 };
+                0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 1.0E-4 };
 
         // ---- projectHeader ----
         JLabel projectHeader = new JLabel();
@@ -190,11 +194,27 @@ public final class SettingsGui extends JDialog {
                 GridBagConstraints.CENTER, GridBagConstraints.BOTH,
                 new Insets(0, 0, 5, 0), 0, 0));
 
+        // ---- fitAlgorithmLabel ----
+        JLabel fitAlgorithmLabel = new JLabel();
+        fitAlgorithmLabel.setText(Const.bundle.getString("settingsGui.fitAlgorithmLabel.text"));
+        fitAlgorithmLabel.putClientProperty("FlatLaf.styleClass", "h4");
+        generalTab.add(fitAlgorithmLabel, new GridBagConstraints(0, 7, 1, 1, 0.0, 0.0,
+                GridBagConstraints.CENTER, GridBagConstraints.BOTH,
+                new Insets(0, 0, 5, 5), 0, 0));
+
+        // ---- fitAlgorithm ----
+        fitAlgorithm.addItem(Const.bundle.getString("settingsGui.fitAlgorithm.hillClimbing.text"));
+        fitAlgorithm.addItem(Const.bundle.getString("settingsGui.fitAlgorithm.responseMap.text"));
+        fitAlgorithm.addActionListener(l -> settingsChanged());
+        generalTab.add(fitAlgorithm, new GridBagConstraints(1, 7, 1, 1, 0.0, 0.0,
+                GridBagConstraints.WEST, GridBagConstraints.VERTICAL,
+                new Insets(0, 0, 5, 0), 0, 0));
+
         // ---- maskHeader ----
         JLabel maskHeader = new JLabel();
         maskHeader.setText(Const.bundle.getString("settingsGui.maskHeader.text"));
         maskHeader.putClientProperty("FlatLaf.styleClass", "h2");
-        generalTab.add(maskHeader, new GridBagConstraints(0, 7, 2, 1, 0.0, 0.0,
+        generalTab.add(maskHeader, new GridBagConstraints(0, 8, 2, 1, 0.0, 0.0,
                 GridBagConstraints.CENTER, GridBagConstraints.BOTH,
                 new Insets(10, 0, 10, 0), 0, 0));
 
@@ -202,7 +222,7 @@ public final class SettingsGui extends JDialog {
         JLabel selectedMaskLabel = new JLabel();
         selectedMaskLabel.setText(Const.bundle.getString("settingsGui.selectedMaskLabel.text"));
         selectedMaskLabel.putClientProperty("FlatLaf.styleClass", "h4");
-        generalTab.add(selectedMaskLabel, new GridBagConstraints(0, 8, 1, 1, 0.0, 0.0,
+        generalTab.add(selectedMaskLabel, new GridBagConstraints(0, 9, 1, 1, 0.0, 0.0,
                 GridBagConstraints.CENTER, GridBagConstraints.BOTH,
                 new Insets(0, 0, 5, 5), 0, 0));
 
@@ -211,7 +231,7 @@ public final class SettingsGui extends JDialog {
         selectedMask.setModel(selectedMaskModel);
         selectedMask.setSelectedIndex(settings.getMaskSettings().getLastUsedMaskIndex());
         selectedMask.addActionListener(e -> handleMaskSelectionChanged());
-        generalTab.add(selectedMask, new GridBagConstraints(0, 9, 1, 1, 0.0, 0.0,
+        generalTab.add(selectedMask, new GridBagConstraints(0, 10, 1, 1, 0.0, 0.0,
                 GridBagConstraints.CENTER, GridBagConstraints.BOTH,
                 new Insets(0, 0, 5, 5), 0, 0));
 
@@ -219,7 +239,7 @@ public final class SettingsGui extends JDialog {
         openMaskDesignerButton.setText(
                 Const.bundle.getString("settingsGui.openMaskDesignerButton.text"));
         openMaskDesignerButton.addActionListener(e -> handleOpenSlideDesignerGuiButton());
-        generalTab.add(openMaskDesignerButton, new GridBagConstraints(1, 9, 1, 1, 0.0, 0.0,
+        generalTab.add(openMaskDesignerButton, new GridBagConstraints(1, 10, 1, 1, 0.0, 0.0,
                 GridBagConstraints.WEST, GridBagConstraints.VERTICAL,
                 new Insets(0, 0, 5, 0), 0, 0));
 
@@ -264,7 +284,7 @@ public final class SettingsGui extends JDialog {
                 GridBagConstraints.WEST, GridBagConstraints.VERTICAL,
                 new Insets(0, 0, 0, 0), 0, 0));
 
-        generalTab.add(lastRowColumnPanel, new GridBagConstraints(0, 10, 2, 1, 0.0, 0.0,
+        generalTab.add(lastRowColumnPanel, new GridBagConstraints(0, 11, 2, 1, 0.0, 0.0,
                 GridBagConstraints.CENTER, GridBagConstraints.BOTH,
                 new Insets(0, 0, 0, 0), 0, 0));
         tabbedPane.addTab(Const.bundle.getString("settingsGui.generalTab.tab.title"), generalTab);
@@ -436,10 +456,11 @@ public final class SettingsGui extends JDialog {
         exportTab.setLayout(new GridBagLayout());
         ((GridBagLayout) exportTab.getLayout()).columnWidths = new int[] { 0, 0, 0 };
         ((GridBagLayout) exportTab.getLayout()).rowHeights = new int[] {
-                0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 };
+                0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 };
         ((GridBagLayout) exportTab.getLayout()).columnWeights = new double[] { 1.0, 0.0, 1.0E-4 };
         ((GridBagLayout) exportTab.getLayout()).rowWeights = new double[] {
-                0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 1.0E-4 };
+                0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0,
+                1.0E-4 };
 
         // ---- exportDirectoryLabel ----
         JLabel exportDirectoryLabel = new JLabel();
@@ -566,6 +587,46 @@ public final class SettingsGui extends JDialog {
         storeMeasuredImageDescription.setEditable(false);
         storeMeasuredImageDescription.setEnabled(false);
         exportTab.add(storeMeasuredImageDescription, new GridBagConstraints(0, 11, 1, 1, 0.0, 0.0,
+                GridBagConstraints.CENTER, GridBagConstraints.BOTH,
+                new Insets(0, 0, 5, 5), 0, 0));
+
+        // ---- exportBinaryData ----
+        exportBinaryData.setText(Const.bundle.getString("settingsGui.exportBinaryData.text"));
+        exportBinaryData.setSelected(exportSettings.isExportBinary());
+        exportTab.add(exportBinaryData, new GridBagConstraints(0, 12, 1, 1, 0.0, 0.0,
+                GridBagConstraints.CENTER, GridBagConstraints.BOTH,
+                new Insets(0, 0, 5, 5), 0, 0));
+
+        // ---- exportBinaryDataDescription ----
+        JTextArea exportBinaryDataDescription = new JTextArea();
+        exportBinaryDataDescription.setLineWrap(true);
+        exportBinaryDataDescription.setWrapStyleWord(true);
+        exportBinaryDataDescription.setOpaque(false);
+        exportBinaryDataDescription.setText(
+                Const.bundle.getString("settingsGui.exportBinaryDataDescription.text"));
+        exportBinaryDataDescription.setEditable(false);
+        exportBinaryDataDescription.setEnabled(false);
+        exportTab.add(exportBinaryDataDescription, new GridBagConstraints(0, 13, 1, 1, 0.0, 0.0,
+                GridBagConstraints.CENTER, GridBagConstraints.BOTH,
+                new Insets(0, 0, 5, 5), 0, 0));
+
+        // ---- storeResults ----
+        storeResults.setText(Const.bundle.getString("settingsGui.storeResults.text"));
+        storeResults.setSelected(exportSettings.isStoreResults());
+        exportTab.add(storeResults, new GridBagConstraints(0, 14, 1, 1, 0.0, 0.0,
+                GridBagConstraints.CENTER, GridBagConstraints.BOTH,
+                new Insets(0, 0, 5, 5), 0, 0));
+
+        // ---- storeResultsDescription ----
+        JTextArea storeResultsDescription = new JTextArea();
+        storeResultsDescription.setLineWrap(true);
+        storeResultsDescription.setWrapStyleWord(true);
+        storeResultsDescription.setOpaque(false);
+        storeResultsDescription.setText(
+                Const.bundle.getString("settingsGui.storeResultsDescription.text"));
+        storeResultsDescription.setEditable(false);
+        storeResultsDescription.setEnabled(false);
+        exportTab.add(storeResultsDescription, new GridBagConstraints(0, 15, 1, 1, 0.0, 0.0,
                 GridBagConstraints.CENTER, GridBagConstraints.BOTH,
                 new Insets(0, 0, 0, 5), 0, 0));
         tabbedPane.addTab(Const.bundle.getString("settingsGui.exportTab.title"), exportTab);
@@ -645,6 +706,8 @@ public final class SettingsGui extends JDialog {
         showMeasureField.setSelected(displaySettings.isShowMeasureCircles());
         invertLut.setSelected(settings.getMeasurementSettings().isInvertLut());
         subtractBackground.setSelected(settings.getMeasurementSettings().isSubtractBackground());
+        fitAlgorithm.setSelectedIndex(
+                settings.getMeasurementSettings().getFitAlgorithm().ordinal());
 
         saveAnnotatedImage.setSelected(
                 settings.getExportSettings().isSaveAnnotatedImage());
@@ -695,6 +758,8 @@ public final class SettingsGui extends JDialog {
         MeasurementSettings measurementSettings = settings.getMeasurementSettings();
         measurementSettings.setInvertLut(invertLut.isSelected());
         measurementSettings.setSubtractBackground(subtractBackground.isSelected());
+        measurementSettings.setFitAlgorithm(
+                FitAlgorithm.values()[fitAlgorithm.getSelectedIndex()]);
 
         // Setting some settings may not change to the requested value.
         // By loading again we re-synchronize the GUI.
@@ -715,6 +780,8 @@ public final class SettingsGui extends JDialog {
             exportSettings.setExportJSON(exportJsonData.isSelected());
             exportSettings.setSaveAnnotatedImage(saveAnnotatedImage.isSelected());
             exportSettings.setSaveWholeImage(storeMeasuredImage.isSelected());
+            exportSettings.setExportBinary(exportBinaryData.isSelected());
+            exportSettings.setStoreResults(storeResults.isSelected());
             settings.store();
             try {
                 settings.save();
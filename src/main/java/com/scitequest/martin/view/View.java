@@ -123,4 +123,30 @@ public interface View {
     void openExportGui(ZonedDateTime datetime, Optional<LocalDateTime> assayDate,
             Parameters parameters,
             Data data, DataStatistics dataStatistics);
+
+    /**
+     * Notifies this view, that a long running task has been started in the
+     * background.
+     *
+     * The view should show the progress, offer to cancel the task and prevent any
+     * changes to the mask until {@link #taskFinished()} is called.
+     *
+     * @param title the name of the task
+     */
+    void taskStarted(String title);
+
+    /**
+     * Show the progress of the running task.
+     *
+     * Note: This may be called from any thread.
+     *
+     * @param percent the progress in percent, negative if unknown
+     */
+    void showTaskProgress(int percent);
+
+    /**
+     * Notifies this view, that the running task has finished, failed or has been
+     * cancelled.
+     */
+    void taskFinished();
 }
@@ -0,0 +1,63 @@
+package com.scitequest.martin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+public class BatchPipelineTest {
+
+    @Test
+    public void testLimitsJobsInFlight() throws InterruptedException {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxObserved = new AtomicInteger();
+        List<Integer> exported = Collections.synchronizedList(new ArrayList<>());
+        List<Integer> jobs = IntStream.range(0, 50).boxed().collect(Collectors.toList());
+
+        int failed;
+        try (BatchPipeline<Integer> pipeline = BatchPipeline.<Integer>of(3)
+                .addStage("first", 2, job -> {
+                    maxObserved.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                })
+                .addStage("second", 4, job -> Thread.sleep(1))
+                .addStage("third", 1, job -> {
+                    exported.add(job);
+                    inFlight.decrementAndGet();
+                })) {
+            failed = pipeline.run(jobs);
+        }
+
+        assertEquals(0, failed);
+        assertTrue(maxObserved.get() <= 3);
+        Collections.sort(exported);
+        assertEquals(jobs, exported);
+    }
+
+    @Test
+    public void testFailedJobSkipsFollowingStages() throws InterruptedException {
+        List<Integer> exported = Collections.synchronizedList(new ArrayList<>());
+
+        int failed;
+        try (BatchPipeline<Integer> pipeline = BatchPipeline.<Integer>of(2)
+                .addStage("check", 1, job -> {
+                    if (job % 2 == 0) {
+                        throw new IOException("even job");
+                    }
+                })
+                .addStage("export", 1, exported::add)) {
+            failed = pipeline.run(List.of(1, 2, 3, 4, 5));
+        }
+
+        assertEquals(2, failed);
+        Collections.sort(exported);
+        assertEquals(List.of(1, 3, 5), exported);
+    }
+}
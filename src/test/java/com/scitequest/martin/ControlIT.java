@@ -1,13 +1,19 @@
 package com.scitequest.martin;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import org.junit.After;
 import org.junit.Before;
@@ -15,7 +21,13 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
+import com.scitequest.martin.export.Data;
+import com.scitequest.martin.export.DataStatistics;
+import com.scitequest.martin.export.Image;
 import com.scitequest.martin.export.JsonParseException;
+import com.scitequest.martin.export.Metadata;
+import com.scitequest.martin.export.Parameters;
+import com.scitequest.martin.export.Patient;
 import com.scitequest.martin.settings.Settings;
 
 import ij.IJ;
@@ -58,6 +70,33 @@ public class ControlIT {
         assertTrue(!control.isImageLoaded());
     }
 
+    @Test
+    public void testFailedExportIsMarkedIncomplete()
+            throws SecurityException, IOException, JsonParseException {
+        String imagePath = "src/test/resources/img/BS6 - 60sec - B - 1.tif";
+        Control control = Control.headless(ij, IJ.openImage(imagePath), settingsPath);
+        Parameters parameters = control.getMeasurementParameters();
+        Data data = Control.doMeasure(IJ.openImage(imagePath), parameters);
+        DataStatistics dataStatistics = DataStatistics.analyze(data);
+        Metadata metadata = Metadata.of(
+                ZonedDateTime.now(), Optional.empty(),
+                Patient.of("id", "name", Set.of()),
+                Image.of(ZonedDateTime.now(), "imager", 1, Duration.ofSeconds(60)),
+                List.of());
+        Path exportDir = folder.newFolder().toPath();
+
+        assertTrue(control.exportIntoFolder(exportDir, metadata, parameters,
+                data, dataStatistics));
+        assertTrue(Files.exists(exportDir.resolve("data.json")));
+        assertFalse(Files.exists(exportDir.resolve(Control.INCOMPLETE_MARKER)));
+
+        // The metadata is never overwritten, so exporting again fails
+        assertFalse(control.exportIntoFolder(exportDir, metadata, parameters,
+                data, dataStatistics));
+        List<String> missing = Files.readAllLines(exportDir.resolve(Control.INCOMPLETE_MARKER));
+        assertTrue(missing.contains("metadata.json"));
+    }
+
     @Test
     public void testGetDateTimeOriginalFromFileValidFile() {
         File file = new File("src/test/resources/img/22-06-02 - 60sec - N.tif");
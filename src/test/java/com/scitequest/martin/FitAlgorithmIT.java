@@ -0,0 +1,80 @@
+package com.scitequest.martin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.scitequest.martin.export.JsonParseException;
+import com.scitequest.martin.settings.MeasurementSettings.FitAlgorithm;
+import com.scitequest.martin.settings.Settings;
+
+import ij.IJ;
+import net.imagej.ImageJ;
+import net.imagej.patcher.LegacyInjector;
+
+public class FitAlgorithmIT {
+
+    static {
+        LegacyInjector.preinit();
+    }
+
+    /** Allowed rounding difference between the means of both algorithms. */
+    private static final double EPSILON = 1e-9;
+
+    private ImageJ ij;
+
+    @Before
+    public void setUp() {
+        ij = new ImageJ();
+    }
+
+    @After
+    public void tearDown() {
+        if (ij != null) {
+            ij.dispose();
+        }
+    }
+
+    private void assertResponseMapNotWorse(String imagePath, String maskPath,
+            int x, int y, double rotation) throws IOException, JsonParseException {
+        Control control = Control.headless(ij, IJ.openImage(imagePath),
+                Settings.defaultSettings());
+        control.setActiveMask(Paths.get(maskPath));
+        control.repositionSlide();
+        control.moveSlide(x, y);
+        control.rotateSlide(rotation);
+
+        double[] hillClimbing = control.measureFieldFitScores(FitAlgorithm.HILL_CLIMBING);
+        double[] responseMap = control.measureFieldFitScores(FitAlgorithm.RESPONSE_MAP);
+        assertEquals(hillClimbing.length, responseMap.length);
+        for (int i = 0; i < hillClimbing.length; i++) {
+            assertTrue(String.format("Measure field %d scored %f, hill climbing %f",
+                    i, responseMap[i], hillClimbing[i]),
+                    responseMap[i] >= hillClimbing[i] - EPSILON);
+        }
+    }
+
+    @Test
+    public void kcna2FmB6() throws IOException, JsonParseException {
+        assertResponseMapNotWorse("src/test/resources/img/BS6 - 60sec - B - 1.tif",
+                "src/test/resources/kcna2_fm_b6_mask.json", 21, 43, 0.842);
+    }
+
+    @Test
+    public void kcna2Fp31s() throws IOException, JsonParseException {
+        assertResponseMapNotWorse("src/test/resources/img/KCNA2 - fp - 31s - 30sec - B - 4.tif",
+                "src/test/resources/kcna2_fp_31s_mask.json", 80, 24, 0.129);
+    }
+
+    @Test
+    public void syniSm67() throws IOException, JsonParseException {
+        assertResponseMapNotWorse("src/test/resources/img/SYNI - SM67 - 60sec - A - 2.tif",
+                "src/test/resources/syni_sm67_mask.json", 32, 54, 0.78);
+    }
+}
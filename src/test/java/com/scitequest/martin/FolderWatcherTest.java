@@ -0,0 +1,224 @@
+package com.scitequest.martin;
+
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.Watchable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FolderWatcherTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final Duration SETTLE_TIME = Duration.ofMillis(300);
+    /** The maximum time to wait for a report, generous for slow file systems. */
+    private static final long TIMEOUT_MILLIS = 30_000;
+
+    private Path directory;
+    private final List<Path> reported = Collections.synchronizedList(new ArrayList<>());
+    private FolderWatcher watcher;
+    private Thread thread;
+
+    @Before
+    public void setUp() {
+        directory = folder.getRoot().toPath();
+    }
+
+    @After
+    public void tearDown() throws IOException, InterruptedException {
+        if (watcher != null) {
+            watcher.close();
+            thread.join();
+        }
+    }
+
+    private void start(FolderWatcher folderWatcher) {
+        watcher = folderWatcher;
+        thread = new Thread(() -> {
+            try {
+                watcher.watch(reported::add);
+            } catch (IOException | InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }, "folder-watcher-test");
+        thread.start();
+    }
+
+    private static boolean isImage(Path file) {
+        return file.toString().endsWith(".tif");
+    }
+
+    /**
+     * Wait until the given number of files have been reported.
+     */
+    private void awaitReports(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (reported.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(count, reported.size());
+    }
+
+    @Test
+    public void testReportsFileOnceSettled() throws IOException, InterruptedException {
+        start(FolderWatcher.of(directory, FolderWatcherTest::isImage, SETTLE_TIME));
+        Path file = directory.resolve("a.tif");
+        Files.createFile(file);
+        // Keep writing for longer than the settle time
+        for (int i = 0; i < 12; i++) {
+            Files.write(file, new byte[100], StandardOpenOption.APPEND);
+            Thread.sleep(SETTLE_TIME.toMillis() / 6);
+            assertTrue("Reported while being written", reported.isEmpty());
+        }
+
+        awaitReports(1);
+        assertEquals(file, reported.get(0));
+        assertEquals(1200, Files.size(file));
+
+        // Neither waiting nor touching it again reports it a second time
+        Files.write(directory.resolve("b.txt"), new byte[1]);
+        Thread.sleep(3 * SETTLE_TIME.toMillis());
+        assertEquals(1, reported.size());
+    }
+
+    @Test
+    public void testReportsRecreatedFile() throws IOException, InterruptedException {
+        Path file = directory.resolve("a.tif");
+        Files.write(file, new byte[10]);
+        start(FolderWatcher.of(directory, FolderWatcherTest::isImage, SETTLE_TIME));
+        awaitReports(1);
+
+        Files.delete(file);
+        Thread.sleep(3 * SETTLE_TIME.toMillis());
+        assertEquals(1, reported.size());
+        Files.write(file, new byte[20]);
+
+        awaitReports(2);
+        assertEquals(file, reported.get(1));
+    }
+
+    @Test
+    public void testRescansOnOverflow() throws IOException, InterruptedException {
+        Files.write(directory.resolve("a.tif"), new byte[10]);
+        ManualWatchService watchService = new ManualWatchService();
+        start(FolderWatcher.of(directory, FolderWatcherTest::isImage, Duration.ZERO,
+                watchService));
+        awaitReports(1);
+
+        // Without any event the new file is not noticed
+        Path file = directory.resolve("b.tif");
+        Files.write(file, new byte[10]);
+        Thread.sleep(500);
+        assertEquals(1, reported.size());
+
+        watchService.signal(new OverflowKey());
+        awaitReports(2);
+        assertEquals(file, reported.get(1));
+    }
+
+    /**
+     * A watch service only delivering the keys signalled by the test.
+     */
+    private static final class ManualWatchService implements WatchService {
+        private final BlockingQueue<WatchKey> keys = new LinkedBlockingQueue<>();
+        private volatile boolean closed = false;
+
+        private void signal(WatchKey key) {
+            keys.add(key);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        @Override
+        public WatchKey poll() {
+            return poll(0, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public WatchKey poll(long timeout, TimeUnit unit) {
+            if (closed) {
+                throw new ClosedWatchServiceException();
+            }
+            try {
+                return keys.poll(timeout, unit);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+
+        @Override
+        public WatchKey take() throws InterruptedException {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * A key holding a single overflow event.
+     */
+    private static final class OverflowKey implements WatchKey {
+        @Override
+        public boolean isValid() {
+            return true;
+        }
+
+        @Override
+        public List<WatchEvent<?>> pollEvents() {
+            return List.of(new WatchEvent<Object>() {
+                @Override
+                public WatchEvent.Kind<Object> kind() {
+                    return OVERFLOW;
+                }
+
+                @Override
+                public int count() {
+                    return 1;
+                }
+
+                @Override
+                public Object context() {
+                    return null;
+                }
+            });
+        }
+
+        @Override
+        public boolean reset() {
+            return true;
+        }
+
+        @Override
+        public void cancel() {
+        }
+
+        @Override
+        public Watchable watchable() {
+            return null;
+        }
+    }
+}
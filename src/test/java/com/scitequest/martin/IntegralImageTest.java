@@ -0,0 +1,98 @@
+package com.scitequest.martin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import ij.ImagePlus;
+import ij.gui.OvalRoi;
+import ij.gui.PolygonRoi;
+import ij.gui.Roi;
+import ij.plugin.filter.Analyzer;
+import ij.process.FloatPolygon;
+import ij.process.FloatProcessor;
+import ij.process.ShortProcessor;
+import net.imagej.patcher.LegacyInjector;
+
+public class IntegralImageTest {
+
+    static {
+        LegacyInjector.preinit();
+    }
+
+    private static final int WIDTH = 80;
+    private static final int HEIGHT = 50;
+    private static final double EPSILON = 1e-9;
+
+    private static ImagePlus randomImage() {
+        Random random = new Random(7);
+        ShortProcessor iProc = new ShortProcessor(WIDTH, HEIGHT);
+        for (int i = 0; i < WIDTH * HEIGHT; i++) {
+            iProc.set(i, random.nextInt(65536));
+        }
+        return new ImagePlus("test", iProc);
+    }
+
+    private static ImagePlus imageWithNaNs() {
+        Random random = new Random(7);
+        FloatProcessor iProc = new FloatProcessor(WIDTH, HEIGHT);
+        for (int i = 0; i < WIDTH * HEIGHT; i++) {
+            iProc.setf(i, random.nextFloat() * 1000);
+        }
+        // The first invalid pixel is preceded by valid rows, the others are covered
+        // by the measured positions
+        iProc.setf(40, 25, Float.NaN);
+        iProc.setf(12, 10, Float.NaN);
+        iProc.setf(WIDTH - 2, HEIGHT - 1, Float.NaN);
+        return new ImagePlus("test", iProc);
+    }
+
+    private static void assertSameMeans(ImagePlus iPlus, Roi roi) {
+        IntegralImage integralImage = IntegralImage.of(iPlus);
+        IntegralImage.Kernel kernel = IntegralImage.Kernel.of(roi);
+        int[][] positions = { { 0, 0 }, { 10, 7 }, { 33, 21 }, { WIDTH - 5, HEIGHT - 3 } };
+        for (int[] pos : positions) {
+            roi.setLocation(pos[0], pos[1]);
+            iPlus.setRoi(roi);
+            double expected = iPlus.getStatistics(Analyzer.getMeasurements()).mean;
+            iPlus.killRoi();
+
+            assertEquals(expected, integralImage.mean(kernel, pos[0], pos[1]), EPSILON);
+        }
+    }
+
+    @Test
+    public void testRectangle() {
+        Roi roi = new Roi(0, 0, 12, 9);
+        assertTrue(IntegralImage.Kernel.of(roi).isRectangle());
+        assertSameMeans(randomImage(), roi);
+    }
+
+    @Test
+    public void testCircle() {
+        Roi roi = new OvalRoi(0, 0, 14, 14);
+        assertFalse(IntegralImage.Kernel.of(roi).isRectangle());
+        assertSameMeans(randomImage(), roi);
+    }
+
+    @Test
+    public void testDiamond() {
+        FloatPolygon poly = new FloatPolygon();
+        poly.addPoint(8, 0);
+        poly.addPoint(16, 8);
+        poly.addPoint(8, 16);
+        poly.addPoint(0, 8);
+        Roi roi = new PolygonRoi(poly, Roi.POLYGON);
+        assertSameMeans(randomImage(), roi);
+    }
+
+    @Test
+    public void testIgnoresNaN() {
+        assertSameMeans(imageWithNaNs(), new Roi(0, 0, 12, 9));
+        assertSameMeans(imageWithNaNs(), new OvalRoi(0, 0, 14, 14));
+    }
+}
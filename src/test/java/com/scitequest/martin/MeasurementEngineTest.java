@@ -0,0 +1,75 @@
+package com.scitequest.martin;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+import com.scitequest.martin.export.Circle;
+import com.scitequest.martin.export.Data;
+import com.scitequest.martin.export.Geometry;
+import com.scitequest.martin.export.Parameters;
+
+import ij.ImagePlus;
+import ij.process.ShortProcessor;
+import net.imagej.patcher.LegacyInjector;
+
+public class MeasurementEngineTest {
+
+    static {
+        LegacyInjector.preinit();
+    }
+
+    private static final int SPOTFIELDS = 3;
+    private static final int COLUMNS = 12;
+    private static final int ROWS = 10;
+
+    private static PixelSnapshot randomSnapshot() {
+        Random random = new Random(3);
+        ShortProcessor iProc = new ShortProcessor(400, 200);
+        for (int i = 0; i < iProc.getPixelCount(); i++) {
+            iProc.set(i, random.nextInt(4096));
+        }
+        return PixelSnapshot.of(new ImagePlus("test", iProc));
+    }
+
+    private static Parameters gridParameters() {
+        List<Geometry> spots = new ArrayList<>();
+        for (int field = 0; field < SPOTFIELDS; field++) {
+            for (int row = 0; row < ROWS; row++) {
+                for (int col = 0; col < COLUMNS; col++) {
+                    double x = 10.0 + field * 130.0 + col * 10.0;
+                    double y = 10.0 + row * 18.0;
+                    spots.add(Circle.of(Point.of(x, y), 8));
+                }
+            }
+        }
+        return new Parameters(false, false, SPOTFIELDS, COLUMNS, COLUMNS * ROWS,
+                spots, List.of());
+    }
+
+    @Test
+    public void testParallelEqualsSequential() {
+        PixelSnapshot snapshot = randomSnapshot();
+        Parameters parameters = gridParameters();
+
+        Data expected = MeasurementEngine.sequential().measure(snapshot, parameters);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (int parallelism = 1; parallelism <= 8; parallelism++) {
+                Data actual = MeasurementEngine.of(executor, parallelism)
+                        .measure(snapshot, parameters);
+                assertEquals(expected, actual);
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(SPOTFIELDS * COLUMNS * ROWS, expected.getValues().size());
+    }
+}
@@ -0,0 +1,86 @@
+package com.scitequest.martin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.scitequest.martin.settings.MaskSettings.MeasureShape;
+
+import ij.ImagePlus;
+import ij.process.FloatProcessor;
+import net.imagej.patcher.LegacyInjector;
+
+public class ResponseMapTest {
+
+    static {
+        LegacyInjector.preinit();
+    }
+
+    private static final int SIZE = 64;
+    private static final double RADIUS = 3.0;
+
+    /**
+     * Creates an image with a bright spot and a weaker decoy spot.
+     */
+    private static ImagePlus twoSpotImage() {
+        FloatProcessor iProc = new FloatProcessor(SIZE, SIZE);
+        for (int y = 0; y < SIZE; y++) {
+            for (int x = 0; x < SIZE; x++) {
+                double spot = 1000.0 * gaussian(x - 40.3, y - 27.8, 4.0);
+                double decoy = 600.0 * gaussian(x - 18.0, y - 42.0, 3.0);
+                iProc.setf(x, y, (float) (spot + decoy));
+            }
+        }
+        return new ImagePlus("spots", iProc);
+    }
+
+    private static double gaussian(double dx, double dy, double sigma) {
+        return Math.exp(-(dx * dx + dy * dy) / (2 * sigma * sigma));
+    }
+
+    private static PolyShape square(double x0, double y0, double size, MeasureShape shape) {
+        Point[] corners = {
+                Point.of(x0, y0), Point.of(x0 + size, y0),
+                Point.of(x0 + size, y0 + size), Point.of(x0, y0 + size) };
+        return new PolyShape(corners, 2, shape);
+    }
+
+    private static double meanAt(IntegralImage integralImage, IntegralImage.Kernel kernel,
+            Point p) {
+        return integralImage.mean(kernel, (int) (p.x - RADIUS), (int) (p.y - RADIUS));
+    }
+
+    @Test
+    public void testFindsGlobalMaximum() {
+        IntegralImage integralImage = IntegralImage.of(twoSpotImage());
+        PolyShape measureField = square(0, 0, RADIUS * 2, MeasureShape.CIRCLE);
+        IntegralImage.Kernel kernel = SearchArea.createScanKernel(measureField, RADIUS);
+        PolyShape searchPerimeter = square(8, 8, 48, MeasureShape.RECTANGLE);
+
+        Point maxPos = ResponseMap.of(integralImage, kernel, searchPerimeter, RADIUS, RADIUS)
+                .searchForAbsoluteMax();
+
+        assertNotNull(searchPerimeter.isClickInsidePoly(maxPos.x, maxPos.y));
+        assertEquals(40.3, maxPos.x, 1.5);
+        assertEquals(27.8, maxPos.y, 1.5);
+    }
+
+    @Test
+    public void testNotWorseThanHillClimbing() {
+        IntegralImage integralImage = IntegralImage.of(twoSpotImage());
+        PolyShape measureField = square(0, 0, RADIUS * 2, MeasureShape.CIRCLE);
+        IntegralImage.Kernel kernel = SearchArea.createScanKernel(measureField, RADIUS);
+        PolyShape searchPerimeter = square(8, 8, 48, MeasureShape.RECTANGLE);
+
+        Point hillClimbingPos = SearchArea.of(null, integralImage, kernel,
+                searchPerimeter, measureField, RADIUS, RADIUS, RADIUS, 8.0, 8.0)
+                .searchForAbsoluteMax();
+        Point responseMapPos = ResponseMap.of(integralImage, kernel,
+                searchPerimeter, RADIUS, RADIUS).searchForAbsoluteMax();
+
+        assertTrue(meanAt(integralImage, kernel, responseMapPos)
+                >= meanAt(integralImage, kernel, hillClimbingPos));
+    }
+}
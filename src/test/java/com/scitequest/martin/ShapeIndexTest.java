@@ -0,0 +1,99 @@
+package com.scitequest.martin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.scitequest.martin.settings.MaskSettings.MeasureShape;
+
+public class ShapeIndexTest {
+
+    private static final double RADIUS = 4;
+
+    private static List<PolyShape> gridShapes(MeasureShape shape, SlideTransform transform) {
+        List<PolyShape> shapes = new ArrayList<>();
+        for (int field = 0; field < 4; field++) {
+            PolyGrid grid = new PolyGrid(12, 10, shape, 3, Point.of(field * 130, 0),
+                    120, 100, 1, 1, 2 * RADIUS, 2 * RADIUS, transform);
+            for (int row = 0; row < grid.getRows(); row++) {
+                for (int col = 0; col < grid.getColumns(); col++) {
+                    shapes.add(grid.getGridElement(row, col));
+                }
+            }
+        }
+        return shapes;
+    }
+
+    private static void assertSameAsBruteForce(MeasureShape shape) {
+        Random random = new Random(42);
+        SlideTransform transform = new SlideTransform();
+        List<PolyShape> shapes = gridShapes(shape, transform);
+        double[] radii = new double[shapes.size()];
+        Arrays.fill(radii, RADIUS);
+        ShapeIndex index = ShapeIndex.of(transform, shapes, radii);
+
+        for (int placement = 0; placement < 10; placement++) {
+            transform.rotate(random.nextDouble() * 360, Point.of(250, 50));
+            transform.translate(random.nextInt(50), random.nextInt(50));
+            for (int click = 0; click < 2000; click++) {
+                double x = random.nextInt(800) - 150;
+                double y = random.nextInt(800) - 300;
+                List<PolyShape> expected = new ArrayList<>();
+                for (PolyShape s : shapes) {
+                    if (s.isWithinBounds(x, y, RADIUS) != null) {
+                        expected.add(s);
+                    }
+                }
+                assertEquals(expected, index.shapesAt(x, y));
+            }
+        }
+    }
+
+    @Test
+    public void testCirclesMatchBruteForce() {
+        assertSameAsBruteForce(MeasureShape.CIRCLE);
+    }
+
+    @Test
+    public void testRectanglesMatchBruteForce() {
+        assertSameAsBruteForce(MeasureShape.RECTANGLE);
+    }
+
+    @Test
+    public void testDiamondsMatchBruteForce() {
+        assertSameAsBruteForce(MeasureShape.DIAMOND);
+    }
+
+    @Test
+    public void testOutdatedOnlyByMovingElements() {
+        SlideTransform transform = new SlideTransform();
+        List<PolyShape> shapes = gridShapes(MeasureShape.CIRCLE, transform);
+        ShapeIndex index = ShapeIndex.of(transform, shapes, new double[shapes.size()]);
+
+        transform.translate(10, 20);
+        transform.rotate(45, Point.of(0, 0));
+        assertFalse(index.isOutdated());
+
+        shapes.get(7).movePoly(1, 0);
+        assertTrue(index.isOutdated());
+    }
+
+    @Test
+    public void testSkipsDisabledElements() {
+        SlideTransform transform = new SlideTransform();
+        List<PolyShape> shapes = gridShapes(MeasureShape.RECTANGLE, transform);
+        ShapeIndex index = ShapeIndex.of(transform, shapes, new double[shapes.size()]);
+        Point center = shapes.get(0).getShapeCenter();
+        assertEquals(1, index.shapesAt(center.x, center.y).size());
+
+        shapes.get(0).setEnabled(false);
+        assertTrue(index.shapesAt(center.x, center.y).isEmpty());
+    }
+}
@@ -0,0 +1,177 @@
+package com.scitequest.martin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Color;
+import java.awt.geom.Rectangle2D;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.scitequest.martin.export.JsonParseException;
+import com.scitequest.martin.settings.MaskExt;
+import com.scitequest.martin.settings.Settings;
+import com.scitequest.martin.view.Drawable;
+import com.scitequest.martin.view.ProcessorPen;
+
+import ij.process.ByteProcessor;
+import net.imagej.patcher.LegacyInjector;
+
+public class SlideMaskDrawingTest {
+
+    static {
+        LegacyInjector.preinit();
+    }
+
+    /** Draws the spotfields, their annotation and the measure fields. */
+    private static final DrawOptions CELLS = new DrawOptions(false, true, true, false, false, true);
+
+    private MaskExt mask;
+    private SlideMask slideMask;
+    /** The number of cells of all spotfields, which equals that of the measure fields. */
+    private int cellCount;
+
+    @Before
+    public void setUp() throws IOException, JsonParseException {
+        mask = Settings.defaultSettings().getMaskSettings()
+                .importMask(Paths.get("src/test/resources/syni_sm67_mask.json"));
+        slideMask = new SlideMask(SyntheticSlide.settingsWithMask(mask));
+        cellCount = slideMask.getSpotFields().size() * mask.getMaxNumberOfSpotsPerSpotfield();
+    }
+
+    private Rectangle2D wholeSlide() {
+        return new Rectangle2D.Double(0, 0, mask.getSlideWidth(), mask.getSlideHeight());
+    }
+
+    private Recorder draw(Rectangle2D visibleArea, double magnification) {
+        Recorder recorder = new Recorder(visibleArea, magnification);
+        slideMask.drawElements(recorder, CELLS);
+        return recorder;
+    }
+
+    @Test
+    public void testProcessorPenDrawsEverything() {
+        ProcessorPen pen = new ProcessorPen(
+                new ByteProcessor(mask.getSlideWidth(), mask.getSlideHeight()));
+        assertEquals(1, pen.getMagnification(), 0);
+
+        Recorder recorder = draw(pen.getVisibleArea(), pen.getMagnification());
+        // Outlines of all spotfield cells and measure circles, no centroids
+        assertEquals(cellCount, recorder.polygons.size());
+        assertEquals(cellCount, recorder.ovals.size());
+        assertEquals(0, recorder.points.size());
+        int labelCount = 0;
+        for (Point[] labels : slideMask.getColLabelPositions()) {
+            labelCount += labels.length;
+        }
+        for (Point[] labels : slideMask.getRowLabelPositions()) {
+            labelCount += labels.length;
+        }
+        assertEquals(labelCount, recorder.strings.size());
+    }
+
+    @Test
+    public void testSkipsElementsOutsideVisibleArea() {
+        Recorder outside = draw(new Rectangle2D.Double(
+                mask.getSlideWidth() + 100, mask.getSlideHeight() + 100, 50, 50), 1);
+        assertEquals(0, outside.polygons.size());
+        assertEquals(0, outside.ovals.size());
+        assertEquals(0, outside.strings.size());
+
+        // Only the cells overlapping the left half are drawn
+        Rectangle2D leftHalf = new Rectangle2D.Double(
+                0, 0, mask.getSlideWidth() / 2.0, mask.getSlideHeight());
+        Recorder partial = draw(leftHalf, 1);
+        assertTrue(partial.polygons.size() > 0);
+        assertTrue(partial.polygons.size() < cellCount);
+        assertTrue(partial.ovals.size() < cellCount);
+        for (int[][] polygon : partial.polygons) {
+            int minX = Integer.MAX_VALUE;
+            for (int x : polygon[0]) {
+                minX = Math.min(minX, x);
+            }
+            // Allow for the culling tolerance and rounding
+            assertTrue(minX <= leftHalf.getMaxX() + 3);
+        }
+    }
+
+    @Test
+    public void testDrawsCentroidsOfSmallCells() {
+        PolyGrid spotField = slideMask.getSpotFields().get(0);
+        double cellSize = Math.max(spotField.getShapeWidth(), spotField.getShapeHeight());
+
+        // A cell covers a single pixel of the drawing surface
+        Recorder reduced = draw(wholeSlide(), 1 / cellSize);
+        assertEquals(0, reduced.polygons.size());
+        assertEquals(0, reduced.ovals.size());
+        assertEquals(2 * cellCount, reduced.points.size());
+
+        // Large enough to be recognized, if not in image resolution
+        Recorder zoomedOut = draw(wholeSlide(), 0.99);
+        assertEquals(cellCount, zoomedOut.polygons.size());
+        assertEquals(cellCount, zoomedOut.ovals.size());
+        assertEquals(0, zoomedOut.points.size());
+    }
+
+    @Test
+    public void testSkipsLabelsBelowMinimumMagnification() {
+        assertEquals(0, draw(wholeSlide(), 0.39).strings.size());
+        assertTrue(draw(wholeSlide(), 0.4).strings.size() > 0);
+    }
+
+    /**
+     * Records everything drawn onto it.
+     */
+    private static final class Recorder implements Drawable {
+        private final Rectangle2D visibleArea;
+        private final double magnification;
+        private final List<int[][]> polygons = new ArrayList<>();
+        private final List<String> strings = new ArrayList<>();
+        private final List<int[]> ovals = new ArrayList<>();
+        private final List<int[]> points = new ArrayList<>();
+
+        private Recorder(Rectangle2D visibleArea, double magnification) {
+            this.visibleArea = visibleArea;
+            this.magnification = magnification;
+        }
+
+        @Override
+        public void setColor(Color colour) {
+        }
+
+        @Override
+        public void drawPolygon(int[] polygonX, int[] polygonY) {
+            polygons.add(new int[][] { polygonX, polygonY });
+        }
+
+        @Override
+        public void drawString(String text, int x, int y) {
+            strings.add(text);
+        }
+
+        @Override
+        public void drawOval(int x, int y, int width, int height) {
+            ovals.add(new int[] { x, y, width, height });
+        }
+
+        @Override
+        public void drawPoint(int x, int y) {
+            points.add(new int[] { x, y });
+        }
+
+        @Override
+        public Rectangle2D getVisibleArea() {
+            return visibleArea;
+        }
+
+        @Override
+        public double getMagnification() {
+            return magnification;
+        }
+    }
+}
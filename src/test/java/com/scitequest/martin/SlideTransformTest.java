@@ -0,0 +1,113 @@
+package com.scitequest.martin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.scitequest.martin.settings.MaskSettings.MeasureShape;
+
+public class SlideTransformTest {
+
+    private static final double EPSILON = 1e-9;
+
+    private static void assertPointEquals(Point expected, Point actual) {
+        assertEquals(expected.x, actual.x, EPSILON);
+        assertEquals(expected.y, actual.y, EPSILON);
+    }
+
+    private static PolyShape square(SlideTransform transform) {
+        Point[] corners = {
+                Point.of(10, 10), Point.of(20, 10),
+                Point.of(20, 20), Point.of(10, 20) };
+        return new PolyShape(corners, 2, MeasureShape.RECTANGLE, transform);
+    }
+
+    @Test
+    public void testRotationTurnsDownwardVectorToTheRight() {
+        SlideTransform transform = new SlideTransform();
+        transform.rotate(90, Point.of(5, 5));
+
+        // Same convention as the former orbit based rotation of coordinates
+        assertPointEquals(Point.of(15, 5), transform.apply(Point.of(5, 15)));
+        assertPointEquals(Point.of(5, 5), transform.apply(Point.of(5, 5)));
+    }
+
+    @Test
+    public void testInverseRestoresLocalPoint() {
+        SlideTransform transform = new SlideTransform();
+        transform.translate(12.5, -3);
+        transform.rotate(33, Point.of(40, 60));
+        transform.translate(-7, 21);
+        transform.rotate(-110, Point.of(2, 3));
+
+        Point local = Point.of(17.25, 93.5);
+        assertPointEquals(local, transform.applyInverse(transform.apply(local)));
+    }
+
+    @Test
+    public void testShapeFollowsTransform() {
+        SlideTransform transform = new SlideTransform();
+        PolyShape shape = square(transform);
+        assertPointEquals(Point.of(15, 15), shape.getShapeCenter());
+
+        transform.translate(5, -5);
+        assertPointEquals(Point.of(20, 10), shape.getShapeCenter());
+
+        transform.rotate(180, Point.of(0, 0));
+        assertPointEquals(Point.of(-20, -10), shape.getShapeCenter());
+    }
+
+    @Test
+    public void testElementMovesInWorldCoordinates() {
+        SlideTransform transform = new SlideTransform();
+        transform.rotate(30, Point.of(0, 0));
+        PolyShape shape = square(transform);
+        Point center = shape.getShapeCenter();
+
+        shape.movePoly(3, 4);
+        assertPointEquals(Point.of(center.x + 3, center.y + 4), shape.getShapeCenter());
+
+        shape.moveToCenter(Point.of(100, 200));
+        assertPointEquals(Point.of(100, 200), shape.getShapeCenter());
+
+        // The element keeps its offset when the slide is moved afterwards
+        transform.translate(1, 1);
+        assertPointEquals(Point.of(101, 201), shape.getShapeCenter());
+    }
+
+    @Test
+    public void testGridBoundsContainAllCells() {
+        SlideTransform transform = new SlideTransform();
+        PolyGrid grid = new PolyGrid(3, 2, MeasureShape.RECTANGLE, 4, Point.of(10, 20),
+                30, 20, 0, 0, 10, 10, transform);
+        transform.rotate(40, Point.of(0, 0));
+        transform.translate(7, -3);
+        grid.getGridElement(1, 2).movePoly(50, 0);
+
+        double[] bounds = grid.getBounds();
+        for (double[][] cell : grid.getGridCoordinates()) {
+            for (int i = 0; i < cell[0].length; i++) {
+                assertTrue(bounds[0] - EPSILON <= cell[0][i]);
+                assertTrue(bounds[1] - EPSILON <= cell[1][i]);
+                assertTrue(bounds[2] + EPSILON >= cell[0][i]);
+                assertTrue(bounds[3] + EPSILON >= cell[1][i]);
+            }
+        }
+    }
+
+    @Test
+    public void testVersionChangesOnEveryModification() {
+        SlideTransform transform = new SlideTransform();
+        long version = transform.getVersion();
+        transform.translate(0, 0);
+        assertNotEquals(version, transform.getVersion());
+        version = transform.getVersion();
+        transform.rotate(0, Point.of(0, 0));
+        assertNotEquals(version, transform.getVersion());
+        version = transform.getVersion();
+        transform.reset();
+        assertNotEquals(version, transform.getVersion());
+    }
+}
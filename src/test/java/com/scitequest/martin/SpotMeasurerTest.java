@@ -0,0 +1,102 @@
+package com.scitequest.martin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.scitequest.martin.export.Circle;
+import com.scitequest.martin.export.Geometry;
+import com.scitequest.martin.export.Polygon;
+
+import ij.ImagePlus;
+import ij.plugin.filter.Analyzer;
+import ij.process.ByteProcessor;
+import ij.process.FloatProcessor;
+import ij.process.ImageProcessor;
+import ij.process.ImageStatistics;
+import ij.process.ShortProcessor;
+import net.imagej.patcher.LegacyInjector;
+
+public class SpotMeasurerTest {
+
+    static {
+        LegacyInjector.preinit();
+    }
+
+    private static final int WIDTH = 97;
+    private static final int HEIGHT = 61;
+
+    private static List<Geometry> spots() {
+        return List.of(
+                Circle.of(Point.of(20.3, 30.7), 11),
+                Circle.of(Point.of(48.5, 30.5), 18),
+                // Partially outside of the image
+                Circle.of(Point.of(2.0, 58.0), 15),
+                Polygon.ofPolygon(List.of(Point.of(60.2, 10.1), Point.of(80.7, 12.4),
+                        Point.of(90.0, 40.3), Point.of(65.5, 50.9))),
+                Polygon.ofPolygon(List.of(Point.of(90.0, 50.0), Point.of(110.0, 50.0),
+                        Point.of(110.0, 70.0), Point.of(90.0, 70.0))));
+    }
+
+    private static void assertSameStatistics(ImageProcessor iProc) {
+        ImagePlus iPlus = new ImagePlus("test", iProc);
+        SpotMeasurer measurer = SpotMeasurer.of(PixelSnapshot.of(iPlus));
+        for (Geometry spot : spots()) {
+            iPlus.setRoi(SpotMask.toRoi(spot));
+            ImageStatistics expected = iPlus.getStatistics(Analyzer.getMeasurements());
+            iPlus.killRoi();
+
+            ImageStatistics actual = measurer.measure(SpotMask.of(spot, WIDTH, HEIGHT));
+            assertEquals(expected.pixelCount, actual.pixelCount);
+            assertEquals(Double.doubleToLongBits(expected.mean),
+                    Double.doubleToLongBits(actual.mean));
+            assertEquals(Double.doubleToLongBits(expected.min),
+                    Double.doubleToLongBits(actual.min));
+            assertEquals(Double.doubleToLongBits(expected.max),
+                    Double.doubleToLongBits(actual.max));
+            assertEquals(Double.doubleToLongBits(expected.stdDev),
+                    Double.doubleToLongBits(actual.stdDev));
+        }
+    }
+
+    @Test
+    public void testByteImage() {
+        Random random = new Random(42);
+        ByteProcessor iProc = new ByteProcessor(WIDTH, HEIGHT);
+        for (int i = 0; i < WIDTH * HEIGHT; i++) {
+            iProc.set(i, random.nextInt(256));
+        }
+        assertSameStatistics(iProc);
+    }
+
+    @Test
+    public void testShortImage() {
+        Random random = new Random(42);
+        ShortProcessor iProc = new ShortProcessor(WIDTH, HEIGHT);
+        for (int i = 0; i < WIDTH * HEIGHT; i++) {
+            iProc.set(i, random.nextInt(65536));
+        }
+        assertSameStatistics(iProc);
+    }
+
+    @Test
+    public void testFloatImage() {
+        Random random = new Random(42);
+        FloatProcessor iProc = new FloatProcessor(WIDTH, HEIGHT);
+        for (int i = 0; i < WIDTH * HEIGHT; i++) {
+            iProc.setf(i, (float) (random.nextGaussian() * 1000.0));
+        }
+        assertSameStatistics(iProc);
+    }
+
+    @Test
+    public void testMaskIsClippedToImage() {
+        SpotMask mask = SpotMask.of(Circle.of(Point.of(-50.0, -50.0), 10), WIDTH, HEIGHT);
+        assertTrue(mask.isEmpty());
+        assertEquals(0, mask.getRunCount());
+    }
+}
@@ -0,0 +1,419 @@
+package com.scitequest.martin;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import com.scitequest.martin.settings.MaskExt;
+import com.scitequest.martin.settings.MaskSettings;
+import com.scitequest.martin.settings.Settings;
+
+import ij.ImagePlus;
+import ij.process.ByteProcessor;
+import ij.process.FloatProcessor;
+import ij.process.ImageProcessor;
+import ij.process.ShortProcessor;
+
+/**
+ * Generates synthetic slide images with known spot positions and intensities.
+ *
+ * The spots are placed at the measure field positions of a slide mask, shifted
+ * by a random offset that keeps them inside their spot field cell. Every spot is
+ * rendered as an anti-aliased disk with the diameter of the measure field on a
+ * noisy background. By default the spots are darker than the background, as
+ * expected by the default LUT inversion of the measurement settings.
+ */
+public final class SyntheticSlide {
+
+    /** The margin in pixels around the slide. */
+    private static final int MARGIN = 16;
+    /** The number of tries to find a random offset inside the search perimeter. */
+    private static final int MAX_OFFSET_TRIES = 32;
+
+    private final ImagePlus image;
+    private final Settings settings;
+    private final List<Spot> spots;
+
+    private SyntheticSlide(ImagePlus image, Settings settings, List<Spot> spots) {
+        this.image = image;
+        this.settings = settings;
+        this.spots = spots;
+    }
+
+    /**
+     * Generate a synthetic image of a slide.
+     *
+     * The slide is placed like {@link Control#moveSlide} and
+     * {@link Control#rotateSlide} would place it starting from the initial
+     * position.
+     *
+     * @param mask     the mask describing the layout of the slide
+     * @param x        the x position of the slide
+     * @param y        the y position of the slide
+     * @param rotation the rotation of the slide in degrees
+     * @param options  the image and noise options
+     * @return the synthetic slide
+     */
+    public static SyntheticSlide generate(MaskExt mask, int x, int y, double rotation,
+            Options options) {
+        Settings settings = settingsWithMask(mask);
+        SlideMask slide = new SlideMask(settings);
+        slide.repositionSlide();
+        slide.moveSlide(x, y, false);
+        if (rotation != 0) {
+            slide.rotateSlide(rotation, 0, 0, 0, 0, false);
+        }
+
+        double[][] slideCoords = slide.getSlideCoordinates();
+        int width = (int) Math.ceil(max(slideCoords[0])) + MARGIN;
+        int height = (int) Math.ceil(max(slideCoords[1])) + MARGIN;
+
+        Random random = new Random(options.seed);
+        List<Spot> spots = placeSpots(slide, mask, options, random);
+
+        double range = options.bitDepth == 8 ? 255.0 : 65535.0;
+        float[] pixels = new float[width * height];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = (float) (range * (options.background
+                    + options.noise * random.nextGaussian()));
+        }
+        double radius = Math.min(mask.getMeasureFieldWidth(), mask.getMeasureFieldHeight()) / 2.0;
+        double sign = options.darkSpots ? -1.0 : 1.0;
+        for (Spot spot : spots) {
+            renderDisk(pixels, width, height, spot.center, radius,
+                    sign * range * spot.intensity);
+        }
+
+        return new SyntheticSlide(new ImagePlus("synthetic", toProcessor(pixels, width, height,
+                options.bitDepth, range)), settings, Collections.unmodifiableList(spots));
+    }
+
+    /**
+     * Create a mask repeating the spot field layout of a mask on a larger super
+     * grid.
+     *
+     * The spacing between the spot fields is taken from the first spacing of the
+     * mask or 20 pixels if the mask has none.
+     *
+     * @param mask          the mask to repeat
+     * @param superGridCols the number of spot field columns
+     * @param superGridRows the number of spot field rows
+     * @return the larger mask
+     */
+    public static MaskExt tiledMask(MaskExt mask, int superGridCols, int superGridRows) {
+        int vSpacing = mask.getVerticalSpacing().isEmpty()
+                ? 20
+                : mask.getVerticalSpacing().get(0);
+        int hSpacing = mask.getHorizontalSpacing().isEmpty()
+                ? 20
+                : mask.getHorizontalSpacing().get(0);
+        List<Integer> verticalSpacing = Collections.nCopies(superGridCols - 1, vSpacing);
+        List<Integer> horizontalSpacing = Collections.nCopies(superGridRows - 1, hSpacing);
+        int slideWidth = 2 * mask.getxInset() + superGridCols * mask.getSpotFieldWidth()
+                + (superGridCols - 1) * vSpacing;
+        int slideHeight = 2 * mask.getyInset() + superGridRows * mask.getSpotFieldHeight()
+                + (superGridRows - 1) * hSpacing;
+        String name = String.format("%s %dx%d", mask.getName(), superGridCols, superGridRows);
+        return MaskExt.of(name, mask.getDescription(), slideWidth, slideHeight,
+                mask.getxInset(), mask.getyInset(),
+                superGridCols, superGridRows, horizontalSpacing, verticalSpacing,
+                mask.getSpotFieldWidth(), mask.getSpotFieldHeight(),
+                mask.getSpotFieldNRows(), mask.getSpotFieldNColumns(),
+                mask.getShape(), mask.getMeasureFieldWidth(), mask.getMeasureFieldHeight());
+    }
+
+    /**
+     * Get the image.
+     *
+     * @return the image
+     */
+    public ImagePlus getImage() {
+        return image;
+    }
+
+    /**
+     * Get settings with the mask of the slide active and all spots measured.
+     *
+     * @return the settings
+     */
+    public Settings getSettings() {
+        return settings;
+    }
+
+    /**
+     * Get the ground truth of all spots.
+     *
+     * The spots are ordered like the spots of the measurement parameters.
+     *
+     * @return the spots
+     */
+    public List<Spot> getSpots() {
+        return spots;
+    }
+
+    /**
+     * Get the default settings with the given mask active and all spots measured.
+     *
+     * @param mask the mask
+     * @return the settings
+     */
+    public static Settings settingsWithMask(MaskExt mask) {
+        Settings settings = Settings.defaultSettings();
+        MaskSettings maskSettings = settings.getMaskSettings();
+        maskSettings.setMask(maskSettings.getLastUsedMaskIndex(), mask);
+        maskSettings.setLastUsedMaskLastMeasurePointIndexToMax();
+        return settings;
+    }
+
+    private static List<Spot> placeSpots(SlideMask slide, MaskExt mask, Options options,
+            Random random) {
+        List<PolyGrid> spotFields = slide.getSpotFields();
+        List<PolyGrid> measureFields = slide.getMeasureFields();
+        double maxOffsetX = options.offset
+                * (mask.getSpotFieldWidth() / (double) mask.getSpotFieldNColumns()
+                        - mask.getMeasureFieldWidth()) / 2.0;
+        double maxOffsetY = options.offset
+                * (mask.getSpotFieldHeight() / (double) mask.getSpotFieldNRows()
+                        - mask.getMeasureFieldHeight()) / 2.0;
+
+        List<Spot> spots = new ArrayList<>();
+        for (int field = 0; field < measureFields.size(); field++) {
+            PolyGrid measureField = measureFields.get(field);
+            for (int row = 0; row < measureField.getRows(); row++) {
+                for (int col = 0; col < measureField.getColumns(); col++) {
+                    PolyShape measureElement = measureField.getGridElement(row, col);
+                    PolyShape perimeter = spotFields.get(field).getGridElement(row, col)
+                            .shrinkByShape(measureElement);
+                    Point center = measureElement.getShapeCenter();
+                    for (int i = 0; i < MAX_OFFSET_TRIES; i++) {
+                        double cX = center.x + (2 * random.nextDouble() - 1) * maxOffsetX;
+                        double cY = center.y + (2 * random.nextDouble() - 1) * maxOffsetY;
+                        if (perimeter.isClickInsidePoly(cX, cY) != null) {
+                            center = Point.of(cX, cY);
+                            break;
+                        }
+                    }
+                    double intensity = options.minIntensity
+                            + random.nextDouble() * (options.maxIntensity - options.minIntensity);
+                    spots.add(new Spot(field, row, col, center, intensity));
+                }
+            }
+        }
+        return spots;
+    }
+
+    private static void renderDisk(float[] pixels, int width, int height,
+            Point center, double radius, double amplitude) {
+        int x0 = Math.max(0, (int) Math.floor(center.x - radius - 1));
+        int x1 = Math.min(width - 1, (int) Math.ceil(center.x + radius + 1));
+        int y0 = Math.max(0, (int) Math.floor(center.y - radius - 1));
+        int y1 = Math.min(height - 1, (int) Math.ceil(center.y + radius + 1));
+        for (int y = y0; y <= y1; y++) {
+            for (int x = x0; x <= x1; x++) {
+                double dx = x + 0.5 - center.x;
+                double dy = y + 0.5 - center.y;
+                // Linear fall-off over one pixel at the border of the disk
+                double coverage = radius + 0.5 - Math.sqrt(dx * dx + dy * dy);
+                if (coverage > 0) {
+                    pixels[y * width + x] += (float) (amplitude * Math.min(1.0, coverage));
+                }
+            }
+        }
+    }
+
+    private static ImageProcessor toProcessor(float[] pixels, int width, int height,
+            int bitDepth, double range) {
+        switch (bitDepth) {
+            case 8:
+                byte[] bytes = new byte[pixels.length];
+                for (int i = 0; i < pixels.length; i++) {
+                    bytes[i] = (byte) clamp(pixels[i], range);
+                }
+                return new ByteProcessor(width, height, bytes);
+            case 16:
+                short[] shorts = new short[pixels.length];
+                for (int i = 0; i < pixels.length; i++) {
+                    shorts[i] = (short) clamp(pixels[i], range);
+                }
+                return new ShortProcessor(width, height, shorts, null);
+            case 32:
+                return new FloatProcessor(width, height, pixels);
+            default:
+                throw new IllegalArgumentException("Unsupported bit depth " + bitDepth);
+        }
+    }
+
+    private static int clamp(float value, double range) {
+        return (int) Math.round(Math.max(0, Math.min(range, value)));
+    }
+
+    private static double max(double[] values) {
+        double max = 0;
+        for (double value : values) {
+            max = Math.max(max, value);
+        }
+        return max;
+    }
+
+    /**
+     * The ground truth of a single spot.
+     */
+    public static final class Spot {
+        private final int spotfield;
+        private final int row;
+        private final int col;
+        private final Point center;
+        private final double intensity;
+
+        private Spot(int spotfield, int row, int col, Point center, double intensity) {
+            this.spotfield = spotfield;
+            this.row = row;
+            this.col = col;
+            this.center = center;
+            this.intensity = intensity;
+        }
+
+        public int getSpotfield() {
+            return spotfield;
+        }
+
+        public int getRow() {
+            return row;
+        }
+
+        public int getCol() {
+            return col;
+        }
+
+        /**
+         * Get the true center of the spot.
+         *
+         * @return the center in image coordinates
+         */
+        public Point getCenter() {
+            return center;
+        }
+
+        /**
+         * Get the intensity of the spot.
+         *
+         * @return the contrast to the background as a fraction of the value range
+         */
+        public double getIntensity() {
+            return intensity;
+        }
+    }
+
+    /**
+     * The image and noise options of a synthetic slide.
+     *
+     * All intensities are fractions of the value range of the bit depth, which is
+     * 0 to 65535 for 32-bit images.
+     */
+    public static final class Options {
+        private final int bitDepth;
+        private final double background;
+        private final double noise;
+        private final double minIntensity;
+        private final double maxIntensity;
+        private final double offset;
+        private final boolean darkSpots;
+        private final long seed;
+
+        private Options(int bitDepth, double background, double noise,
+                double minIntensity, double maxIntensity, double offset,
+                boolean darkSpots, long seed) {
+            this.bitDepth = bitDepth;
+            this.background = background;
+            this.noise = noise;
+            this.minIntensity = minIntensity;
+            this.maxIntensity = maxIntensity;
+            this.offset = offset;
+            this.darkSpots = darkSpots;
+            this.seed = seed;
+        }
+
+        /**
+         * Get the default options: a 16-bit image with dark spots of 20 to 60 %
+         * contrast on a bright background with 1 % noise.
+         *
+         * @return the default options
+         */
+        public static Options defaults() {
+            return new Options(16, 0.8, 0.01, 0.2, 0.6, 0.8, true, 0);
+        }
+
+        /**
+         * Set the bit depth of the image.
+         *
+         * @param newBitDepth either 8, 16 or 32
+         * @return copied instance
+         */
+        public Options withBitDepth(int newBitDepth) {
+            if (newBitDepth != 8 && newBitDepth != 16 && newBitDepth != 32) {
+                throw new IllegalArgumentException("Unsupported bit depth " + newBitDepth);
+            }
+            return new Options(newBitDepth, background, noise, minIntensity, maxIntensity,
+                    offset, darkSpots, seed);
+        }
+
+        /**
+         * Set the background level and its noise.
+         *
+         * @param newBackground the background level
+         * @param newNoise      the standard deviation of the noise
+         * @return copied instance
+         */
+        public Options withBackground(double newBackground, double newNoise) {
+            return new Options(bitDepth, newBackground, newNoise, minIntensity, maxIntensity,
+                    offset, darkSpots, seed);
+        }
+
+        /**
+         * Set the range the spot intensities are drawn from.
+         *
+         * @param newMinIntensity the minimum intensity
+         * @param newMaxIntensity the maximum intensity
+         * @return copied instance
+         */
+        public Options withIntensity(double newMinIntensity, double newMaxIntensity) {
+            return new Options(bitDepth, background, noise, newMinIntensity, newMaxIntensity,
+                    offset, darkSpots, seed);
+        }
+
+        /**
+         * Set how far spots are moved from the measure field positions.
+         *
+         * @param newOffset the maximum offset as fraction of the free space in the
+         *                  spot field cell, 0 to keep the spots in place
+         * @return copied instance
+         */
+        public Options withOffset(double newOffset) {
+            return new Options(bitDepth, background, noise, minIntensity, maxIntensity,
+                    newOffset, darkSpots, seed);
+        }
+
+        /**
+         * Set whether the spots are darker or brighter than the background.
+         *
+         * @param newDarkSpots true for dark spots
+         * @return copied instance
+         */
+        public Options withDarkSpots(boolean newDarkSpots) {
+            return new Options(bitDepth, background, noise, minIntensity, maxIntensity,
+                    offset, newDarkSpots, seed);
+        }
+
+        /**
+         * Set the seed of the random generator.
+         *
+         * @param newSeed the seed
+         * @return copied instance
+         */
+        public Options withSeed(long newSeed) {
+            return new Options(bitDepth, background, noise, minIntensity, maxIntensity,
+                    offset, darkSpots, newSeed);
+        }
+    }
+}
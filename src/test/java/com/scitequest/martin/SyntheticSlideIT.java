@@ -0,0 +1,107 @@
+package com.scitequest.martin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.scitequest.martin.export.Circle;
+import com.scitequest.martin.export.Geometry;
+import com.scitequest.martin.export.JsonParseException;
+import com.scitequest.martin.settings.MaskExt;
+import com.scitequest.martin.settings.MaskSettings;
+import com.scitequest.martin.settings.MeasurementSettings.FitAlgorithm;
+import com.scitequest.martin.settings.Settings;
+
+import net.imagej.ImageJ;
+import net.imagej.patcher.LegacyInjector;
+
+/**
+ * Checks the autofit against the ground truth of synthetic slides.
+ */
+public class SyntheticSlideIT {
+
+    static {
+        LegacyInjector.preinit();
+    }
+
+    /** The maximum distance of a fitted measure field to its spot. */
+    private static final double MAX_DISTANCE = 2.0;
+
+    private ImageJ ij;
+    private MaskExt mask;
+
+    @Before
+    public void setUp() throws IOException, JsonParseException {
+        ij = new ImageJ();
+        MaskSettings maskSettings = Settings.defaultSettings().getMaskSettings();
+        mask = maskSettings.importMask(Paths.get("src/test/resources/syni_sm67_mask.json"));
+    }
+
+    @After
+    public void tearDown() {
+        if (ij != null) {
+            ij.dispose();
+        }
+    }
+
+    private void assertFitsGroundTruth(SyntheticSlide synthetic, int x, int y, double rotation,
+            FitAlgorithm fitAlgorithm) throws IOException {
+        Settings settings = synthetic.getSettings();
+        settings.getMeasurementSettings().setFitAlgorithm(fitAlgorithm);
+        Control control = Control.headless(ij, synthetic.getImage(), settings);
+        control.repositionSlide();
+        control.moveSlide(x, y);
+        control.rotateSlide(rotation);
+        control.measureFieldFit();
+
+        List<Geometry> fitted = control.getMeasurementParameters().getSpots();
+        List<SyntheticSlide.Spot> expected = synthetic.getSpots();
+        assertEquals(expected.size(), fitted.size());
+        for (int i = 0; i < expected.size(); i++) {
+            SyntheticSlide.Spot spot = expected.get(i);
+            Point center = ((Circle) fitted.get(i)).position;
+            double distance = center.distanceTo(spot.getCenter());
+            assertTrue(String.format("Spot (%d, %d, %d) fitted %.2f pixels off",
+                    spot.getSpotfield(), spot.getRow(), spot.getCol(), distance),
+                    distance <= MAX_DISTANCE);
+        }
+    }
+
+    @Test
+    public void testFitsAllBitDepths() throws IOException {
+        for (int bitDepth : new int[] { 8, 16, 32 }) {
+            SyntheticSlide synthetic = SyntheticSlide.generate(mask, 32, 54, 0.78,
+                    SyntheticSlide.Options.defaults().withBitDepth(bitDepth).withSeed(bitDepth));
+            assertFitsGroundTruth(synthetic, 32, 54, 0.78, FitAlgorithm.HILL_CLIMBING);
+        }
+    }
+
+    @Test
+    public void testFitsTenfoldSpots() throws IOException {
+        MaskExt tiled = SyntheticSlide.tiledMask(mask, 5, 4);
+        SyntheticSlide synthetic = SyntheticSlide.generate(tiled, 20, 30, 0.3,
+                SyntheticSlide.Options.defaults().withSeed(10));
+        assertEquals(10 * 2 * mask.getMaxNumberOfSpotsPerSpotfield(),
+                synthetic.getSpots().size());
+
+        assertFitsGroundTruth(synthetic, 20, 30, 0.3, FitAlgorithm.RESPONSE_MAP);
+    }
+
+    @Test
+    public void testFitsHundredfoldSpots() throws IOException {
+        MaskExt tiled = SyntheticSlide.tiledMask(mask, 20, 10);
+        SyntheticSlide synthetic = SyntheticSlide.generate(tiled, 20, 30, 0.3,
+                SyntheticSlide.Options.defaults().withSeed(100));
+        assertEquals(100 * 2 * mask.getMaxNumberOfSpotsPerSpotfield(),
+                synthetic.getSpots().size());
+
+        assertFitsGroundTruth(synthetic, 20, 30, 0.3, FitAlgorithm.RESPONSE_MAP);
+    }
+}
@@ -0,0 +1,72 @@
+package com.scitequest.martin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+public class TaskMonitorTest {
+
+    @Test
+    public void testReportsEachPercentOnce() {
+        List<Integer> reported = new ArrayList<>();
+        TaskMonitor monitor = TaskMonitor.of(reported::add);
+        monitor.begin(1000);
+        for (int i = 0; i < 1000; i++) {
+            monitor.worked(1);
+        }
+
+        assertEquals(101, reported.size());
+        for (int percent = 0; percent <= 100; percent++) {
+            assertEquals(percent, (int) reported.get(percent));
+        }
+    }
+
+    @Test
+    public void testReportsUnknownProgress() {
+        List<Integer> reported = new ArrayList<>();
+        TaskMonitor monitor = TaskMonitor.of(reported::add);
+        monitor.begin(0);
+        monitor.worked(5);
+
+        assertEquals(List.of(TaskMonitor.UNKNOWN_PROGRESS), reported);
+    }
+
+    @Test
+    public void testReachesCompletionConcurrently() {
+        List<Integer> reported = new ArrayList<>();
+        TaskMonitor monitor = TaskMonitor.of(percent -> {
+            synchronized (reported) {
+                reported.add(percent);
+            }
+        });
+        monitor.begin(10_000);
+        IntStream.range(0, 10_000).parallel().forEach(i -> monitor.worked(1));
+
+        assertEquals(101, reported.size());
+        assertTrue(reported.contains(100));
+    }
+
+    @Test
+    public void testCancel() {
+        TaskMonitor monitor = TaskMonitor.none();
+        monitor.checkCancelled();
+        assertFalse(monitor.isCancelled());
+
+        monitor.cancel();
+        assertTrue(monitor.isCancelled());
+        try {
+            monitor.checkCancelled();
+            fail("Cancelled task has not been stopped");
+        } catch (CancellationException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.scitequest.martin.export;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.scitequest.martin.export.BinaryData.Column;
+import com.scitequest.martin.export.BinaryData.StatisticsColumn;
+
+public class BinaryDataTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final Data DATA = Data.of(List.of(
+            Datapoint.of(Measurepoint.of(0, 0, 0, 1.1, 3.5, 2.4, 6.3), 2.4, 0.8),
+            Datapoint.of(Measurepoint.of(0, 0, 1, 1.2, 3.7, 2.5, 7.0), 2.5, 1),
+            Datapoint.of(Measurepoint.of(1, 0, 0, 2, 4.5, 2.25, 6.3), 2.25, 0.7),
+            Datapoint.of(Measurepoint.of(1, 0, 1, 2, 4.5, 2.25, 6.3), 2.25, 0.7),
+            Datapoint.of(Measurepoint.of(2, 0, 0, 3, 5.5, 4.25, 1.3), 1.25, 0.2),
+            Datapoint.of(Measurepoint.of(2, 0, 1, 3, 6.5, 5.25, 2.3), 2.25, 1)));
+
+    private static ByteBuffer write(Data data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryData.write(Channels.newChannel(out), data, DataStatistics.analyze(data));
+        return ByteBuffer.wrap(out.toByteArray());
+    }
+
+    @Test
+    public void testRoundtrip() throws IOException {
+        BinaryData binary = BinaryData.of(write(DATA));
+
+        assertEquals(DATA, binary.toData());
+        assertEquals(DataStatistics.analyze(DATA), binary.toDataStatistics());
+    }
+
+    @Test
+    public void testReadFile() throws IOException {
+        Path path = folder.newFile("data.bin").toPath();
+        Files.write(path, write(DATA).array());
+        BinaryData binary = BinaryData.read(path);
+
+        assertEquals(DATA, binary.toData());
+        assertEquals(DataStatistics.analyze(DATA), binary.toDataStatistics());
+    }
+
+    @Test
+    public void testColumnAccess() throws IOException {
+        ByteBuffer buffer = write(DATA);
+        // Header, 3 padded integer columns, 6 double columns for both tables
+        assertEquals(16 + 3 * 24 + 6 * 48 + 2 * 8 + 6 * 16, buffer.remaining());
+
+        BinaryData binary = BinaryData.of(buffer);
+        assertEquals(6, binary.getDatapointCount());
+        assertEquals(2, binary.getStatisticsCount());
+        assertEquals(2, binary.getInt(Column.SPOT, 4));
+        assertEquals(1, binary.getInt(Column.COL, 5));
+        assertEquals(5.25, binary.getDouble(Column.MEAN, 5), 0.0);
+        assertEquals(1, binary.getInt(StatisticsColumn.COL, 1));
+        assertEquals(DataStatistics.analyze(DATA).getSpotStatistics().get(1).getRawAvg(),
+                binary.getDouble(StatisticsColumn.ADJUSTED_AVERAGE, 1), 0.0);
+
+        assertThrows(IllegalArgumentException.class, () -> binary.getDouble(Column.SPOT, 0));
+        assertThrows(IllegalArgumentException.class, () -> binary.getInt(Column.MEAN, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> binary.getInt(Column.SPOT, 6));
+    }
+
+    @Test
+    public void testEmptyData() throws IOException {
+        Data empty = Data.of(List.of());
+        BinaryData binary = BinaryData.of(write(empty));
+
+        assertEquals(empty, binary.toData());
+        assertEquals(0, binary.getStatisticsCount());
+    }
+
+    @Test
+    public void testRejectsInvalidFiles() throws IOException {
+        ByteBuffer valid = write(DATA);
+
+        ByteBuffer wrongVersion = ByteBuffer.allocate(valid.remaining())
+                .put(valid.duplicate()).order(ByteOrder.LITTLE_ENDIAN).putInt(4, 2);
+        wrongVersion.flip();
+        assertThrows(IllegalArgumentException.class, () -> BinaryData.of(wrongVersion));
+
+        ByteBuffer truncated = valid.duplicate();
+        truncated.limit(truncated.limit() - 8);
+        assertThrows(IllegalArgumentException.class, () -> BinaryData.of(truncated));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> BinaryData.of(ByteBuffer.wrap("spot\trow\tcol\tmin\tmax".getBytes())));
+    }
+}
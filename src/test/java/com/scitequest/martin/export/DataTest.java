@@ -12,8 +12,11 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import com.fasterxml.jackson.core.exc.StreamReadException;
 import com.fasterxml.jackson.databind.DatabindException;
@@ -21,6 +24,9 @@ import com.scitequest.martin.Const;
 
 public class DataTest {
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     @Test
     public void dataEquals() {
         Data s1 = Data.of(List.of(
@@ -207,6 +213,33 @@ public class DataTest {
         assertEquals(data, Data.fromTsv(data.asTsv()));
     }
 
+    @Test
+    public void testReadTsvData() throws IOException {
+        List<Datapoint> values = List.of(
+                Datapoint.of(Measurepoint.of(0, 0, 0, 1.1, 3.5, 2.4, 6.3), 2.4, 0.8),
+                Datapoint.of(Measurepoint.of(0, 0, 1, 1.2, 3.7, 2.5, 7.0), 2.5, 1),
+                Datapoint.of(Measurepoint.of(1, 0, 0, 2, 4.5, 2.25, 6.3), 2.25, 0.7),
+                Datapoint.of(Measurepoint.of(1, 0, 1, 2, 4.5, 2.25, 6.3), 2.25, 0.7));
+        Data data = Data.of(values);
+
+        Path path = Path.of("src/test/resources/export/data.tsv");
+        assertEquals(data, Data.readTsv(path));
+    }
+
+    @Test
+    public void testReadLargeTsvData() throws IOException {
+        Data data = Data.of(IntStream.range(0, 40_000)
+                .mapToObj(i -> Datapoint.of(Measurepoint.of(i / 100, i / 10 % 10, i % 10,
+                        i * 0.1, i * 0.3, i * 0.2, i / 7.0), i * 0.1, i / 40_000.0))
+                .collect(Collectors.toList()));
+
+        // Large enough to be mapped into memory instead of read
+        Path path = folder.newFile("data.tsv").toPath();
+        Files.writeString(path, data.asTsv());
+        assertTrue(Files.size(path) > 1 << 20);
+        assertEquals(data, Data.readTsv(path));
+    }
+
     @Test
     public void testImportInvalidTsvData() {
         assertThrows(IllegalArgumentException.class, () -> Data.fromTsv("#"));
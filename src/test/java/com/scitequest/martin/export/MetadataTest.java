@@ -5,8 +5,8 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertTrue;
 
-import java.io.FileNotFoundException;
-import java.io.FileReader;
+import java.io.File;
+import java.io.IOException;
 import java.time.Duration;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
@@ -15,11 +15,11 @@ import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
-import javax.json.Json;
-import javax.json.JsonObject;
-
 import org.junit.Test;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.scitequest.martin.Const;
+
 public class MetadataTest {
 
     @Test
@@ -71,7 +71,7 @@ public class MetadataTest {
     }
 
     @Test
-    public void testExportMetadata() throws FileNotFoundException {
+    public void testExportMetadata() throws IOException {
         var datetime = ZonedDateTime.of(2022, 06, 14, 15, 4, 33, 0, ZoneId.of("Europe/Berlin"));
         var project = Optional.of(Project.of("Project Name", "Project Description"));
         Patient patient = Patient.of("AB123", "Benjamin", Set.of("mother", "pregnant"));
@@ -84,13 +84,48 @@ public class MetadataTest {
         Metadata metadata = Metadata.of(datetime, project,
                 patient, image, List.of(incubation));
 
-        String path = "src/test/resources/export/metadata.json";
-        JsonObject expected = Json.createReader(new FileReader(path)).readObject();
-        assertEquals(expected, metadata.asJson());
+        File path = new File("src/test/resources/export/metadata.json");
+        JsonNode expected = Const.mapper.readTree(path);
+        JsonNode actual = Const.mapper.readTree(Const.mapper.writeValueAsString(metadata));
+        assertEquals(expected, actual);
+
+        // The tree comparison ignores the order, which has to stay the same as well
+        assertEquals(List.of("version", "datetime", "patient", "image", "incubations",
+                "project"), fieldNames(actual));
+        assertEquals(List.of("id", "name", "tags"), fieldNames(actual.get("patient")));
+        assertEquals(List.of("created", "imager", "pixel_binning", "exposure_time"),
+                fieldNames(actual.get("image")));
+        JsonNode incubationNode = actual.get("incubations").get(0);
+        assertEquals(List.of("solution", "stock_concentration", "final_concentration",
+                "incubation_time"), fieldNames(incubationNode));
+        assertEquals(List.of("value", "unit"),
+                fieldNames(incubationNode.get("stock_concentration")));
+        assertEquals(List.of("name", "description"), fieldNames(actual.get("project")));
+    }
+
+    @Test
+    public void testIncubationJsonMatchesExport() throws IOException {
+        Incubation incubation = Incubation.of("Potassium",
+                Quantity.fromMicroMolPerLitre(2.3),
+                Quantity.fromPercent(5.8),
+                Duration.ofSeconds(15));
+
+        // The settings and the export share the serializer
+        JsonNode settingsJson = Const.mapper.readTree(incubation.asJson().toString());
+        JsonNode exportJson = Const.mapper.valueToTree(incubation);
+        assertEquals(exportJson, settingsJson);
+        assertEquals(fieldNames(exportJson), fieldNames(settingsJson));
+        assertEquals(incubation, Incubation.fromJson(incubation.asJson()));
+    }
+
+    private static List<String> fieldNames(JsonNode node) {
+        List<String> names = new ArrayList<>();
+        node.fieldNames().forEachRemaining(names::add);
+        return names;
     }
 
     @Test
-    public void testSupportsEmptyProject() {
+    public void testSupportsEmptyProject() throws IOException {
         var datetime = ZonedDateTime.of(2022, 06, 14, 15, 4, 33, 0, ZoneId.of("Europe/Berlin"));
         Optional<Project> project = Optional.empty();
         Patient patient = Patient.of("AB123", "Benjamin", Set.of("mother", "pregnant"));
@@ -103,6 +138,6 @@ public class MetadataTest {
         Metadata metadata = Metadata.of(datetime, project,
                 patient, image, List.of(incubation));
 
-        assertFalse(metadata.asJson().toString().contains("\"project\":"));
+        assertFalse(Const.mapper.writeValueAsString(metadata).contains("\"project\":"));
     }
 }
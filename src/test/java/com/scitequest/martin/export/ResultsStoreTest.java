@@ -0,0 +1,171 @@
+package com.scitequest.martin.export;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.scitequest.martin.export.ResultsStore.Record;
+
+public class ResultsStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final Data DATA = Data.of(List.of(
+            Datapoint.of(Measurepoint.of(0, 0, 0, 1.1, 3.5, 2.4, 6.3), 2.4, 0.8),
+            Datapoint.of(Measurepoint.of(0, 0, 1, 1.2, 3.7, 2.5, 7.0), 2.5, 1),
+            Datapoint.of(Measurepoint.of(1, 0, 0, 2, 4.5, 2.25, 6.3), 2.25, 0.7),
+            Datapoint.of(Measurepoint.of(1, 0, 1, 2, 4.5, 2.25, 6.3), 2.25, 0.7)));
+
+    private Record record(int i) throws IOException {
+        byte[] metadata = String.format("{\"record\":%d}", i).getBytes(StandardCharsets.UTF_8);
+        byte[] parameters = "{}".getBytes(StandardCharsets.UTF_8);
+        byte[] image = new byte[100 * i];
+        image[0] = (byte) i;
+        Path imagePath = folder.getRoot().toPath().resolve(String.format("image-%d.tif", i));
+        Files.write(imagePath, image);
+        return Record.of(metadata, parameters, DATA, DataStatistics.analyze(DATA),
+                "image.tif", imagePath);
+    }
+
+    private static String metadataOf(Record record) {
+        return new String(record.getMetadata(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testAppendAndRead() throws IOException {
+        Path dir = folder.getRoot().toPath().resolve("results");
+        try (ResultsStore store = ResultsStore.open(dir, 1024)) {
+            for (int i = 1; i <= 10; i++) {
+                assertEquals(i - 1, store.append(record(i)));
+            }
+            assertEquals(10, store.size());
+        }
+        // Records are larger than a third of a segment, so most get their own
+        assertTrue(Files.exists(dir.resolve("segment-000005.log")));
+
+        try (ResultsStore store = ResultsStore.open(dir, 1024)) {
+            assertEquals(10, store.size());
+            Record record = store.read(6);
+            assertEquals("{\"record\":7}", metadataOf(record));
+            assertEquals(DATA, record.getBinaryData().toData());
+            assertEquals(DataStatistics.analyze(DATA), record.getBinaryData().toDataStatistics());
+            assertEquals(Optional.of("image.tif"), record.getImageName());
+            assertEquals(700, record.getImageSize());
+
+            Path copy = folder.getRoot().toPath().resolve("copy.tif");
+            record.copyImage(copy);
+            byte[] image = Files.readAllBytes(copy);
+            assertEquals(700, image.length);
+            assertEquals(7, image[0]);
+
+            List<String> scanned = new ArrayList<>();
+            store.forEach(r -> scanned.add(metadataOf(r)));
+            assertEquals(10, scanned.size());
+            assertEquals("{\"record\":10}", scanned.get(9));
+
+            assertThrows(IndexOutOfBoundsException.class, () -> store.read(10));
+        }
+    }
+
+    @Test
+    public void testWithoutImage() throws IOException {
+        try (ResultsStore store = ResultsStore.open(folder.getRoot().toPath())) {
+            store.append(Record.of(new byte[0], new byte[0], DATA, DataStatistics.analyze(DATA)));
+            Record record = store.read(0);
+            assertFalse(record.getImageName().isPresent());
+            assertEquals(0, record.getImageSize());
+            assertThrows(IllegalStateException.class,
+                    () -> record.copyImage(folder.getRoot().toPath().resolve("copy.tif")));
+        }
+    }
+
+    @Test
+    public void testDiscardsTornTail() throws IOException {
+        Path dir = folder.getRoot().toPath().resolve("results");
+        try (ResultsStore store = ResultsStore.open(dir)) {
+            store.append(record(1));
+            store.append(record(2));
+        }
+        // Simulate a crash while appending the third record and its index entry
+        Path segment = dir.resolve("segment-000000.log");
+        Path index = dir.resolve(ResultsStore.INDEX_FILE);
+        long segmentSize = Files.size(segment);
+        long indexSize = Files.size(index);
+        Files.write(segment, new byte[50], StandardOpenOption.APPEND);
+        Files.write(index, new byte[7], StandardOpenOption.APPEND);
+
+        // Readers ignore the torn tail without removing it
+        try (ResultsStore store = ResultsStore.openReadOnly(dir)) {
+            assertEquals(2, store.size());
+            assertEquals("{\"record\":2}", metadataOf(store.read(1)));
+        }
+        assertEquals(segmentSize + 50, Files.size(segment));
+        assertEquals(indexSize + 7, Files.size(index));
+
+        try (ResultsStore store = ResultsStore.open(dir)) {
+            assertEquals(2, store.size());
+            assertEquals(segmentSize, Files.size(segment));
+            assertEquals(indexSize, Files.size(index));
+            assertEquals(2, store.append(record(3)));
+            assertEquals("{\"record\":3}", metadataOf(store.read(2)));
+        }
+    }
+
+    @Test
+    public void testDetectsCorruption() throws IOException {
+        Path dir = folder.getRoot().toPath().resolve("results");
+        try (ResultsStore store = ResultsStore.open(dir)) {
+            store.append(record(1));
+        }
+        try (FileChannel channel = FileChannel.open(dir.resolve("segment-000000.log"),
+                StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] { 'x' }), 20);
+        }
+        try (ResultsStore store = ResultsStore.openReadOnly(dir)) {
+            assertThrows(IllegalArgumentException.class, () -> store.read(0));
+        }
+    }
+
+    @Test
+    public void testSingleWriterManyReaders() throws IOException {
+        Path dir = folder.getRoot().toPath().resolve("results");
+        try (ResultsStore store = ResultsStore.open(dir)) {
+            store.append(record(1));
+            assertThrows(IOException.class, () -> ResultsStore.open(dir));
+            assertTrue(Files.exists(dir.resolve(ResultsStore.LOCK_FILE)));
+            // Only the lock file is locked, so readers can read the index on every platform
+            try (FileChannel index = FileChannel.open(dir.resolve(ResultsStore.INDEX_FILE),
+                    StandardOpenOption.READ)) {
+                index.tryLock(0, Long.MAX_VALUE, true).release();
+            }
+
+            try (ResultsStore reader = ResultsStore.openReadOnly(dir)) {
+                store.append(record(2));
+                // Only the records acknowledged when opening are visible
+                assertEquals(1, reader.size());
+                assertEquals("{\"record\":1}", metadataOf(reader.read(0)));
+                assertThrows(IllegalStateException.class, () -> reader.append(record(3)));
+            }
+        }
+        ResultsStore.open(dir).close();
+        assertThrows(IOException.class,
+                () -> ResultsStore.openReadOnly(folder.getRoot().toPath().resolve("missing")));
+    }
+}
@@ -0,0 +1,103 @@
+package com.scitequest.martin.export;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TsvReaderTest {
+
+    private static TsvReader reader(String s) {
+        return new TsvReader(ByteBuffer.wrap(s.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static void assertSameDouble(double expected, double actual) {
+        assertEquals(Double.doubleToRawLongBits(expected), Double.doubleToRawLongBits(actual));
+    }
+
+    @Test
+    public void testParsesLikeParseDouble() {
+        Random random = new Random(11);
+        List<String> tokens = new ArrayList<>(List.of(
+                "0.0", "-0.0", "1", "-1", ".5", "5.", "0.1", "9007199254740993",
+                "123456789012345678901", "0.30000000000000004", "1.0E-5", "-2.5e3",
+                "NaN", "Infinity", "-Infinity", "+1.5", "0.0000000000000000000001",
+                "0.00000000000000000000001", "4.9E-324", "1.7976931348623157E308"));
+        for (int i = 0; i < 100_000; i++) {
+            switch (i % 3) {
+                case 0:
+                    tokens.add(Double.toString(random.nextDouble() * 65535));
+                    break;
+                case 1:
+                    tokens.add(Double.toString(Double.longBitsToDouble(random.nextLong())));
+                    break;
+                default:
+                    tokens.add(Double.toString(random.nextInt(20_000) / 100.0 - 100.0));
+                    break;
+            }
+        }
+
+        TsvReader reader = reader(String.join("\t", tokens));
+        for (int i = 0; i < tokens.size(); i++) {
+            if (i > 0) {
+                reader.tab();
+            }
+            assertSameDouble(Double.parseDouble(tokens.get(i)), reader.nextDouble());
+        }
+        assertFalse(reader.hasNextLine());
+    }
+
+    @Test
+    public void testParsesLikeParseInt() {
+        String[] tokens = {
+                "0", "-0", "+7", "42", "-42", "999999999", "1000000000",
+                "2147483647", "-2147483648" };
+
+        TsvReader reader = reader(String.join("\n", tokens));
+        for (String token : tokens) {
+            assertEquals(Integer.parseInt(token), reader.nextInt());
+            reader.endLine();
+        }
+        assertFalse(reader.hasNextLine());
+    }
+
+    @Test
+    public void testLineEndings() {
+        TsvReader reader = reader("a\tb\r\n1\t2\r3\t4\n5\t6");
+        reader.header("a\tb");
+        int sum = 0;
+        while (reader.hasNextLine()) {
+            sum += reader.nextInt();
+            reader.tab();
+            sum += reader.nextInt();
+            reader.endLine();
+        }
+        assertEquals(21, sum);
+    }
+
+    @Test
+    public void testRejectsMalformedInput() {
+        assertThrows(IllegalArgumentException.class, () -> reader("a\tc\n").header("a\tb"));
+        assertThrows(IllegalArgumentException.class, () -> reader("a\tb\tc\n").header("a\tb"));
+        assertThrows(IllegalArgumentException.class, () -> reader("").header("a\tb"));
+        assertThrows(IllegalArgumentException.class, () -> reader("2147483648").nextInt());
+        assertThrows(IllegalArgumentException.class, () -> reader("1.5").nextInt());
+        assertThrows(IllegalArgumentException.class, () -> reader("").nextInt());
+        assertThrows(IllegalArgumentException.class, () -> reader("1.2.3").nextDouble());
+        assertThrows(IllegalArgumentException.class, () -> reader("-").nextDouble());
+        assertThrows(IllegalArgumentException.class, () -> reader("1\n").tab());
+        assertThrows(IllegalArgumentException.class, () -> reader("\t1").endLine());
+
+        TsvReader reader = reader("1");
+        reader.nextInt();
+        reader.endLine();
+        assertFalse(reader.hasNextLine());
+    }
+}
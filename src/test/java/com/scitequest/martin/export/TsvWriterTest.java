@@ -0,0 +1,74 @@
+package com.scitequest.martin.export;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TsvWriterTest {
+
+    private static final double[] SPECIAL_DOUBLES = {
+            0.0, -0.0, 1.0, -1.0, 0.1, 1.0e-3, 9.99e-4, 9999999.0, 1.0e7, -1.0e7,
+            12345.678, 65535.0, 1.0e23, 2.0e-323, Double.MIN_VALUE, Double.MAX_VALUE,
+            Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY };
+
+    private static final int[] SPECIAL_INTS = {
+            0, 1, -1, 9, 10, 99, 100, Integer.MAX_VALUE, Integer.MIN_VALUE };
+
+    @Test
+    public void testFormatsLikeToString() throws IOException {
+        Random random = new Random(7);
+        StringBuilder expected = new StringBuilder();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TsvWriter writer = new TsvWriter(Channels.newChannel(out));
+
+        for (double value : SPECIAL_DOUBLES) {
+            expected.append(value).append('\t');
+            writer.value(value).tab();
+        }
+        for (int value : SPECIAL_INTS) {
+            expected.append(value).append('\t');
+            writer.value(value).tab();
+        }
+        // Enough values to fill the buffer several times
+        for (int i = 0; i < 100_000; i++) {
+            double value;
+            switch (i % 4) {
+                case 0:
+                    value = random.nextInt(65536);
+                    break;
+                case 1:
+                    value = random.nextDouble() * 65535;
+                    break;
+                case 2:
+                    value = Double.longBitsToDouble(random.nextLong());
+                    break;
+                default:
+                    value = random.nextInt(20_000) / 100.0 - 100.0;
+                    break;
+            }
+            int spot = random.nextInt();
+            expected.append(spot).append('\t').append(value).append('\n');
+            writer.value(spot).tab().value(value).newline();
+        }
+        writer.flush();
+
+        assertEquals(expected.toString(), out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testWritesLongText() throws IOException {
+        String header = "column\t".repeat(20_000);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TsvWriter writer = new TsvWriter(Channels.newChannel(out));
+        writer.text(header).newline();
+        writer.flush();
+
+        assertEquals(header + "\n", out.toString(StandardCharsets.UTF_8));
+    }
+}
@@ -78,6 +78,21 @@ public class SettingsTest {
         assertEquals(compare, trip);
     }
 
+    @Test
+    public void testCopyIsIndependent() {
+        Settings settings = Settings.defaultSettings();
+        settings.getMaskSettings().addMask(MaskExt.defaultSettings().withName("copied"));
+        Settings copy = settings.copy();
+        assertEquals(settings.getMaskSettings().asJson().toString(),
+                copy.getMaskSettings().asJson().toString());
+
+        copy.getMeasurementSettings().setInvertLut(!copy.getMeasurementSettings().isInvertLut());
+        copy.getMaskSettings().addMask(MaskExt.defaultSettings().withName("copy only"));
+        assertEquals(2, settings.getMaskSettings().getNumberOfMasks());
+        assertEquals(Settings.defaultSettings().getMeasurementSettings().isInvertLut(),
+                settings.getMeasurementSettings().isInvertLut());
+    }
+
     @Test
     public void testExportDirectory() throws IOException {
         ExportSettings exportSettings = ExportSettings.defaultSettings();
@@ -0,0 +1,112 @@
+package com.scitequest.martin.view;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.awt.Color;
+import java.util.Random;
+
+import org.junit.Test;
+
+import ij.gui.PolygonRoi;
+import ij.gui.Roi;
+import ij.process.ByteProcessor;
+import ij.process.FloatPolygon;
+import ij.process.ImageProcessor;
+import ij.process.ShortProcessor;
+import net.imagej.patcher.LegacyInjector;
+
+public class OverlayPenTest {
+
+    static {
+        LegacyInjector.preinit();
+    }
+
+    private static final int WIDTH = 301;
+    private static final int HEIGHT = 199;
+    private static final Color[] COLORS = {
+            Color.RED, Color.GREEN, Color.BLUE, Color.YELLOW, Color.BLACK };
+
+    /** Draws random elements, many of them steep lines or crossing the borders. */
+    private static void drawRandomElements(Drawable pen, long seed) {
+        Random random = new Random(seed);
+        for (int i = 0; i < 200; i++) {
+            pen.setColor(COLORS[random.nextInt(COLORS.length)]);
+            int x = random.nextInt(WIDTH + 40) - 20;
+            int y = random.nextInt(HEIGHT + 40) - 20;
+            switch (i % 4) {
+                case 0:
+                    pen.drawPolygon(
+                            new int[] { x, x + random.nextInt(4), x + random.nextInt(60) },
+                            new int[] { y, y + 1 + random.nextInt(80), y - random.nextInt(9) });
+                    break;
+                case 1:
+                    pen.drawOval(x, y, 1 + random.nextInt(30), 1 + random.nextInt(30));
+                    break;
+                case 2:
+                    pen.drawString("B" + i, x, y);
+                    break;
+                default:
+                    pen.drawPoint(x, y);
+                    break;
+            }
+        }
+    }
+
+    private static Roi rotatedSlide() {
+        FloatPolygon polygon = new FloatPolygon();
+        polygon.addPoint(37, 12);
+        polygon.addPoint(250, 41);
+        polygon.addPoint(231, 180);
+        polygon.addPoint(18, 151);
+        return new PolygonRoi(polygon, Roi.POLYGON);
+    }
+
+    private static void assertSameAsCroppingAfterwards(ImageProcessor image, Roi roi) {
+        ImageProcessor expected = image.duplicate().convertToRGB();
+        drawRandomElements(new ProcessorPen(expected), 42);
+        expected.setRoi(roi);
+        expected = expected.crop();
+
+        OverlayPen pen = new OverlayPen(image.getWidth(), image.getHeight());
+        drawRandomElements(pen, 42);
+        ImageProcessor actual = pen.paintCropped(image, roi);
+
+        assertEquals(expected.getWidth(), actual.getWidth());
+        assertEquals(expected.getHeight(), actual.getHeight());
+        assertArrayEquals((int[]) expected.getPixels(), (int[]) actual.getPixels());
+    }
+
+    @Test
+    public void testShortImage() {
+        Random random = new Random(3);
+        ShortProcessor image = new ShortProcessor(WIDTH, HEIGHT);
+        for (int i = 0; i < WIDTH * HEIGHT; i++) {
+            image.set(i, random.nextInt(65536));
+        }
+        image.setMinAndMax(1000, 40000);
+        assertSameAsCroppingAfterwards(image, rotatedSlide());
+    }
+
+    @Test
+    public void testInvertedByteImage() {
+        Random random = new Random(5);
+        ByteProcessor image = new ByteProcessor(WIDTH, HEIGHT);
+        for (int i = 0; i < WIDTH * HEIGHT; i++) {
+            image.set(i, random.nextInt(256));
+        }
+        image.invertLut();
+        assertSameAsCroppingAfterwards(image, rotatedSlide());
+    }
+
+    @Test
+    public void testSlidePartiallyOutsideOfImage() {
+        FloatPolygon polygon = new FloatPolygon();
+        polygon.addPoint(-40, 120);
+        polygon.addPoint(150, -30);
+        polygon.addPoint(330, 90);
+        polygon.addPoint(140, 240);
+        ShortProcessor image = new ShortProcessor(WIDTH, HEIGHT);
+        assertSameAsCroppingAfterwards(image, new PolygonRoi(polygon, Roi.POLYGON));
+    }
+}